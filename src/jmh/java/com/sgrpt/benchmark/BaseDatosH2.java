@@ -0,0 +1,81 @@
+package com.sgrpt.benchmark;
+
+import com.sgrpt.conexion.ConexionDB;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Base de datos H2 en memoria (modo PostgreSQL) que sustituye a PostgreSQL en los benchmarks.
+ * Crea el esquema con las mismas migraciones que la aplicación y registra el pool en ConexionDB.
+ */
+final class BaseDatosH2 {
+
+    private BaseDatosH2() {
+    }
+
+    static HikariDataSource iniciar(String nombre) throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + nombre + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(8);
+        HikariDataSource dataSource = new HikariDataSource(config);
+
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        ConexionDB.configurar(dataSource);
+        return dataSource;
+    }
+
+    static void cargar(HikariDataSource dataSource, int clientes, int reservas) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            // Los 20 paquetes a los que apuntan las reservas (clave foránea)
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO paquesturistico (nombre, destino, duracion_dias, precio) VALUES (?, ?, ?, ?)")) {
+                for (int i = 0; i < 20; i++) {
+                    ps.setString(1, "Paquete" + i);
+                    ps.setString(2, "Destino" + i % 5);
+                    ps.setInt(3, 3 + i % 7);
+                    ps.setDouble(4, 150.0);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO cliente (nombre, apellido, email, telefono, identificacion) VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < clientes; i++) {
+                    ps.setString(1, "Nombre" + i);
+                    ps.setString(2, "Apellido" + i);
+                    ps.setString(3, "cliente" + i + "@correo.com");
+                    ps.setString(4, "300" + i);
+                    ps.setString(5, "ID" + i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO reserva (fechareserva, estado, idcliente, idpaquete, numpersonas, totalpagar) VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < reservas; i++) {
+                    ps.setDate(1, Date.valueOf("2025-01-01"));
+                    ps.setString(2, i % 3 == 0 ? "Pendiente" : "Confirmada");
+                    ps.setInt(3, 1 + i % Math.max(1, clientes));
+                    ps.setInt(4, 1 + i % 20);
+                    ps.setInt(5, 1 + i % 4);
+                    ps.setDouble(6, 150.0 * (1 + i % 4));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.sgrpt.benchmark;
+
+import com.sgrpt.modelo.AgregadoReservas;
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.servicio.ColumnasReservas;
+import com.sgrpt.servicio.ColumnasReservas.Agrupacion;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Tiempo de una consulta de análisis (ingresos por paquete de las reservas "Confirmada" de un año)
+ * sobre List&lt;Reserva&gt; (bucle con HashMap y Stream paralelo) frente a ColumnasReservas (secuencial y
+ * fork/join). La memoria de cada representación la mide ComparacionColumnas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class ColumnasBenchmark {
+
+    @Param({ "1000000" })
+    public int filas;
+
+    private static final Date DESDE = Date.valueOf("2025-01-01");
+    private static final Date HASTA = Date.valueOf("2025-12-31");
+
+    private List<Reserva> lista;
+    private ColumnasReservas columnas;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        lista = ComparacionColumnas.generar(filas);
+        columnas = new ColumnasReservas(filas);
+        lista.forEach(columnas::agregar);
+        columnas.publicar();
+    }
+
+    @Benchmark
+    public Map<Integer, Double> listaBucle() {
+        Map<Integer, Double> ingresos = new HashMap<>();
+        for (Reserva reserva : lista) {
+            if ("Confirmada".equals(reserva.getEstado()) && !reserva.getFechaReserva().before(DESDE)
+                    && !reserva.getFechaReserva().after(HASTA)) {
+                ingresos.merge(reserva.getIdPaquete(), reserva.getTotalPagar(), Double::sum);
+            }
+        }
+        return ingresos;
+    }
+
+    @Benchmark
+    public Map<Integer, Double> listaStreamParalelo() {
+        return lista.parallelStream()
+                    .filter(reserva -> "Confirmada".equals(reserva.getEstado()) && !reserva.getFechaReserva().before(DESDE)
+                                       && !reserva.getFechaReserva().after(HASTA))
+                    .collect(Collectors.groupingByConcurrent(Reserva::getIdPaquete,
+                                                             Collectors.summingDouble(Reserva::getTotalPagar)));
+    }
+
+    @Benchmark
+    public List<AgregadoReservas> columnasSecuencial() {
+        return columnas.agrupar(Agrupacion.PAQUETE, DESDE, HASTA, null, "Confirmada", false);
+    }
+
+    @Benchmark
+    public List<AgregadoReservas> columnasParalelo() {
+        return columnas.agrupar(Agrupacion.PAQUETE, DESDE, HASTA, null, "Confirmada", true);
+    }
+}
@@ -0,0 +1,190 @@
+package com.sgrpt.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compara el arranque de la aplicación en cada modo del build de producción (mvn -Pproduccion package):
+ * - jar:          el jar ejecutable tal cual (clases anidadas, sin AOT), como se desplegaba hasta ahora.
+ * - extraido:     la aplicación extraída (jar + lib/), sin AOT.
+ * - aot:          extraída y con -Dspring.aot.enabled=true.
+ * - aot+cds:      además con el archivo CDS (app.jsa) de las clases del arranque.
+ * - produccion:   además con el perfil 'produccion' (inicialización perezosa); el modo recomendado.
+ * Para cada arranque mide el tiempo hasta la primera respuesta 200 de GET /api/v1/paquetes (desde que se
+ * lanza el proceso, incluida la creación perezosa de lo que esa petición usa), el "Started App in" de
+ * Spring y la memoria residente (VmRSS de /proc, solo Linux) tras esa primera respuesta.
+ * Por defecto contra H2 en memoria (modo PostgreSQL); con SGRPT_DB_URL definida, contra esa base de datos.
+ *
+ * Ejecutar: mvn -Pproduccion package -DskipTests && mvn -Pbenchmark compile exec:exec@arranque
+ * Argumentos (-Darranque.args="..."): jarEjecutable, directorioProduccion, repeticiones
+ * Logs de cada arranque en target/arranque/.
+ */
+public class ComparacionArranque {
+
+    private static final String MAIN = "com.sgrpt.app.App";
+    private static final Pattern STARTED = Pattern.compile("Started App in ([0-9.]+) seconds");
+    private static final long TIMEOUT_MS = 180_000;
+
+    private record Modo(String nombre, List<String> comando) {
+    }
+
+    private record Medida(long primeraPeticionMs, double startedS, long rssKb) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(args.length > 0 ? args[0] : "target/sgrpt-modulo-reservas-0.0.1-SNAPSHOT.jar");
+        Path directorio = Path.of(args.length > 1 ? args[1] : "target/produccion");
+        int repeticiones = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Path extraido = directorio.resolve(jar.getFileName());
+        Path archivo = directorio.resolve("app.jsa");
+        for (Path requerido : List.of(jar, extraido, archivo)) {
+            if (!Files.exists(requerido)) {
+                throw new IllegalStateException("No existe " + requerido + ": antes ejecutar mvn -Pproduccion package");
+            }
+        }
+        // H2 se añade al final del classpath: el archivo CDS sigue siendo válido (su classpath es un prefijo)
+        Path h2 = Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = extraido + File.pathSeparator + h2;
+
+        List<Modo> modos = List.of(
+            new Modo("jar", List.of(java, "-cp", jar.toString(), "-Dloader.path=" + h2, "-Dloader.main=" + MAIN,
+                                    "org.springframework.boot.loader.launch.PropertiesLauncher")),
+            new Modo("extraido", List.of(java, "-cp", classpath, MAIN)),
+            new Modo("aot", List.of(java, "-Dspring.aot.enabled=true", "-cp", classpath, MAIN)),
+            new Modo("aot+cds", List.of(java, "-XX:SharedArchiveFile=" + archivo, "-Xlog:cds=off",
+                                        "-Dspring.aot.enabled=true", "-cp", classpath, MAIN)),
+            new Modo("produccion", List.of(java, "-XX:SharedArchiveFile=" + archivo, "-Xlog:cds=off",
+                                           "-Dspring.aot.enabled=true", "-Dspring.profiles.active=produccion",
+                                           "-cp", classpath, MAIN)));
+
+        Path logs = Path.of("target", "arranque");
+        Files.createDirectories(logs);
+        System.out.printf("repeticiones=%d, base de datos=%s, JDK %s%n", repeticiones,
+                          System.getenv("SGRPT_DB_URL") != null ? System.getenv("SGRPT_DB_URL") : "H2 en memoria",
+                          Runtime.version());
+
+        // Calentamiento: caché de ficheros del sistema operativo
+        arrancar(modos.get(1), logs.resolve("calentamiento.log"));
+
+        List<List<Medida>> resultados = new ArrayList<>();
+        for (Modo modo : modos) {
+            resultados.add(new ArrayList<>());
+        }
+        // Modos intercalados en cada ronda: una perturbación puntual de la máquina no penaliza a uno solo
+        for (int r = 1; r <= repeticiones; r++) {
+            for (int m = 0; m < modos.size(); m++) {
+                Modo modo = modos.get(m);
+                Medida medida = arrancar(modo, logs.resolve(modo.nombre().replace('+', '-') + "-" + r + ".log"));
+                resultados.get(m).add(medida);
+                System.out.printf(Locale.ROOT, "ronda %d %-11s primera petición %5d ms, Started %5.2f s, RSS %4d MB%n",
+                                  r, modo.nombre(), medida.primeraPeticionMs(), medida.startedS(), medida.rssKb() / 1024);
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-11s %22s %22s %12s%n", "modo", "1ª petición (mediana)", "1ª petición (mínimo)",
+                          "RSS (med.)");
+        long base = mediana(resultados.get(0), Medida::primeraPeticionMs);
+        for (int m = 0; m < modos.size(); m++) {
+            List<Medida> medidas = resultados.get(m);
+            long mediana = mediana(medidas, Medida::primeraPeticionMs);
+            long minimo = medidas.stream().mapToLong(Medida::primeraPeticionMs).min().orElse(0);
+            long rss = mediana(medidas, Medida::rssKb);
+            System.out.printf(Locale.ROOT, "%-11s %14d ms (x%.2f) %19d ms %9s MB%n", modos.get(m).nombre(), mediana,
+                              (double) base / mediana, minimo, rss < 0 ? "n/d" : Long.toString(rss / 1024));
+        }
+    }
+
+    private static Medida arrancar(Modo modo, Path log) throws Exception {
+        int puerto;
+        try (ServerSocket libre = new ServerSocket(0)) {
+            puerto = libre.getLocalPort();
+        }
+        List<String> comando = new ArrayList<>(modo.comando());
+        comando.add("--server.port=" + puerto);
+        if (System.getenv("SGRPT_DB_URL") == null) {
+            comando.addAll(Arrays.asList(
+                "--spring.datasource.url=jdbc:h2:mem:sgrpt;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.data-source-properties.reWriteBatchedInserts="));
+        }
+
+        HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/v1/paquetes"))
+                                          .timeout(Duration.ofSeconds(30)).GET().build();
+
+        long inicio = System.nanoTime();
+        Process proceso = new ProcessBuilder(comando).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            while (true) {
+                if (!proceso.isAlive()) {
+                    throw new IllegalStateException("El modo " + modo.nombre() + " terminó al arrancar (código "
+                                                    + proceso.exitValue() + "), ver " + log);
+                }
+                if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) > TIMEOUT_MS) {
+                    throw new IllegalStateException("El modo " + modo.nombre() + " no respondió en " + TIMEOUT_MS
+                                                    + " ms, ver " + log);
+                }
+                try {
+                    if (cliente.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (IOException e) {
+                    // Todavía no escucha
+                }
+                Thread.sleep(10);
+            }
+            long primeraPeticionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            return new Medida(primeraPeticionMs, started(log), rss(proceso.pid()));
+        } finally {
+            proceso.destroy();
+            if (!proceso.waitFor(30, TimeUnit.SECONDS)) {
+                proceso.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static double started(Path log) throws IOException {
+        Matcher m = STARTED.matcher(Files.readString(log));
+        return m.find() ? Double.parseDouble(m.group(1)) : -1;
+    }
+
+    // VmRSS en kB, o -1 fuera de Linux
+    private static long rss(long pid) {
+        try {
+            for (String linea : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (linea.startsWith("VmRSS:")) {
+                    return Long.parseLong(linea.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Sin /proc
+        }
+        return -1;
+    }
+
+    private static long mediana(List<Medida> medidas, ToLongFunction<Medida> valor) {
+        long[] valores = medidas.stream().mapToLong(valor).sorted().toArray();
+        return valores.length == 0 ? 0 : valores[valores.length / 2];
+    }
+}
@@ -0,0 +1,112 @@
+package com.sgrpt.benchmark;
+
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.servicio.ColumnasReservas;
+import com.sgrpt.servicio.ColumnasReservas.Agrupacion;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Memoria retenida y tiempo de consulta de N reservas como List&lt;Reserva&gt; (como las devuelve
+ * ReservaDAO.obtenerTodos: un Date y un String nuevos por fila) frente a ColumnasReservas.
+ * La memoria se mide como la diferencia de heap usado tras forzar el GC, con la estructura viva.
+ *
+ * Ejecutar: mvn -Pbenchmark compile exec:exec@columnas
+ * Argumentos (-Dcolumnas.args="..."): filas, repeticiones
+ */
+public class ComparacionColumnas {
+
+    private static final String[] ESTADOS = { "Confirmada", "Pendiente", "Cancelada" };
+    private static final LocalDate PRIMER_DIA = LocalDate.of(2024, 1, 1);
+
+    public static void main(String[] args) {
+        int filas = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        Date desde = Date.valueOf("2025-01-01");
+        Date hasta = Date.valueOf("2025-12-31");
+
+        // Primero las columnas, cargadas fila a fila sin lista intermedia
+        long base = heapUsado();
+        ColumnasReservas columnas = new ColumnasReservas(filas);
+        for (int i = 0; i < filas; i++) {
+            columnas.agregar(reserva(i));
+        }
+        columnas.publicar();
+        long bytesColumnas = heapUsado() - base;
+
+        base = heapUsado();
+        List<Reserva> lista = generar(filas);
+        long bytesLista = heapUsado() - base;
+
+        // Consulta equivalente sobre la lista: ingresos por paquete de las confirmadas del rango
+        double msLista = medir(repeticiones, () -> {
+            Map<Integer, Double> ingresos = new HashMap<>();
+            for (Reserva reserva : lista) {
+                if ("Confirmada".equals(reserva.getEstado()) && !reserva.getFechaReserva().before(desde)
+                        && !reserva.getFechaReserva().after(hasta)) {
+                    ingresos.merge(reserva.getIdPaquete(), reserva.getTotalPagar(), Double::sum);
+                }
+            }
+            return ingresos;
+        });
+
+        double msSecuencial = medir(repeticiones, () -> columnas.agrupar(Agrupacion.PAQUETE, desde, hasta, null, "Confirmada", false));
+        double msParalelo = medir(repeticiones, () -> columnas.agrupar(Agrupacion.PAQUETE, desde, hasta, null, "Confirmada", true));
+
+        System.out.printf(Locale.ROOT, "filas=%d, procesadores=%d%n", filas, Runtime.getRuntime().availableProcessors());
+        System.out.printf(Locale.ROOT, "List<Reserva>       memoria=%8.1f MB (%5.1f B/fila)  consulta=%8.2f ms%n",
+                          bytesLista / 1e6, (double) bytesLista / filas, msLista);
+        System.out.printf(Locale.ROOT, "ColumnasReservas    memoria=%8.1f MB (%5.1f B/fila)  secuencial=%8.2f ms  paralelo=%8.2f ms%n",
+                          bytesColumnas / 1e6, (double) bytesColumnas / filas, msSecuencial, msParalelo);
+        System.out.printf(Locale.ROOT, "Memoria: x%.1f menor, consulta: x%.1f (paralelo)%n",
+                          (double) bytesLista / bytesColumnas, msLista / msParalelo);
+        // Ambas estructuras deben seguir vivas durante las mediciones de memoria
+        Reference.reachabilityFence(lista);
+        Reference.reachabilityFence(columnas);
+    }
+
+    /**
+     * Reservas sintéticas con id creciente: 5.000 clientes, 200 paquetes, fechas de 2024 a 2026.
+     */
+    static List<Reserva> generar(int filas) {
+        List<Reserva> lista = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            lista.add(reserva(i));
+        }
+        return lista;
+    }
+
+    // Como las crea ReservaDAO.mapear: un Date y un String propios por fila
+    private static Reserva reserva(int i) {
+        int personas = 1 + i % 4;
+        return new Reserva(i + 1, Date.valueOf(PRIMER_DIA.plusDays((i * 7L) % 1096)), new String(ESTADOS[i % ESTADOS.length]),
+                           1 + i % 5_000, 1 + (i * 31) % 200, personas, 149.99 * personas);
+    }
+
+    private static double medir(int repeticiones, Supplier<Object> consulta) {
+        for (int i = 0; i < Math.max(3, repeticiones / 4); i++) {
+            consulta.get(); // Calentamiento
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            consulta.get();
+        }
+        return (System.nanoTime() - inicio) / 1e6 / repeticiones;
+    }
+
+    private static long heapUsado() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
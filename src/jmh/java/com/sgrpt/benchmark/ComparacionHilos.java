@@ -0,0 +1,133 @@
+package com.sgrpt.benchmark;
+
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.dao.ReservaDAO;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara hilos de plataforma (pool acotado, como el de Tomcat) con hilos virtuales bajo carga
+ * dominada por E/S. Cada "petición" simula una espera de E/S externa y después lee una página
+ * de reservas con ReservaDAO (manteniendo la conexión durante una consulta lenta simulada).
+ * En modo virtual se activa el limitador de conexiones de ConexionDB.
+ * Si el tiempo con la conexión ocupada domina sobre la E/S externa, ambos modos quedan limitados
+ * por el tamaño del pool y los hilos virtuales no aportan throughput.
+ *
+ * Ejecutar: mvn -Pbenchmark compile exec:exec@hilos
+ * Argumentos (-Dhilos.args="..."): peticiones, hilosPlataforma, esperaExternaMs, consultaMs, conexiones
+ */
+public class ComparacionHilos {
+
+    public static void main(String[] args) throws Exception {
+        int peticiones = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int hilosPlataforma = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int esperaExternaMs = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int consultaMs = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        int conexiones = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+
+        HikariDataSource dataSource = BaseDatosH2.iniciar("hilos");
+        dataSource.setMaximumPoolSize(conexiones);
+        BaseDatosH2.cargar(dataSource, 100, 5_000);
+        ReservaDAO dao = new ReservaDAO();
+
+        System.out.printf("peticiones=%d, E/S externa=%d ms, consulta=%d ms, conexiones=%d%n",
+                          peticiones, esperaExternaMs, consultaMs, conexiones);
+
+        // Calentamiento
+        ejecutar("calentamiento", Executors.newFixedThreadPool(hilosPlataforma), dao, peticiones / 10, esperaExternaMs, consultaMs);
+
+        Resultado plataforma = ejecutar("plataforma(" + hilosPlataforma + ")",
+                                        Executors.newFixedThreadPool(hilosPlataforma), dao, peticiones, esperaExternaMs, consultaMs);
+
+        ConexionDB.configurarLimitador(conexiones, 30_000);
+        Resultado virtuales = ejecutar("virtuales", Executors.newVirtualThreadPerTaskExecutor(), dao, peticiones, esperaExternaMs, consultaMs);
+
+        System.out.println();
+        System.out.println(plataforma);
+        System.out.println(virtuales);
+        System.out.printf(Locale.ROOT, "Mejora de throughput: x%.2f, p99: %.1f ms -> %.1f ms%n",
+                          virtuales.throughput / plataforma.throughput, plataforma.p99, virtuales.p99);
+        dataSource.close();
+    }
+
+    private static Resultado ejecutar(String modo, ExecutorService ejecutor, ReservaDAO dao, int peticiones,
+                                      int esperaExternaMs, int consultaMs) throws Exception {
+        long[] latencias = new long[peticiones];
+        List<Future<?>> futuros = new ArrayList<>(peticiones);
+        long inicio = System.nanoTime();
+
+        for (int i = 0; i < peticiones; i++) {
+            int indice = i;
+            long encolada = System.nanoTime();
+            futuros.add(ejecutor.submit(() -> {
+                dormir(esperaExternaMs); // E/S fuera de la base de datos (otro servicio, red, etc.)
+                dao.obtenerPagina(indice % 4_000, 20);
+                try {
+                    Connection conn = ConexionDB.obtenerConexion();
+                    try {
+                        dormir(consultaMs); // Consulta lenta: la conexión queda ocupada
+                    } finally {
+                        conn.close();
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                latencias[indice] = System.nanoTime() - encolada;
+                return null;
+            }));
+        }
+        for (Future<?> futuro : futuros) {
+            futuro.get();
+        }
+        long duracion = System.nanoTime() - inicio;
+        ejecutor.shutdown();
+        ejecutor.awaitTermination(1, TimeUnit.MINUTES);
+        return new Resultado(modo, peticiones, duracion, latencias);
+    }
+
+    private static void dormir(int ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Resultado {
+        final String modo;
+        final double throughput;
+        final double p50;
+        final double p99;
+        final double max;
+
+        Resultado(String modo, int peticiones, long duracionNanos, long[] latencias) {
+            long[] ordenadas = latencias.clone();
+            Arrays.sort(ordenadas);
+            this.modo = modo;
+            this.throughput = peticiones / (duracionNanos / 1e9);
+            this.p50 = percentil(ordenadas, 0.50);
+            this.p99 = percentil(ordenadas, 0.99);
+            this.max = ordenadas[ordenadas.length - 1] / 1e6;
+        }
+
+        private static double percentil(long[] ordenadas, double p) {
+            return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-16s throughput=%9.1f pet/s  p50=%8.1f ms  p99=%8.1f ms  max=%8.1f ms",
+                                 modo, throughput, p50, p99, max);
+        }
+    }
+}
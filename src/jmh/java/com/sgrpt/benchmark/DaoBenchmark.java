@@ -0,0 +1,116 @@
+package com.sgrpt.benchmark;
+
+import com.sgrpt.dao.ClienteDAO;
+import com.sgrpt.dao.ReservaDAO;
+import com.sgrpt.modelo.Cliente;
+import com.sgrpt.modelo.Pagina;
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.modelo.ResultadoEscritura;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rutas de inserción, lectura completa y actualización de ReservaDAO y ClienteDAO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    @Param({ "1000" })
+    public int filas;
+
+    private HikariDataSource dataSource;
+    private final ReservaDAO reservaDAO = new ReservaDAO();
+    private final ClienteDAO clienteDAO = new ClienteDAO();
+    private List<Reserva> lote;
+    private int contador;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        dataSource = BaseDatosH2.iniciar("dao");
+        BaseDatosH2.cargar(dataSource, filas, filas);
+        lote = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lote.add(nuevaReserva(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        dataSource.close();
+    }
+
+    // [Comentario]: Las escrituras de reservas solo son públicas con la conexión del llamador (las usa el motor
+    //               de cupos en su transacción); aquí, una conexión del pool en autocommit.
+    @Benchmark
+    public int insertarReserva() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            return reservaDAO.insertar(conn, nuevaReserva(contador++));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public List<Reserva> insertarLoteReservas() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            reservaDAO.insertarLote(conn, lote);
+        }
+        return lote;
+    }
+
+    @Benchmark
+    public List<Reserva> obtenerTodasReservas() {
+        return reservaDAO.obtenerTodos();
+    }
+
+    @Benchmark
+    public long recorrerTodasReservas(Blackhole bh) {
+        return reservaDAO.recorrerTodos(ReservaDAO.TAMANO_FETCH_POR_DEFECTO, bh::consume);
+    }
+
+    @Benchmark
+    public Pagina<Reserva> obtenerPaginaReservas() {
+        return reservaDAO.obtenerPagina(filas / 2, 50);
+    }
+
+    @Benchmark
+    public ResultadoEscritura<Reserva> actualizarReserva() {
+        int n = contador++;
+        return reservaDAO.actualizarParcial(1 + n % filas, Map.of("totalPagar", 150.0 * (1 + n % 4)), null);
+    }
+
+    @Benchmark
+    public boolean insertarCliente() {
+        int n = contador++;
+        return clienteDAO.insertar(new Cliente("Nombre" + n, "Apellido" + n, "b" + n + "@correo.com", "311" + n, "B" + n));
+    }
+
+    @Benchmark
+    public List<Cliente> obtenerTodosClientes() {
+        return clienteDAO.obtenerTodos();
+    }
+
+    @Benchmark
+    public ResultadoEscritura<Cliente> actualizarCliente() {
+        int n = contador++;
+        return clienteDAO.actualizarParcial(1 + n % filas, Map.of("nombre", "Nombre" + n, "apellido", "Apellido" + n,
+                                                                 "email", "c" + n + "@correo.com", "telefono", "312" + n), null);
+    }
+
+    private static Reserva nuevaReserva(int n) {
+        return new Reserva(Date.valueOf("2025-02-01"), "Pendiente", 1 + n % 50, 1 + n % 20, 1 + n % 4, 150.0 * (1 + n % 4));
+    }
+}
@@ -0,0 +1,50 @@
+package com.sgrpt.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sgrpt.modelo.Pagina;
+import com.sgrpt.modelo.PaqueteTuristico;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización Jackson de listas de PaqueteTuristico (respuesta de GET /api/v1/paquetes).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({ "20", "1000" })
+    public int paquetes;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private List<PaqueteTuristico> lista;
+    private Pagina<PaqueteTuristico> pagina;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        lista = new ArrayList<>(paquetes);
+        for (int i = 0; i < paquetes; i++) {
+            lista.add(new PaqueteTuristico(i + 1, "Paquete " + i, "Descripción del paquete turístico número " + i,
+                                           "Destino" + (i % 25), 1 + i % 14, 99.9 + i));
+        }
+        pagina = new Pagina<>(lista, paquetes, paquetes);
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(lista);
+    }
+
+    @Benchmark
+    public byte[] serializarPagina() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(pagina);
+    }
+}
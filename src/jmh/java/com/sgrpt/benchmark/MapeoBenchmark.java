@@ -0,0 +1,75 @@
+package com.sgrpt.benchmark;
+
+import com.sgrpt.dao.ClienteDAO;
+import com.sgrpt.dao.ReservaDAO;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión fila → modelo (ReservaDAO.mapear / ClienteDAO.mapear) sobre un ResultSet en memoria,
+ * sin el coste de la consulta, para aislar lo que cuesta crear cada Reserva / Cliente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapeoBenchmark {
+
+    @Param({ "1000" })
+    public int filas;
+
+    private SimpleResultSet reservas;
+    private SimpleResultSet clientes;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        reservas = new SimpleResultSet();
+        reservas.setAutoClose(false);
+        reservas.addColumn("idReserva", Types.INTEGER, 10, 0);
+        reservas.addColumn("fechaReserva", Types.DATE, 10, 0);
+        reservas.addColumn("estado", Types.VARCHAR, 20, 0);
+        reservas.addColumn("idCliente", Types.INTEGER, 10, 0);
+        reservas.addColumn("idPaquete", Types.INTEGER, 10, 0);
+        reservas.addColumn("numPersonas", Types.INTEGER, 10, 0);
+        reservas.addColumn("totalPagar", Types.DOUBLE, 17, 0);
+
+        clientes = new SimpleResultSet();
+        clientes.setAutoClose(false);
+        clientes.addColumn("idCliente", Types.INTEGER, 10, 0);
+        clientes.addColumn("nombre", Types.VARCHAR, 100, 0);
+        clientes.addColumn("apellido", Types.VARCHAR, 100, 0);
+        clientes.addColumn("email", Types.VARCHAR, 150, 0);
+        clientes.addColumn("telefono", Types.VARCHAR, 30, 0);
+        clientes.addColumn("identificacion", Types.VARCHAR, 30, 0);
+
+        Date fecha = Date.valueOf("2025-01-01");
+        for (int i = 0; i < filas; i++) {
+            reservas.addRow(i + 1, fecha, "Confirmada", 1 + i % 100, 1 + i % 20, 1 + i % 4, 150.0 * (1 + i % 4));
+            clientes.addRow(i + 1, "Nombre" + i, "Apellido" + i, "cliente" + i + "@correo.com", "300" + i, "ID" + i);
+        }
+    }
+
+    @Benchmark
+    public void mapearReservas(Blackhole bh) throws SQLException {
+        reservas.beforeFirst();
+        while (reservas.next()) {
+            bh.consume(ReservaDAO.mapear(reservas));
+        }
+    }
+
+    @Benchmark
+    public void mapearClientes(Blackhole bh) throws SQLException {
+        clientes.beforeFirst();
+        while (clientes.next()) {
+            bh.consume(ClienteDAO.mapear(clientes));
+        }
+    }
+}
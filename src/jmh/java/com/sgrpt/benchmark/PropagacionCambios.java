@@ -0,0 +1,251 @@
+package com.sgrpt.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.tools.Server;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Propagación de cambios entre nodos (tabla cambio + FeedCambios): arranca varias instancias de la aplicación
+ * (mismo classpath) sobre una misma base de datos, escribe por una y mide cuánto tarda en verse en las demás.
+ * Cada ronda: GET /paquetes/{id} en todos los nodos (queda en la caché del catálogo de cada uno), PUT del
+ * paquete por un nodo (rotando) y GET en los demás cada pocos ms hasta que devuelven el nombre nuevo. Sin el
+ * feed, los demás nodos seguirían sirviendo el paquete de su caché hasta que caducara (ttl-segundos).
+ * Por defecto con un servidor H2 TCP en este proceso (base en memoria compartida, modo PostgreSQL) y
+ * sondeo cada 100 ms; con SGRPT_DB_URL (SGRPT_DB_USUARIO, SGRPT_DB_CLAVE) definida, contra esa base de
+ * datos: en PostgreSQL los nodos usan LISTEN/NOTIFY y la propagación no depende del sondeo.
+ * Si el p95 supera el presupuesto o algún cambio no llega termina con código 1.
+ *
+ * Ejecutar: mvn -Pbenchmark compile exec:exec@cambios
+ * Argumentos clave=valor (-Dcambios.args="..."), con sus valores por defecto:
+ *   nodos=2 rondas=50 pausa=100 (ms entre rondas) p95=1000 (ms) espera=30 (s máximos por cambio)
+ *   app.<propiedad>=<valor> (opcional, se pasa como --<propiedad>=<valor> a cada nodo)
+ * Logs de cada nodo en target/cambios/.
+ */
+public class PropagacionCambios {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final Map<String, String> args = new LinkedHashMap<>();
+    private final HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5))
+                                                 .version(HttpClient.Version.HTTP_1_1).build();
+
+    private PropagacionCambios(String[] argumentos) {
+        for (String arg : argumentos) {
+            int igual = arg.indexOf('=');
+            if (igual <= 0) {
+                throw new IllegalArgumentException("Argumento sin clave=valor: " + arg);
+            }
+            args.put(arg.substring(0, igual), arg.substring(igual + 1));
+        }
+    }
+
+    private int entero(String clave, int porDefecto) {
+        return Integer.parseInt(args.getOrDefault(clave, Integer.toString(porDefecto)));
+    }
+
+    public static void main(String[] argumentos) throws Exception {
+        PropagacionCambios prueba = new PropagacionCambios(argumentos);
+        Path directorio = Path.of("target", "cambios");
+        Files.createDirectories(directorio);
+
+        int numNodos = Math.max(2, prueba.entero("nodos", 2));
+        Server h2 = null;
+        List<Process> procesos = new ArrayList<>();
+        boolean cumplido;
+        try {
+            String urlBase = null;
+            if (System.getenv("SGRPT_DB_URL") == null) {
+                h2 = Server.createTcpServer("-tcpPort", Integer.toString(puertoLibre()), "-ifNotExists").start();
+                urlBase = "jdbc:h2:tcp://localhost:" + h2.getPort() + "/mem:cambios;MODE=PostgreSQL;"
+                          + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+            }
+            // Uno tras otro: el primero aplica las migraciones
+            List<String> nodos = new ArrayList<>();
+            for (int i = 0; i < numNodos; i++) {
+                int puerto = puertoLibre();
+                procesos.add(prueba.arrancarNodo(i, puerto, urlBase, directorio.resolve("nodo-" + i + ".log")));
+                nodos.add("http://localhost:" + puerto);
+            }
+            System.out.printf("%d nodos sobre %s%n", numNodos, urlBase != null ? "H2 TCP (en memoria)" : System.getenv("SGRPT_DB_URL"));
+            cumplido = prueba.medir(nodos);
+        } finally {
+            for (Process proceso : procesos) {
+                proceso.destroy();
+            }
+            for (Process proceso : procesos) {
+                if (!proceso.waitFor(30, TimeUnit.SECONDS)) {
+                    proceso.destroyForcibly();
+                }
+            }
+            if (h2 != null) {
+                h2.stop();
+            }
+        }
+        System.exit(cumplido ? 0 : 1);
+    }
+
+    private static int puertoLibre() throws IOException {
+        try (ServerSocket libre = new ServerSocket(0)) {
+            return libre.getLocalPort();
+        }
+    }
+
+    private Process arrancarNodo(int numero, int puerto, String urlBase, Path log) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> comando = new ArrayList<>(List.of(java, "-Dspring.devtools.restart.enabled=false",
+            "-cp", System.getProperty("java.class.path"), "com.sgrpt.app.App",
+            "--server.port=" + puerto,
+            "--sgrpt.cambios.nodo=nodo-" + numero));
+        if (urlBase != null) {
+            comando.addAll(List.of(
+                "--spring.datasource.url=" + urlBase,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.data-source-properties.reWriteBatchedInserts="));
+            if (!args.containsKey("app.sgrpt.cambios.sondeo-ms")) {
+                comando.add("--sgrpt.cambios.sondeo-ms=100");
+            }
+        }
+        args.forEach((clave, valor) -> {
+            if (clave.startsWith("app.")) {
+                comando.add("--" + clave.substring(4) + "=" + valor);
+            }
+        });
+
+        String url = "http://localhost:" + puerto;
+        System.out.println("Arrancando nodo-" + numero + " en " + url + " (log en " + log + ")");
+        Process proceso = new ProcessBuilder(comando).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        long limite = System.nanoTime() + TimeUnit.MINUTES.toNanos(3);
+        while (true) {
+            if (!proceso.isAlive()) {
+                throw new IllegalStateException("El nodo-" + numero + " terminó al arrancar, ver " + log);
+            }
+            if (System.nanoTime() > limite) {
+                proceso.destroyForcibly();
+                throw new IllegalStateException("El nodo-" + numero + " no respondió en 3 minutos, ver " + log);
+            }
+            try {
+                if (get(url, "/actuator/health").statusCode() == 200) {
+                    return proceso;
+                }
+            } catch (IOException e) {
+                // Todavía no escucha
+            }
+            Thread.sleep(200);
+        }
+    }
+
+    // --- Medición ---
+
+    private boolean medir(List<String> nodos) throws Exception {
+        int rondas = entero("rondas", 50);
+        int pausaMs = entero("pausa", 100);
+        int presupuestoP95 = entero("p95", 1000);
+        long esperaNanos = TimeUnit.SECONDS.toNanos(entero("espera", 30));
+
+        JsonNode paquete = JSON.readTree(enviar(nodos.get(0), "POST", "/api/v1/paquetes", JSON.writeValueAsString(Map.of(
+            "nombre", "Propagacion 0", "descripcion", "Paquete de la prueba de propagación",
+            "destino", "Cartagena", "duracionDias", 4, "precio", 1200))).body());
+        int id = paquete.get("idPaquete").asInt();
+        long version = paquete.get("version").asLong();
+
+        long[] latencias = new long[rondas * (nodos.size() - 1)];
+        int n = 0;
+        int perdidos = 0;
+        for (int r = 1; r <= rondas; r++) {
+            for (String nodo : nodos) {
+                get(nodo, "/api/v1/paquetes/" + id); // En caché de cada nodo antes de la escritura
+            }
+            int escritor = r % nodos.size();
+            String nombre = "Propagacion " + r;
+            HttpResponse<String> respuesta = enviar(nodos.get(escritor), "PUT", "/api/v1/paquetes/" + id,
+                JSON.writeValueAsString(Map.of("nombre", nombre, "descripcion", "Paquete de la prueba de propagación",
+                                               "destino", "Cartagena", "duracionDias", 4, "precio", 1200 + r,
+                                               "version", version)));
+            if (respuesta.statusCode() != 200) {
+                throw new IllegalStateException("PUT en nodo-" + escritor + " respondió " + respuesta.statusCode()
+                                                + ": " + respuesta.body());
+            }
+            long escrito = System.nanoTime();
+            version = JSON.readTree(respuesta.body()).get("version").asLong();
+
+            for (int i = 0; i < nodos.size(); i++) {
+                if (i == escritor) {
+                    continue;
+                }
+                while (true) {
+                    String visto = JSON.readTree(get(nodos.get(i), "/api/v1/paquetes/" + id).body()).path("nombre").asText();
+                    long transcurrido = System.nanoTime() - escrito;
+                    if (nombre.equals(visto)) {
+                        latencias[n++] = transcurrido;
+                        break;
+                    }
+                    if (transcurrido > esperaNanos) {
+                        perdidos++;
+                        System.out.printf("ronda %d: nodo-%d sigue viendo '%s'%n", r, i, visto);
+                        break;
+                    }
+                    Thread.sleep(2);
+                }
+            }
+            Thread.sleep(pausaMs);
+        }
+
+        long[] ordenadas = Arrays.copyOf(latencias, n);
+        Arrays.sort(ordenadas);
+        double p95 = percentil(ordenadas, 95);
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Propagación de %d cambios a %d nodos: p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, máx. %.1f ms, "
+                          + "no llegaron %d%n", rondas, nodos.size() - 1, percentil(ordenadas, 50), p95,
+                          percentil(ordenadas, 99), percentil(ordenadas, 100), perdidos);
+        for (int i = 0; i < nodos.size(); i++) {
+            System.out.println("nodo-" + i + ": " + get(nodos.get(i), "/api/v1/sistema/cambios").body());
+        }
+        boolean cumplido = perdidos == 0 && p95 <= presupuestoP95;
+        System.out.println(cumplido ? "Presupuesto cumplido." : "PRESUPUESTO INCUMPLIDO: p95 <= " + presupuestoP95
+                                                               + " ms y ningún cambio perdido");
+        return cumplido;
+    }
+
+    // Percentil por rango más cercano, en ms
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p / 100 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(indice, ordenadas.length - 1))] / 1e6;
+    }
+
+    // --- HTTP ---
+
+    private HttpResponse<String> get(String url, String ruta) throws IOException, InterruptedException {
+        return cliente.send(HttpRequest.newBuilder(URI.create(url + ruta)).timeout(Duration.ofSeconds(30)).GET().build(),
+                            HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> enviar(String url, String metodo, String ruta, String cuerpo)
+            throws IOException, InterruptedException {
+        return cliente.send(HttpRequest.newBuilder(URI.create(url + ruta)).timeout(Duration.ofSeconds(30))
+                                       .header("Content-Type", "application/json")
+                                       .method(metodo, HttpRequest.BodyPublishers.ofString(cuerpo)).build(),
+                            HttpResponse.BodyHandlers.ofString());
+    }
+}
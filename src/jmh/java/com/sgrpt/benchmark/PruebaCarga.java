@@ -0,0 +1,627 @@
+package com.sgrpt.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de carga reproducible de la API: usuarios virtuales que navegan el catálogo, buscan y reservan,
+ * con subida progresiva (rampa), tiempos de reflexión entre pasos y sesgo hacia los paquetes más populares.
+ * - navegar:  GET /paquetes (página al azar) -> GET /paquetes/{id} -> GET /paquetes/{id}/cupos
+ * - buscar:   GET /paquetes/buscar?q=destino -> GET /paquetes/disponibles (próximos 30 días)
+ * - reservar: GET /clientes/buscar?q=apellido -> GET /paquetes/{id} -> GET /paquetes/{id}/cupos
+ *             -> POST /reservas en una salida con plazas (409 sin cupo cuenta como rechazada, no como error)
+ *             -> GET /clientes/{id}/reservas
+ * El paquete de cada escenario sigue una distribución Zipf (sesgo=0: uniforme; 1.1: el 5 % de los paquetes
+ * recibe cerca de la mitad de las visitas), lo que concentra las reservas en pocas salidas.
+ * Modelo cerrado: cada usuario espera su respuesta y piensa antes del siguiente paso, así que la latencia
+ * medida es la de cada petición y el throughput es el que sostienen esos usuarios.
+ * Sin 'url' arranca la aplicación (mismo classpath) contra H2 en memoria en modo PostgreSQL y la puebla por
+ * la API; con 'url' usa una instancia ya arrancada y sus datos. Solo se mide tras la rampa.
+ * Informe por operación (peticiones/s, p50/p95/p99/máx.) en consola y en target/carga/resultados.csv.
+ * Si se incumple algún presupuesto termina con código 1 (y falla el build).
+ *
+ * Ejecutar: mvn -Pbenchmark compile exec:exec@carga
+ * Prueba de humo (carga corta y evaluación de presupuestos): mvn -Pbenchmark test -Dtest=PruebaCargaTest
+ * Argumentos clave=valor (-Dcarga.args="..."), con sus valores por defecto:
+ *   usuarios=100 rampa=20 duracion=60 (s) pensar=300 (ms, media exponencial)
+ *   mezcla=navegar:60,buscar:25,reservar:15 sesgo=1.1 semilla=42
+ *   paquetes=200 clientes=2000 salidas=8 plazas=100 (datos sembrados)
+ *   presupuestos=p95=500,p99=1500,errores=1 (ms y %; por operación: reservas.crear:p99=2000;
+ *                'descartadas' = % de 429/503 del control de admisión, que no cuentan como errores)
+ *   url=http://host:puerto (opcional)
+ *   app.<propiedad>=<valor> (opcional, se pasa como --<propiedad>=<valor> a la aplicación que se arranca;
+ *                           p. ej. app.sgrpt.admision.activa=false para comparar sin control de admisión)
+ * Avalancha de reservas: -Dcarga.args="usuarios=400 rampa=10 pensar=100 mezcla=navegar:20,buscar:10,reservar:70 sesgo=1.3"
+ */
+public class PruebaCarga {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String[] DESTINOS = { "Cartagena", "Medellin", "San Andres", "Santa Marta", "Cancun",
+                                               "Cusco", "Buenos Aires", "Punta Cana", "Madrid", "Lisboa",
+                                               "Roma", "Salento" };
+    private static final String[] NOMBRES = { "Ana", "Juan", "Luisa", "Carlos", "Maria", "Andres", "Sofia", "Diego" };
+    private static final String[] APELLIDOS = { "Gomez", "Rodriguez", "Martinez", "Lopez", "Garcia", "Perez",
+                                                "Sanchez", "Ramirez", "Torres", "Vargas", "Castro", "Rojas" };
+
+    // --- Configuración ---
+
+    private final Map<String, String> args;
+    private final int usuarios;
+    private final int rampaS;
+    private final int duracionS;
+    private final int pensarMs;
+    private final double sesgo;
+    private final long semilla;
+    private final Map<String, Integer> mezcla = new LinkedHashMap<>();
+
+    private final HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5))
+                                                 .version(HttpClient.Version.HTTP_1_1).build();
+    private String url;
+
+    // Datos descubiertos en la instancia
+    private int[] paquetes;
+    private int[] clientes;
+    private String[] destinos;
+    private String[] apellidos;
+    private double[] cdfZipf;
+
+    // Ventana de medición (nanoTime)
+    private long inicioMedicion;
+    private long finMedicion;
+
+    PruebaCarga(String[] argumentos) {
+        args = new LinkedHashMap<>();
+        for (String arg : argumentos) {
+            int igual = arg.indexOf('=');
+            if (igual <= 0) {
+                throw new IllegalArgumentException("Argumento sin clave=valor: " + arg);
+            }
+            args.put(arg.substring(0, igual), arg.substring(igual + 1));
+        }
+        usuarios = entero("usuarios", 100);
+        rampaS = entero("rampa", 20);
+        duracionS = entero("duracion", 60);
+        pensarMs = entero("pensar", 300);
+        sesgo = Double.parseDouble(args.getOrDefault("sesgo", "1.1"));
+        semilla = Long.parseLong(args.getOrDefault("semilla", "42"));
+        for (String parte : args.getOrDefault("mezcla", "navegar:60,buscar:25,reservar:15").split(",")) {
+            String[] kv = parte.split(":");
+            if (!List.of("navegar", "buscar", "reservar").contains(kv[0])) {
+                throw new IllegalArgumentException("Escenario desconocido en la mezcla: " + kv[0]);
+            }
+            mezcla.put(kv[0], Integer.parseInt(kv[1]));
+        }
+        url = args.get("url");
+    }
+
+    private int entero(String clave, int porDefecto) {
+        return Integer.parseInt(args.getOrDefault(clave, Integer.toString(porDefecto)));
+    }
+
+    public static void main(String[] argumentos) throws Exception {
+        List<String> incumplidos = correr(argumentos);
+        System.out.println();
+        if (!incumplidos.isEmpty()) {
+            System.out.println("PRESUPUESTOS INCUMPLIDOS:");
+            incumplidos.forEach(i -> System.out.println("  " + i));
+            System.exit(1);
+        }
+        System.out.println("Presupuestos cumplidos.");
+    }
+
+    /**
+     * Arranca y puebla la aplicación (o usa la de 'url'), ejecuta la carga, informa y devuelve los
+     * presupuestos incumplidos.
+     */
+    static List<String> correr(String[] argumentos) throws Exception {
+        PruebaCarga prueba = new PruebaCarga(argumentos);
+        Path directorio = Path.of("target", "carga");
+        Files.createDirectories(directorio);
+
+        Process servidor = null;
+        List<String> incumplidos;
+        try {
+            if (prueba.url == null) {
+                servidor = prueba.arrancarAplicacion(directorio.resolve("aplicacion.log"));
+                prueba.sembrar();
+            }
+            prueba.descubrir();
+            Map<String, Registro> registros = prueba.ejecutar();
+            incumplidos = prueba.informar(registros, directorio.resolve("resultados.csv"));
+        } finally {
+            if (servidor != null) {
+                servidor.destroy();
+                if (!servidor.waitFor(30, TimeUnit.SECONDS)) {
+                    servidor.destroyForcibly();
+                }
+            }
+        }
+        return incumplidos;
+    }
+
+    // --- Instancia local y datos ---
+
+    private Process arrancarAplicacion(Path log) throws Exception {
+        int puerto;
+        try (ServerSocket libre = new ServerSocket(0)) {
+            puerto = libre.getLocalPort();
+        }
+        url = "http://localhost:" + puerto;
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> comando = new ArrayList<>(List.of(java, "-Dspring.devtools.restart.enabled=false",
+            "-cp", System.getProperty("java.class.path"), "com.sgrpt.app.App",
+            "--server.port=" + puerto,
+            "--spring.datasource.url=jdbc:h2:mem:carga;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.datasource.hikari.data-source-properties.reWriteBatchedInserts="));
+        args.forEach((clave, valor) -> {
+            if (clave.startsWith("app.")) {
+                comando.add("--" + clave.substring(4) + "=" + valor);
+            }
+        });
+        System.out.println("Arrancando la aplicación en " + url + " (log en " + log + ")");
+        Process proceso = new ProcessBuilder(comando).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        long limite = System.nanoTime() + TimeUnit.MINUTES.toNanos(3);
+        while (true) {
+            if (!proceso.isAlive()) {
+                throw new IllegalStateException("La aplicación terminó al arrancar, ver " + log);
+            }
+            if (System.nanoTime() > limite) {
+                proceso.destroyForcibly();
+                throw new IllegalStateException("La aplicación no respondió en 3 minutos, ver " + log);
+            }
+            try {
+                if (get("/actuator/health").statusCode() == 200) {
+                    return proceso;
+                }
+            } catch (IOException e) {
+                // Todavía no escucha
+            }
+            Thread.sleep(200);
+        }
+    }
+
+    private void sembrar() throws Exception {
+        int numPaquetes = entero("paquetes", 200);
+        int numClientes = entero("clientes", 2000);
+        int salidas = entero("salidas", 8);
+        int plazas = entero("plazas", 100);
+        SplittableRandom azar = new SplittableRandom(semilla);
+        long inicio = System.nanoTime();
+
+        List<String> cuerposPaquete = new ArrayList<>();
+        for (int i = 1; i <= numPaquetes; i++) {
+            String destino = DESTINOS[i % DESTINOS.length];
+            cuerposPaquete.add(JSON.writeValueAsString(Map.of(
+                "nombre", "Paquete " + destino + " " + i,
+                "descripcion", "Plan de " + (3 + i % 12) + " días en " + destino,
+                "destino", destino,
+                "duracionDias", 3 + i % 12,
+                "precio", 300 + azar.nextInt(2700))));
+        }
+        List<String> creados = enParalelo(cuerposPaquete, cuerpo -> post("/api/v1/paquetes", cuerpo));
+
+        List<String[]> cupos = new ArrayList<>();
+        LocalDate primera = LocalDate.now().plusDays(14);
+        for (String creado : creados) {
+            int idPaquete = JSON.readTree(creado).get("idPaquete").asInt();
+            for (int s = 0; s < salidas; s++) {
+                cupos.add(new String[] { "/api/v1/paquetes/" + idPaquete + "/cupos", JSON.writeValueAsString(
+                    Map.of("fechaSalida", primera.plusWeeks(s).toString(), "capacidad", plazas, "disponibles", plazas)) });
+            }
+        }
+        enParalelo(cupos, c -> post(c[0], c[1]));
+
+        List<String> cuerposCliente = new ArrayList<>();
+        for (int i = 1; i <= numClientes; i++) {
+            cuerposCliente.add(JSON.writeValueAsString(Map.of(
+                "nombre", NOMBRES[i % NOMBRES.length],
+                "apellido", APELLIDOS[(i / NOMBRES.length) % APELLIDOS.length],
+                "email", "cliente" + i + "@carga.test",
+                "telefono", "300" + (1_000_000 + i),
+                "identificacion", "CC" + (10_000_000 + i))));
+        }
+        enParalelo(cuerposCliente, cuerpo -> post("/api/v1/clientes", cuerpo));
+        System.out.printf(Locale.ROOT, "Sembrados %d paquetes (%d salidas de %d plazas) y %d clientes en %.1f s%n",
+                          numPaquetes, numPaquetes * salidas, plazas, numClientes,
+                          (System.nanoTime() - inicio) / 1e9);
+    }
+
+    private interface Llamada<T> {
+        HttpResponse<String> enviar(T dato) throws Exception;
+    }
+
+    // Cuerpos de las respuestas, en el orden de los datos; cualquier respuesta no 2xx aborta la siembra
+    private static <T> List<String> enParalelo(List<T> datos, Llamada<T> llamada) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> futuros = new ArrayList<>();
+            for (T dato : datos) {
+                futuros.add(pool.submit(() -> {
+                    HttpResponse<String> respuesta = llamada.enviar(dato);
+                    if (respuesta.statusCode() / 100 != 2) {
+                        throw new IllegalStateException("Siembra rechazada (" + respuesta.statusCode() + "): "
+                                                        + respuesta.uri());
+                    }
+                    return respuesta.body();
+                }));
+            }
+            List<String> cuerpos = new ArrayList<>();
+            for (Future<String> futuro : futuros) {
+                cuerpos.add(futuro.get());
+            }
+            return cuerpos;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void descubrir() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        List<String> listaDestinos = new ArrayList<>();
+        JsonNode pagina;
+        int numero = 0;
+        do {
+            pagina = JSON.readTree(get("/api/v1/paquetes?tamano=100&pagina=" + numero++).body());
+            for (JsonNode p : pagina.get("elementos")) {
+                ids.add(p.get("idPaquete").asInt());
+                if (!listaDestinos.contains(p.get("destino").asText())) {
+                    listaDestinos.add(p.get("destino").asText());
+                }
+            }
+        } while (!pagina.get("siguienteCursor").isNull());
+
+        List<Integer> idsClientes = new ArrayList<>();
+        List<String> listaApellidos = new ArrayList<>();
+        int despuesDe = 0;
+        do {
+            pagina = JSON.readTree(get("/api/v1/clientes?limite=500&despuesDe=" + despuesDe).body());
+            for (JsonNode c : pagina.get("elementos")) {
+                idsClientes.add(c.get("idCliente").asInt());
+                if (listaApellidos.size() < 50 && !listaApellidos.contains(c.get("apellido").asText())) {
+                    listaApellidos.add(c.get("apellido").asText());
+                }
+            }
+            despuesDe = pagina.get("siguienteCursor").asInt();
+        } while (!pagina.get("siguienteCursor").isNull());
+
+        if (ids.isEmpty() || idsClientes.isEmpty()) {
+            throw new IllegalStateException("La instancia no tiene paquetes o clientes para la prueba");
+        }
+        // Los paquetes populares (primeros rangos de Zipf) se eligen al azar, pero siempre los mismos
+        paquetes = ids.stream().mapToInt(Integer::intValue).toArray();
+        SplittableRandom azar = new SplittableRandom(semilla);
+        for (int i = paquetes.length - 1; i > 0; i--) {
+            int j = azar.nextInt(i + 1);
+            int t = paquetes[i];
+            paquetes[i] = paquetes[j];
+            paquetes[j] = t;
+        }
+        clientes = idsClientes.stream().mapToInt(Integer::intValue).toArray();
+        destinos = listaDestinos.toArray(String[]::new);
+        apellidos = listaApellidos.toArray(String[]::new);
+
+        cdfZipf = new double[paquetes.length];
+        double suma = 0;
+        for (int k = 0; k < paquetes.length; k++) {
+            suma += 1.0 / Math.pow(k + 1, sesgo);
+            cdfZipf[k] = suma;
+        }
+        for (int k = 0; k < cdfZipf.length; k++) {
+            cdfZipf[k] /= suma;
+        }
+        System.out.printf("Datos: %d paquetes, %d clientes%n", paquetes.length, clientes.length);
+    }
+
+    private int paqueteSesgado(SplittableRandom azar) {
+        int k = Arrays.binarySearch(cdfZipf, azar.nextDouble());
+        return paquetes[Math.min(k < 0 ? -k - 1 : k, paquetes.length - 1)];
+    }
+
+    // --- Ejecución ---
+
+    private Map<String, Registro> ejecutar() throws Exception {
+        int totalPeso = mezcla.values().stream().mapToInt(Integer::intValue).sum();
+        System.out.printf("usuarios=%d, rampa=%d s, duración=%d s, pensar=%d ms, mezcla=%s, sesgo=%s%n",
+                          usuarios, rampaS, duracionS, pensarMs, mezcla, sesgo);
+
+        long inicio = System.nanoTime();
+        inicioMedicion = inicio + TimeUnit.SECONDS.toNanos(rampaS);
+        finMedicion = inicioMedicion + TimeUnit.SECONDS.toNanos(duracionS);
+
+        List<Future<Map<String, Registro>>> futuros = new ArrayList<>();
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < usuarios; u++) {
+                // Entrada escalonada a lo largo de la rampa
+                long entrada = inicio + TimeUnit.SECONDS.toNanos(rampaS) * u / Math.max(1, usuarios);
+                SplittableRandom azar = new SplittableRandom(semilla * 31 + u);
+                futuros.add(hilos.submit(() -> usuario(entrada, azar, totalPeso)));
+            }
+        }
+
+        Map<String, Registro> total = new TreeMap<>();
+        for (Future<Map<String, Registro>> futuro : futuros) {
+            futuro.get().forEach((op, r) -> total.computeIfAbsent(op, k -> new Registro()).sumar(r));
+        }
+        return total;
+    }
+
+    private Map<String, Registro> usuario(long entrada, SplittableRandom azar, int totalPeso) throws Exception {
+        Map<String, Registro> registros = new LinkedHashMap<>();
+        TimeUnit.NANOSECONDS.sleep(entrada - System.nanoTime());
+        while (System.nanoTime() < finMedicion) {
+            int tirada = azar.nextInt(totalPeso);
+            String escenario = null;
+            for (Map.Entry<String, Integer> e : mezcla.entrySet()) {
+                tirada -= e.getValue();
+                if (tirada < 0) {
+                    escenario = e.getKey();
+                    break;
+                }
+            }
+            switch (escenario) {
+                case "navegar" -> navegar(azar, registros);
+                case "buscar" -> buscar(azar, registros);
+                default -> reservar(azar, registros);
+            }
+        }
+        return registros;
+    }
+
+    private void navegar(SplittableRandom azar, Map<String, Registro> registros) throws Exception {
+        medir("paquetes.listar", registros, () -> get("/api/v1/paquetes?tamano=20&pagina=" + azar.nextInt(5)));
+        pensar(azar);
+        int idPaquete = paqueteSesgado(azar);
+        medir("paquetes.detalle", registros, () -> get("/api/v1/paquetes/" + idPaquete));
+        pensar(azar);
+        medir("cupos.listar", registros, () -> get("/api/v1/paquetes/" + idPaquete + "/cupos"));
+        pensar(azar);
+    }
+
+    private void buscar(SplittableRandom azar, Map<String, Registro> registros) throws Exception {
+        String destino = destinos[azar.nextInt(destinos.length)];
+        String q = destino.substring(0, Math.min(destino.length(), 3 + azar.nextInt(4)));
+        medir("paquetes.buscar", registros, () -> get("/api/v1/paquetes/buscar?q=" + codificar(q)));
+        pensar(azar);
+        LocalDate desde = LocalDate.now().plusDays(azar.nextInt(30));
+        medir("paquetes.disponibles", registros, () -> get("/api/v1/paquetes/disponibles?fechaDesde=" + desde
+                                                            + "&fechaHasta=" + desde.plusDays(30)
+                                                            + "&personas=" + (1 + azar.nextInt(4))));
+        pensar(azar);
+    }
+
+    private void reservar(SplittableRandom azar, Map<String, Registro> registros) throws Exception {
+        String apellido = apellidos[azar.nextInt(apellidos.length)];
+        medir("clientes.buscar", registros, () -> get("/api/v1/clientes/buscar?q=" + codificar(apellido)));
+        pensar(azar);
+        int idPaquete = paqueteSesgado(azar);
+        HttpResponse<String> detalle = medir("paquetes.detalle", registros, () -> get("/api/v1/paquetes/" + idPaquete));
+        pensar(azar);
+        HttpResponse<String> cupos = medir("cupos.listar", registros,
+                                           () -> get("/api/v1/paquetes/" + idPaquete + "/cupos"));
+        pensar(azar);
+        if (detalle == null || detalle.statusCode() != 200 || cupos == null || cupos.statusCode() != 200) {
+            return;
+        }
+        int personas = 1 + azar.nextInt(4);
+        List<JsonNode> conPlazas = new ArrayList<>();
+        for (JsonNode cupo : JSON.readTree(cupos.body())) {
+            if (cupo.get("disponibles").asInt() >= personas) {
+                conPlazas.add(cupo);
+            }
+        }
+        if (conPlazas.isEmpty()) {
+            registros.computeIfAbsent("reservas.agotado", k -> new Registro()).agotados++;
+            return;
+        }
+        JsonNode salida = conPlazas.get(azar.nextInt(conPlazas.size()));
+        int idCliente = clientes[azar.nextInt(clientes.length)];
+        double precio = JSON.readTree(detalle.body()).get("precio").asDouble();
+        String cuerpo = "{\"fechaReserva\":" + salida.get("fechaSalida") + ",\"estado\":\"Confirmada\""
+                        + ",\"idCliente\":" + idCliente + ",\"idPaquete\":" + idPaquete
+                        + ",\"numPersonas\":" + personas + ",\"totalPagar\":" + precio * personas + "}";
+        medir("reservas.crear", registros, () -> post("/api/v1/reservas", cuerpo));
+        pensar(azar);
+        medir("clientes.reservas", registros, () -> get("/api/v1/clientes/" + idCliente + "/reservas"));
+        pensar(azar);
+    }
+
+    private interface Peticion {
+        HttpResponse<String> enviar() throws IOException, InterruptedException;
+    }
+
+    // Respuesta, o null si falló la conexión. Solo se registra lo que empieza dentro de la ventana de medición.
+    private HttpResponse<String> medir(String operacion, Map<String, Registro> registros, Peticion peticion)
+            throws InterruptedException {
+        long inicio = System.nanoTime();
+        HttpResponse<String> respuesta;
+        int estado;
+        try {
+            respuesta = peticion.enviar();
+            estado = respuesta.statusCode();
+        } catch (IOException e) {
+            respuesta = null;
+            estado = -1;
+        }
+        long fin = System.nanoTime();
+        if (inicio >= inicioMedicion && inicio < finMedicion) {
+            registros.computeIfAbsent(operacion, k -> new Registro()).registrar(fin - inicio, operacion, estado);
+        }
+        return respuesta;
+    }
+
+    private void pensar(SplittableRandom azar) throws InterruptedException {
+        if (pensarMs > 0) {
+            // Exponencial con media 'pensar', acotada a 10 veces la media
+            double espera = -pensarMs * Math.log(1 - azar.nextDouble());
+            Thread.sleep((long) Math.min(espera, pensarMs * 10.0));
+        }
+    }
+
+    private HttpResponse<String> get(String ruta) throws IOException, InterruptedException {
+        return cliente.send(HttpRequest.newBuilder(URI.create(url + ruta)).timeout(Duration.ofSeconds(30)).GET().build(),
+                            HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String ruta, String cuerpo) throws IOException, InterruptedException {
+        return cliente.send(HttpRequest.newBuilder(URI.create(url + ruta)).timeout(Duration.ofSeconds(30))
+                                       .header("Content-Type", "application/json")
+                                       .POST(HttpRequest.BodyPublishers.ofString(cuerpo)).build(),
+                            HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String codificar(String texto) {
+        return URLEncoder.encode(texto, StandardCharsets.UTF_8);
+    }
+
+    // --- Resultados ---
+
+    // [Comentario]: Latencias de una operación (sin sincronizar: cada usuario tiene los suyos y se suman al final).
+    private static final class Registro {
+        private long[] latencias = new long[256];
+        private int n;
+        private long correctas;
+        private long rechazadas;
+        private long descartadas;
+        private long errores;
+        private long agotados;
+
+        void registrar(long nanos, String operacion, int estado) {
+            if (n == latencias.length) {
+                latencias = Arrays.copyOf(latencias, n * 2);
+            }
+            latencias[n++] = nanos;
+            if (estado / 100 == 2 || estado == 304) {
+                correctas++;
+            } else if (estado == 409 && operacion.equals("reservas.crear")) {
+                rechazadas++; // Sin cupo: respuesta válida del motor de cupos
+            } else if (estado == 429 || estado == 503) {
+                descartadas++; // Control de admisión: rechazo rápido con Retry-After
+            } else {
+                errores++;
+            }
+        }
+
+        void sumar(Registro otro) {
+            if (n + otro.n > latencias.length) {
+                latencias = Arrays.copyOf(latencias, Math.max(latencias.length * 2, n + otro.n));
+            }
+            System.arraycopy(otro.latencias, 0, latencias, n, otro.n);
+            n += otro.n;
+            correctas += otro.correctas;
+            rechazadas += otro.rechazadas;
+            descartadas += otro.descartadas;
+            errores += otro.errores;
+            agotados += otro.agotados;
+        }
+
+        long[] ordenadas() {
+            long[] copia = Arrays.copyOf(latencias, n);
+            Arrays.sort(copia);
+            return copia;
+        }
+    }
+
+    // Percentil por rango más cercano, en ms
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p / 100 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(indice, ordenadas.length - 1))] / 1e6;
+    }
+
+    private List<String> informar(Map<String, Registro> registros, Path csv) throws IOException {
+        double segundos = duracionS;
+        Registro total = new Registro();
+        registros.values().forEach(total::sumar);
+        long agotados = registros.containsKey("reservas.agotado") ? registros.remove("reservas.agotado").agotados : 0;
+        registros.put("total", total);
+
+        Map<String, Map<String, Double>> metricas = new LinkedHashMap<>();
+        System.out.println();
+        System.out.printf("%-21s %8s %8s %7s %7s %7s %9s %9s %9s %9s%n", "operacion", "n", "pet/s", "errores",
+                          "409", "429/503", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        try (PrintWriter salida = new PrintWriter(Files.newBufferedWriter(csv))) {
+            salida.println("operacion,n,peticiones_s,correctas,rechazadas,descartadas,errores,p50_ms,p95_ms,p99_ms,max_ms");
+            for (Map.Entry<String, Registro> e : registros.entrySet()) {
+                Registro r = e.getValue();
+                long[] ordenadas = r.ordenadas();
+                Map<String, Double> m = new LinkedHashMap<>();
+                m.put("p50", percentil(ordenadas, 50));
+                m.put("p95", percentil(ordenadas, 95));
+                m.put("p99", percentil(ordenadas, 99));
+                m.put("max", percentil(ordenadas, 100));
+                m.put("errores", r.n == 0 ? 0 : 100.0 * r.errores / r.n);
+                m.put("descartadas", r.n == 0 ? 0 : 100.0 * r.descartadas / r.n);
+                metricas.put(e.getKey(), m);
+                System.out.printf(Locale.ROOT, "%-21s %8d %8.1f %7d %7d %7d %9.1f %9.1f %9.1f %9.1f%n", e.getKey(),
+                                  r.n, r.n / segundos, r.errores, r.rechazadas, r.descartadas, m.get("p50"),
+                                  m.get("p95"), m.get("p99"), m.get("max"));
+                salida.printf(Locale.ROOT, "%s,%d,%.2f,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f%n", e.getKey(), r.n,
+                              r.n / segundos, r.correctas, r.rechazadas, r.descartadas, r.errores, m.get("p50"),
+                              m.get("p95"), m.get("p99"), m.get("max"));
+            }
+        }
+        Registro reservas = registros.get("reservas.crear");
+        if (reservas != null) {
+            System.out.printf(Locale.ROOT, "%nReservas aceptadas: %.1f/s (%d), sin cupo (409): %d, sin salida con plazas: %d%n",
+                              reservas.correctas / segundos, reservas.correctas, reservas.rechazadas, agotados);
+        }
+        System.out.println("Resultados en " + csv);
+        return evaluar(metricas);
+    }
+
+    // [Comentario]: "p95=500,p99=1500,errores=1,reservas.crear:p99=2000": sin operación se aplica al total.
+    List<String> evaluar(Map<String, Map<String, Double>> metricas) {
+        List<String> incumplidos = new ArrayList<>();
+        String presupuestos = args.getOrDefault("presupuestos", "p95=500,p99=1500,errores=1");
+        for (String parte : presupuestos.split(",")) {
+            if (parte.isBlank()) {
+                continue;
+            }
+            String[] kv = parte.trim().split("=");
+            String operacion = kv[0].contains(":") ? kv[0].substring(0, kv[0].indexOf(':')) : "total";
+            String metrica = kv[0].substring(kv[0].indexOf(':') + 1);
+            double limite = Double.parseDouble(kv[1]);
+            Map<String, Double> m = metricas.get(operacion);
+            if (m == null || !m.containsKey(metrica)) {
+                throw new IllegalArgumentException("Presupuesto sobre una operación o métrica desconocida: " + parte);
+            }
+            if (m.get(metrica) > limite) {
+                incumplidos.add(String.format(Locale.ROOT, "%s %s = %.1f%s > %s", operacion, metrica, m.get(metrica),
+                                              metrica.equals("errores") || metrica.equals("descartadas") ? " %" : " ms",
+                                              kv[1]));
+            }
+        }
+        return incumplidos;
+    }
+}
@@ -0,0 +1,52 @@
+package com.sgrpt.benchmark;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de humo de la prueba de carga: solo se informan los presupuestos incumplidos (del total y por
+ * operación), un presupuesto mal escrito no pasa inadvertido, y una carga corta contra H2 recorre el arranque,
+ * la siembra, los tres escenarios y el informe, y falla únicamente por el presupuesto imposible.
+ */
+class PruebaCargaTest {
+
+    @Test
+    void soloSeInformanLosPresupuestosIncumplidos() {
+        PruebaCarga prueba = new PruebaCarga(new String[] {
+            "presupuestos=p95=100,p99=500,errores=1,reservas.crear:p99=800,reservas.crear:descartadas=5" });
+        Map<String, Map<String, Double>> metricas = Map.of(
+            "total", Map.of("p95", 120.0, "p99", 480.0, "errores", 0.5),
+            "reservas.crear", Map.of("p99", 900.0, "descartadas", 3.0));
+
+        assertEquals(List.of("total p95 = 120.0 ms > 100", "reservas.crear p99 = 900.0 ms > 800"),
+                     prueba.evaluar(metricas));
+    }
+
+    @Test
+    void unPresupuestoSobreUnaMetricaDesconocidaSeRechaza() {
+        PruebaCarga prueba = new PruebaCarga(new String[] { "presupuestos=p98=100" });
+
+        assertThrows(IllegalArgumentException.class, () -> prueba.evaluar(Map.of("total", Map.of("p95", 1.0))));
+    }
+
+    @Test
+    void unaCargaCortaContraH2FallaSoloPorElPresupuestoImposible() throws Exception {
+        List<String> incumplidos = PruebaCarga.correr(new String[] {
+            "usuarios=4", "rampa=1", "duracion=3", "pensar=50", "paquetes=10", "clientes=20", "salidas=2", "plazas=5",
+            "mezcla=navegar:1,buscar:1,reservar:2", "presupuestos=p99=60000,errores=0,reservas.crear:errores=0,max=0" });
+
+        assertEquals(1, incumplidos.size(), incumplidos.toString());
+        assertTrue(incumplidos.get(0).startsWith("total max = "), incumplidos.get(0));
+        List<String> csv = Files.readAllLines(Path.of("target", "carga", "resultados.csv"));
+        assertTrue(csv.stream().anyMatch(linea -> linea.startsWith("reservas.crear,")), csv.toString());
+        assertTrue(csv.stream().anyMatch(linea -> linea.startsWith("total,")), csv.toString());
+    }
+}
@@ -2,10 +2,19 @@ package com.sgrpt.app; // <--- ¡Debe coincidir con el error!
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// [Comentario]: App vive en com.sgrpt.app, así que se indica explícitamente que escanee todo com.sgrpt
+//               (controladores, repositorios, entidades y ConexionDB).
+//               @EnableScheduling: tareas periódicas (reconciliación de agregados).
+@SpringBootApplication(scanBasePackages = "com.sgrpt")
+@EnableJpaRepositories(basePackages = "com.sgrpt.repositorio")
+@EntityScan(basePackages = "com.sgrpt.modelo")
+@EnableScheduling
 public class App { // <--- ¡Debe llamarse App!
     public static void main(String[] args) {
         SpringApplication.run(App.class, args);
     }
-}
\ No newline at end of file
+}
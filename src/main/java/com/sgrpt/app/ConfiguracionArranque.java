@@ -0,0 +1,52 @@
+package com.sgrpt.app;
+
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.conexion.ReplicasLectura;
+import com.sgrpt.dao.VerificacionEsquema;
+import com.sgrpt.metricas.MetricasDAO;
+import com.sgrpt.servicio.AgregadosReservasService;
+import com.sgrpt.servicio.AnaliticaReservasService;
+import com.sgrpt.servicio.BusquedaService;
+import com.sgrpt.servicio.DisponibilidadService;
+import com.sgrpt.servicio.FeedCambios;
+import com.sgrpt.servicio.IngresoReservasService;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+// [Comentario]: Ajustes del arranque (perfil 'produccion' y build -Pproduccion, ver pom.xml).
+//               - Inicialización perezosa (spring.main.lazy-initialization): controladores, cachés y servicios
+//                 sin trabajo propio se crean con la primera petición que los usa. Quedan fuera los beans que
+//                 tienen que existir desde el arranque: los pools y los helpers estáticos que los DAO usan sin
+//                 inyección, las migraciones y las comprobaciones de esquema (un error debe detener el
+//                 arranque, no la primera petición) y los servicios con tareas @Scheduled, observadores de
+//                 los DAO o hilos propios (creados tarde perderían los cambios anteriores).
+//               - sgrpt.esquema.migrar=false: no aplica las migraciones. Solo para el arranque de
+//                 entrenamiento del archivo CDS, que se hace sin base de datos.
+@Configuration
+public class ConfiguracionArranque {
+
+    @Bean
+    static LazyInitializationExcludeFilter beansAnsiosos() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+            ConexionDB.class, ReplicasLectura.class, MetricasDAO.class,
+            FlywayMigrationInitializer.class, EntityManagerFactory.class, AbstractEntityManagerFactoryBean.class,
+            VerificacionEsquema.class,
+            AgregadosReservasService.class, AnaliticaReservasService.class, BusquedaService.class,
+            DisponibilidadService.class, IngresoReservasService.class, FeedCambios.class);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy estrategiaMigracion(@Value("${sgrpt.esquema.migrar:true}") boolean migrar) {
+        return flyway -> {
+            if (migrar) {
+                flyway.migrate();
+            }
+        };
+    }
+}
@@ -2,36 +2,162 @@
 
 package com.sgrpt.conexion;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+// [Comentario]: @Component hace que Spring inyecte aquí el pool HikariCP de la primaria (el mismo que usa
+//               JPA para escribir, ver ConfiguracionDataSource) y las réplicas de lectura, si las hay.
+@Component
 public class ConexionDB {
 
-    // Cambios: URL de PostgreSQL, Puerto 5432, Usuario 'postgres'
-    private static final String URL = "jdbc:postgresql://localhost:5432/sgrpt_postgresql_db";
-    private static final String USUARIO = "postgres"; // Usuario por defecto de Postgre
-    private static final String CLAVE = "Svmoncada"; // ¡ADVERTENCIA: Cambia tu clave!
+    // [Comentario]: Pool compartido. Es estático para que los DAO sigan usando ConexionDB.obtenerConexion().
+    private static volatile DataSource dataSource;
+
+    // [Comentario]: Réplicas para obtenerConexionLectura(). null o vacías = todo va a la primaria.
+    private static volatile ReplicasLectura replicas;
+
+    // [Comentario]: Umbral (ms) a partir del cual una espera por conexión se considera lenta.
+    private static volatile long umbralEsperaMs = 250;
+
+    // [Comentario]: Limitador opcional (modo hilos virtuales): tantos permisos como conexiones tiene el pool.
+    //               Con hilos virtuales puede haber miles de peticiones simultáneas; así esperan en una cola
+    //               FIFO barata en vez de amontonarse todas sobre el pool/PostgreSQL. null = desactivado.
+    private static volatile Semaphore limitador;
+    private static volatile long esperaMaximaLimitadorMs;
+
+    // Estadísticas de espera por conexión (tiempo que el hilo pasa bloqueado en el pool)
+    private static final AtomicLong totalSolicitudes = new AtomicLong();
+    private static final AtomicLong totalEsperaNanos = new AtomicLong();
+    private static final AtomicLong maximaEsperaNanos = new AtomicLong();
+    private static final AtomicLong esperasLentas = new AtomicLong();
+    // Último aviso de espera lenta: con el pool saturado se avisa como máximo una vez por segundo
+    private static final AtomicLong ultimoAvisoNanos = new AtomicLong(System.nanoTime() - 1_000_000_000L);
+
+    public ConexionDB(@Qualifier("dataSourcePrimaria") DataSource dataSource,
+                      ReplicasLectura replicas,
+                      @Value("${sgrpt.pool.umbral-espera-ms:250}") long umbralEsperaMs,
+                      @Value("${sgrpt.pool.limitador.activo:false}") boolean limitadorActivo) {
+        configurar(dataSource);
+        ConexionDB.replicas = replicas;
+        ConexionDB.umbralEsperaMs = umbralEsperaMs;
+        if (limitadorActivo && dataSource instanceof HikariDataSource hikari) {
+            configurarLimitador(hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+        }
+    }
 
     /**
-     * Establece la conexión con la base de datos PostgreSQL.
+     * Registra el DataSource compartido. Spring lo llama al arrancar; fuera de Spring
+     * (pruebas de rendimiento, utilidades) puede llamarse directamente.
      */
-    public static Connection obtenerConexion() {
-        Connection conexion = null; 
-        try {
-            // El driver de PostgreSQL se carga automáticamente en JDBC 4.0+
-            conexion = DriverManager.getConnection(URL, USUARIO, CLAVE);
-            // System.out.println("Conexión exitosa a PostgreSQL."); 
+    public static void configurar(DataSource ds) {
+        dataSource = ds;
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error de conexión a PostgreSQL. Revisa el puerto (5432) y la clave.");
-            e.printStackTrace();
+    /**
+     * Activa el limitador de concurrencia: como máximo 'permisos' conexiones prestadas a la vez;
+     * el resto de hilos espera su turno (en orden) hasta 'esperaMaximaMs'.
+     */
+    public static void configurarLimitador(int permisos, long esperaMaximaMs) {
+        esperaMaximaLimitadorMs = esperaMaximaMs;
+        limitador = new Semaphore(permisos, true);
+    }
+
+    /**
+     * Obtiene una conexión del pool. Debe cerrarse siempre (try-with-resources)
+     * para devolverla al pool.
+     */
+    public static Connection obtenerConexion() throws SQLException {
+        DataSource ds = dataSource;
+        if (ds == null) {
+            throw new SQLException("El pool de conexiones no está inicializado.");
+        }
+
+        long inicio = System.nanoTime();
+        Semaphore permisos = limitador;
+        Connection conexion;
+        if (permisos == null) {
+            conexion = ds.getConnection();
+        } else {
+            conexion = obtenerConPermiso(ds, permisos);
+        }
+        long espera = System.nanoTime() - inicio;
+
+        totalSolicitudes.incrementAndGet();
+        totalEsperaNanos.addAndGet(espera);
+        maximaEsperaNanos.accumulateAndGet(espera, Math::max);
+        if (espera / 1_000_000 >= umbralEsperaMs) {
+            esperasLentas.incrementAndGet();
+            long ultimo = ultimoAvisoNanos.get();
+            long ahora = System.nanoTime();
+            if (ahora - ultimo >= 1_000_000_000L && ultimoAvisoNanos.compareAndSet(ultimo, ahora)) {
+                System.err.println("Espera lenta por conexión: " + (espera / 1_000_000) + " ms. " + obtenerEstadoPool());
+            }
         }
         return conexion;
     }
-    
+
     /**
-     * Cierra la conexión a la base de datos.
+     * Conexión para una consulta que tolera leer datos con el retraso de replicación (listados, exportaciones):
+     * de una réplica sana si las hay, si no de la primaria. Las escrituras, las lecturas dentro de una
+     * transacción que escribe y las que deben ver lo recién escrito usan obtenerConexion().
+     */
+    public static Connection obtenerConexionLectura() throws SQLException {
+        ReplicasLectura r = replicas;
+        Connection conexion = r == null ? null : r.obtenerReplica();
+        return conexion != null ? conexion : obtenerConexion();
+    }
+
+    private static Connection obtenerConPermiso(DataSource ds, Semaphore permisos) throws SQLException {
+        try {
+            if (!permisos.tryAcquire(esperaMaximaLimitadorMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Tiempo de espera agotado por una conexión ("
+                        + esperaMaximaLimitadorMs + " ms, " + permisos.getQueueLength() + " en cola)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido esperando una conexión", e);
+        }
+        try {
+            return liberarAlCerrar(ds.getConnection(), permisos);
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    // [Comentario]: Envuelve la conexión para devolver el permiso del limitador al cerrarla (una sola vez).
+    private static Connection liberarAlCerrar(Connection conexion, Semaphore permisos) {
+        AtomicBoolean liberada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+            (proxy, metodo, args) -> {
+                try {
+                    return metodo.invoke(conexion, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                } finally {
+                    if (metodo.getName().equals("close") && liberada.compareAndSet(false, true)) {
+                        permisos.release();
+                    }
+                }
+            });
+    }
+
+    /**
+     * Cierra la conexión a la base de datos (la devuelve al pool).
      */
     public static void cerrarConexion(Connection conexion) {
         if (conexion != null) {
@@ -42,4 +168,32 @@ public class ConexionDB {
             }
         }
     }
+
+    /**
+     * Foto del estado del pool: saturación (activas/total, hilos en espera) y tiempos de espera.
+     */
+    public static EstadoPool obtenerEstadoPool() {
+        EstadoPool estado = new EstadoPool();
+        if (dataSource instanceof HikariDataSource hikari) {
+            estado.setNombre(hikari.getPoolName());
+            estado.setMaximo(hikari.getMaximumPoolSize());
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null) {
+                estado.setActivas(pool.getActiveConnections());
+                estado.setInactivas(pool.getIdleConnections());
+                estado.setTotal(pool.getTotalConnections());
+                estado.setHilosEsperando(pool.getThreadsAwaitingConnection());
+            }
+        }
+        long solicitudes = totalSolicitudes.get();
+        estado.setSolicitudes(solicitudes);
+        estado.setEsperaPromedioMs(solicitudes == 0 ? 0 : totalEsperaNanos.get() / 1_000_000.0 / solicitudes);
+        estado.setEsperaMaximaMs(maximaEsperaNanos.get() / 1_000_000.0);
+        estado.setEsperasLentas(esperasLentas.get());
+        Semaphore permisos = limitador;
+        if (permisos != null) {
+            estado.setEnColaLimitador(permisos.getQueueLength());
+        }
+        return estado;
+    }
 }
@@ -0,0 +1,79 @@
+package com.sgrpt.conexion;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// [Comentario]: DataSources de la aplicación.
+//               - dataSourcePrimaria: el pool HikariCP de spring.datasource.* (escrituras y lecturas que
+//                 deben ver lo último escrito). ConexionDB lo usa directamente.
+//               - replicasLectura: pools de sgrpt.replicas.urls (ver ReplicasLectura). Puede no haber ninguna.
+//               - dataSource (@Primary, el que usan JPA y la inicialización del esquema): con réplicas, un
+//                 LazyConnectionDataSourceProxy que pide la conexión física al ejecutar la primera sentencia;
+//                 en una transacción readOnly (las lecturas de Spring Data lo son) la pide a las réplicas.
+//                 Sin réplicas es la propia primaria.
+@Configuration
+public class ConfiguracionDataSource {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimaria(DataSourceProperties propiedades) {
+        return propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "cerrar")
+    public ReplicasLectura replicasLectura(@Qualifier("dataSourcePrimaria") HikariDataSource primaria,
+                                           DataSourceProperties propiedades,
+                                           @Value("${sgrpt.replicas.urls:}") String urls,
+                                           @Value("${sgrpt.replicas.usuario:${spring.datasource.username:}}") String usuario,
+                                           @Value("${sgrpt.replicas.clave:${spring.datasource.password:}}") String clave,
+                                           @Value("${sgrpt.replicas.maximo-conexiones:10}") int maximoConexiones,
+                                           @Value("${sgrpt.replicas.timeout-conexion-ms:1000}") long timeoutConexionMs,
+                                           @Value("${sgrpt.replicas.consulta-retraso:}") String consultaRetraso,
+                                           @Value("${sgrpt.replicas.retraso-maximo-ms:5000}") long retrasoMaximoMs) {
+        List<String> lista = Arrays.stream(urls.split(",")).map(String::trim).filter(u -> !u.isEmpty()).toList();
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < lista.size(); i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("sgrpt-replica-" + (i + 1));
+            pool.setJdbcUrl(lista.get(i));
+            pool.setUsername(usuario);
+            pool.setPassword(clave);
+            if (propiedades.getDriverClassName() != null) {
+                pool.setDriverClassName(propiedades.getDriverClassName());
+            }
+            pool.setMaximumPoolSize(maximoConexiones);
+            pool.setMinimumIdle(Math.min(2, maximoConexiones));
+            // Poca espera por conexión: si la réplica no responde es mejor pasar a otra o a la primaria
+            pool.setConnectionTimeout(timeoutConexionMs);
+            pool.setReadOnly(true);
+            pool.setRegisterMbeans(primaria.isRegisterMbeans());
+            // La aplicación arranca aunque la réplica esté caída; el chequeo la incorpora cuando responda
+            pool.setInitializationFailTimeout(-1);
+            pools.add(pool);
+        }
+        return new ReplicasLectura(primaria, lista, pools, consultaRetraso, retrasoMaximoMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimaria") HikariDataSource primaria, ReplicasLectura replicas) {
+        if (!replicas.hayReplicas()) {
+            return primaria;
+        }
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaria);
+        proxy.setReadOnlyDataSource(replicas);
+        return proxy;
+    }
+}
@@ -0,0 +1,44 @@
+package com.sgrpt.conexion;
+
+import java.util.function.Supplier;
+
+// [Comentario]: Marca del hilo actual para leer de la primaria aunque haya réplicas (lectura de lo propio).
+//               La activa LecturaPropiaFilter para las escrituras y para los clientes que acaban de escribir,
+//               y Enrutamiento.enPrimaria para las lecturas que alimentan cachés o índices en memoria.
+public final class Enrutamiento {
+
+    private static final ThreadLocal<Boolean> PRIMARIA = new ThreadLocal<>();
+
+    private Enrutamiento() {
+    }
+
+    /**
+     * Las lecturas del hilo actual van a la primaria hasta llamar a limpiar().
+     */
+    public static void usarPrimaria() {
+        PRIMARIA.set(Boolean.TRUE);
+    }
+
+    public static boolean primariaRequerida() {
+        return PRIMARIA.get() != null;
+    }
+
+    public static void limpiar() {
+        PRIMARIA.remove();
+    }
+
+    /**
+     * Ejecuta 'lectura' contra la primaria y restaura la marca anterior del hilo.
+     */
+    public static <T> T enPrimaria(Supplier<T> lectura) {
+        if (primariaRequerida()) {
+            return lectura.get();
+        }
+        usarPrimaria();
+        try {
+            return lectura.get();
+        } finally {
+            limpiar();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.sgrpt.conexion;
+
+// [Comentario]: Foto del pool de conexiones que devuelve ConexionDB.obtenerEstadoPool().
+public class EstadoPool {
+    private String nombre;
+    private int maximo;
+    private int activas;
+    private int inactivas;
+    private int total;
+    private int hilosEsperando;
+    private long solicitudes;
+    private double esperaPromedioMs;
+    private double esperaMaximaMs;
+    private long esperasLentas;
+    private int enColaLimitador; // Hilos esperando permiso del limitador (modo hilos virtuales)
+
+    // Saturación: proporción de conexiones en uso respecto al máximo del pool
+    public double getSaturacion() {
+        return maximo == 0 ? 0 : (double) activas / maximo;
+    }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public int getMaximo() { return maximo; }
+    public void setMaximo(int maximo) { this.maximo = maximo; }
+
+    public int getActivas() { return activas; }
+    public void setActivas(int activas) { this.activas = activas; }
+
+    public int getInactivas() { return inactivas; }
+    public void setInactivas(int inactivas) { this.inactivas = inactivas; }
+
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public int getHilosEsperando() { return hilosEsperando; }
+    public void setHilosEsperando(int hilosEsperando) { this.hilosEsperando = hilosEsperando; }
+
+    public long getSolicitudes() { return solicitudes; }
+    public void setSolicitudes(long solicitudes) { this.solicitudes = solicitudes; }
+
+    public double getEsperaPromedioMs() { return esperaPromedioMs; }
+    public void setEsperaPromedioMs(double esperaPromedioMs) { this.esperaPromedioMs = esperaPromedioMs; }
+
+    public double getEsperaMaximaMs() { return esperaMaximaMs; }
+    public void setEsperaMaximaMs(double esperaMaximaMs) { this.esperaMaximaMs = esperaMaximaMs; }
+
+    public long getEsperasLentas() { return esperasLentas; }
+    public void setEsperasLentas(long esperasLentas) { this.esperasLentas = esperasLentas; }
+
+    public int getEnColaLimitador() { return enColaLimitador; }
+    public void setEnColaLimitador(int enColaLimitador) { this.enColaLimitador = enColaLimitador; }
+
+    @Override
+    public String toString() {
+        return "Pool [" + nombre + ": activas=" + activas + "/" + maximo + ", inactivas=" + inactivas
+                + ", esperando=" + hilosEsperando + ", esperaMax=" + esperaMaximaMs + " ms]";
+    }
+}
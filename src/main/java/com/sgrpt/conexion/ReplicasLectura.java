@@ -0,0 +1,215 @@
+package com.sgrpt.conexion;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// [Comentario]: Réplicas de solo lectura (sgrpt.replicas.*), cada una con su propio pool HikariCP.
+//               - Reparto: la réplica sana con menos conexiones activas; los empates se turnan (round robin).
+//               - Salud: cada 'chequeo-ms' se prueba cada réplica y se mide su retraso de replicación; una
+//                 réplica que no responde o va más atrasada que 'retraso-maximo-ms' deja de recibir lecturas
+//                 hasta el siguiente chequeo bueno. Si falla al pedirle una conexión se marca caída al momento.
+//               - Sin réplica sana (o con Enrutamiento.primariaRequerida()) la lectura va a la primaria.
+//               Como DataSource es el destino de solo lectura de JPA (ver ConfiguracionDataSource); los DAO
+//               lo usan a través de ConexionDB.obtenerConexionLectura().
+public class ReplicasLectura extends AbstractDataSource {
+
+    // [Comentario]: Estado de una réplica. 'sana' empieza en false: no recibe lecturas hasta el primer chequeo.
+    private static class Replica {
+        private final String url;
+        private final HikariDataSource pool;
+        private volatile boolean sana;
+        private volatile long retrasoMs = -1;
+        private volatile String ultimoError;
+        private final AtomicLong lecturas = new AtomicLong();
+        private final AtomicLong fallos = new AtomicLong();
+
+        Replica(String url, HikariDataSource pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+
+        int activas() {
+            HikariPoolMXBean mx = pool.getHikariPoolMXBean();
+            return mx == null ? 0 : mx.getActiveConnections();
+        }
+
+        void caida(String error) {
+            sana = false;
+            ultimoError = error;
+            fallos.incrementAndGet();
+        }
+    }
+
+    private final DataSource primaria;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final String consultaRetraso;
+    private final long retrasoMaximoMs;
+    private final AtomicInteger turno = new AtomicInteger();
+
+    // Lecturas servidas por la primaria: por lectura propia o porque no había réplica sana
+    private final AtomicLong lecturasPropias = new AtomicLong();
+    private final AtomicLong sinReplica = new AtomicLong();
+
+    /**
+     * @param pools           un pool por réplica (misma posición que 'urls')
+     * @param consultaRetraso SELECT que devuelve el retraso de replicación en ms (vacío = solo comprobar
+     *                        la conexión; NULL = la instancia no es una réplica, retraso 0)
+     */
+    public ReplicasLectura(DataSource primaria, List<String> urls, List<HikariDataSource> pools,
+                           String consultaRetraso, long retrasoMaximoMs) {
+        this.primaria = primaria;
+        for (int i = 0; i < pools.size(); i++) {
+            replicas.add(new Replica(urls.get(i), pools.get(i)));
+        }
+        this.consultaRetraso = consultaRetraso;
+        this.retrasoMaximoMs = retrasoMaximoMs;
+    }
+
+    public boolean hayReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * Conexión de una réplica sana, o null si no hay ninguna disponible o el hilo debe leer de la primaria
+     * (el llamador usa entonces la primaria). Debe cerrarse siempre.
+     */
+    public Connection obtenerReplica() {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        if (Enrutamiento.primariaRequerida()) {
+            lecturasPropias.incrementAndGet();
+            return null;
+        }
+        int total = replicas.size();
+        int inicio = Math.floorMod(turno.getAndIncrement(), total);
+        // Como máximo un intento por réplica: las que fallan se marcan caídas y se prueba la siguiente
+        for (int intento = 0; intento < total; intento++) {
+            Replica elegida = null;
+            for (int i = 0; i < total; i++) {
+                Replica r = replicas.get((inicio + i) % total);
+                if (r.sana && (elegida == null || r.activas() < elegida.activas())) {
+                    elegida = r;
+                }
+            }
+            if (elegida == null) {
+                break;
+            }
+            try {
+                Connection conexion = elegida.pool.getConnection();
+                elegida.lecturas.incrementAndGet();
+                return conexion;
+            } catch (SQLException | RuntimeException e) {
+                elegida.caida(e.getMessage());
+                System.err.println("Réplica no disponible (" + elegida.url + "), se excluye hasta el próximo chequeo: "
+                                   + e.getMessage());
+            }
+        }
+        sinReplica.incrementAndGet();
+        return null;
+    }
+
+    // --- DataSource (lecturas de solo lectura de JPA) ---
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection conexion = obtenerReplica();
+        return conexion != null ? conexion : primaria.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String usuario, String clave) throws SQLException {
+        throw new UnsupportedOperationException("Las credenciales de las réplicas se configuran en sgrpt.replicas.*");
+    }
+
+    // --- Salud ---
+
+    /**
+     * Comprueba cada réplica: conexión y retraso de replicación.
+     */
+    @Scheduled(initialDelayString = "0", fixedDelayString = "${sgrpt.replicas.chequeo-ms:2000}")
+    public void chequear() {
+        for (Replica r : replicas) {
+            try (Connection conn = r.pool.getConnection()) {
+                long retraso = medirRetraso(conn);
+                r.retrasoMs = retraso;
+                if (retraso > retrasoMaximoMs) {
+                    r.sana = false;
+                    r.ultimoError = "Retraso de replicación " + retraso + " ms (máximo " + retrasoMaximoMs + ")";
+                } else {
+                    if (!r.sana) {
+                        System.err.println("Réplica disponible: " + r.url);
+                    }
+                    r.sana = true;
+                    r.ultimoError = null;
+                }
+            } catch (SQLException | RuntimeException e) { // RuntimeException: URL o driver inválidos
+                if (r.sana) {
+                    System.err.println("Réplica no disponible (" + r.url + "): " + e.getMessage());
+                }
+                r.caida(e.getMessage());
+            }
+        }
+    }
+
+    private long medirRetraso(Connection conn) throws SQLException {
+        if (consultaRetraso == null || consultaRetraso.isBlank()) {
+            return conn.isValid(1) ? 0 : Long.MAX_VALUE;
+        }
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(consultaRetraso)) {
+            if (!rs.next()) {
+                return 0;
+            }
+            long retraso = rs.getLong(1);
+            return rs.wasNull() ? 0 : retraso;
+        }
+    }
+
+    /**
+     * Estado de cada réplica y reparto de lecturas (para /api/v1/sistema/replicas).
+     */
+    public Map<String, Object> obtenerEstado() {
+        List<Map<String, Object>> detalle = new ArrayList<>();
+        for (Replica r : replicas) {
+            Map<String, Object> estado = new LinkedHashMap<>();
+            estado.put("url", r.url);
+            estado.put("sana", r.sana);
+            estado.put("retrasoMs", r.retrasoMs);
+            estado.put("activas", r.activas());
+            estado.put("lecturas", r.lecturas.get());
+            estado.put("fallos", r.fallos.get());
+            estado.put("ultimoError", r.ultimoError);
+            detalle.add(estado);
+        }
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("replicas", detalle);
+        estado.put("retrasoMaximoMs", retrasoMaximoMs);
+        estado.put("lecturasPropiasEnPrimaria", lecturasPropias.get());
+        estado.put("lecturasSinReplicaEnPrimaria", sinReplica.get());
+        return estado;
+    }
+
+    /**
+     * Cierra los pools de las réplicas (Spring lo llama al apagar).
+     */
+    public void cerrar() {
+        for (Replica r : replicas) {
+            r.pool.close();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.sgrpt.controlador;
+
+import com.sgrpt.modelo.AgregadoReservas;
+import com.sgrpt.servicio.AgregadosReservasService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.sql.Date;
+import java.util.List;
+
+// [Comentario]: Informes de ocupación e ingresos por paquete (solo lectura). Se sirven desde los agregados
+//               en memoria, sin recorrer la tabla de reservas.
+@RestController
+@RequestMapping("/api/v1/agregados")
+public class AgregadoController {
+
+    @Autowired
+    private AgregadosReservasService agregados;
+
+    // --- 1. TOTALES POR PAQUETE (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/agregados/paquetes (reservas, personas e ingresos de cada paquete)
+    @GetMapping("/paquetes")
+    public List<AgregadoReservas> obtenerTotales() {
+        return agregados.obtenerTotales();
+    }
+
+    // --- 2. UN PAQUETE POR ESTADO (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/agregados/paquetes/{idPaquete}. La primera fila es el total
+    //               (estado null) y le sigue una fila por estado.
+    @GetMapping("/paquetes/{idPaquete}")
+    public List<AgregadoReservas> obtenerPorPaquete(@PathVariable int idPaquete) {
+        return agregados.obtenerPorPaquete(idPaquete);
+    }
+
+    // --- 3. UN PAQUETE POR DÍA (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/agregados/paquetes/{idPaquete}/dias?desde=2025-12-01&hasta=2025-12-31&estado=CONFIRMADA
+    //               (todos los parámetros son opcionales)
+    @GetMapping("/paquetes/{idPaquete}/dias")
+    public List<AgregadoReservas> obtenerPorDia(@PathVariable int idPaquete,
+                                                @RequestParam(required = false) Date desde,
+                                                @RequestParam(required = false) Date hasta,
+                                                @RequestParam(required = false) String estado) {
+        return agregados.obtenerPorDia(idPaquete, desde, hasta, estado);
+    }
+}
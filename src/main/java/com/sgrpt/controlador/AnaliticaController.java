@@ -0,0 +1,43 @@
+package com.sgrpt.controlador;
+
+import com.sgrpt.modelo.AgregadoReservas;
+import com.sgrpt.servicio.AnaliticaReservasService;
+import com.sgrpt.servicio.ColumnasReservas.Agrupacion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Locale;
+
+// [Comentario]: Consultas de análisis sobre la copia columnar de las reservas en memoria (solo lectura).
+//               A diferencia de /api/v1/agregados (totales fijos por paquete/estado/día), aquí se combinan
+//               filtros y agrupación libremente; cada consulta recorre todas las filas en paralelo.
+@RestController
+@RequestMapping("/api/v1/analitica")
+public class AnaliticaController {
+
+    @Autowired
+    private AnaliticaReservasService analitica;
+
+    // --- 1. RESERVAS AGRUPADAS (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/analitica/reservas?agrupar=mes&desde=2025-01-01&hasta=2025-12-31
+    //               &idPaquete=3&estado=Confirmada&paralelo=true
+    //               'agrupar': ninguna, paquete, estado o mes. Todos los filtros son opcionales.
+    @GetMapping("/reservas")
+    public ResponseEntity<List<AgregadoReservas>> agrupar(@RequestParam(defaultValue = "ninguna") String agrupar,
+                                                          @RequestParam(required = false) Date desde,
+                                                          @RequestParam(required = false) Date hasta,
+                                                          @RequestParam(required = false) Integer idPaquete,
+                                                          @RequestParam(required = false) String estado,
+                                                          @RequestParam(defaultValue = "true") boolean paralelo) {
+        Agrupacion agrupacion;
+        try {
+            agrupacion = Agrupacion.valueOf(agrupar.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(analitica.agrupar(agrupacion, desde, hasta, idPaquete, estado, paralelo));
+    }
+}
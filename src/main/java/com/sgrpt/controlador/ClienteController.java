@@ -0,0 +1,120 @@
+package com.sgrpt.controlador;
+
+import com.sgrpt.dao.ClienteDAO;
+import com.sgrpt.dao.ReservaDAO;
+import com.sgrpt.modelo.Cliente;
+import com.sgrpt.modelo.Coincidencia;
+import com.sgrpt.modelo.Pagina;
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.servicio.BusquedaService;
+import com.sgrpt.servicio.ClienteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+// [Comentario]: Endpoints REST de clientes (acceso vía ClienteDAO / JDBC).
+@RestController
+@RequestMapping("/api/v1/clientes")
+public class ClienteController {
+
+    // [Comentario]: Tamaño máximo de página que aceptan los endpoints (listado y búsqueda).
+    private static final int LIMITE_MAXIMO = 500;
+    private static final int LIMITE_BUSQUEDA = 100;
+
+    @Autowired
+    private ClienteDAO dao;
+
+    @Autowired
+    private BusquedaService busqueda;
+
+    @Autowired
+    private ClienteService clientes;
+
+    @Autowired
+    private ReservaDAO reservaDAO;
+
+    // --- 1. LEER PÁGINA (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/clientes?despuesDe=0&limite=50 (paginación keyset por idCliente).
+    //               Para la siguiente página se envía despuesDe=siguienteCursor.
+    @GetMapping
+    public Pagina<Cliente> obtenerPagina(@RequestParam(defaultValue = "0") int despuesDe,
+                                      @RequestParam(defaultValue = "50") int limite) {
+        return dao.obtenerPagina(despuesDe, Math.max(1, Math.min(limite, LIMITE_MAXIMO)));
+    }
+
+    // --- 2. BUSCAR (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/clientes/buscar?q=juan per&difusa=false&desde=0&limite=20
+    //               Busca por nombre, apellido, email o identificación (prefijo, o difusa para tolerar erratas).
+    //               Resultados ordenados por relevancia; la siguiente página se pide con desde=siguienteCursor.
+    @GetMapping("/buscar")
+    public Pagina<Coincidencia<Cliente>> buscar(@RequestParam String q,
+                                                @RequestParam(defaultValue = "false") boolean difusa,
+                                                @RequestParam(defaultValue = "0") int desde,
+                                                @RequestParam(defaultValue = "20") int limite) {
+        return busqueda.buscarClientes(q, difusa, Math.max(0, desde), Math.max(1, Math.min(limite, LIMITE_BUSQUEDA)));
+    }
+
+    // --- 3. LEER POR ID / IDENTIFICACIÓN / EMAIL (GET) ---
+    // [Comentario]: Búsquedas puntuales por índice (y caché de clientes recientes). 404 si no existe.
+    //               GET por id devuelve el ETag (versión) que luego se envía en If-Match al modificar.
+    @GetMapping("/{id}")
+    public ResponseEntity<Cliente> obtenerPorId(@PathVariable int id) {
+        return clientes.obtenerPorId(id)
+                       .map(cliente -> ResponseEntity.ok().eTag(Precondiciones.etag(cliente.getVersion())).body(cliente))
+                       .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/identificacion/{identificacion}")
+    public ResponseEntity<Cliente> obtenerPorIdentificacion(@PathVariable String identificacion) {
+        return ResponseEntity.of(clientes.obtenerPorIdentificacion(identificacion));
+    }
+
+    // [Comentario]: El email no es único: devuelve la lista (vacía si no hay ninguno).
+    @GetMapping("/email/{email}")
+    public List<Cliente> obtenerPorEmail(@PathVariable String email) {
+        return clientes.obtenerPorEmail(email);
+    }
+
+    // [Comentario]: Mapea a GET /api/v1/clientes/{id}/reservas (índice idx_reserva_cliente).
+    @GetMapping("/{id}/reservas")
+    public List<Reserva> obtenerReservas(@PathVariable int id) {
+        return reservaDAO.obtenerReservasPorCliente(id);
+    }
+
+    // --- 4. REGISTRAR (POST) ---
+    // [Comentario]: Mapea a POST /api/v1/clientes. Si ya hay un cliente con esa identificación lo devuelve
+    //               (200 OK) en lugar de duplicarlo; si no, lo crea (201 CREATED).
+    @PostMapping
+    public ResponseEntity<Cliente> registrar(@RequestBody Cliente cliente) {
+        return clientes.registrar(cliente)
+            .map(registro -> registro.creado()
+                ? ResponseEntity.created(URI.create("/api/v1/clientes/" + registro.cliente().getIdCliente()))
+                                .body(registro.cliente())
+                : ResponseEntity.ok(registro.cliente()))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+    }
+
+    // --- 5. MODIFICAR CAMPOS (PATCH) ---
+    // [Comentario]: Mapea a PATCH /api/v1/clientes/{id} con solo los campos a cambiar, p. ej. {"telefono": "..."}.
+    //               Un único UPDATE condicional. Con If-Match: "version" responde 412 si otra edición se
+    //               guardó antes; sin If-Match se aplica igualmente (solo toca los campos enviados).
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> actualizarParcial(@PathVariable int id, @RequestBody Map<String, Object> cambios,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        return Precondiciones.responder(dao.actualizarParcial(id, cambios, Precondiciones.versionEsperada(siCoincide)));
+    }
+
+    // --- 6. ELIMINAR (DELETE) ---
+    // [Comentario]: Mapea a DELETE /api/v1/clientes/{id}. Un solo DELETE: 204, 404 o 412 (con If-Match).
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> eliminar(@PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        return Precondiciones.responder(dao.eliminar(id, Precondiciones.versionEsperada(siCoincide)));
+    }
+}
@@ -0,0 +1,123 @@
+package com.sgrpt.controlador;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// [Comentario]: Control de admisión delante de los endpoints de reservas, clientes y catálogo: con saturación
+//               se rechazan peticiones enseguida en lugar de que todas esperen por el pool de conexiones, y la
+//               latencia de las admitidas se mantiene acotada.
+//               Un LimitadorAdaptativo por grupo de endpoints:
+//               - reservas-escritura: POST/PUT/PATCH/DELETE /api/v1/reservas/** (prioritario)
+//               - reservas-lectura:   GET /api/v1/reservas/**
+//               - clientes:           /api/v1/clientes/**
+//               - catalogo:           /api/v1/paquetes/** (incluye cupos y búsquedas)
+//               Los grupos no prioritarios ceden parte de su límite mientras hay reservas esperando.
+//               Rechazos, ambos con Retry-After (segundos estimados para vaciar la cola):
+//               - 429 Too Many Requests: la cola del grupo está llena.
+//               - 503 Service Unavailable: la petición esperó en cola el máximo sin conseguir hueco.
+//               El resto de rutas (sistema, actuator, exportaciones con su propio límite...) no pasa por aquí.
+@Component
+public class ControlAdmisionFilter extends OncePerRequestFilter {
+
+    private final boolean activa;
+    private final LimitadorAdaptativo reservasEscritura;
+    private final LimitadorAdaptativo reservasLectura;
+    private final LimitadorAdaptativo clientes;
+    private final LimitadorAdaptativo catalogo;
+
+    public ControlAdmisionFilter(@Value("${sgrpt.admision.activa:true}") boolean activa,
+                                 @Value("${sgrpt.admision.limite-inicial:20}") int limiteInicial,
+                                 @Value("${sgrpt.admision.limite-minimo:2}") int limiteMinimo,
+                                 @Value("${sgrpt.admision.limite-maximo:200}") int limiteMaximo,
+                                 @Value("${sgrpt.admision.espera-maxima-ms:1000}") long esperaMaximaMs,
+                                 @Value("${sgrpt.admision.cesion-prioridad:0.5}") double cesion,
+                                 @Value("${sgrpt.admision.reservas-escritura.latencia-objetivo-ms:500}") long objetivoEscritura,
+                                 @Value("${sgrpt.admision.reservas-escritura.cola:200}") int colaEscritura,
+                                 @Value("${sgrpt.admision.reservas-lectura.latencia-objetivo-ms:200}") long objetivoLectura,
+                                 @Value("${sgrpt.admision.reservas-lectura.cola:100}") int colaLectura,
+                                 @Value("${sgrpt.admision.clientes.latencia-objetivo-ms:200}") long objetivoClientes,
+                                 @Value("${sgrpt.admision.clientes.cola:100}") int colaClientes,
+                                 @Value("${sgrpt.admision.catalogo.latencia-objetivo-ms:150}") long objetivoCatalogo,
+                                 @Value("${sgrpt.admision.catalogo.cola:50}") int colaCatalogo) {
+        this.activa = activa;
+        this.reservasEscritura = new LimitadorAdaptativo("reservas-escritura", limiteInicial, limiteMinimo, limiteMaximo,
+                                                         objetivoEscritura, colaEscritura, esperaMaximaMs, null, 1);
+        this.reservasLectura = new LimitadorAdaptativo("reservas-lectura", limiteInicial, limiteMinimo, limiteMaximo,
+                                                       objetivoLectura, colaLectura, esperaMaximaMs,
+                                                       reservasEscritura::hayEsperando, cesion);
+        this.clientes = new LimitadorAdaptativo("clientes", limiteInicial, limiteMinimo, limiteMaximo,
+                                                objetivoClientes, colaClientes, esperaMaximaMs,
+                                                reservasEscritura::hayEsperando, cesion);
+        this.catalogo = new LimitadorAdaptativo("catalogo", limiteInicial, limiteMinimo, limiteMaximo,
+                                                objetivoCatalogo, colaCatalogo, esperaMaximaMs,
+                                                reservasEscritura::hayEsperando, cesion);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !activa || grupo(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        LimitadorAdaptativo limitador = grupo(request);
+        LimitadorAdaptativo.Resultado resultado = limitador.adquirir();
+        if (resultado != LimitadorAdaptativo.Resultado.ADMITIDA) {
+            HttpStatus estado = resultado == LimitadorAdaptativo.Resultado.COLA_LLENA
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.SERVICE_UNAVAILABLE;
+            response.setStatus(estado.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(limitador.segundosReintento()));
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limitador.liberar(System.nanoTime() - inicio);
+        }
+    }
+
+    private LimitadorAdaptativo grupo(HttpServletRequest request) {
+        String ruta = request.getRequestURI();
+        if (ruta.startsWith("/api/v1/reservas")) {
+            String metodo = request.getMethod();
+            return "GET".equals(metodo) || "HEAD".equals(metodo) ? reservasLectura : reservasEscritura;
+        }
+        if (ruta.startsWith("/api/v1/clientes")) {
+            return clientes;
+        }
+        if (ruta.startsWith("/api/v1/paquetes")) {
+            return catalogo;
+        }
+        return null;
+    }
+
+    /**
+     * Límite, ocupación, cola y contadores de cada grupo (para /api/v1/sistema/admision).
+     */
+    public Map<String, Object> obtenerEstadisticas() {
+        List<Map<String, Object>> grupos = new ArrayList<>();
+        for (LimitadorAdaptativo limitador : List.of(reservasEscritura, reservasLectura, clientes, catalogo)) {
+            grupos.add(limitador.obtenerEstado());
+        }
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("activa", activa);
+        estadisticas.put("grupos", grupos);
+        return estadisticas;
+    }
+}
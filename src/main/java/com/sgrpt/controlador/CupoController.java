@@ -0,0 +1,62 @@
+package com.sgrpt.controlador;
+
+import com.sgrpt.dao.CupoDAO;
+import com.sgrpt.modelo.CupoPaquete;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.sql.Date;
+import java.util.List;
+
+// [Comentario]: Gestión del cupo (plazas) de cada salida de un paquete.
+@RestController
+@RequestMapping("/api/v1/paquetes/{idPaquete}/cupos")
+public class CupoController {
+
+    @Autowired
+    private CupoDAO dao;
+
+    // --- 1. LEER SALIDAS (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/paquetes/{idPaquete}/cupos
+    @GetMapping
+    public List<CupoPaquete> obtenerCupos(@PathVariable int idPaquete) {
+        return dao.obtenerPorPaquete(idPaquete);
+    }
+
+    // --- 2. LEER UNA SALIDA (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/paquetes/{idPaquete}/cupos/2025-12-20
+    @GetMapping("/{fecha}")
+    public ResponseEntity<CupoPaquete> obtenerCupo(@PathVariable int idPaquete, @PathVariable Date fecha) {
+        CupoPaquete cupo = dao.obtener(idPaquete, fecha);
+        return cupo != null ? ResponseEntity.ok(cupo) : ResponseEntity.notFound().build();
+    }
+
+    // --- 3. CREAR SALIDA (POST) ---
+    // [Comentario]: Mapea a POST /api/v1/paquetes/{idPaquete}/cupos con {"fechaSalida": "...", "capacidad": 40}
+    @PostMapping
+    public ResponseEntity<CupoPaquete> crearCupo(@PathVariable int idPaquete, @RequestBody CupoPaquete cupo) {
+        cupo.setIdPaquete(idPaquete);
+        if (cupo.getFechaSalida() == null || cupo.getCapacidad() < 0 || !dao.insertar(cupo)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(dao.obtener(idPaquete, cupo.getFechaSalida()));
+    }
+
+    // --- 4. CAMBIAR CAPACIDAD (PUT) ---
+    // [Comentario]: Mapea a PUT /api/v1/paquetes/{idPaquete}/cupos/{fecha} con {"capacidad": 50, "version": 3}.
+    //               Control optimista: 409 CONFLICT si la versión enviada ya no es la actual.
+    @PutMapping("/{fecha}")
+    public ResponseEntity<CupoPaquete> actualizarCapacidad(@PathVariable int idPaquete, @PathVariable Date fecha,
+                                                           @RequestBody CupoPaquete cambios) {
+        cambios.setIdPaquete(idPaquete);
+        cambios.setFechaSalida(fecha);
+        if (!dao.actualizarCapacidad(cambios)) {
+            CupoPaquete actual = dao.obtener(idPaquete, fecha);
+            return actual == null ? ResponseEntity.notFound().build()
+                                  : ResponseEntity.status(HttpStatus.CONFLICT).body(actual);
+        }
+        return ResponseEntity.ok(dao.obtener(idPaquete, fecha));
+    }
+}
@@ -0,0 +1,104 @@
+package com.sgrpt.controlador;
+
+import com.sgrpt.servicio.ExportacionService;
+import com.sgrpt.servicio.ExportacionService.Turno;
+import com.sgrpt.servicio.ImportacionService.Formato;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+
+// [Comentario]: Exportación masiva (extractos para finanzas) en CSV o NDJSON. La respuesta se escribe en
+//               streaming desde el cursor de la base de datos (StreamingResponseBody), sin armar la lista
+//               completa en memoria. Con gzip=true se descarga comprimida (.gz).
+@RestController
+@RequestMapping("/api/v1/exportaciones")
+public class ExportacionController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private ExportacionService servicio;
+
+    // --- EXPORTAR RESERVAS (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/exportaciones/reservas?formato=csv&gzip=false&desde=2025-01-01&hasta=2025-12-31&estado=Confirmada
+    //               Todos los filtros son opcionales (fechas incluidas). 503 + Retry-After si ya hay demasiadas
+    //               exportaciones en curso.
+    @GetMapping("/reservas")
+    public ResponseEntity<StreamingResponseBody> exportarReservas(
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String estado,
+            WebRequest peticion) {
+        Formato tipo = formato(formato);
+        Date fechaDesde = desde == null ? null : Date.valueOf(desde);
+        Date fechaHasta = hasta == null ? null : Date.valueOf(hasta);
+        return responder("reservas", tipo, gzip, peticion,
+                         (turno, salida) -> servicio.exportarReservas(turno, salida, tipo, gzip, fechaDesde, fechaHasta, estado));
+    }
+
+    // --- EXPORTAR CLIENTES (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/exportaciones/clientes?formato=ndjson&gzip=true
+    @GetMapping("/clientes")
+    public ResponseEntity<StreamingResponseBody> exportarClientes(@RequestParam(defaultValue = "csv") String formato,
+                                                                  @RequestParam(defaultValue = "false") boolean gzip,
+                                                                  WebRequest peticion) {
+        Formato tipo = formato(formato);
+        return responder("clientes", tipo, gzip, peticion, (turno, salida) -> servicio.exportarClientes(turno, salida, tipo, gzip));
+    }
+
+    // [Comentario]: Cuerpo de la descarga; recibe el turno para liberarlo al terminar (ExportacionService).
+    @FunctionalInterface
+    private interface Exportacion {
+        void escribir(Turno turno, OutputStream salida) throws IOException;
+    }
+
+    // [Comentario]: El turno se toma aquí (para poder responder 503) pero la descarga corre después, en otro
+    //               hilo. Si no llega a correr (tiempo agotado, el cliente corta, error antes del cuerpo), el
+    //               turno se libera al terminar la petición asíncrona; liberarlo dos veces no tiene efecto.
+    private ResponseEntity<StreamingResponseBody> responder(String nombre, Formato formato, boolean gzip,
+                                                            WebRequest peticion, Exportacion exportacion) {
+        Turno turno = servicio.obtenerTurno();
+        if (turno == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                 .header(HttpHeaders.RETRY_AFTER, "30")
+                                 .build();
+        }
+        WebAsyncUtils.getAsyncManager(peticion).registerCallableInterceptor(turno, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest request, Callable<T> tarea) {
+                turno.liberar();
+            }
+        });
+        StreamingResponseBody cuerpo = salida -> exportacion.escribir(turno, salida);
+        String archivo = nombre + (formato == Formato.NDJSON ? ".ndjson" : ".csv") + (gzip ? ".gz" : "");
+        MediaType tipo = gzip ? MediaType.valueOf("application/gzip")
+                              : formato == Formato.NDJSON ? MediaType.valueOf(NDJSON)
+                                                          : new MediaType("text", "csv", StandardCharsets.UTF_8);
+        return ResponseEntity.ok()
+                             .contentType(tipo)
+                             .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archivo + "\"")
+                             .body(cuerpo);
+    }
+
+    private Formato formato(String formato) {
+        return "ndjson".equalsIgnoreCase(formato) ? Formato.NDJSON : Formato.CSV;
+    }
+}
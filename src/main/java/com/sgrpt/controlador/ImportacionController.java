@@ -0,0 +1,42 @@
+package com.sgrpt.controlador;
+
+import com.sgrpt.modelo.ResumenImportacion;
+import com.sgrpt.servicio.ImportacionService;
+import com.sgrpt.servicio.ImportacionService.Formato;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// [Comentario]: Importación masiva de archivos de socios (CSV o NDJSON, una fila por línea).
+@RestController
+@RequestMapping("/api/v1/importaciones")
+public class ImportacionController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private ImportacionService servicio;
+
+    // --- IMPORTAR RESERVAS (POST) ---
+    // [Comentario]: Mapea a POST /api/v1/importaciones/reservas. El cuerpo se lee como InputStream
+    //               (sin deserializarlo completo), así el archivo se procesa en streaming. Cada reserva pasa
+    //               por el motor de cupos: las que no caben en su salida aparecen en los fallos.
+    @PostMapping(value = "/reservas", consumes = { "text/csv", NDJSON })
+    public ResumenImportacion importarReservas(@RequestHeader("Content-Type") MediaType tipo, InputStream cuerpo) throws IOException {
+        return servicio.importarReservas(cuerpo, formato(tipo));
+    }
+
+    // --- IMPORTAR CLIENTES (POST) ---
+    // [Comentario]: Mapea a POST /api/v1/importaciones/clientes
+    @PostMapping(value = "/clientes", consumes = { "text/csv", NDJSON })
+    public ResumenImportacion importarClientes(@RequestHeader("Content-Type") MediaType tipo, InputStream cuerpo) throws IOException {
+        return servicio.importarClientes(cuerpo, formato(tipo));
+    }
+
+    private Formato formato(MediaType tipo) {
+        return tipo.isCompatibleWith(MediaType.valueOf(NDJSON)) ? Formato.NDJSON : Formato.CSV;
+    }
+}
@@ -0,0 +1,84 @@
+package com.sgrpt.controlador;
+
+import com.sgrpt.conexion.Enrutamiento;
+import com.sgrpt.conexion.ReplicasLectura;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// [Comentario]: Lectura de lo propio con réplicas: quien acaba de escribir no debe leer una réplica que
+//               todavía no tiene su cambio.
+//               - POST/PUT/PATCH/DELETE: toda la petición (incluidas sus lecturas) usa la primaria, y la
+//                 respuesta lleva la cookie 'sgrpt-primaria' con el instante hasta el que dura la ventana.
+//               - Peticiones con esa cookie vigente: sus lecturas también van a la primaria.
+//               La ventana (sgrpt.replicas.ventana-lectura-propia-ms) debe cubrir el retraso máximo que se
+//               tolera en una réplica (sgrpt.replicas.retraso-maximo-ms). Sin réplicas no hace nada.
+@Component
+public class LecturaPropiaFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "sgrpt-primaria";
+
+    private final ReplicasLectura replicas;
+    private final long ventanaMs;
+
+    public LecturaPropiaFilter(ReplicasLectura replicas,
+                               @Value("${sgrpt.replicas.ventana-lectura-propia-ms:5000}") long ventanaMs) {
+        this.replicas = replicas;
+        this.ventanaMs = ventanaMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !replicas.hayReplicas();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long ahora = System.currentTimeMillis();
+        if (esEscritura(request.getMethod())) {
+            Enrutamiento.usarPrimaria();
+            // Antes de procesar: después la respuesta ya puede estar enviada y no admitiría cabeceras
+            Cookie cookie = new Cookie(COOKIE, Long.toString(ahora + ventanaMs));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (ventanaMs + 999) / 1000));
+            response.addCookie(cookie);
+        } else if (ventanaVigente(request, ahora)) {
+            Enrutamiento.usarPrimaria();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Enrutamiento.limpiar();
+        }
+    }
+
+    private static boolean esEscritura(String metodo) {
+        return !"GET".equals(metodo) && !"HEAD".equals(metodo) && !"OPTIONS".equals(metodo);
+    }
+
+    private static boolean ventanaVigente(HttpServletRequest request, long ahora) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > ahora;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,224 @@
+package com.sgrpt.controlador;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+// [Comentario]: Límite de peticiones simultáneas de un grupo de endpoints, ajustado según su latencia (AIMD):
+//               - Una petición que tarda más que la latencia objetivo reduce el límite un 10 % (como mucho una
+//                 vez por cada intervalo objetivo, para no hundirlo con una racha de respuestas lentas).
+//               - Las que cumplen el objetivo con el límite en uso lo suben poco a poco (+1 por cada 'límite'
+//                 respuestas), hasta encontrar la concurrencia a partir de la cual la latencia se dispara.
+//               Por encima del límite las peticiones esperan en una cola FIFO acotada un tiempo máximo. Con la
+//               cola llena o la espera agotada se rechazan, y el llamador responde enseguida en lugar de
+//               acumular trabajo en el pool de conexiones.
+//               Prioridad: un grupo no prioritario cede parte de su límite mientras hay peticiones del grupo
+//               prioritario (escrituras de reservas) esperando.
+//               ReentrantLock y no synchronized: con hilos virtuales, esperar en un monitor fija el hilo portador.
+//               final: el constructor registra las métricas con 'this', que una subclase vería a medio construir.
+public final class LimitadorAdaptativo {
+
+    public enum Resultado { ADMITIDA, COLA_LLENA, ESPERA_AGOTADA }
+
+    // [Comentario]: Una petición en cola. 'admitida' la marca quien libera el hueco (ya contada en enCurso).
+    private static final class Espera {
+        private final Condition condicion;
+        private boolean admitida;
+
+        Espera(Condition condicion) {
+            this.condicion = condicion;
+        }
+    }
+
+    private final String grupo;
+    private final int minimo;
+    private final int maximo;
+    private final int capacidadCola;
+    private final long objetivoNanos;
+    private final long esperaMaximaNanos;
+    private final BooleanSupplier prioritariasEsperando;
+    private final double cesion;
+
+    private final ReentrantLock candado = new ReentrantLock();
+    private final ArrayDeque<Espera> cola = new ArrayDeque<>();
+    private double limite;
+    private int enCurso;
+    private long ultimaReduccion = System.nanoTime();
+    private double latenciaMediaNanos;
+    // Leído sin el candado por los grupos que ceden prioridad
+    private volatile int esperando;
+
+    // Contadores (con el candado tomado)
+    private long aceptadas;
+    private long encoladas;
+    private long rechazadasColaLlena;
+    private long rechazadasEsperaAgotada;
+    private final Timer tiempoEspera;
+
+    /**
+     * @param prioritariasEsperando true mientras el grupo prioritario tenga peticiones en cola (null en el
+     *                              propio grupo prioritario)
+     * @param cesion                fracción del límite que conserva este grupo mientras tanto
+     */
+    public LimitadorAdaptativo(String grupo, int limiteInicial, int minimo, int maximo, long objetivoMs,
+                               int capacidadCola, long esperaMaximaMs, BooleanSupplier prioritariasEsperando,
+                               double cesion) {
+        this.grupo = grupo;
+        this.minimo = Math.max(1, minimo);
+        this.maximo = Math.max(this.minimo, maximo);
+        this.limite = Math.max(this.minimo, Math.min(limiteInicial, this.maximo));
+        this.objetivoNanos = TimeUnit.MILLISECONDS.toNanos(objetivoMs);
+        this.capacidadCola = capacidadCola;
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        this.prioritariasEsperando = prioritariasEsperando;
+        this.cesion = cesion;
+
+        FunctionCounter.builder("sgrpt.admision.aceptadas", this, l -> l.aceptadas)
+                       .tag("grupo", grupo).register(Metrics.globalRegistry);
+        FunctionCounter.builder("sgrpt.admision.encoladas", this, l -> l.encoladas)
+                       .tag("grupo", grupo).register(Metrics.globalRegistry);
+        FunctionCounter.builder("sgrpt.admision.rechazadas", this, l -> l.rechazadasColaLlena)
+                       .tags("grupo", grupo, "motivo", "cola_llena").register(Metrics.globalRegistry);
+        FunctionCounter.builder("sgrpt.admision.rechazadas", this, l -> l.rechazadasEsperaAgotada)
+                       .tags("grupo", grupo, "motivo", "espera_agotada").register(Metrics.globalRegistry);
+        this.tiempoEspera = Timer.builder("sgrpt.admision.espera").tag("grupo", grupo)
+                                 .publishPercentiles(0.5, 0.99).register(Metrics.globalRegistry);
+        Gauge.builder("sgrpt.admision.limite", this, l -> l.limite).tag("grupo", grupo).register(Metrics.globalRegistry);
+        Gauge.builder("sgrpt.admision.en_curso", this, l -> l.enCurso).tag("grupo", grupo).register(Metrics.globalRegistry);
+        Gauge.builder("sgrpt.admision.en_cola", this, l -> l.esperando).tag("grupo", grupo).register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Ocupa un hueco, esperando en la cola si hace falta. Con ADMITIDA hay que llamar después a liberar().
+     */
+    public Resultado adquirir() {
+        candado.lock();
+        try {
+            if (cola.isEmpty() && enCurso < limiteEfectivo()) {
+                enCurso++;
+                aceptadas++;
+                return Resultado.ADMITIDA;
+            }
+            if (cola.size() >= capacidadCola) {
+                rechazadasColaLlena++;
+                return Resultado.COLA_LLENA;
+            }
+            Espera espera = new Espera(candado.newCondition());
+            cola.addLast(espera);
+            esperando = cola.size();
+            encoladas++;
+            despertar();
+
+            long inicio = System.nanoTime();
+            long restante = esperaMaximaNanos;
+            try {
+                while (!espera.admitida && restante > 0) {
+                    restante = espera.condicion.awaitNanos(restante);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            tiempoEspera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            if (espera.admitida) {
+                aceptadas++;
+                return Resultado.ADMITIDA;
+            }
+            cola.remove(espera);
+            esperando = cola.size();
+            rechazadasEsperaAgotada++;
+            return Resultado.ESPERA_AGOTADA;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Libera el hueco de una petición admitida y ajusta el límite con lo que tardó en procesarse (sin la cola).
+     */
+    public void liberar(long nanosProceso) {
+        candado.lock();
+        try {
+            int ocupados = enCurso;
+            enCurso--;
+            latenciaMediaNanos = latenciaMediaNanos == 0 ? nanosProceso : 0.9 * latenciaMediaNanos + 0.1 * nanosProceso;
+            long ahora = System.nanoTime();
+            if (nanosProceso > objetivoNanos) {
+                if (ahora - ultimaReduccion > objetivoNanos) {
+                    limite = Math.max(minimo, limite * 0.9);
+                    ultimaReduccion = ahora;
+                }
+            } else if (ocupados >= (int) limite / 2) {
+                limite = Math.min(maximo, limite + 1.0 / limite);
+            }
+            despertar();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    // Admite desde la cabeza de la cola mientras haya hueco. Con el candado tomado.
+    private void despertar() {
+        while (!cola.isEmpty() && enCurso < limiteEfectivo()) {
+            Espera espera = cola.pollFirst();
+            espera.admitida = true;
+            enCurso++;
+            espera.condicion.signal();
+        }
+        esperando = cola.size();
+    }
+
+    private int limiteEfectivo() {
+        int efectivo = (int) limite;
+        if (prioritariasEsperando != null && prioritariasEsperando.getAsBoolean()) {
+            efectivo = Math.max(1, (int) (efectivo * cesion));
+        }
+        return efectivo;
+    }
+
+    public boolean hayEsperando() {
+        return esperando > 0;
+    }
+
+    /**
+     * Segundos sugeridos para reintentar (Retry-After): lo que tardaría en vaciarse la cola actual, entre 1 y 30.
+     */
+    public long segundosReintento() {
+        candado.lock();
+        try {
+            double nanos = (cola.size() + 1) * latenciaMediaNanos / Math.max(1, limiteEfectivo());
+            return Math.max(1, Math.min(30, (long) Math.ceil(nanos / 1e9)));
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    public Map<String, Object> obtenerEstado() {
+        candado.lock();
+        try {
+            Map<String, Object> estado = new LinkedHashMap<>();
+            estado.put("grupo", grupo);
+            estado.put("limite", Math.round(limite * 10) / 10.0);
+            estado.put("limiteEfectivo", limiteEfectivo());
+            estado.put("enCurso", enCurso);
+            estado.put("enCola", cola.size());
+            estado.put("latenciaMediaMs", Math.round(latenciaMediaNanos / 1e5) / 10.0);
+            estado.put("latenciaObjetivoMs", TimeUnit.NANOSECONDS.toMillis(objetivoNanos));
+            estado.put("aceptadas", aceptadas);
+            estado.put("encoladas", encoladas);
+            estado.put("rechazadasColaLlena", rechazadasColaLlena);
+            estado.put("rechazadasEsperaAgotada", rechazadasEsperaAgotada);
+            return estado;
+        } finally {
+            candado.unlock();
+        }
+    }
+}
@@ -1,14 +1,30 @@
 package com.sgrpt.controlador;
 
+import com.sgrpt.modelo.Coincidencia;
+import com.sgrpt.modelo.Pagina;
+import com.sgrpt.modelo.PaqueteDisponible;
 import com.sgrpt.modelo.PaqueteTuristico;
+import com.sgrpt.modelo.ResultadoEscritura;
 import com.sgrpt.repositorio.PaqueteTuristicoRepository;
+import com.sgrpt.servicio.BusquedaService;
+import com.sgrpt.servicio.CatalogoCache;
+import com.sgrpt.servicio.CatalogoCache.Entrada;
+import com.sgrpt.servicio.DisponibilidadService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 // [Comentario]: @RestController combina @Controller y @ResponseBody (devuelve datos JSON/XML).
 @RestController 
@@ -20,23 +36,103 @@ public class PaqueteTuristicoController {
     @Autowired
     private PaqueteTuristicoRepository repositorio;
 
+    // [Comentario]: Caché de lectura del catálogo; las escrituras de este controlador la invalidan.
+    @Autowired
+    private CatalogoCache cache;
+
+    // [Comentario]: Índice de búsqueda de texto; las escrituras de este controlador lo mantienen al día.
+    @Autowired
+    private BusquedaService busqueda;
+
+    // [Comentario]: Índice de plazas libres por salida; las escrituras de este controlador actualizan sus datos.
+    @Autowired
+    private DisponibilidadService disponibilidad;
+
+    // [Comentario]: Campos por los que se permite ordenar (todos indexados) y tamaño máximo de página.
+    private static final Set<String> CAMPOS_ORDEN = Set.of("nombre", "precio", "duracionDias");
+    private static final int TAMANO_MAXIMO = 100;
+
     // --- 1. LEER TODOS (GET) ---
-    // [Comentario]: Mapea a GET /api/v1/paquetes
+    // [Comentario]: Mapea a GET /api/v1/paquetes?pagina=0&tamano=20&orden=nombre&direccion=asc
+    //               &destino=...&precioMin=...&precioMax=...&duracionMin=...&duracionMax=...
+    //               El filtrado, el orden y la paginación se resuelven en la base de datos.
     @GetMapping
-    public List<PaqueteTuristico> obtenerTodos() {
-        return repositorio.findAll(); // [Comentario]: Método provisto por JpaRepository
+    public ResponseEntity<Pagina<PaqueteTuristico>> obtenerTodos(
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamano,
+            @RequestParam(defaultValue = "nombre") String orden,
+            @RequestParam(defaultValue = "asc") String direccion,
+            @RequestParam(required = false) String destino,
+            @RequestParam(required = false) Double precioMin,
+            @RequestParam(required = false) Double precioMax,
+            @RequestParam(required = false) Integer duracionMin,
+            @RequestParam(required = false) Integer duracionMax,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String siNoCoincide) {
+
+        if (!CAMPOS_ORDEN.contains(orden) || pagina < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        // [Comentario]: idPaquete desempata para que el orden sea estable entre páginas.
+        Sort sort = Sort.by(Sort.Direction.fromOptionalString(direccion).orElse(Sort.Direction.ASC), orden)
+                        .and(Sort.by("idPaquete"));
+        int tamanoPagina = Math.max(1, Math.min(tamano, TAMANO_MAXIMO));
+
+        String clave = String.join("|", String.valueOf(pagina), String.valueOf(tamanoPagina), orden, sort.toString(),
+                                   destino, String.valueOf(precioMin), String.valueOf(precioMax),
+                                   String.valueOf(duracionMin), String.valueOf(duracionMax));
+        Entrada<Pagina<PaqueteTuristico>> entrada = cache.obtenerConsulta(clave, () -> {
+            Slice<PaqueteTuristico> slice = repositorio.buscar(destino, precioMin, precioMax, duracionMin, duracionMax,
+                                                                PageRequest.of(pagina, tamanoPagina, sort));
+            // [Comentario]: El cursor de la siguiente página es su número (null si no hay más).
+            return new Pagina<>(slice.getContent(), tamanoPagina, slice.hasNext() ? pagina + 1 : null);
+        });
+        return responder(entrada.getValor(), entrada.getEtag(), siNoCoincide);
+    }
+
+    // --- 1b. BUSCAR POR TEXTO (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/paquetes/buscar?q=playa cancun&difusa=false&desde=0&limite=20
+    //               Busca en nombre, destino y descripción desde el índice en memoria (sin consultar la base de datos).
+    @GetMapping("/buscar")
+    public Pagina<Coincidencia<PaqueteTuristico>> buscar(@RequestParam String q,
+                                                         @RequestParam(defaultValue = "false") boolean difusa,
+                                                         @RequestParam(defaultValue = "0") int desde,
+                                                         @RequestParam(defaultValue = "20") int limite) {
+        return busqueda.buscarPaquetes(q, difusa, Math.max(0, desde), Math.max(1, Math.min(limite, TAMANO_MAXIMO)));
+    }
+
+    // --- 1c. BUSCAR DISPONIBILIDAD (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/paquetes/disponibles?fechaDesde=2025-12-01&fechaHasta=2025-12-31&personas=4
+    //               &destino=Cancún&precioMin=...&precioMax=...&desde=0&limite=20
+    //               Paquetes con alguna salida en el rango con plazas para el grupo, desde el índice en memoria.
+    @GetMapping("/disponibles")
+    public ResponseEntity<Pagina<PaqueteDisponible>> buscarDisponibles(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaDesde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaHasta,
+            @RequestParam(defaultValue = "1") int personas,
+            @RequestParam(required = false) String destino,
+            @RequestParam(required = false) Double precioMin,
+            @RequestParam(required = false) Double precioMax,
+            @RequestParam(defaultValue = "0") int desde,
+            @RequestParam(defaultValue = "20") int limite) {
+        if (personas < 1 || fechaHasta.isBefore(fechaDesde)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(disponibilidad.buscar(fechaDesde, fechaHasta, personas, destino, precioMin, precioMax,
+                                                       Math.max(0, desde), Math.max(1, Math.min(limite, TAMANO_MAXIMO))));
     }
 
     // --- 2. LEER POR ID (GET) ---
     // [Comentario]: Mapea a GET /api/v1/paquetes/{id}
     @GetMapping("/{id}")
-    public ResponseEntity<PaqueteTuristico> obtenerPorId(@PathVariable Integer id) {
-        // [Comentario]: Optional<T> maneja si el resultado existe o no.
-        Optional<PaqueteTuristico> paquete = repositorio.findById(id); 
+    public ResponseEntity<PaqueteTuristico> obtenerPorId(@PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String siNoCoincide) {
+        // [Comentario]: Optional<T> maneja si el resultado existe o no (se cachea también la ausencia).
+        Entrada<Optional<PaqueteTuristico>> entrada = cache.obtenerPaquete(id, () -> repositorio.findById(id));
 
-        // [Comentario]: Si existe, devuelve 200 OK con el paquete. Si no, devuelve 404 NOT FOUND.
-        return paquete.map(ResponseEntity::ok)
-                     .orElseGet(() -> ResponseEntity.notFound().build());
+        // [Comentario]: Si existe, devuelve 200 OK con el paquete (o 304 si el cliente ya lo tiene). Si no, 404 NOT FOUND.
+        return entrada.getValor()
+                      .map(paquete -> responder(paquete, entrada.getEtag(), siNoCoincide))
+                      .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     // --- 3. CREAR (POST) ---
@@ -45,32 +141,73 @@ public class PaqueteTuristicoController {
     @ResponseStatus(HttpStatus.CREATED) // [Comentario]: Devuelve código HTTP 201 (Creado)
     // [Comentario]: @RequestBody mapea el JSON de la petición al objeto PaqueteTuristico
     public PaqueteTuristico crearPaquete(@RequestBody PaqueteTuristico paquete) {
-        return repositorio.save(paquete);
+        // [Comentario]: POST siempre crea: un id o una versión en el cuerpo no sobrescriben un paquete existente.
+        paquete.setIdPaquete(null);
+        paquete.setVersion(null);
+        PaqueteTuristico creado = repositorio.guardar(paquete);
+        cache.invalidar(creado.getIdPaquete());
+        busqueda.guardarPaquete(creado);
+        disponibilidad.guardarPaquete(creado);
+        return creado;
     }
 
     // --- 4. ACTUALIZAR (PUT) ---
-    // [Comentario]: Mapea a PUT /api/v1/paquetes/{id}
+    // [Comentario]: Mapea a PUT /api/v1/paquetes/{id}. Reemplaza nombre, destino y precio con un único UPDATE
+    //               condicional que devuelve el paquete (sin findById previo), como PATCH y DELETE:
+    //               404 si no existe, 412 si If-Match no coincide con la versión actual.
     @PutMapping("/{id}")
-    public ResponseEntity<PaqueteTuristico> actualizarPaquete(@PathVariable Integer id, @RequestBody PaqueteTuristico detallesPaquete) {
-        
-        return repositorio.findById(id)
-            .map(paquete -> {
-                // [Comentario]: Actualiza los campos del objeto existente
-                paquete.setNombre(detallesPaquete.getNombre());
-                paquete.setDestino(detallesPaquete.getDestino());
-                paquete.setPrecio(detallesPaquete.getPrecio());
-                
-                PaqueteTuristico actualizado = repositorio.save(paquete); // [Comentario]: Guarda el objeto actualizado
-                return ResponseEntity.ok(actualizado);
-            })
-            .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<?> actualizarPaquete(@PathVariable Integer id, @RequestBody PaqueteTuristico detallesPaquete,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        ResultadoEscritura<PaqueteTuristico> resultado =
+            repositorio.actualizar(id, detallesPaquete, Precondiciones.versionEsperada(siCoincide));
+        if (resultado.getEstado() == ResultadoEscritura.Estado.HECHA) {
+            cache.invalidar(id);
+            busqueda.guardarPaquete(resultado.getElemento());
+            disponibilidad.guardarPaquete(resultado.getElemento());
+        }
+        return Precondiciones.responder(resultado);
+    }
+
+    // --- 4b. MODIFICAR CAMPOS (PATCH) ---
+    // [Comentario]: Mapea a PATCH /api/v1/paquetes/{id} con solo los campos a cambiar, p. ej. {"precio": 1200}.
+    //               Un único UPDATE condicional que devuelve el paquete (sin findById previo); 412 si
+    //               If-Match no coincide con la versión actual.
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> actualizarParcial(@PathVariable Integer id, @RequestBody Map<String, Object> cambios,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        ResultadoEscritura<PaqueteTuristico> resultado =
+            repositorio.actualizarParcial(id, cambios, Precondiciones.versionEsperada(siCoincide));
+        if (resultado.getEstado() == ResultadoEscritura.Estado.HECHA) {
+            cache.invalidar(id);
+            busqueda.guardarPaquete(resultado.getElemento());
+            disponibilidad.guardarPaquete(resultado.getElemento());
+        }
+        return Precondiciones.responder(resultado);
     }
 
     // --- 5. ELIMINAR (DELETE) ---
-    // [Comentario]: Mapea a DELETE /api/v1/paquetes/{id}
+    // [Comentario]: Mapea a DELETE /api/v1/paquetes/{id}. Un solo DELETE (deleteById leía antes la fila):
+    //               204 si se eliminó, 404 si no existe, 412 si If-Match no coincide.
     @DeleteMapping("/{id}")
-    @ResponseStatus(HttpStatus.NO_CONTENT) // [Comentario]: Devuelve código HTTP 204 (Éxito sin contenido)
-    public void eliminarPaquete(@PathVariable Integer id) {
-        repositorio.deleteById(id); // [Comentario]: Método provisto por JpaRepository
+    public ResponseEntity<?> eliminarPaquete(@PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        ResultadoEscritura<Void> resultado = repositorio.eliminar(id, Precondiciones.versionEsperada(siCoincide));
+        if (resultado.getEstado() == ResultadoEscritura.Estado.HECHA) {
+            cache.invalidar(id);
+            busqueda.eliminarPaquete(id);
+            disponibilidad.eliminarPaquete(id);
+        }
+        return Precondiciones.responder(resultado);
+    }
+
+    // [Comentario]: Respuesta condicional: 304 NOT MODIFIED (sin cuerpo) si el ETag que envía el cliente
+    //               en If-None-Match coincide con la versión actual; si no, 200 OK con el ETag nuevo.
+    private <T> ResponseEntity<T> responder(T cuerpo, String etag, String siNoCoincide) {
+        if (siNoCoincide != null && (siNoCoincide.trim().equals("*")
+                || Arrays.stream(siNoCoincide.split(",")).map(String::trim)
+                         .anyMatch(valor -> valor.equals(etag) || valor.equals("W/" + etag)))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(cuerpo);
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.sgrpt.controlador;
+
+import com.sgrpt.modelo.ResultadoEscritura;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+// [Comentario]: ETags y escrituras condicionales (If-Match) comunes a los controladores.
+//               El ETag de una fila es su columna version entre comillas: "3".
+final class Precondiciones {
+
+    private Precondiciones() {
+    }
+
+    static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // [Comentario]: Versión que exige If-Match: null sin cabecera o con "*" (escritura incondicional);
+    //               -1 si no es un ETag de este servicio (nunca coincide, así que responde 412).
+    static Long versionEsperada(String siCoincide) {
+        if (siCoincide == null || siCoincide.isBlank() || siCoincide.trim().equals("*")) {
+            return null;
+        }
+        String valor = siCoincide.trim();
+        if (valor.length() < 2 || !valor.startsWith("\"") || !valor.endsWith("\"")) {
+            return -1L; // Lista de ETags, ETag débil (W/) o mal formado
+        }
+        try {
+            return Long.parseLong(valor.substring(1, valor.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    // [Comentario]: HECHA -> 200 con la fila y su ETag (204 si no hay fila, p. ej. DELETE); NO_ENCONTRADA -> 404;
+    //               CONFLICTO -> 412 PRECONDITION FAILED con el ETag vigente; ERROR -> 400 con el mensaje;
+    //               EN_USO -> 409 CONFLICT (DELETE de una fila con referencias); NO_DISPONIBLE (falló la base
+    //               de datos, no la petición) -> 503 con Retry-After.
+    static ResponseEntity<?> responder(ResultadoEscritura<?> resultado) {
+        return switch (resultado.getEstado()) {
+            case HECHA -> resultado.getElemento() == null
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.ok().eTag(etag(resultado.getVersionActual())).body(resultado.getElemento());
+            case NO_ENCONTRADA -> ResponseEntity.notFound().build();
+            case CONFLICTO -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                                            .eTag(etag(resultado.getVersionActual()))
+                                            .body(resultado);
+            case ERROR -> ResponseEntity.badRequest().body(resultado);
+            case EN_USO -> ResponseEntity.status(HttpStatus.CONFLICT).body(resultado);
+            case NO_DISPONIBLE -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                                .body(resultado);
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package com.sgrpt.controlador;
+
+import com.sgrpt.dao.ReservaDAO;
+import com.sgrpt.modelo.EstadoIngreso;
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.modelo.ReservaDetalle;
+import com.sgrpt.modelo.Pagina;
+import com.sgrpt.modelo.ResultadoReserva;
+import com.sgrpt.servicio.CupoService;
+import com.sgrpt.servicio.IngresoReservasService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.Map;
+
+// [Comentario]: Endpoints REST de reservas (acceso vía ReservaDAO / JDBC).
+@RestController
+@RequestMapping("/api/v1/reservas")
+public class ReservaController {
+
+    // [Comentario]: Tamaño máximo de página que acepta el endpoint.
+    private static final int LIMITE_MAXIMO = 500;
+
+    @Autowired
+    private ReservaDAO dao;
+
+    @Autowired
+    private CupoService cupos;
+
+    @Autowired
+    private IngresoReservasService ingreso;
+
+    // --- 1. LEER PÁGINA (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/reservas?despuesDe=0&limite=50 (paginación keyset por idReserva).
+    //               Para la siguiente página se envía despuesDe=siguienteCursor. Con idPaquete=N se
+    //               listan solo las reservas de ese paquete (índice idx_reserva_paquete).
+    @GetMapping
+    public Pagina<Reserva> obtenerPagina(@RequestParam(defaultValue = "0") int despuesDe,
+                                     @RequestParam(defaultValue = "50") int limite,
+                                     @RequestParam(required = false) Integer idPaquete) {
+        int acotado = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        return idPaquete == null ? dao.obtenerPagina(despuesDe, acotado)
+                                 : dao.obtenerReservasPorPaquete(idPaquete, despuesDe, acotado);
+    }
+
+    // --- 1a. LEER DETALLE (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/reservas/detalle?despuesDe=0&limite=50[&idCliente=N]. Cada reserva
+    //               trae el nombre del cliente y el nombre/destino del paquete: una sola consulta por página.
+    @GetMapping("/detalle")
+    public Pagina<ReservaDetalle> obtenerDetalles(@RequestParam(defaultValue = "0") int despuesDe,
+                                                  @RequestParam(defaultValue = "50") int limite,
+                                                  @RequestParam(required = false) Integer idCliente) {
+        return dao.obtenerDetalles(idCliente, despuesDe, Math.max(1, Math.min(limite, LIMITE_MAXIMO)));
+    }
+
+    // --- 1b. LEER POR ID (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/reservas/{id} (clave primaria). 404 si no existe. Incluye el ETag (versión).
+    @GetMapping("/{id}")
+    public ResponseEntity<Reserva> obtenerPorId(@PathVariable int id) {
+        Reserva reserva = dao.obtenerPorId(id);
+        return reserva == null ? ResponseEntity.notFound().build()
+                               : ResponseEntity.ok().eTag(Precondiciones.etag(reserva.getVersion())).body(reserva);
+    }
+
+    // --- 1c. MODIFICAR CAMPOS (PATCH) ---
+    // [Comentario]: Mapea a PATCH /api/v1/reservas/{id} con {"estado": ...}, {"idCliente": ...} o {"totalPagar": ...}.
+    //               Un UPDATE condicional; 412 si If-Match no coincide con la versión actual. Fecha, paquete y
+    //               personas no se modifican aquí: ocupan cupo (se cancela y se vuelve a reservar).
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> actualizarParcial(@PathVariable int id, @RequestBody Map<String, Object> cambios,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        return Precondiciones.responder(dao.actualizarParcial(id, cambios, Precondiciones.versionEsperada(siCoincide)));
+    }
+
+    // --- 2. CREAR (POST) ---
+    // [Comentario]: Mapea a POST /api/v1/reservas. Pasa por el motor de cupos: 201 si se admite,
+    //               409 CONFLICT si no quedan plazas para esa salida.
+    @PostMapping
+    public ResponseEntity<ResultadoReserva> crearReserva(@RequestBody Reserva reserva) {
+        return responder(cupos.reservar(reserva), HttpStatus.CREATED);
+    }
+
+    // --- 2b. INGRESO ASÍNCRONO (POST) ---
+    // [Comentario]: Mapea a POST /api/v1/reservas/ingreso. Encola la reserva y responde 202 ACCEPTED con
+    //               el id de seguimiento (Location). 503 + Retry-After si la cola está llena.
+    @PostMapping("/ingreso")
+    public ResponseEntity<EstadoIngreso> encolarReserva(@RequestBody Reserva reserva) {
+        if (reserva.getNumPersonas() <= 0 || reserva.getFechaReserva() == null) {
+            return ResponseEntity.badRequest()
+                                 .body(new EstadoIngreso(null, EstadoIngreso.Estado.RECHAZADA, null,
+                                                         "numPersonas y fechaReserva son obligatorios"));
+        }
+        EstadoIngreso estado = ingreso.encolar(reserva);
+        if (estado == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                 .header(HttpHeaders.RETRY_AFTER, "1")
+                                 .build();
+        }
+        return ResponseEntity.accepted()
+                             .location(URI.create("/api/v1/reservas/ingreso/" + estado.getId()))
+                             .body(estado);
+    }
+
+    // [Comentario]: Mapea a GET /api/v1/reservas/ingreso/{id}: PENDIENTE, CONFIRMADA (con idReserva) o RECHAZADA.
+    @GetMapping("/ingreso/{id}")
+    public ResponseEntity<EstadoIngreso> obtenerIngreso(@PathVariable String id) {
+        EstadoIngreso estado = ingreso.obtenerEstado(id);
+        return estado == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(estado);
+    }
+
+    // --- 3. CANCELAR (DELETE) ---
+    // [Comentario]: Mapea a DELETE /api/v1/reservas/{id}. Elimina la reserva y devuelve sus plazas al cupo.
+    //               Con If-Match solo si la versión coincide; si no, 412 con el ETag vigente.
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ResultadoReserva> cancelarReserva(@PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String siCoincide) {
+        return responder(cupos.cancelar(id, Precondiciones.versionEsperada(siCoincide)), HttpStatus.OK);
+    }
+
+    // [Comentario]: ERROR (petición inválida) -> 400; NO_DISPONIBLE (fallo de la base de datos) -> 503 con
+    //               Retry-After, para que el cliente reintente en vez de corregir la petición; CONFLICTO
+    //               (If-Match) -> 412 con el ETag vigente.
+    private ResponseEntity<ResultadoReserva> responder(ResultadoReserva resultado, HttpStatus exito) {
+        HttpStatus estado = switch (resultado.getEstado()) {
+            case ACEPTADA -> exito;
+            case SIN_CUPO -> HttpStatus.CONFLICT;
+            case NO_ENCONTRADA -> HttpStatus.NOT_FOUND;
+            case ERROR -> HttpStatus.BAD_REQUEST;
+            case NO_DISPONIBLE -> HttpStatus.SERVICE_UNAVAILABLE;
+            case CONFLICTO -> HttpStatus.PRECONDITION_FAILED;
+        };
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(estado);
+        if (estado == HttpStatus.SERVICE_UNAVAILABLE) {
+            respuesta.header(HttpHeaders.RETRY_AFTER, "1");
+        } else if (estado == HttpStatus.PRECONDITION_FAILED) {
+            respuesta.eTag(Precondiciones.etag(resultado.getReserva().getVersion()));
+        }
+        return respuesta.body(resultado);
+    }
+}
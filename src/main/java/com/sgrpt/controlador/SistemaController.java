@@ -0,0 +1,160 @@
+package com.sgrpt.controlador;
+
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.conexion.EstadoPool;
+import com.sgrpt.conexion.ReplicasLectura;
+import com.sgrpt.servicio.AgregadosReservasService;
+import com.sgrpt.servicio.AnaliticaReservasService;
+import com.sgrpt.servicio.BusquedaService;
+import com.sgrpt.servicio.CatalogoCache;
+import com.sgrpt.servicio.ClienteService;
+import com.sgrpt.servicio.CupoService;
+import com.sgrpt.servicio.DisponibilidadService;
+import com.sgrpt.servicio.ExportacionService;
+import com.sgrpt.servicio.FeedCambios;
+import com.sgrpt.servicio.IngresoReservasService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// [Comentario]: Endpoints de diagnóstico del módulo (estado interno, no datos de negocio).
+@RestController
+@RequestMapping("/api/v1/sistema")
+public class SistemaController {
+
+    @Autowired
+    private CupoService cupos;
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Autowired
+    private IngresoReservasService ingreso;
+
+    @Autowired
+    private AgregadosReservasService agregados;
+
+    @Autowired
+    private BusquedaService busqueda;
+
+    @Autowired
+    private ClienteService clientes;
+
+    @Autowired
+    private ExportacionService exportacion;
+
+    @Autowired
+    private DisponibilidadService disponibilidad;
+
+    @Autowired
+    private AnaliticaReservasService analitica;
+
+    @Autowired
+    private ReplicasLectura replicas;
+
+    @Autowired
+    private ControlAdmisionFilter admision;
+
+    @Autowired
+    private FeedCambios feedCambios;
+
+    // --- ESTADO DEL POOL (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/pool (saturación, hilos en espera y tiempos de espera)
+    @GetMapping("/pool")
+    public EstadoPool obtenerEstadoPool() {
+        return ConexionDB.obtenerEstadoPool();
+    }
+
+    // --- RÉPLICAS DE LECTURA (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/replicas (salud, retraso y lecturas servidas por cada réplica)
+    @GetMapping("/replicas")
+    public Map<String, Object> obtenerEstadoReplicas() {
+        return replicas.obtenerEstado();
+    }
+
+    // --- ADMISIÓN DE RESERVAS (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/cupos (aceptadas, rechazadas por falta de cupo y ritmo)
+    @GetMapping("/cupos")
+    public Map<String, Object> obtenerEstadisticasCupos() {
+        return Map.of(
+            "aceptadas", cupos.getAceptadas(),
+            "rechazadas", cupos.getRechazadas(),
+            "aceptadasPorSegundo", cupos.getAceptadasPorSegundo()
+        );
+    }
+
+    // --- CACHÉ DEL CATÁLOGO (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/cache (aciertos, fallos, expulsiones y tamaño)
+    @GetMapping("/cache")
+    public Map<String, Object> obtenerEstadisticasCache() {
+        return catalogoCache.obtenerEstadisticas();
+    }
+
+    // --- INGRESO ASÍNCRONO (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/ingreso (reservas en cola, rechazos por cola llena y tamaño de lote)
+    @GetMapping("/ingreso")
+    public Map<String, Object> obtenerEstadisticasIngreso() {
+        return ingreso.obtenerEstadisticas();
+    }
+
+    // --- AGREGADOS DE RESERVAS (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/agregados (última reconciliación, duración y paquetes corregidos)
+    @GetMapping("/agregados")
+    public Map<String, Object> obtenerEstadisticasAgregados() {
+        return agregados.obtenerEstadisticas();
+    }
+
+    // --- ÍNDICES DE BÚSQUEDA (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/busqueda (documentos indexados y duración de la construcción)
+    @GetMapping("/busqueda")
+    public Map<String, Object> obtenerEstadisticasBusqueda() {
+        return busqueda.obtenerEstadisticas();
+    }
+
+    // --- CACHÉ DE CLIENTES (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/cache/clientes (aciertos, fallos, expulsiones y tamaño)
+    @GetMapping("/cache/clientes")
+    public Map<String, Object> obtenerEstadisticasCacheClientes() {
+        return clientes.obtenerEstadisticas();
+    }
+
+    // --- EXPORTACIONES (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/exportaciones (en curso, totales y filas/s de la última)
+    @GetMapping("/exportaciones")
+    public Map<String, Object> obtenerEstadisticasExportacion() {
+        return exportacion.obtenerEstadisticas();
+    }
+
+    // --- ÍNDICE DE DISPONIBILIDAD (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/disponibilidad (paquetes, salidas, tiempo por búsqueda y reconciliación)
+    @GetMapping("/disponibilidad")
+    public Map<String, Object> obtenerEstadisticasDisponibilidad() {
+        return disponibilidad.obtenerEstadisticas();
+    }
+
+    // --- COPIA COLUMNAR DE RESERVAS (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/analitica (filas, memoria ocupada y último refresco/reconstrucción)
+    @GetMapping("/analitica")
+    public Map<String, Object> obtenerEstadisticasAnalitica() {
+        return analitica.obtenerEstadisticas();
+    }
+
+    // --- CONTROL DE ADMISIÓN (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/admision (límite adaptativo, en curso, en cola, aceptadas,
+    //               encoladas y rechazadas por grupo de endpoints)
+    @GetMapping("/admision")
+    public Map<String, Object> obtenerEstadisticasAdmision() {
+        return admision.obtenerEstadisticas();
+    }
+
+    // --- CAMBIOS ENTRE NODOS (GET) ---
+    // [Comentario]: Mapea a GET /api/v1/sistema/cambios (modo, posición, cambios leídos/aplicados, huecos y
+    //               retraso de propagación desde otros nodos)
+    @GetMapping("/cambios")
+    public Map<String, Object> obtenerEstadisticasCambios() {
+        return feedCambios.obtenerEstadisticas();
+    }
+}
@@ -0,0 +1,145 @@
+package com.sgrpt.dao;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Actualización parcial (PATCH) con control de concurrencia optimista, compartida por los DAO.
+ * Solo se escriben los campos recibidos, en un único UPDATE condicional que además sube la versión:
+ * UPDATE tabla SET c1 = ?, c2 = ?, version = version + 1 WHERE id = ? [AND version = ?]
+ * Así dos ediciones de campos distintos no se pisan, y con versión esperada una edición sobre
+ * datos viejos no modifica ninguna fila (conflicto).
+ */
+public final class ActualizacionParcial {
+
+    public enum Tipo { TEXTO, ENTERO, DECIMAL, FECHA }
+
+    // [Comentario]: SQLSTATE de una clave foránea violada. En un DELETE: la fila tiene referencias (EN_USO).
+    public static final String SQLSTATE_REFERENCIADA = "23503";
+
+    // [Comentario]: Campo modificable: nombre en el JSON -> columna y tipo.
+    public record Campo(String columna, Tipo tipo, boolean admiteNulo) { }
+
+    private final String tabla;
+    private final String columnaId;
+    private final Map<String, Campo> permitidos;
+
+    public ActualizacionParcial(String tabla, String columnaId, Map<String, Campo> permitidos) {
+        this.tabla = tabla;
+        this.columnaId = columnaId;
+        this.permitidos = permitidos;
+    }
+
+    /**
+     * Valida los cambios y los convierte al tipo de cada columna (en el orden recibido).
+     * IllegalArgumentException si no hay cambios, un campo no se puede modificar o su valor no es válido
+     * (los DAO la convierten en un ResultadoEscritura con estado ERROR).
+     */
+    public Map<Campo, Object> validar(Map<String, Object> cambios) {
+        if (cambios == null || cambios.isEmpty()) {
+            throw new IllegalArgumentException("No se indicó ningún campo para modificar");
+        }
+        Map<Campo, Object> valores = new LinkedHashMap<>();
+        cambios.forEach((nombre, valor) -> {
+            Campo campo = permitidos.get(nombre);
+            if (campo == null) {
+                throw new IllegalArgumentException("El campo '" + nombre + "' no se puede modificar; permitidos: "
+                                                   + permitidos.keySet());
+            }
+            if (valor == null && !campo.admiteNulo()) {
+                throw new IllegalArgumentException("El campo '" + nombre + "' no admite null");
+            }
+            valores.put(campo, valor == null ? null : convertir(nombre, campo.tipo(), valor));
+        });
+        return valores;
+    }
+
+    /**
+     * UPDATE de los campos indicados; con 'conVersion' solo afecta a la fila si la versión coincide.
+     */
+    public String sqlActualizar(Iterable<Campo> campos, boolean conVersion) {
+        StringJoiner asignaciones = new StringJoiner(", ");
+        for (Campo campo : campos) {
+            asignaciones.add(campo.columna() + " = ?");
+        }
+        asignaciones.add("version = version + 1");
+        return "UPDATE " + tabla + " SET " + asignaciones + " WHERE " + columnaId + " = ?"
+               + (conVersion ? " AND version = ?" : "");
+    }
+
+    /**
+     * DELETE por id; con 'conVersion' solo si la versión coincide.
+     */
+    public String sqlEliminar(boolean conVersion) {
+        return "DELETE FROM " + tabla + " WHERE " + columnaId + " = ?" + (conVersion ? " AND version = ?" : "");
+    }
+
+    /**
+     * Asigna los valores de sqlActualizar (o solo id y versión para sqlEliminar, con 'valores' vacío).
+     */
+    public void asignar(PreparedStatement ps, Map<Campo, Object> valores, int id, Long version) throws SQLException {
+        int i = 1;
+        for (Map.Entry<Campo, Object> valor : valores.entrySet()) {
+            asignarValor(ps, i++, valor.getKey().tipo(), valor.getValue());
+        }
+        ps.setInt(i++, id);
+        if (version != null) {
+            ps.setLong(i, version);
+        }
+    }
+
+    /**
+     * Tras un UPDATE/DELETE condicional que no afectó filas: versión actual de la fila, o null si no
+     * existe (para distinguir "no encontrada" de "conflicto"). Solo se consulta en ese caso.
+     */
+    public Long versionActual(Connection conn, int id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT version FROM " + tabla + " WHERE " + columnaId + " = ?")) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        }
+    }
+
+    private static Object convertir(String nombre, Tipo tipo, Object valor) {
+        try {
+            return switch (tipo) {
+                case TEXTO -> {
+                    if (!(valor instanceof String)) throw new IllegalArgumentException("se esperaba texto");
+                    yield valor;
+                }
+                case ENTERO -> {
+                    if (!(valor instanceof Integer || valor instanceof Long)) throw new IllegalArgumentException("se esperaba un entero");
+                    yield Math.toIntExact(((Number) valor).longValue());
+                }
+                case DECIMAL -> {
+                    if (!(valor instanceof Number numero)) throw new IllegalArgumentException("se esperaba un número");
+                    yield numero.doubleValue();
+                }
+                case FECHA -> Date.valueOf(valor.toString()); // yyyy-MM-dd
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Valor inválido para '" + nombre + "': " + e.getMessage());
+        }
+    }
+
+    private static void asignarValor(PreparedStatement ps, int indice, Tipo tipo, Object valor) throws SQLException {
+        switch (tipo) {
+            case TEXTO -> ps.setString(indice, (String) valor);
+            case ENTERO -> {
+                if (valor == null) ps.setNull(indice, Types.INTEGER); else ps.setInt(indice, (Integer) valor);
+            }
+            case DECIMAL -> {
+                if (valor == null) ps.setNull(indice, Types.DOUBLE); else ps.setDouble(indice, (Double) valor);
+            }
+            case FECHA -> ps.setDate(indice, (Date) valor);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.sgrpt.dao;
+
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.metricas.MetricasDAO;
+import com.sgrpt.metricas.MetricasDAO.Medicion;
+import com.sgrpt.modelo.Cambio;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.stereotype.Repository;
+
+// [Comentario]: Acceso a la tabla cambio (registro de cambios / outbox, ver V4__cambios.sql).
+//               - registrar(): lo llaman los DAO dentro de la transacción de cada escritura, ANTES del commit,
+//                 así que el cambio queda registrado si y solo si la escritura se confirma. En PostgreSQL
+//                 además lanza NOTIFY en el canal CANAL: se entrega al confirmar, una vez por transacción.
+//               - Las lecturas las usa FeedCambios con su propia conexión (LISTEN).
+//               Desactivado por defecto (sin Spring, p. ej. en las pruebas de rendimiento de los DAO, no se
+//               registra nada); FeedCambios lo configura al arrancar según sgrpt.cambios.activo.
+@Repository
+public class CambioDAO {
+
+    // Entidades y operaciones que se registran
+    public static final String PAQUETE = "paquete";
+    public static final String CLIENTE = "cliente";
+    public static final String RESERVA = "reserva";
+    public static final String CUPO = "cupo"; // id_entidad = id del paquete cuyas salidas cambiaron
+    public static final String ALTA = "ALTA";
+    public static final String MODIFICACION = "MODIFICACION";
+    public static final String BAJA = "BAJA";
+
+    // Canal de LISTEN/NOTIFY (PostgreSQL)
+    public static final String CANAL = "sgrpt_cambios";
+
+    // Comandos SQL (compatibles con PostgreSQL)
+    private static final String SQL_INSERT = "INSERT INTO cambio (entidad, id_entidad, operacion, nodo) VALUES (?, ?, ?, ?)";
+    private static final String SQL_SELECT_POSTERIORES = "SELECT id_cambio, entidad, id_entidad, operacion, nodo, fecha FROM cambio "
+                                                       + "WHERE id_cambio > ? ORDER BY id_cambio LIMIT ?";
+    private static final String SQL_SELECT_ULTIMO = "SELECT COALESCE(MAX(id_cambio), 0) FROM cambio";
+    private static final String SQL_DELETE_ANTERIORES = "DELETE FROM cambio WHERE fecha < ?";
+    // Solo PostgreSQL (por eso no es SQL_*: VerificacionEsquema también prepara las consultas en H2)
+    private static final String NOTIFICAR = "SELECT pg_notify('" + CANAL + "', '')";
+
+    private static volatile boolean activo = false;
+    private static volatile boolean notificar = false;
+    private static volatile String nodo = UUID.randomUUID().toString();
+
+    /**
+     * Activa el registro, con el identificador de este nodo y si se lanza NOTIFY (solo PostgreSQL).
+     */
+    public static void configurar(boolean activo, String nodo, boolean notificar) {
+        CambioDAO.nodo = nodo;
+        CambioDAO.notificar = notificar;
+        CambioDAO.activo = activo;
+    }
+
+    public static boolean isActivo() {
+        return activo;
+    }
+
+    public static String getNodo() {
+        return nodo;
+    }
+
+    /**
+     * 1. REGISTRAR (transacción del llamador): Una fila por id, en un solo viaje. No confirma.
+     */
+    public static void registrar(Connection conn, String entidad, String operacion, int... ids) throws SQLException {
+        if (!activo || ids.length == 0) {
+            return;
+        }
+        Medicion medicion = MetricasDAO.iniciar("cambio", "registrar");
+        try {
+            try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT)) {
+                for (int id : ids) {
+                    ps.setString(1, entidad);
+                    ps.setInt(2, id);
+                    ps.setString(3, operacion);
+                    ps.setString(4, nodo);
+                    if (ids.length == 1) {
+                        ps.executeUpdate();
+                    } else {
+                        ps.addBatch();
+                    }
+                }
+                if (ids.length > 1) {
+                    ps.executeBatch();
+                }
+            }
+            if (notificar) {
+                try (Statement st = conn.createStatement()) {
+                    st.execute(NOTIFICAR);
+                }
+            }
+        } catch (SQLException e) {
+            throw medicion.fallo(e);
+        }
+        medicion.terminar(ids.length);
+    }
+
+    public static void registrar(Connection conn, String entidad, String operacion, List<Integer> ids) throws SQLException {
+        registrar(conn, entidad, operacion, ids.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * 2. LEER POSTERIORES: Hasta 'limite' cambios con id_cambio mayor que 'despuesDe', en orden.
+     * Con la conexión del llamador (la de LISTEN de FeedCambios); los errores se propagan para reconectar.
+     */
+    public List<Cambio> obtenerPosteriores(Connection conn, long despuesDe, int limite) throws SQLException {
+        Medicion medicion = MetricasDAO.iniciar("cambio", "obtenerPosteriores");
+        List<Cambio> cambios = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_POSTERIORES)) {
+            ps.setLong(1, despuesDe);
+            ps.setInt(2, limite);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    cambios.add(mapear(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw medicion.fallo(e);
+        }
+        medicion.terminar(cambios.size());
+        return cambios;
+    }
+
+    /**
+     * 3. LEER ÚLTIMO: Mayor id_cambio registrado (0 si no hay ninguno).
+     */
+    public long obtenerUltimoId(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ULTIMO);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * 4. PURGAR: Elimina los cambios registrados antes de 'antesDe'. Devuelve las filas eliminadas (-1 si falla).
+     */
+    public int purgar(Timestamp antesDe) {
+        Medicion medicion = MetricasDAO.iniciar("cambio", "purgar");
+        int filas = -1;
+
+        try (Connection conn = ConexionDB.obtenerConexion();
+             PreparedStatement ps = conn.prepareStatement(SQL_DELETE_ANTERIORES)) {
+
+            ps.setTimestamp(1, antesDe);
+            filas = ps.executeUpdate();
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al purgar cambios: " + e.getMessage());
+        }
+        medicion.terminar(Math.max(filas, 0));
+        return filas;
+    }
+
+    /**
+     * Convierte la fila actual del ResultSet en un Cambio.
+     */
+    public static Cambio mapear(ResultSet rs) throws SQLException {
+        return new Cambio(
+            rs.getLong("id_cambio"),
+            rs.getString("entidad"),
+            rs.getInt("id_entidad"),
+            rs.getString("operacion"),
+            rs.getString("nodo"),
+            rs.getTimestamp("fecha")
+        );
+    }
+}
@@ -1,47 +1,98 @@
 package com.sgrpt.dao;
 
 import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.dao.ActualizacionParcial.Campo;
+import com.sgrpt.dao.ActualizacionParcial.Tipo;
+import com.sgrpt.metricas.MetricasDAO;
+import com.sgrpt.metricas.MetricasDAO.Medicion;
 import com.sgrpt.modelo.Cliente;
+import com.sgrpt.modelo.Pagina;
+import com.sgrpt.modelo.ResultadoEscritura;
+import com.sgrpt.modelo.ResultadoFila;
+import com.sgrpt.modelo.ResultadoLote;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Repository;
 
+// [Comentario]: @Repository registra el DAO como componente de Spring para poder inyectarlo.
+//               Los listados y exportaciones leen con ConexionDB.obtenerConexionLectura() (réplica, si hay).
+@Repository
 public class ClienteDAO {
 
+    // Filas que el driver trae por viaje al leer con cursor (obtenerTodosStream / recorrerTodos)
+    public static final int TAMANO_FETCH_POR_DEFECTO = 1000;
+
     // Comandos SQL (compatibles con PostgreSQL)
     private static final String SQL_INSERT = "INSERT INTO Cliente (nombre, apellido, email, telefono, identificacion) VALUES (?, ?, ?, ?, ?)";
-    private static final String SQL_SELECT_ALL = "SELECT idCliente, nombre, apellido, email, telefono, identificacion FROM Cliente";
-    private static final String SQL_UPDATE = "UPDATE Cliente SET nombre = ?, apellido = ?, email = ?, telefono = ?, identificacion = ? WHERE idCliente = ?";
+    private static final String SQL_SELECT_ALL = "SELECT idCliente, nombre, apellido, email, telefono, identificacion, version FROM Cliente";
+    private static final String SQL_SELECT_PAGINA = SQL_SELECT_ALL + " WHERE idCliente > ? ORDER BY idCliente LIMIT ?";
+    private static final String SQL_UPDATE = "UPDATE Cliente SET nombre = ?, apellido = ?, email = ?, telefono = ?, identificacion = ?, version = version + 1 WHERE idCliente = ? AND version = ?";
     private static final String SQL_DELETE = "DELETE FROM Cliente WHERE idCliente = ?";
+    private static final String SQL_SELECT_POR_ID = SQL_SELECT_ALL + " WHERE idCliente = ?";
+    private static final String SQL_SELECT_POR_IDENTIFICACION = SQL_SELECT_ALL + " WHERE identificacion = ?";
+    private static final String SQL_SELECT_POR_EMAIL = SQL_SELECT_ALL + " WHERE email = ? ORDER BY idCliente";
+
+    // [Comentario]: Campos que admite la actualización parcial (PATCH) y columnas que devuelve el UPDATE.
+    private static final ActualizacionParcial PARCIAL = new ActualizacionParcial("Cliente", "idCliente", Map.of(
+        "nombre", new Campo("nombre", Tipo.TEXTO, true),
+        "apellido", new Campo("apellido", Tipo.TEXTO, true),
+        "email", new Campo("email", Tipo.TEXTO, true),
+        "telefono", new Campo("telefono", Tipo.TEXTO, true),
+        "identificacion", new Campo("identificacion", Tipo.TEXTO, true)));
+    private static final String[] COLUMNAS = { "idcliente", "nombre", "apellido", "email", "telefono", "identificacion", "version" };
+
+    // [Comentario]: Suscriptores a los cambios confirmados (índice de búsqueda, cachés...).
+    private final List<ObservadorClientes> observadores = new CopyOnWriteArrayList<>();
+
+    public void registrarObservador(ObservadorClientes observador) {
+        observadores.add(observador);
+    }
 
     /**
-     * 1. CREAR: Inserta un nuevo cliente.
+     * 1. CREAR: Inserta un nuevo cliente y le asigna el idCliente generado.
      */
     public boolean insertar(Cliente cliente) {
-        Connection conn = null;
-        PreparedStatement ps = null;
+        Medicion medicion = MetricasDAO.iniciar("cliente", "insertar");
         boolean exito = false;
 
-        try {
-            conn = ConexionDB.obtenerConexion();
-            ps = conn.prepareStatement(SQL_INSERT);
-            
-            ps.setString(1, cliente.getNombre());
-            ps.setString(2, cliente.getApellido());
-            ps.setString(3, cliente.getEmail());
-            ps.setString(4, cliente.getTelefono());
-            ps.setString(5, cliente.getIdentificacion());
-
-            if (ps.executeUpdate() > 0) {
-                exito = true;
-            }
+        // try-with-resources: devuelve la conexión al pool. El INSERT y su registro de cambio, en una transacción.
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            exito = Transaccion.ejecutar(conn, c -> {
+                try (PreparedStatement ps = c.prepareStatement(SQL_INSERT, new String[] { "idcliente" })) {
+                    ps.setString(1, cliente.getNombre());
+                    ps.setString(2, cliente.getApellido());
+                    ps.setString(3, cliente.getEmail());
+                    ps.setString(4, cliente.getTelefono());
+                    ps.setString(5, cliente.getIdentificacion());
+
+                    if (ps.executeUpdate() == 0) {
+                        return false;
+                    }
+                    try (ResultSet claves = ps.getGeneratedKeys()) {
+                        if (claves.next()) {
+                            cliente.setIdCliente(claves.getInt(1));
+                        }
+                    }
+                }
+                CambioDAO.registrar(c, CambioDAO.CLIENTE, CambioDAO.ALTA, cliente.getIdCliente());
+                return true;
+            });
         } catch (SQLException e) {
+            medicion.fallo(e);
             System.err.println("Error al insertar cliente: " + e.getMessage());
-        } finally {
-            ConexionDB.cerrarConexion(conn);
+        }
+        medicion.terminar(exito ? 1 : 0);
+        if (exito) {
+            notificarGuardado(cliente);
         }
         return exito;
     }
@@ -50,61 +101,58 @@ public class ClienteDAO {
      * 2. LEER: Obtiene todos los clientes.
      */
     public List<Cliente> obtenerTodos() {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        ResultSet rs = null;
+        Medicion medicion = MetricasDAO.iniciar("cliente", "obtenerTodos");
         List<Cliente> listaClientes = new ArrayList<>();
 
-        try {
-            conn = ConexionDB.obtenerConexion();
-            ps = conn.prepareStatement(SQL_SELECT_ALL);
-            rs = ps.executeQuery();
+        try (Connection conn = ConexionDB.obtenerConexionLectura();
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ALL);
+             ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                Cliente cliente = new Cliente(
-                    rs.getInt("idCliente"),
-                    rs.getString("nombre"),
-                    rs.getString("apellido"),
-                    rs.getString("email"),
-                    rs.getString("telefono"),
-                    rs.getString("identificacion")
-                );
-                listaClientes.add(cliente);
+                listaClientes.add(mapear(rs));
             }
         } catch (SQLException e) {
+            medicion.fallo(e);
             System.err.println("Error al obtener todos los clientes: " + e.getMessage());
-        } finally {
-            ConexionDB.cerrarConexion(conn);
         }
+        medicion.terminar(listaClientes.size());
         return listaClientes;
     }
     
     /**
-     * 3. ACTUALIZAR: Modifica un cliente existente.
+     * 3. ACTUALIZAR: Modifica un cliente existente si su versión sigue siendo la de 'cliente' (la que se leyó).
+     * false si no existe o si otra escritura lo cambió antes; si se guarda, 'cliente' queda con la versión nueva.
      */
     public boolean actualizar(Cliente cliente) {
-        Connection conn = null;
-        PreparedStatement ps = null;
+        Medicion medicion = MetricasDAO.iniciar("cliente", "actualizar");
         boolean exito = false;
 
-        try {
-            conn = ConexionDB.obtenerConexion();
-            ps = conn.prepareStatement(SQL_UPDATE);
-            
-            ps.setString(1, cliente.getNombre());
-            ps.setString(2, cliente.getApellido());
-            ps.setString(3, cliente.getEmail());
-            ps.setString(4, cliente.getTelefono());
-            ps.setString(5, cliente.getIdentificacion());
-            ps.setInt(6, cliente.getIdCliente()); // ID para la cláusula WHERE
-
-            if (ps.executeUpdate() > 0) {
-                exito = true;
-            }
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            exito = Transaccion.ejecutar(conn, c -> {
+                try (PreparedStatement ps = c.prepareStatement(SQL_UPDATE)) {
+                    ps.setString(1, cliente.getNombre());
+                    ps.setString(2, cliente.getApellido());
+                    ps.setString(3, cliente.getEmail());
+                    ps.setString(4, cliente.getTelefono());
+                    ps.setString(5, cliente.getIdentificacion());
+                    ps.setInt(6, cliente.getIdCliente()); // ID para la cláusula WHERE
+                    ps.setLong(7, cliente.getVersion());
+
+                    if (ps.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                CambioDAO.registrar(c, CambioDAO.CLIENTE, CambioDAO.MODIFICACION, cliente.getIdCliente());
+                return true;
+            });
         } catch (SQLException e) {
+            medicion.fallo(e);
             System.err.println("Error al actualizar cliente: " + e.getMessage());
-        } finally {
-            ConexionDB.cerrarConexion(conn);
+        }
+        medicion.terminar(exito ? 1 : 0);
+        if (exito) {
+            cliente.setVersion(cliente.getVersion() + 1);
+            notificarGuardado(cliente);
         }
         return exito;
     }
@@ -113,23 +161,333 @@ public class ClienteDAO {
      * 4. ELIMINAR: Elimina un cliente por su ID.
      */
     public boolean eliminar(int idCliente) {
-        Connection conn = null;
-        PreparedStatement ps = null;
+        Medicion medicion = MetricasDAO.iniciar("cliente", "eliminar");
         boolean exito = false;
 
-        try {
-            conn = ConexionDB.obtenerConexion();
-            ps = conn.prepareStatement(SQL_DELETE);
-            ps.setInt(1, idCliente);
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            exito = Transaccion.ejecutar(conn, c -> {
+                try (PreparedStatement ps = c.prepareStatement(SQL_DELETE)) {
+                    ps.setInt(1, idCliente);
 
-            if (ps.executeUpdate() > 0) {
-                exito = true;
-            }
+                    if (ps.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                CambioDAO.registrar(c, CambioDAO.CLIENTE, CambioDAO.BAJA, idCliente);
+                return true;
+            });
         } catch (SQLException e) {
+            medicion.fallo(e);
             System.err.println("Error al eliminar cliente: " + e.getMessage());
-        } finally {
-            ConexionDB.cerrarConexion(conn);
+        }
+        medicion.terminar(exito ? 1 : 0);
+        if (exito) {
+            notificarEliminado(idCliente);
         }
         return exito;
     }
-}
\ No newline at end of file
+
+    /**
+     * 5. CREAR EN LOTE: Inserta varios clientes con JDBC batch, en bloques de 'tamanoBloque'
+     * filas confirmados cada uno en su propia transacción. Devuelve el resultado de cada fila
+     * (en el mismo orden) con el idCliente generado, que también se asigna al objeto.
+     */
+    public ResultadoLote insertarLote(List<Cliente> clientes, int tamanoBloque) {
+        ResultadoLote resultado = LoteJdbc.ejecutar(SQL_INSERT, "idcliente", clientes, tamanoBloque,
+            (ps, cliente) -> {
+                ps.setString(1, cliente.getNombre());
+                ps.setString(2, cliente.getApellido());
+                ps.setString(3, cliente.getEmail());
+                ps.setString(4, cliente.getTelefono());
+                ps.setString(5, cliente.getIdentificacion());
+            },
+            Cliente::setIdCliente, new LoteJdbc.Registro<>(CambioDAO.CLIENTE, CambioDAO.ALTA, null),
+            "cliente", "insertarLote");
+        notificarGuardados(clientes, resultado);
+        return resultado;
+    }
+
+    public ResultadoLote insertarLote(List<Cliente> clientes) {
+        return insertarLote(clientes, LoteJdbc.TAMANO_BLOQUE_POR_DEFECTO);
+    }
+
+    /**
+     * 6. ACTUALIZAR EN LOTE: Modifica varios clientes con JDBC batch (mismo esquema de bloques
+     * y transacciones que insertarLote), cada uno solo si conserva su versión. Una fila sin coincidencias
+     * (no existe o cambió) se reporta como fallida; las guardadas quedan con la versión nueva.
+     */
+    public ResultadoLote actualizarLote(List<Cliente> clientes, int tamanoBloque) {
+        ResultadoLote resultado = LoteJdbc.ejecutar(SQL_UPDATE, null, clientes, tamanoBloque,
+            (ps, cliente) -> {
+                ps.setString(1, cliente.getNombre());
+                ps.setString(2, cliente.getApellido());
+                ps.setString(3, cliente.getEmail());
+                ps.setString(4, cliente.getTelefono());
+                ps.setString(5, cliente.getIdentificacion());
+                ps.setInt(6, cliente.getIdCliente());
+                ps.setLong(7, cliente.getVersion());
+            },
+            null, new LoteJdbc.Registro<>(CambioDAO.CLIENTE, CambioDAO.MODIFICACION, Cliente::getIdCliente),
+            "cliente", "actualizarLote");
+        for (ResultadoFila fila : resultado.getFilas()) {
+            if (fila.isExito()) {
+                clientes.get(fila.getIndice()).setVersion(clientes.get(fila.getIndice()).getVersion() + 1);
+            }
+        }
+        notificarGuardados(clientes, resultado);
+        return resultado;
+    }
+
+    public ResultadoLote actualizarLote(List<Cliente> clientes) {
+        return actualizarLote(clientes, LoteJdbc.TAMANO_BLOQUE_POR_DEFECTO);
+    }
+
+    /**
+     * 7. LEER EN STREAMING: Recorre todos los clientes con un cursor del servidor. El driver trae
+     * 'tamanoFetch' filas por viaje (requiere autocommit desactivado), así que la memoria no
+     * crece con el tamaño de la tabla. El Stream es perezoso y DEBE cerrarse (try-with-resources)
+     * para liberar el cursor y devolver la conexión al pool. Si la consulta falla, al abrir el cursor
+     * o a mitad de lectura, lanza IllegalStateException (nunca un Stream vacío o incompleto sin avisar).
+     */
+    public Stream<Cliente> obtenerTodosStream(int tamanoFetch) {
+        return abrirCursor(tamanoFetch, true);
+    }
+
+    // 'lectura': puede ir a una réplica (exportaciones); recorrerTodos reconstruye el índice de búsqueda
+    // junto con los observadores y lee de la primaria para no perder cambios aún no replicados
+    private Stream<Cliente> abrirCursor(int tamanoFetch, boolean lectura) {
+        return CursorJdbc.abrir(SQL_SELECT_ALL + " ORDER BY idCliente", ps -> { },
+                                tamanoFetch > 0 ? tamanoFetch : TAMANO_FETCH_POR_DEFECTO, lectura, ClienteDAO::mapear,
+                                "cliente", lectura ? "obtenerTodosStream" : "recorrerTodos");
+    }
+
+    /**
+     * 8. LEER EN STREAMING (callback): Igual que obtenerTodosStream, pero entrega cada fila al
+     * consumidor y cierra el cursor al terminar. Devuelve la cantidad de filas procesadas.
+     */
+    public long recorrerTodos(int tamanoFetch, Consumer<Cliente> consumidor) {
+        long filas = 0;
+        try (Stream<Cliente> stream = abrirCursor(tamanoFetch, false)) {
+            for (Iterator<Cliente> it = stream.iterator(); it.hasNext(); filas++) {
+                consumidor.accept(it.next());
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * 9. LEER PÁGINA (keyset): Devuelve hasta 'limite' clientes con idCliente mayor que 'despuesDe',
+     * ordenados por idCliente. Usa el índice de la clave primaria, así que el coste no depende de la
+     * posición de la página. El cursor de la página siguiente es el último idCliente devuelto.
+     */
+    public Pagina<Cliente> obtenerPagina(int despuesDe, int limite) {
+        Medicion medicion = MetricasDAO.iniciar("cliente", "obtenerPagina");
+        List<Cliente> elementos = new ArrayList<>();
+        boolean hayMas = false;
+
+        try (Connection conn = ConexionDB.obtenerConexionLectura();
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_PAGINA)) {
+
+            ps.setInt(1, despuesDe);
+            ps.setInt(2, limite + 1); // Una fila extra para saber si hay página siguiente
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (elementos.size() == limite) {
+                        hayMas = true;
+                        break;
+                    }
+                    elementos.add(mapear(rs));
+                }
+            }
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al obtener página de clientes: " + e.getMessage());
+        }
+        Integer siguiente = hayMas ? elementos.get(elementos.size() - 1).getIdCliente() : null;
+        medicion.terminar(elementos.size());
+        return new Pagina<>(elementos, limite, siguiente);
+    }
+
+    /**
+     * 10. LEER POR ID: Devuelve el cliente o null si no existe (clave primaria).
+     */
+    public Cliente obtenerPorId(int idCliente) {
+        List<Cliente> clientes = obtenerPor(SQL_SELECT_POR_ID, "obtenerPorId", false, ps -> ps.setInt(1, idCliente));
+        return clientes.isEmpty() ? null : clientes.get(0);
+    }
+
+    /**
+     * 11. LEER POR IDENTIFICACIÓN: Devuelve el cliente o null (índice único idx_cliente_identificacion).
+     */
+    public Cliente obtenerPorIdentificacion(String identificacion) {
+        List<Cliente> clientes = obtenerPor(SQL_SELECT_POR_IDENTIFICACION, "obtenerPorIdentificacion", false,
+                                            ps -> ps.setString(1, identificacion));
+        return clientes.isEmpty() ? null : clientes.get(0);
+    }
+
+    /**
+     * 12. LEER POR EMAIL: Devuelve los clientes con ese email, normalmente uno (índice idx_cliente_email).
+     */
+    public List<Cliente> obtenerPorEmail(String email) {
+        return obtenerPor(SQL_SELECT_POR_EMAIL, "obtenerPorEmail", true, ps -> ps.setString(1, email));
+    }
+
+    /**
+     * 13. ACTUALIZAR PARCIAL: Modifica solo los campos de 'cambios' (nombre JSON -> valor) en un único
+     * UPDATE que devuelve la fila resultante (RETURNING vía claves generadas). Con 'versionEsperada'
+     * el UPDATE solo se aplica si la versión coincide; si no, CONFLICTO con la versión vigente.
+     * ERROR si 'cambios' incluye campos no modificables o valores inválidos.
+     */
+    public ResultadoEscritura<Cliente> actualizarParcial(int idCliente, Map<String, Object> cambios, Long versionEsperada) {
+        Map<Campo, Object> valores;
+        try {
+            valores = PARCIAL.validar(cambios);
+        } catch (IllegalArgumentException e) {
+            return ResultadoEscritura.error(e.getMessage()); // Campo no modificable o valor inválido
+        }
+        Medicion medicion = MetricasDAO.iniciar("cliente", "actualizarParcial");
+        ResultadoEscritura<Cliente> resultado;
+
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            resultado = Transaccion.ejecutar(conn, c -> {
+                try (PreparedStatement ps = c.prepareStatement(PARCIAL.sqlActualizar(valores.keySet(), versionEsperada != null), COLUMNAS)) {
+                    PARCIAL.asignar(ps, valores, idCliente, versionEsperada);
+                    if (ps.executeUpdate() == 0) {
+                        return ResultadoEscritura.<Cliente>sinFila(PARCIAL.versionActual(c, idCliente));
+                    }
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        rs.next();
+                        Cliente cliente = mapear(rs);
+                        CambioDAO.registrar(c, CambioDAO.CLIENTE, CambioDAO.MODIFICACION, idCliente);
+                        return ResultadoEscritura.hecha(cliente, cliente.getVersion());
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al actualizar cliente: " + e.getMessage());
+            return ErroresSQL.resultado(e);
+        }
+        medicion.terminar(resultado.getEstado() == ResultadoEscritura.Estado.HECHA ? 1 : 0);
+        if (resultado.getElemento() != null) {
+            notificarGuardado(resultado.getElemento());
+        }
+        return resultado;
+    }
+
+    /**
+     * 14. ELIMINAR CONDICIONAL: Un solo DELETE; con 'versionEsperada' solo si la versión coincide.
+     */
+    public ResultadoEscritura<Void> eliminar(int idCliente, Long versionEsperada) {
+        Medicion medicion = MetricasDAO.iniciar("cliente", "eliminarCondicional");
+        ResultadoEscritura<Void> resultado;
+
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            resultado = Transaccion.ejecutar(conn, c -> {
+                try (PreparedStatement ps = c.prepareStatement(PARCIAL.sqlEliminar(versionEsperada != null))) {
+                    PARCIAL.asignar(ps, Map.of(), idCliente, versionEsperada);
+                    if (ps.executeUpdate() == 0) {
+                        return ResultadoEscritura.<Void>sinFila(PARCIAL.versionActual(c, idCliente));
+                    }
+                }
+                CambioDAO.registrar(c, CambioDAO.CLIENTE, CambioDAO.BAJA, idCliente);
+                return ResultadoEscritura.<Void>hecha(null, null);
+            });
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al eliminar cliente: " + e.getMessage());
+            return ActualizacionParcial.SQLSTATE_REFERENCIADA.equals(e.getSQLState())
+                ? ResultadoEscritura.enUso("El cliente tiene reservas: no se puede eliminar")
+                : ErroresSQL.resultado(e);
+        }
+        medicion.terminar(resultado.getEstado() == ResultadoEscritura.Estado.HECHA ? 1 : 0);
+        if (resultado.getEstado() == ResultadoEscritura.Estado.HECHA) {
+            notificarEliminado(idCliente);
+        }
+        return resultado;
+    }
+
+    // Consulta parametrizada que devuelve clientes (lista vacía si hay error). Con 'lectura' puede ir a
+    // una réplica; las búsquedas por id e identificación no: llenan la caché de ClienteService, que no
+    // debe quedarse con una copia anterior a la última escritura.
+    private List<Cliente> obtenerPor(String sql, String operacion, boolean lectura, Parametros parametros) {
+        Medicion medicion = MetricasDAO.iniciar("cliente", operacion);
+        List<Cliente> clientes = new ArrayList<>();
+
+        try (Connection conn = lectura ? ConexionDB.obtenerConexionLectura() : ConexionDB.obtenerConexion();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            parametros.asignar(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    clientes.add(mapear(rs));
+                }
+            }
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al buscar cliente (" + operacion + "): " + e.getMessage());
+        }
+        medicion.terminar(clientes.size());
+        return clientes;
+    }
+
+    // [Comentario]: Asigna los parámetros de una consulta (puede lanzar SQLException, a diferencia de Consumer).
+    @FunctionalInterface
+    interface Parametros {
+        void asignar(PreparedStatement ps) throws SQLException;
+    }
+
+    /**
+     * Notificaciones de un cambio ya confirmado, con el cliente tal como quedó. Las llaman las escrituras
+     * de este DAO tras su commit (insertar, actualizar, actualizarParcial, eliminar, lotes) y FeedCambios para los
+     * cambios confirmados en otro nodo, con el cliente ya leído de la primaria.
+     */
+    public void notificarGuardado(Cliente cliente) {
+        for (ObservadorClientes observador : observadores) {
+            notificar(() -> observador.guardado(cliente));
+        }
+    }
+
+    public void notificarEliminado(int idCliente) {
+        for (ObservadorClientes observador : observadores) {
+            notificar(() -> observador.eliminado(idCliente));
+        }
+    }
+
+    // Solo las filas confirmadas del lote (mismo orden que la lista)
+    private void notificarGuardados(List<Cliente> clientes, ResultadoLote resultado) {
+        if (observadores.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < resultado.getTotal(); i++) {
+            if (resultado.getFilas().get(i).isExito()) {
+                notificarGuardado(clientes.get(i));
+            }
+        }
+    }
+
+    // Un observador que falla no debe afectar a la escritura (ya confirmada) ni al resto
+    private static void notificar(Runnable notificacion) {
+        try {
+            notificacion.run();
+        } catch (RuntimeException e) {
+            System.err.println("Error al notificar cambio de cliente: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Convierte la fila actual del ResultSet en un Cliente.
+     */
+    public static Cliente mapear(ResultSet rs) throws SQLException {
+        Cliente cliente = new Cliente(
+            rs.getInt("idCliente"),
+            rs.getString("nombre"),
+            rs.getString("apellido"),
+            rs.getString("email"),
+            rs.getString("telefono"),
+            rs.getString("identificacion")
+        );
+        cliente.setVersion(rs.getLong("version"));
+        return cliente;
+    }
+}
@@ -0,0 +1,303 @@
+package com.sgrpt.dao;
+
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.metricas.MetricasDAO;
+import com.sgrpt.metricas.MetricasDAO.Medicion;
+import com.sgrpt.modelo.CupoPaquete;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.springframework.stereotype.Repository;
+
+// [Comentario]: Acceso a la tabla cupo_paquete (plazas por paquete y fecha de salida).
+@Repository
+public class CupoDAO {
+
+    // Comandos SQL (compatibles con PostgreSQL)
+    private static final String SQL_SELECT = "SELECT id_paquete, fecha_salida, capacidad, disponibles, version FROM cupo_paquete";
+    private static final String SQL_SELECT_UNO = SQL_SELECT + " WHERE id_paquete = ? AND fecha_salida = ?";
+    private static final String SQL_SELECT_PAQUETE = SQL_SELECT + " WHERE id_paquete = ? ORDER BY fecha_salida";
+    private static final String SQL_SELECT_DESDE = SQL_SELECT + " WHERE fecha_salida >= ?";
+    private static final String SQL_EXISTE = "SELECT 1 FROM cupo_paquete WHERE id_paquete = ? AND fecha_salida = ?";
+    // Las plazas de las reservas ya admitidas sin cupo (la salida aún no lo tenía) nacen vendidas;
+    // si superan la capacidad, el CHECK de disponibles rechaza el alta.
+    private static final String SQL_INSERT = "INSERT INTO cupo_paquete (id_paquete, fecha_salida, capacidad, disponibles, version) "
+                                           + "SELECT ?, ?, ?, ? - COALESCE(SUM(numPersonas), 0), 0 FROM Reserva "
+                                           + "WHERE idPaquete = ? AND fechaReserva = ?";
+    // Cambio de capacidad optimista: solo se aplica si nadie modificó el cupo desde que se leyó (misma versión).
+    // Las plazas ya vendidas se conservan; si la nueva capacidad es menor que lo vendido, el CHECK lo rechaza.
+    private static final String SQL_UPDATE_CAPACIDAD = "UPDATE cupo_paquete SET disponibles = disponibles + (? - capacidad), capacidad = ?, version = version + 1 "
+                                                     + "WHERE id_paquete = ? AND fecha_salida = ? AND version = ?";
+    // Descuento atómico condicional: la fila solo cambia si quedan plazas suficientes
+    private static final String SQL_DESCONTAR = "UPDATE cupo_paquete SET disponibles = disponibles - ?, version = version + 1 "
+                                              + "WHERE id_paquete = ? AND fecha_salida = ? AND disponibles >= ?";
+    private static final String SQL_LIBERAR = "UPDATE cupo_paquete SET disponibles = LEAST(capacidad, disponibles + ?), version = version + 1 "
+                                            + "WHERE id_paquete = ? AND fecha_salida = ?";
+    // Columnas que devuelven los UPDATE (RETURNING): el cupo resultante, en el mismo viaje
+    private static final String[] COLUMNAS = { "id_paquete", "fecha_salida", "capacidad", "disponibles", "version" };
+
+    // [Comentario]: Suscriptores a los cambios confirmados (índice de disponibilidad...).
+    private final List<ObservadorCupos> observadores = new CopyOnWriteArrayList<>();
+
+    public void registrarObservador(ObservadorCupos observador) {
+        observadores.add(observador);
+    }
+
+    /**
+     * 1. CREAR: Define la capacidad de una salida. Las plazas de las reservas que ya tiene esa salida
+     * (admitidas cuando aún no tenía cupo) se descuentan: devuelve false si no caben en la capacidad.
+     */
+    public boolean insertar(CupoPaquete cupo) {
+        Medicion medicion = MetricasDAO.iniciar("cupo", "insertar");
+        boolean exito = false;
+
+        CupoPaquete creado = null;
+
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            creado = Transaccion.ejecutar(conn, c -> {
+                CupoPaquete resultado;
+                try (PreparedStatement ps = c.prepareStatement(SQL_INSERT, COLUMNAS)) {
+                    ps.setInt(1, cupo.getIdPaquete());
+                    ps.setDate(2, cupo.getFechaSalida());
+                    ps.setInt(3, cupo.getCapacidad());
+                    ps.setInt(4, cupo.getCapacidad());
+                    ps.setInt(5, cupo.getIdPaquete());
+                    ps.setDate(6, cupo.getFechaSalida());
+                    resultado = ejecutarDevolviendo(ps);
+                }
+                if (resultado != null) {
+                    CambioDAO.registrar(c, CambioDAO.CUPO, CambioDAO.ALTA, cupo.getIdPaquete());
+                }
+                return resultado;
+            });
+            exito = creado != null;
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al insertar cupo: " + e.getMessage());
+        }
+        medicion.terminar(exito ? 1 : 0);
+        if (exito) {
+            notificarCambiados(List.of(creado));
+        }
+        return exito;
+    }
+
+    /**
+     * 2. LEER: Obtiene el cupo de un paquete para una fecha de salida (null si no existe).
+     */
+    public CupoPaquete obtener(int idPaquete, Date fechaSalida) {
+        Medicion medicion = MetricasDAO.iniciar("cupo", "obtener");
+        CupoPaquete cupo = null;
+
+        try (Connection conn = ConexionDB.obtenerConexion();
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_UNO)) {
+
+            ps.setInt(1, idPaquete);
+            ps.setDate(2, fechaSalida);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    cupo = mapear(rs);
+                }
+            }
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al obtener cupo: " + e.getMessage());
+        }
+        medicion.terminar(cupo != null ? 1 : 0);
+        return cupo;
+    }
+
+    /**
+     * 3. LEER: Obtiene todas las salidas de un paquete, ordenadas por fecha.
+     */
+    public List<CupoPaquete> obtenerPorPaquete(int idPaquete) {
+        Medicion medicion = MetricasDAO.iniciar("cupo", "obtenerPorPaquete");
+        List<CupoPaquete> cupos = new ArrayList<>();
+
+        try (Connection conn = ConexionDB.obtenerConexionLectura();
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_PAQUETE)) {
+
+            ps.setInt(1, idPaquete);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    cupos.add(mapear(rs));
+                }
+            }
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al obtener cupos del paquete: " + e.getMessage());
+        }
+        medicion.terminar(cupos.size());
+        return cupos;
+    }
+
+    /**
+     * 4. ACTUALIZAR: Cambia la capacidad con control optimista. Devuelve false si la versión
+     * ya no coincide (otro proceso modificó el cupo) o si la capacidad queda por debajo de lo vendido.
+     */
+    public boolean actualizarCapacidad(CupoPaquete cupo) {
+        Medicion medicion = MetricasDAO.iniciar("cupo", "actualizarCapacidad");
+        boolean exito = false;
+
+        CupoPaquete actualizado = null;
+
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            actualizado = Transaccion.ejecutar(conn, c -> {
+                CupoPaquete resultado;
+                try (PreparedStatement ps = c.prepareStatement(SQL_UPDATE_CAPACIDAD, COLUMNAS)) {
+                    ps.setInt(1, cupo.getCapacidad());
+                    ps.setInt(2, cupo.getCapacidad());
+                    ps.setInt(3, cupo.getIdPaquete());
+                    ps.setDate(4, cupo.getFechaSalida());
+                    ps.setLong(5, cupo.getVersion());
+                    resultado = ejecutarDevolviendo(ps);
+                }
+                if (resultado != null) {
+                    CambioDAO.registrar(c, CambioDAO.CUPO, CambioDAO.MODIFICACION, cupo.getIdPaquete());
+                }
+                return resultado;
+            });
+            exito = actualizado != null;
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al actualizar capacidad: " + e.getMessage());
+        }
+        medicion.terminar(exito ? 1 : 0);
+        if (exito) {
+            notificarCambiados(List.of(actualizado));
+        }
+        return exito;
+    }
+
+    /**
+     * 5. DESCONTAR: Resta 'personas' plazas si quedan suficientes, dentro de la transacción del
+     * llamador. Devuelve el cupo resultante, o null (sin modificar nada) si no hay cupo.
+     * El llamador registra el cambio (CambioDAO, una vez por paquete) antes de confirmar.
+     */
+    public CupoPaquete descontar(Connection conn, int idPaquete, Date fechaSalida, int personas) throws SQLException {
+        Medicion medicion = MetricasDAO.iniciar("cupo", "descontar");
+        CupoPaquete cupo;
+        try (PreparedStatement ps = conn.prepareStatement(SQL_DESCONTAR, COLUMNAS)) {
+            ps.setInt(1, personas);
+            ps.setInt(2, idPaquete);
+            ps.setDate(3, fechaSalida);
+            ps.setInt(4, personas);
+            cupo = ejecutarDevolviendo(ps);
+        } catch (SQLException e) {
+            throw medicion.fallo(e);
+        }
+        medicion.terminar(cupo != null ? 1 : 0);
+        return cupo;
+    }
+
+    /**
+     * 5b. EXISTE: Indica si la salida tiene cupo definido, dentro de la transacción del llamador.
+     * Sirve para distinguir, cuando descontar devuelve null, una salida sin cupo de una salida llena.
+     */
+    public boolean existe(Connection conn, int idPaquete, Date fechaSalida) throws SQLException {
+        Medicion medicion = MetricasDAO.iniciar("cupo", "existe");
+        boolean existe;
+        try (PreparedStatement ps = conn.prepareStatement(SQL_EXISTE)) {
+            ps.setInt(1, idPaquete);
+            ps.setDate(2, fechaSalida);
+            try (ResultSet rs = ps.executeQuery()) {
+                existe = rs.next();
+            }
+        } catch (SQLException e) {
+            throw medicion.fallo(e);
+        }
+        medicion.terminar(existe ? 1 : 0);
+        return existe;
+    }
+
+    /**
+     * 6. LIBERAR: Devuelve 'personas' plazas al cupo (cancelaciones), dentro de la transacción del llamador.
+     * Devuelve el cupo resultante (null si la salida no existe). El llamador registra el cambio, como en descontar.
+     */
+    public CupoPaquete liberar(Connection conn, int idPaquete, Date fechaSalida, int personas) throws SQLException {
+        Medicion medicion = MetricasDAO.iniciar("cupo", "liberar");
+        CupoPaquete cupo;
+        try (PreparedStatement ps = conn.prepareStatement(SQL_LIBERAR, COLUMNAS)) {
+            ps.setInt(1, personas);
+            ps.setInt(2, idPaquete);
+            ps.setDate(3, fechaSalida);
+            cupo = ejecutarDevolviendo(ps);
+        } catch (SQLException e) {
+            throw medicion.fallo(e);
+        }
+        medicion.terminar(cupo != null ? 1 : 0);
+        return cupo;
+    }
+
+    /**
+     * 7. RECORRER: Entrega cada salida desde 'desde' (incluida) al consumidor, sin armar una lista.
+     * Devuelve las salidas leídas, o -1 si la consulta falló.
+     */
+    public long recorrerDesde(Date desde, Consumer<CupoPaquete> consumidor) {
+        Medicion medicion = MetricasDAO.iniciar("cupo", "recorrerDesde");
+        long filas = 0;
+
+        try (Connection conn = ConexionDB.obtenerConexion();
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_DESDE)) {
+
+            ps.setDate(1, desde);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(mapear(rs));
+                    filas++;
+                }
+            }
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al recorrer cupos: " + e.getMessage());
+            filas = -1;
+        }
+        medicion.terminar(Math.max(filas, 0));
+        return filas;
+    }
+
+    /**
+     * Notificación para las escrituras hechas con la transacción del llamador (descontar/liberar):
+     * el llamador la invoca DESPUÉS del commit, con los cupos que devolvieron.
+     */
+    public void notificarCambiados(List<CupoPaquete> cupos) {
+        for (ObservadorCupos observador : observadores) {
+            for (CupoPaquete cupo : cupos) {
+                try {
+                    observador.cambiado(cupo);
+                } catch (RuntimeException e) {
+                    System.err.println("Error al notificar cambio de cupo: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // INSERT/UPDATE con RETURNING (claves generadas): el cupo resultante, o null si no cambió ninguna fila
+    private static CupoPaquete ejecutarDevolviendo(PreparedStatement ps) throws SQLException {
+        if (ps.executeUpdate() == 0) {
+            return null;
+        }
+        try (ResultSet rs = ps.getGeneratedKeys()) {
+            return rs.next() ? mapear(rs) : null;
+        }
+    }
+
+    /**
+     * Convierte la fila actual del ResultSet en un CupoPaquete.
+     */
+    public static CupoPaquete mapear(ResultSet rs) throws SQLException {
+        return new CupoPaquete(
+            rs.getInt("id_paquete"),
+            rs.getDate("fecha_salida"),
+            rs.getInt("capacidad"),
+            rs.getInt("disponibles"),
+            rs.getLong("version")
+        );
+    }
+}
@@ -0,0 +1,96 @@
+package com.sgrpt.dao;
+
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.metricas.MetricasDAO;
+import com.sgrpt.metricas.MetricasDAO.Medicion;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lectura con cursor del servidor compartida por los DAO (obtenerTodosStream, recorrerTodos...).
+ * El driver solo trae 'tamanoFetch' filas por viaje con el autocommit desactivado, así que la conexión
+ * queda en una transacción de lectura hasta que se cierra el Stream: al cerrarlo (o si la consulta falla
+ * al abrirse) se confirma, se restaura el autocommit y la conexión vuelve al pool.
+ */
+final class CursorJdbc {
+
+    @FunctionalInterface
+    interface Mapeador<T> {
+        T mapear(ResultSet rs) throws SQLException;
+    }
+
+    private CursorJdbc() {
+    }
+
+    /**
+     * Abre el cursor sobre 'sql' y devuelve sus filas como un Stream perezoso que DEBE cerrarse.
+     * 'lectura': puede ir a una réplica (exportaciones); los recorridos que reconstruyen datos en memoria
+     * junto con los observadores leen de la primaria para no perder cambios aún no replicados.
+     * Si la consulta falla, al abrir el cursor o a mitad de lectura, lanza IllegalStateException
+     * (nunca un Stream vacío o incompleto sin avisar).
+     */
+    static <T> Stream<T> abrir(String sql, ClienteDAO.Parametros parametros, int tamanoFetch, boolean lectura,
+                               Mapeador<T> mapeador, String dao, String operacion) {
+        Medicion medicion = MetricasDAO.iniciar(dao, operacion);
+        String filasDe = dao + "s";
+        Connection conn = null;
+        try {
+            conn = lectura ? ConexionDB.obtenerConexionLectura() : ConexionDB.obtenerConexion();
+            conn.setAutoCommit(false);
+            PreparedStatement ps = conn.prepareStatement(sql);
+            ps.setFetchSize(tamanoFetch);
+            parametros.asignar(ps);
+            ResultSet rs = ps.executeQuery();
+
+            Connection conexion = conn;
+            long[] filasLeidas = { 0 };
+            Spliterator<T> filas = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> accion) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        accion.accept(mapeador.mapear(rs));
+                        filasLeidas[0]++;
+                        return true;
+                    } catch (SQLException e) {
+                        medicion.fallo(e);
+                        throw new IllegalStateException("Error al leer " + filasDe + " con cursor: " + e.getMessage(), e);
+                    }
+                }
+            };
+            return StreamSupport.stream(filas, false).onClose(() -> {
+                cerrar(conexion, ps, rs, filasDe);
+                medicion.terminar(filasLeidas[0]); // La lectura termina al cerrar el Stream
+            });
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            cerrar(conn, null, null, filasDe);
+            // Como un fallo a mitad de lectura: quien exporta o reconstruye debe saber que no leyó nada
+            throw new IllegalStateException("Error al abrir el cursor de " + filasDe + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void cerrar(Connection conn, PreparedStatement ps, ResultSet rs, String filasDe) {
+        try {
+            if (rs != null) rs.close();
+            if (ps != null) ps.close();
+            if (conn != null) {
+                conn.commit();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar el cursor de " + filasDe + ": " + e.getMessage());
+        } finally {
+            ConexionDB.cerrarConexion(conn);
+        }
+    }
+}
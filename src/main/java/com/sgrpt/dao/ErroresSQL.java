@@ -0,0 +1,25 @@
+package com.sgrpt.dao;
+
+import com.sgrpt.modelo.ResultadoEscritura;
+
+import java.sql.SQLException;
+
+// [Comentario]: Clasifica las SQLException para responder al cliente. Clases SQLSTATE 22 (dato inválido) y
+//               23 (restricción: única, referencia, check): la base de datos rechazó lo que se le pidió, repetirlo
+//               no cambia nada (error del cliente). El resto (conexión perdida, pool agotado, deadlock,
+//               serialización...) es un fallo del servidor, normalmente pasajero.
+public final class ErroresSQL {
+
+    private ErroresSQL() {
+    }
+
+    public static boolean esRechazoDeDatos(SQLException e) {
+        String estado = e.getSQLState();
+        return estado != null && (estado.startsWith("22") || estado.startsWith("23"));
+    }
+
+    // ERROR (400) si la base de datos rechazó los datos; NO_DISPONIBLE (503) si falló ella
+    public static <T> ResultadoEscritura<T> resultado(SQLException e) {
+        return esRechazoDeDatos(e) ? ResultadoEscritura.error(e.getMessage()) : ResultadoEscritura.noDisponible(e.getMessage());
+    }
+}
@@ -0,0 +1,145 @@
+package com.sgrpt.dao;
+
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.metricas.MetricasDAO;
+import com.sgrpt.metricas.MetricasDAO.Medicion;
+import com.sgrpt.modelo.ResultadoFila;
+import com.sgrpt.modelo.ResultadoLote;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Ejecución de sentencias por lotes (JDBC batch) compartida por los DAO.
+ * Cada bloque de 'tamanoBloque' filas viaja en un solo executeBatch y se confirma
+ * en su propia transacción: si un bloque falla, solo ese bloque se revierte.
+ * Las filas escritas de cada bloque se registran en CambioDAO dentro de esa misma transacción.
+ */
+final class LoteJdbc {
+
+    // Tamaño de bloque por defecto si el llamador no indica otro
+    static final int TAMANO_BLOQUE_POR_DEFECTO = 500;
+
+    @FunctionalInterface
+    interface Vinculador<T> {
+        void vincular(PreparedStatement ps, T elemento) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface AsignadorId<T> {
+        void asignar(T elemento, int id);
+    }
+
+    // Qué se registra en CambioDAO por cada fila escrita. 'id' null: la clave generada (inserciones).
+    record Registro<T>(String entidad, String operacion, ToIntFunction<T> id) {
+    }
+
+    private LoteJdbc() {
+    }
+
+    /**
+     * Ejecuta 'sql' para cada elemento. Si 'columnaId' no es null, recupera las claves
+     * generadas (una por fila, en orden) y las asigna con 'asignador'.
+     */
+    static <T> ResultadoLote ejecutar(String sql, String columnaId, List<T> elementos, int tamanoBloque,
+                                      Vinculador<T> vinculador, AsignadorId<T> asignador, Registro<T> registro,
+                                      String dao, String operacion) {
+        Medicion medicion = MetricasDAO.iniciar(dao, operacion);
+        String descripcion = operacion + " de " + dao;
+        ResultadoLote resultado = new ResultadoLote();
+        if (elementos.isEmpty()) {
+            medicion.terminar(0);
+            return resultado;
+        }
+        int bloque = tamanoBloque > 0 ? tamanoBloque : TAMANO_BLOQUE_POR_DEFECTO;
+
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = columnaId != null
+                    ? conn.prepareStatement(sql, new String[] { columnaId })
+                    : conn.prepareStatement(sql)) {
+
+                for (int inicio = 0; inicio < elementos.size(); inicio += bloque) {
+                    int fin = Math.min(inicio + bloque, elementos.size());
+                    ejecutarBloque(conn, ps, elementos, inicio, fin, columnaId != null, vinculador, asignador, registro,
+                                   resultado, descripcion);
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            // Sin conexión: las filas que no llegaron a procesarse se reportan como fallidas
+            System.err.println("Error al " + descripcion + ": " + e.getMessage());
+            for (int i = resultado.getTotal(); i < elementos.size(); i++) {
+                resultado.agregar(ResultadoFila.fallo(i, e.getMessage()));
+            }
+        }
+        medicion.terminar(resultado.getExitosas());
+        return resultado;
+    }
+
+    private static <T> void ejecutarBloque(Connection conn, PreparedStatement ps, List<T> elementos, int inicio, int fin,
+                                           boolean conClaves, Vinculador<T> vinculador, AsignadorId<T> asignador,
+                                           Registro<T> registro, ResultadoLote resultado, String descripcion)
+            throws SQLException {
+        int[] ids = new int[fin - inicio];
+        int[] conteos;
+        try {
+            for (int i = inicio; i < fin; i++) {
+                vinculador.vincular(ps, elementos.get(i));
+                ps.addBatch();
+            }
+            conteos = ps.executeBatch();
+
+            if (conClaves) {
+                try (ResultSet claves = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (claves.next() && i < ids.length) {
+                        ids[i++] = claves.getInt(1);
+                    }
+                }
+            }
+            if (registro != null) {
+                List<Integer> escritas = new ArrayList<>(fin - inicio);
+                for (int i = inicio; i < fin; i++) {
+                    if (exitosa(conteos, i - inicio)) {
+                        escritas.add(registro.id() == null ? ids[i - inicio] : registro.id().applyAsInt(elementos.get(i)));
+                    }
+                }
+                CambioDAO.registrar(conn, registro.entidad(), registro.operacion(), escritas);
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            ps.clearBatch();
+            System.err.println("Error al " + descripcion + " (filas " + inicio + "-" + (fin - 1) + "): " + e.getMessage());
+            for (int i = inicio; i < fin; i++) {
+                resultado.agregar(ResultadoFila.fallo(i, e.getMessage()));
+            }
+            return;
+        }
+
+        for (int i = inicio; i < fin; i++) {
+            if (!exitosa(conteos, i - inicio)) {
+                resultado.agregar(ResultadoFila.fallo(i, "Ninguna fila afectada"));
+            } else if (conClaves) {
+                asignador.asignar(elementos.get(i), ids[i - inicio]);
+                resultado.agregar(ResultadoFila.ok(i, ids[i - inicio]));
+            } else {
+                resultado.agregar(ResultadoFila.ok(i, null));
+            }
+        }
+    }
+
+    // Fila 'j' del bloque escrita según los conteos de executeBatch (el driver puede no informar el número)
+    private static boolean exitosa(int[] conteos, int j) {
+        int conteo = j < conteos.length ? conteos[j] : Statement.SUCCESS_NO_INFO;
+        return conteo > 0 || conteo == Statement.SUCCESS_NO_INFO;
+    }
+}
@@ -0,0 +1,14 @@
+package com.sgrpt.dao;
+
+import com.sgrpt.modelo.Cliente;
+
+// [Comentario]: Recibe los cambios de la tabla Cliente una vez confirmados (índice de búsqueda, cachés...).
+//               Se registra con ClienteDAO.registrarObservador. Las notificaciones llegan en el hilo que
+//               hizo la escritura, así que deben ser baratas y no lanzar excepciones.
+public interface ObservadorClientes {
+
+    // Alta o modificación: 'cliente' tiene ya su idCliente y los valores nuevos
+    void guardado(Cliente cliente);
+
+    void eliminado(int idCliente);
+}
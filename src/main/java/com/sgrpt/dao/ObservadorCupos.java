@@ -0,0 +1,12 @@
+package com.sgrpt.dao;
+
+import com.sgrpt.modelo.CupoPaquete;
+
+// [Comentario]: Recibe el estado de cada salida (cupo_paquete) tras un cambio confirmado: alta, cambio de
+//               capacidad, descuento o liberación de plazas. Se registra con CupoDAO.registrarObservador.
+//               El cupo llega completo y con su versión: aplicar dos veces el mismo cambio, o uno más viejo
+//               que otro ya aplicado, se detecta comparando versiones.
+public interface ObservadorCupos {
+
+    void cambiado(CupoPaquete cupo);
+}
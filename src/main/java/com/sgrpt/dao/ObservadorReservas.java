@@ -0,0 +1,25 @@
+package com.sgrpt.dao;
+
+import com.sgrpt.modelo.Reserva;
+
+// [Comentario]: Recibe los cambios de la tabla Reserva una vez confirmados (agregados, cachés, índices...).
+//               Se registra con ReservaDAO.registrarObservador. Las notificaciones llegan en el hilo que
+//               hizo la escritura, así que deben ser baratas y no lanzar excepciones.
+public interface ObservadorReservas {
+
+    void insertada(Reserva reserva);
+
+    void actualizada(Reserva anterior, Reserva nueva);
+
+    void eliminada(Reserva reserva);
+
+    // Cambio en lote del que no se conocen los valores anteriores: el observador debe resincronizarse.
+    default void cambioMasivo() {
+    }
+
+    // Modificación o baja confirmada en otro nodo (llega por FeedCambios): se conoce la fila actual (null
+    // si se eliminó) pero no la anterior. Por defecto, como un cambio masivo.
+    default void cambioExterno(int idReserva, Reserva actual) {
+        cambioMasivo();
+    }
+}
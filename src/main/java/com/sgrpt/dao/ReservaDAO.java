@@ -1,34 +1,110 @@
 package com.sgrpt.dao;
 
 import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.dao.ActualizacionParcial.Campo;
+import com.sgrpt.dao.ActualizacionParcial.Tipo;
+import com.sgrpt.metricas.MetricasDAO;
+import com.sgrpt.metricas.MetricasDAO.Medicion;
 import com.sgrpt.modelo.Reserva;
+import com.sgrpt.modelo.ReservaDetalle;
+import com.sgrpt.modelo.Pagina;
+import com.sgrpt.modelo.ResultadoEscritura;
+import com.sgrpt.modelo.ResultadoFila;
+import com.sgrpt.modelo.ResultadoLote;
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Repository;
 
+// [Comentario]: @Repository registra el DAO como componente de Spring para poder inyectarlo.
+//               Los listados y exportaciones leen con ConexionDB.obtenerConexionLectura() (réplica, si hay).
+//               Las altas, bajas y cambios de este DAO no tocan el cupo de la salida. Las reservas y
+//               cancelaciones de la API y de la importación pasan por el motor de cupos (CupoService), que
+//               usa las variantes con la conexión del llamador para descontar o liberar plazas en la misma
+//               transacción; las variantes autónomas quedan para quien no gestiona plazas.
+@Repository
 public class ReservaDAO {
 
+    // Filas que el driver trae por viaje al leer con cursor (obtenerTodosStream / recorrerTodos)
+    public static final int TAMANO_FETCH_POR_DEFECTO = 1000;
+
     // Comandos SQL (compatibles con PostgreSQL)
     private static final String SQL_INSERT = "INSERT INTO Reserva (fechaReserva, estado, idCliente, idPaquete, numPersonas, totalPagar) VALUES (?, ?, ?, ?, ?, ?)";
-    private static final String SQL_SELECT_ALL = "SELECT idReserva, fechaReserva, estado, idCliente, idPaquete, numPersonas, totalPagar FROM Reserva";
-    private static final String SQL_UPDATE = "UPDATE Reserva SET fechaReserva = ?, estado = ?, idCliente = ?, idPaquete = ?, numPersonas = ?, totalPagar = ? WHERE idReserva = ?";
+    private static final String SQL_SELECT_ALL = "SELECT idReserva, fechaReserva, estado, idCliente, idPaquete, numPersonas, totalPagar, version FROM Reserva";
+    private static final String SQL_SELECT_PAGINA = SQL_SELECT_ALL + " WHERE idReserva > ? ORDER BY idReserva LIMIT ?";
+    private static final String SQL_UPDATE = "UPDATE Reserva SET fechaReserva = ?, estado = ?, idCliente = ?, idPaquete = ?, numPersonas = ?, totalPagar = ?, version = version + 1 WHERE idReserva = ? AND version = ?";
     private static final String SQL_DELETE = "DELETE FROM Reserva WHERE idReserva = ?";
+    private static final String SQL_SELECT_BLOQUEO = SQL_SELECT_ALL + " WHERE idReserva = ? FOR UPDATE";
+    private static final String SQL_SELECT_POR_ID = SQL_SELECT_ALL + " WHERE idReserva = ?";
+    private static final String SQL_SELECT_POR_CLIENTE = SQL_SELECT_ALL + " WHERE idCliente = ? ORDER BY idReserva";
+    private static final String SQL_SELECT_POR_PAQUETE = SQL_SELECT_ALL + " WHERE idPaquete = ? AND idReserva > ? ORDER BY idReserva LIMIT ?";
+    // [Comentario]: Vista detallada: LEFT JOIN para no perder reservas cuyo cliente o paquete ya no existe.
+    private static final String SQL_SELECT_DETALLE =
+        "SELECT r.idReserva, r.fechaReserva, r.estado, r.numPersonas, r.totalPagar, r.idCliente, "
+        + "c.nombre AS nombreCliente, c.apellido AS apellidoCliente, r.idPaquete, "
+        + "p.nombre AS nombrePaquete, p.destino AS destinoPaquete "
+        + "FROM Reserva r "
+        + "LEFT JOIN Cliente c ON c.idCliente = r.idCliente "
+        + "LEFT JOIN paquesturistico p ON p.id_paquete = r.idPaquete ";
+    private static final String SQL_SELECT_DETALLE_PAGINA = SQL_SELECT_DETALLE
+        + "WHERE r.idReserva > ? ORDER BY r.idReserva LIMIT ?";
+    private static final String SQL_SELECT_DETALLE_POR_CLIENTE = SQL_SELECT_DETALLE
+        + "WHERE r.idCliente = ? AND r.idReserva > ? ORDER BY r.idReserva LIMIT ?";
+
+    // [Comentario]: Campos que admite la actualización parcial (PATCH). Fecha, paquete y número de personas
+    //               no: cambian las plazas ocupadas, así que pasan por el motor de cupos (cancelar y reservar).
+    private static final ActualizacionParcial PARCIAL = new ActualizacionParcial("Reserva", "idReserva", Map.of(
+        "estado", new Campo("estado", Tipo.TEXTO, true),
+        "idCliente", new Campo("idCliente", Tipo.ENTERO, false),
+        "totalPagar", new Campo("totalPagar", Tipo.DECIMAL, false)));
+    private static final String[] COLUMNAS = { "idreserva", "fechareserva", "estado", "idcliente", "idpaquete", "numpersonas", "totalpagar", "version" };
+
+    // [Comentario]: Suscriptores a los cambios confirmados (agregados, cachés...). Con observadores
+    //               registrados, actualizar/eliminar leen antes la fila (FOR UPDATE) para notificar el delta.
+    private final List<ObservadorReservas> observadores = new CopyOnWriteArrayList<>();
+
+    public void registrarObservador(ObservadorReservas observador) {
+        observadores.add(observador);
+    }
 
     /**
-     * 1. CREAR: Inserta una nueva reserva.
+     * 1. CREAR: Inserta una nueva reserva (sin descontar cupo: las altas públicas van por CupoService).
      */
     public boolean insertar(Reserva reserva) {
-        Connection conn = null;
-        PreparedStatement ps = null;
+        Medicion medicion = MetricasDAO.iniciar("reserva", "insertar");
         boolean exito = false;
 
-        try {
-            conn = ConexionDB.obtenerConexion();
-            ps = conn.prepareStatement(SQL_INSERT);
-            
+        // try-with-resources: devuelve la conexión al pool al terminar
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            exito = Transaccion.ejecutar(conn, c -> insertar(c, reserva)) > 0;
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al insertar reserva: " + e.getMessage());
+        }
+        medicion.terminar(exito ? 1 : 0);
+        if (exito) {
+            notificarInsertadas(List.of(reserva));
+        }
+        return exito;
+    }
+
+    /**
+     * 1b. CREAR (transacción del llamador): Inserta la reserva usando la conexión recibida,
+     * asigna el idReserva generado al objeto y lo devuelve. Registra el cambio en la misma transacción.
+     */
+    public int insertar(Connection conn, Reserva reserva) throws SQLException {
+        Medicion medicion = MetricasDAO.iniciar("reserva", "insertarTx");
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT, new String[] { "idreserva" })) {
+
             // Usamos setDate directamente ya que el modelo usa java.sql.Date
             ps.setDate(1, reserva.getFechaReserva()); 
             ps.setString(2, reserva.getEstado());
@@ -36,104 +112,683 @@ public class ReservaDAO {
             ps.setInt(4, reserva.getIdPaquete());
             ps.setInt(5, reserva.getNumPersonas());
             ps.setDouble(6, reserva.getTotalPagar());
+            ps.executeUpdate();
 
-            if (ps.executeUpdate() > 0) {
-                exito = true;
+            try (ResultSet claves = ps.getGeneratedKeys()) {
+                if (claves.next()) {
+                    reserva.setIdReserva(claves.getInt(1));
+                }
             }
+            CambioDAO.registrar(conn, CambioDAO.RESERVA, CambioDAO.ALTA, reserva.getIdReserva());
         } catch (SQLException e) {
-            System.err.println("Error al insertar reserva: " + e.getMessage());
-        } finally {
-            ConexionDB.cerrarConexion(conn);
+            throw medicion.fallo(e);
         }
-        return exito;
+        medicion.terminar(1);
+        return reserva.getIdReserva();
     }
 
     /**
      * 2. LEER: Obtiene todas las reservas.
      */
     public List<Reserva> obtenerTodos() {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        ResultSet rs = null;
+        Medicion medicion = MetricasDAO.iniciar("reserva", "obtenerTodos");
         List<Reserva> listaReservas = new ArrayList<>();
 
-        try {
-            conn = ConexionDB.obtenerConexion();
-            ps = conn.prepareStatement(SQL_SELECT_ALL);
-            rs = ps.executeQuery();
+        try (Connection conn = ConexionDB.obtenerConexionLectura();
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ALL);
+             ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                Reserva reserva = new Reserva(
-                    rs.getInt("idReserva"),
-                    rs.getDate("fechaReserva"), // Obtener como java.sql.Date
-                    rs.getString("estado"),
-                    rs.getInt("idCliente"),
-                    rs.getInt("idPaquete"),
-                    rs.getInt("numPersonas"),
-                    rs.getDouble("totalPagar")
-                );
-                listaReservas.add(reserva);
+                listaReservas.add(mapear(rs));
             }
         } catch (SQLException e) {
+            medicion.fallo(e);
             System.err.println("Error al obtener todas las reservas: " + e.getMessage());
-        } finally {
-            ConexionDB.cerrarConexion(conn);
         }
+        medicion.terminar(listaReservas.size());
         return listaReservas;
     }
     
     /**
-     * 3. ACTUALIZAR: Modifica una reserva existente.
+     * 3. ACTUALIZAR: Modifica una reserva existente si su versión sigue siendo la de 'reserva' (la que se leyó).
+     * false si no existe o si otra escritura la cambió antes; si se guarda, 'reserva' queda con la versión nueva.
      */
     public boolean actualizar(Reserva reserva) {
-        Connection conn = null;
-        PreparedStatement ps = null;
+        if (!observadores.isEmpty()) {
+            return actualizarNotificando(reserva);
+        }
+        Medicion medicion = MetricasDAO.iniciar("reserva", "actualizar");
         boolean exito = false;
 
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            exito = Transaccion.ejecutar(conn, c -> {
+                try (PreparedStatement ps = c.prepareStatement(SQL_UPDATE)) {
+                    ps.setDate(1, reserva.getFechaReserva());
+                    ps.setString(2, reserva.getEstado());
+                    ps.setInt(3, reserva.getIdCliente());
+                    ps.setInt(4, reserva.getIdPaquete());
+                    ps.setInt(5, reserva.getNumPersonas());
+                    ps.setDouble(6, reserva.getTotalPagar());
+                    ps.setInt(7, reserva.getIdReserva()); // ID para la cláusula WHERE
+                    ps.setLong(8, reserva.getVersion());
+
+                    if (ps.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                CambioDAO.registrar(c, CambioDAO.RESERVA, CambioDAO.MODIFICACION, reserva.getIdReserva());
+                return true;
+            });
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al actualizar reserva: " + e.getMessage());
+        }
+        medicion.terminar(exito ? 1 : 0);
+        if (exito) {
+            reserva.setVersion(reserva.getVersion() + 1);
+        }
+        return exito;
+    }
+
+    /**
+     * 3b. ACTUALIZAR (transacción del llamador): Bloquea la fila, la modifica si conserva la versión de
+     * 'reserva' y devuelve la reserva tal como estaba antes del cambio (null si no existía o si su versión
+     * ya era otra, sin modificar nada). Registra el cambio en la misma transacción.
+     */
+    public Reserva actualizar(Connection conn, Reserva reserva) throws SQLException {
+        Medicion medicion = MetricasDAO.iniciar("reserva", "actualizarTx");
+        Reserva anterior;
         try {
-            conn = ConexionDB.obtenerConexion();
-            ps = conn.prepareStatement(SQL_UPDATE);
-            
-            ps.setDate(1, reserva.getFechaReserva());
-            ps.setString(2, reserva.getEstado());
-            ps.setInt(3, reserva.getIdCliente());
-            ps.setInt(4, reserva.getIdPaquete());
-            ps.setInt(5, reserva.getNumPersonas());
-            ps.setDouble(6, reserva.getTotalPagar());
-            ps.setInt(7, reserva.getIdReserva()); // ID para la cláusula WHERE
+            anterior = bloquear(conn, reserva.getIdReserva());
+            if (anterior != null && anterior.getVersion() != reserva.getVersion()) {
+                anterior = null;
+            }
+            if (anterior != null) {
+                try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
+                    ps.setDate(1, reserva.getFechaReserva());
+                    ps.setString(2, reserva.getEstado());
+                    ps.setInt(3, reserva.getIdCliente());
+                    ps.setInt(4, reserva.getIdPaquete());
+                    ps.setInt(5, reserva.getNumPersonas());
+                    ps.setDouble(6, reserva.getTotalPagar());
+                    ps.setInt(7, reserva.getIdReserva());
+                    ps.setLong(8, reserva.getVersion());
+                    ps.executeUpdate();
+                }
+                CambioDAO.registrar(conn, CambioDAO.RESERVA, CambioDAO.MODIFICACION, reserva.getIdReserva());
+            }
+        } catch (SQLException e) {
+            throw medicion.fallo(e);
+        }
+        medicion.terminar(anterior != null ? 1 : 0);
+        return anterior;
+    }
 
-            if (ps.executeUpdate() > 0) {
-                exito = true;
+    // [Comentario]: actualizar(Reserva) cuando hay observadores: lectura previa y UPDATE en una transacción.
+    private boolean actualizarNotificando(Reserva reserva) {
+        Reserva anterior = null;
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            conn.setAutoCommit(false);
+            try {
+                anterior = actualizar(conn, reserva);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
             System.err.println("Error al actualizar reserva: " + e.getMessage());
-        } finally {
-            ConexionDB.cerrarConexion(conn);
+            return false;
         }
-        return exito;
+        if (anterior != null) {
+            reserva.setVersion(anterior.getVersion() + 1);
+            notificarActualizada(anterior, reserva);
+        }
+        return anterior != null;
     }
 
     /**
-     * 4. ELIMINAR: Elimina una reserva por su ID.
+     * 4. ELIMINAR: Elimina una reserva por su ID (sin liberar cupo: las bajas públicas van por CupoService).
      */
     public boolean eliminar(int idReserva) {
-        Connection conn = null;
-        PreparedStatement ps = null;
+        if (!observadores.isEmpty()) {
+            return eliminarNotificando(idReserva);
+        }
+        Medicion medicion = MetricasDAO.iniciar("reserva", "eliminar");
         boolean exito = false;
 
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            exito = Transaccion.ejecutar(conn, c -> {
+                try (PreparedStatement ps = c.prepareStatement(SQL_DELETE)) {
+                    ps.setInt(1, idReserva);
+
+                    if (ps.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                CambioDAO.registrar(c, CambioDAO.RESERVA, CambioDAO.BAJA, idReserva);
+                return true;
+            });
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al eliminar reserva: " + e.getMessage());
+        }
+        medicion.terminar(exito ? 1 : 0);
+        return exito;
+    }
+
+    /**
+     * 4b. ELIMINAR (transacción del llamador): Bloquea la fila, la elimina y devuelve la reserva
+     * eliminada (null si no existía), para que el llamador pueda liberar su cupo en la misma transacción.
+     * Registra el cambio en la misma transacción.
+     */
+    public Reserva eliminar(Connection conn, int idReserva) throws SQLException {
+        return eliminar(conn, idReserva, null);
+    }
+
+    /**
+     * 4c. ELIMINAR CONDICIONAL (transacción del llamador): Como 4b, pero con 'versionEsperada' solo elimina
+     * si la versión coincide. Devuelve la fila bloqueada (null si no existía): si su versión no es la
+     * esperada no se ha eliminado nada.
+     */
+    public Reserva eliminar(Connection conn, int idReserva, Long versionEsperada) throws SQLException {
+        Medicion medicion = MetricasDAO.iniciar("reserva", "eliminarTx");
+        Reserva reserva = null;
+        boolean eliminada = false;
         try {
-            conn = ConexionDB.obtenerConexion();
-            ps = conn.prepareStatement(SQL_DELETE);
-            ps.setInt(1, idReserva);
+            reserva = bloquear(conn, idReserva);
+            if (reserva != null && (versionEsperada == null || reserva.getVersion() == versionEsperada)) {
+                try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
+                    ps.setInt(1, idReserva);
+                    ps.executeUpdate();
+                }
+                CambioDAO.registrar(conn, CambioDAO.RESERVA, CambioDAO.BAJA, idReserva);
+                eliminada = true;
+            }
+        } catch (SQLException e) {
+            throw medicion.fallo(e);
+        }
+        medicion.terminar(eliminada ? 1 : 0);
+        return reserva;
+    }
 
-            if (ps.executeUpdate() > 0) {
-                exito = true;
+    // [Comentario]: eliminar(int) cuando hay observadores: lectura previa y DELETE en una transacción.
+    private boolean eliminarNotificando(int idReserva) {
+        Reserva eliminada = null;
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            conn.setAutoCommit(false);
+            try {
+                eliminada = eliminar(conn, idReserva);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
             System.err.println("Error al eliminar reserva: " + e.getMessage());
-        } finally {
-            ConexionDB.cerrarConexion(conn);
+            return false;
         }
-        return exito;
+        if (eliminada != null) {
+            notificarEliminada(eliminada);
+        }
+        return eliminada != null;
+    }
+
+    /**
+     * 5. CREAR EN LOTE: Inserta varias reservas con JDBC batch, en bloques de 'tamanoBloque'
+     * filas confirmados cada uno en su propia transacción. Devuelve el resultado de cada fila
+     * (en el mismo orden) con el idReserva generado, que también se asigna al objeto.
+     */
+    public ResultadoLote insertarLote(List<Reserva> reservas, int tamanoBloque) {
+        ResultadoLote resultado = LoteJdbc.ejecutar(SQL_INSERT, "idreserva", reservas, tamanoBloque,
+            (ps, reserva) -> {
+                ps.setDate(1, reserva.getFechaReserva());
+                ps.setString(2, reserva.getEstado());
+                ps.setInt(3, reserva.getIdCliente());
+                ps.setInt(4, reserva.getIdPaquete());
+                ps.setInt(5, reserva.getNumPersonas());
+                ps.setDouble(6, reserva.getTotalPagar());
+            },
+            Reserva::setIdReserva, new LoteJdbc.Registro<>(CambioDAO.RESERVA, CambioDAO.ALTA, null),
+            "reserva", "insertarLote");
+
+        if (!observadores.isEmpty() && resultado.getExitosas() > 0) {
+            List<Reserva> insertadas = new ArrayList<>(resultado.getExitosas());
+            for (int i = 0; i < resultado.getTotal(); i++) {
+                if (resultado.getFilas().get(i).isExito()) {
+                    insertadas.add(reservas.get(i));
+                }
+            }
+            notificarInsertadas(insertadas);
+        }
+        return resultado;
+    }
+
+    public ResultadoLote insertarLote(List<Reserva> reservas) {
+        return insertarLote(reservas, LoteJdbc.TAMANO_BLOQUE_POR_DEFECTO);
+    }
+
+    /**
+     * 5b. CREAR EN LOTE (transacción del llamador): Inserta todas las reservas en un solo
+     * executeBatch con la conexión recibida y asigna a cada objeto su idReserva generado.
+     * No confirma: el llamador decide commit/rollback (todas o ninguna), también del registro de cambios.
+     */
+    public void insertarLote(Connection conn, List<Reserva> reservas) throws SQLException {
+        Medicion medicion = MetricasDAO.iniciar("reserva", "insertarLoteTx");
+        if (reservas.isEmpty()) {
+            medicion.terminar(0);
+            return;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT, new String[] { "idreserva" })) {
+            for (Reserva reserva : reservas) {
+                ps.setDate(1, reserva.getFechaReserva());
+                ps.setString(2, reserva.getEstado());
+                ps.setInt(3, reserva.getIdCliente());
+                ps.setInt(4, reserva.getIdPaquete());
+                ps.setInt(5, reserva.getNumPersonas());
+                ps.setDouble(6, reserva.getTotalPagar());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+
+            try (ResultSet claves = ps.getGeneratedKeys()) {
+                for (int i = 0; i < reservas.size() && claves.next(); i++) {
+                    reservas.get(i).setIdReserva(claves.getInt(1));
+                }
+            }
+            CambioDAO.registrar(conn, CambioDAO.RESERVA, CambioDAO.ALTA,
+                                reservas.stream().mapToInt(Reserva::getIdReserva).toArray());
+        } catch (SQLException e) {
+            throw medicion.fallo(e);
+        }
+        medicion.terminar(reservas.size());
+    }
+
+    /**
+     * 6. ACTUALIZAR EN LOTE: Modifica varias reservas con JDBC batch (mismo esquema de bloques
+     * y transacciones que insertarLote), cada una solo si conserva su versión. Una fila sin coincidencias
+     * (no existe o cambió) se reporta como fallida; las guardadas quedan con la versión nueva.
+     */
+    public ResultadoLote actualizarLote(List<Reserva> reservas, int tamanoBloque) {
+        ResultadoLote resultado = LoteJdbc.ejecutar(SQL_UPDATE, null, reservas, tamanoBloque,
+            (ps, reserva) -> {
+                ps.setDate(1, reserva.getFechaReserva());
+                ps.setString(2, reserva.getEstado());
+                ps.setInt(3, reserva.getIdCliente());
+                ps.setInt(4, reserva.getIdPaquete());
+                ps.setInt(5, reserva.getNumPersonas());
+                ps.setDouble(6, reserva.getTotalPagar());
+                ps.setInt(7, reserva.getIdReserva());
+                ps.setLong(8, reserva.getVersion());
+            },
+            null, new LoteJdbc.Registro<>(CambioDAO.RESERVA, CambioDAO.MODIFICACION, Reserva::getIdReserva),
+            "reserva", "actualizarLote");
+        for (ResultadoFila fila : resultado.getFilas()) {
+            if (fila.isExito()) {
+                reservas.get(fila.getIndice()).setVersion(reservas.get(fila.getIndice()).getVersion() + 1);
+            }
+        }
+
+        // Sin lectura previa fila a fila: los observadores se resincronizan
+        if (resultado.getExitosas() > 0) {
+            notificarCambioMasivo();
+        }
+        return resultado;
+    }
+
+    public ResultadoLote actualizarLote(List<Reserva> reservas) {
+        return actualizarLote(reservas, LoteJdbc.TAMANO_BLOQUE_POR_DEFECTO);
+    }
+
+    /**
+     * 7. LEER EN STREAMING: Recorre todas las reservas con un cursor del servidor. El driver trae
+     * 'tamanoFetch' filas por viaje (requiere autocommit desactivado), así que la memoria no
+     * crece con el tamaño de la tabla. El Stream es perezoso y DEBE cerrarse (try-with-resources)
+     * para liberar el cursor y devolver la conexión al pool. Si la consulta falla, al abrir el cursor
+     * o a mitad de lectura, lanza IllegalStateException (nunca un Stream vacío o incompleto sin avisar).
+     */
+    public Stream<Reserva> obtenerTodosStream(int tamanoFetch) {
+        return abrirCursor(SQL_SELECT_ALL + " ORDER BY idReserva", ps -> { }, tamanoFetch, "obtenerTodosStream", false);
+    }
+
+    /**
+     * 8. LEER EN STREAMING (callback): Igual que obtenerTodosStream, pero entrega cada fila al
+     * consumidor y cierra el cursor al terminar. Devuelve la cantidad de filas procesadas.
+     */
+    public long recorrerTodos(int tamanoFetch, Consumer<Reserva> consumidor) {
+        long filas = 0;
+        try (Stream<Reserva> stream = obtenerTodosStream(tamanoFetch)) {
+            for (Iterator<Reserva> it = stream.iterator(); it.hasNext(); filas++) {
+                consumidor.accept(it.next());
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * 14. LEER FILTRADAS EN STREAMING: Como obtenerTodosStream, pero solo las reservas con fechaReserva
+     * entre 'desde' y 'hasta' (incluidas) y con ese 'estado'. Cada filtro es opcional (null = sin filtro).
+     * El Stream DEBE cerrarse.
+     */
+    public Stream<Reserva> obtenerFiltradasStream(Date desde, Date hasta, String estado, int tamanoFetch) {
+        StringBuilder sql = new StringBuilder(SQL_SELECT_ALL).append(" WHERE 1 = 1");
+        if (desde != null) sql.append(" AND fechaReserva >= ?");
+        if (hasta != null) sql.append(" AND fechaReserva <= ?");
+        if (estado != null) sql.append(" AND estado = ?");
+        sql.append(" ORDER BY idReserva");
+
+        return abrirCursor(sql.toString(), ps -> {
+            int i = 1;
+            if (desde != null) ps.setDate(i++, desde);
+            if (hasta != null) ps.setDate(i++, hasta);
+            if (estado != null) ps.setString(i, estado);
+        }, tamanoFetch, "obtenerFiltradasStream", true);
+    }
+
+    /**
+     * 16. LEER NUEVAS EN STREAMING: Como obtenerTodosStream, pero solo las reservas con idReserva mayor
+     * que 'despuesDe' (refresco incremental: las filas agregadas desde la última lectura). El Stream DEBE cerrarse.
+     */
+    public Stream<Reserva> obtenerPosterioresStream(int despuesDe, int tamanoFetch) {
+        return abrirCursor(SQL_SELECT_ALL + " WHERE idReserva > ? ORDER BY idReserva", ps -> ps.setInt(1, despuesDe),
+                           tamanoFetch, "obtenerPosterioresStream", false);
+    }
+
+    /**
+     * 9. LEER PÁGINA (keyset): Devuelve hasta 'limite' reservas con idReserva mayor que 'despuesDe',
+     * ordenadas por idReserva. Usa el índice de la clave primaria, así que el coste no depende de la
+     * posición de la página. El cursor de la página siguiente es el último idReserva devuelto.
+     */
+    public Pagina<Reserva> obtenerPagina(int despuesDe, int limite) {
+        Medicion medicion = MetricasDAO.iniciar("reserva", "obtenerPagina");
+        List<Reserva> elementos = new ArrayList<>();
+        boolean hayMas = false;
+
+        try (Connection conn = ConexionDB.obtenerConexionLectura();
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_PAGINA)) {
+
+            ps.setInt(1, despuesDe);
+            ps.setInt(2, limite + 1); // Una fila extra para saber si hay página siguiente
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (elementos.size() == limite) {
+                        hayMas = true;
+                        break;
+                    }
+                    elementos.add(mapear(rs));
+                }
+            }
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al obtener página de reservas: " + e.getMessage());
+        }
+        Integer siguiente = hayMas ? elementos.get(elementos.size() - 1).getIdReserva() : null;
+        medicion.terminar(elementos.size());
+        return new Pagina<>(elementos, limite, siguiente);
+    }
+
+    /**
+     * 10. LEER POR ID: Devuelve la reserva o null si no existe (clave primaria).
+     */
+    public Reserva obtenerPorId(int idReserva) {
+        List<Reserva> reservas = obtenerPor(SQL_SELECT_POR_ID, "obtenerPorId", ps -> ps.setInt(1, idReserva));
+        return reservas.isEmpty() ? null : reservas.get(0);
+    }
+
+    /**
+     * 11. LEER POR CLIENTE: Todas las reservas del cliente, por idReserva (índice idx_reserva_cliente).
+     */
+    public List<Reserva> obtenerReservasPorCliente(int idCliente) {
+        return obtenerPor(SQL_SELECT_POR_CLIENTE, "obtenerPorCliente", ps -> ps.setInt(1, idCliente));
+    }
+
+    /**
+     * 12. LEER POR PAQUETE (keyset): Reservas del paquete con idReserva mayor que 'despuesDe', hasta
+     * 'limite' (índice idx_reserva_paquete). Un paquete puede acumular muchas reservas, por eso se pagina.
+     */
+    public Pagina<Reserva> obtenerReservasPorPaquete(int idPaquete, int despuesDe, int limite) {
+        List<Reserva> reservas = obtenerPor(SQL_SELECT_POR_PAQUETE, "obtenerPorPaquete", ps -> {
+            ps.setInt(1, idPaquete);
+            ps.setInt(2, despuesDe);
+            ps.setInt(3, limite + 1); // Una fila extra para saber si hay página siguiente
+        });
+        boolean hayMas = reservas.size() > limite;
+        if (hayMas) {
+            reservas.remove(limite);
+        }
+        Integer siguiente = hayMas ? reservas.get(reservas.size() - 1).getIdReserva() : null;
+        return new Pagina<>(reservas, limite, siguiente);
+    }
+
+    /**
+     * 13. LEER DETALLE (keyset): Página de reservas con el nombre del cliente y el nombre/destino del
+     * paquete, en una sola consulta por página (sin una búsqueda extra por fila). Con idCliente != null
+     * solo las de ese cliente (índice idx_reserva_cliente).
+     */
+    public Pagina<ReservaDetalle> obtenerDetalles(Integer idCliente, int despuesDe, int limite) {
+        Medicion medicion = MetricasDAO.iniciar("reserva", "obtenerDetalles");
+        List<ReservaDetalle> elementos = new ArrayList<>();
+        boolean hayMas = false;
+
+        try (Connection conn = ConexionDB.obtenerConexionLectura();
+             PreparedStatement ps = conn.prepareStatement(idCliente == null ? SQL_SELECT_DETALLE_PAGINA
+                                                                            : SQL_SELECT_DETALLE_POR_CLIENTE)) {
+
+            int i = 1;
+            if (idCliente != null) {
+                ps.setInt(i++, idCliente);
+            }
+            ps.setInt(i++, despuesDe);
+            ps.setInt(i, limite + 1); // Una fila extra para saber si hay página siguiente
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (elementos.size() == limite) {
+                        hayMas = true;
+                        break;
+                    }
+                    elementos.add(mapearDetalle(rs));
+                }
+            }
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al obtener detalle de reservas: " + e.getMessage());
+        }
+        Integer siguiente = hayMas ? elementos.get(elementos.size() - 1).getIdReserva() : null;
+        medicion.terminar(elementos.size());
+        return new Pagina<>(elementos, limite, siguiente);
+    }
+
+    /**
+     * 15. ACTUALIZAR PARCIAL: Modifica solo los campos de 'cambios' (estado, idCliente, totalPagar) en un
+     * único UPDATE que devuelve la fila resultante. Con 'versionEsperada' solo se aplica si la versión
+     * coincide; si no, CONFLICTO con la versión vigente. Con observadores registrados la fila se bloquea
+     * y se lee antes en la misma transacción (necesitan el valor anterior para el delta). El cambio se
+     * registra en esa misma transacción.
+     * ERROR si 'cambios' incluye campos no modificables o valores inválidos.
+     */
+    public ResultadoEscritura<Reserva> actualizarParcial(int idReserva, Map<String, Object> cambios, Long versionEsperada) {
+        Map<Campo, Object> valores;
+        try {
+            valores = PARCIAL.validar(cambios);
+        } catch (IllegalArgumentException e) {
+            return ResultadoEscritura.error(e.getMessage()); // Campo no modificable o valor inválido
+        }
+        Medicion medicion = MetricasDAO.iniciar("reserva", "actualizarParcial");
+        ResultadoEscritura<Reserva> resultado;
+        Reserva anterior = null;
+
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            conn.setAutoCommit(false);
+            try {
+                if (observadores.isEmpty()) {
+                    resultado = actualizarParcial(conn, valores, idReserva, versionEsperada);
+                } else {
+                    anterior = bloquear(conn, idReserva);
+                    if (anterior == null || (versionEsperada != null && anterior.getVersion() != versionEsperada)) {
+                        resultado = ResultadoEscritura.sinFila(anterior == null ? null : anterior.getVersion());
+                    } else {
+                        resultado = actualizarParcial(conn, valores, idReserva, null); // Ya bloqueada y comprobada
+                    }
+                }
+                if (resultado.getEstado() == ResultadoEscritura.Estado.HECHA) {
+                    CambioDAO.registrar(conn, CambioDAO.RESERVA, CambioDAO.MODIFICACION, idReserva);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al actualizar reserva: " + e.getMessage());
+            return ErroresSQL.resultado(e);
+        }
+        medicion.terminar(resultado.getEstado() == ResultadoEscritura.Estado.HECHA ? 1 : 0);
+        if (anterior != null && resultado.getElemento() != null) {
+            notificarActualizada(anterior, resultado.getElemento());
+        }
+        return resultado;
+    }
+
+    private ResultadoEscritura<Reserva> actualizarParcial(Connection conn, Map<Campo, Object> valores, int idReserva,
+                                                         Long versionEsperada) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(PARCIAL.sqlActualizar(valores.keySet(), versionEsperada != null), COLUMNAS)) {
+            PARCIAL.asignar(ps, valores, idReserva, versionEsperada);
+            if (ps.executeUpdate() > 0) {
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    rs.next();
+                    Reserva reserva = mapear(rs);
+                    return ResultadoEscritura.hecha(reserva, reserva.getVersion());
+                }
+            }
+        }
+        return ResultadoEscritura.sinFila(PARCIAL.versionActual(conn, idReserva));
+    }
+
+    // Consulta parametrizada que devuelve reservas (lista vacía si hay error)
+    private List<Reserva> obtenerPor(String sql, String operacion, ClienteDAO.Parametros parametros) {
+        Medicion medicion = MetricasDAO.iniciar("reserva", operacion);
+        List<Reserva> reservas = new ArrayList<>();
+
+        try (Connection conn = ConexionDB.obtenerConexionLectura();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            parametros.asignar(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    reservas.add(mapear(rs));
+                }
+            }
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al buscar reservas (" + operacion + "): " + e.getMessage());
+        }
+        medicion.terminar(reservas.size());
+        return reservas;
+    }
+
+    /**
+     * Notificaciones para las escrituras hechas con la transacción del llamador (métodos con Connection):
+     * el llamador las invoca DESPUÉS del commit, nunca antes.
+     */
+    public void notificarInsertadas(List<Reserva> reservas) {
+        for (ObservadorReservas observador : observadores) {
+            for (Reserva reserva : reservas) {
+                notificar(() -> observador.insertada(reserva));
+            }
+        }
+    }
+
+    public void notificarActualizada(Reserva anterior, Reserva nueva) {
+        for (ObservadorReservas observador : observadores) {
+            notificar(() -> observador.actualizada(anterior, nueva));
+        }
+    }
+
+    public void notificarEliminada(Reserva reserva) {
+        for (ObservadorReservas observador : observadores) {
+            notificar(() -> observador.eliminada(reserva));
+        }
+    }
+
+    /**
+     * Cambio confirmado en otro nodo (FeedCambios): 'actual' es la fila ya leída de la primaria, null si
+     * la reserva se eliminó.
+     */
+    public void notificarExterna(int idReserva, Reserva actual) {
+        for (ObservadorReservas observador : observadores) {
+            notificar(() -> observador.cambioExterno(idReserva, actual));
+        }
+    }
+
+    public void notificarCambioMasivo() {
+        for (ObservadorReservas observador : observadores) {
+            notificar(observador::cambioMasivo);
+        }
+    }
+
+    // Un observador que falla no debe afectar a la escritura (ya confirmada) ni al resto
+    private static void notificar(Runnable notificacion) {
+        try {
+            notificacion.run();
+        } catch (RuntimeException e) {
+            System.err.println("Error al notificar cambio de reserva: " + e.getMessage());
+        }
+    }
+
+    // Lee la reserva bloqueando su fila hasta el final de la transacción (null si no existe)
+    private static Reserva bloquear(Connection conn, int idReserva) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BLOQUEO)) {
+            ps.setInt(1, idReserva);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapear(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Convierte la fila actual del ResultSet en una Reserva.
+     */
+    public static Reserva mapear(ResultSet rs) throws SQLException {
+        Reserva reserva = new Reserva(
+            rs.getInt("idReserva"),
+            rs.getDate("fechaReserva"), // Obtener como java.sql.Date
+            rs.getString("estado"),
+            rs.getInt("idCliente"),
+            rs.getInt("idPaquete"),
+            rs.getInt("numPersonas"),
+            rs.getDouble("totalPagar")
+        );
+        reserva.setVersion(rs.getLong("version"));
+        return reserva;
+    }
+
+    // Cursor del servidor sobre 'sql' (ver obtenerTodosStream y CursorJdbc): el Stream debe cerrarse.
+    private Stream<Reserva> abrirCursor(String sql, ClienteDAO.Parametros parametros, int tamanoFetch, String operacion,
+                                        boolean lectura) {
+        return CursorJdbc.abrir(sql, parametros, tamanoFetch > 0 ? tamanoFetch : TAMANO_FETCH_POR_DEFECTO, lectura,
+                                ReservaDAO::mapear, "reserva", operacion);
+    }
+
+    private static ReservaDetalle mapearDetalle(ResultSet rs) throws SQLException {
+        return new ReservaDetalle(
+            rs.getInt("idReserva"),
+            rs.getDate("fechaReserva"),
+            rs.getString("estado"),
+            rs.getInt("numPersonas"),
+            rs.getDouble("totalPagar"),
+            rs.getInt("idCliente"),
+            rs.getString("nombreCliente"),
+            rs.getString("apellidoCliente"),
+            rs.getInt("idPaquete"),
+            rs.getString("nombrePaquete"),
+            rs.getString("destinoPaquete")
+        );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.sgrpt.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Ejecuta un trabajo JDBC en una transacción de la conexión recibida: commit si termina bien, rollback si
+ * lanza, y la conexión vuelve a autocommit antes de devolverse al pool. Lo usan las escrituras que además
+ * de su sentencia registran el cambio (CambioDAO.registrar), para que ambas se confirmen juntas.
+ */
+public final class Transaccion {
+
+    @FunctionalInterface
+    public interface Trabajo<T> {
+        T ejecutar(Connection conn) throws SQLException;
+    }
+
+    private Transaccion() {
+    }
+
+    public static <T> T ejecutar(Connection conn, Trabajo<T> trabajo) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            T resultado = trabajo.ejecutar(conn);
+            conn.commit();
+            return resultado;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.sgrpt.dao;
+
+import com.sgrpt.conexion.ConexionDB;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// [Comentario]: Comprobación al arrancar de que el SQL de los DAO coincide con el esquema migrado (las
+//               entidades JPA las comprueba Hibernate con ddl-auto=validate). Prepara cada consulta fija
+//               (constantes SQL_* de los DAO) y pide la descripción de sus parámetros, lo que obliga a la base
+//               de datos a analizarla sin ejecutarla. Si alguna falla (tabla o columna inexistente, tipos
+//               incompatibles) el arranque se detiene con la lista completa.
+@Component
+public class VerificacionEsquema {
+
+    private static final Class<?>[] DAOS = { ClienteDAO.class, ReservaDAO.class, CupoDAO.class, CambioDAO.class };
+
+    public VerificacionEsquema(ObjectProvider<FlywayMigrationInitializer> migraciones, ConexionDB conexion,
+                               @Value("${sgrpt.esquema.verificar:true}") boolean verificar) {
+        // Después de las migraciones y con el pool de ConexionDB ya registrado
+        migraciones.ifAvailable(m -> { });
+        if (verificar) {
+            verificar();
+        }
+    }
+
+    /**
+     * Prepara todas las consultas fijas de los DAO. IllegalStateException con las que fallan.
+     */
+    public static void verificar() {
+        List<String> errores = new ArrayList<>();
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            for (Class<?> dao : DAOS) {
+                for (Field campo : dao.getDeclaredFields()) {
+                    if (!campo.getName().startsWith("SQL_") || campo.getType() != String.class
+                        || !Modifier.isStatic(campo.getModifiers())) {
+                        continue;
+                    }
+                    String nombre = dao.getSimpleName() + "." + campo.getName();
+                    try (PreparedStatement ps = conn.prepareStatement(leer(campo))) {
+                        ps.getParameterMetaData();
+                    } catch (SQLException e) {
+                        errores.add(nombre + ": " + e.getMessage());
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo verificar el esquema: " + e.getMessage(), e);
+        }
+        if (!errores.isEmpty()) {
+            throw new IllegalStateException("El SQL de los DAO no coincide con el esquema de la base de datos:\n  "
+                                            + String.join("\n  ", errores));
+        }
+    }
+
+    private static String leer(Field campo) {
+        try {
+            campo.setAccessible(true);
+            return (String) campo.get(null);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
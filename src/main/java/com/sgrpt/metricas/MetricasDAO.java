@@ -0,0 +1,144 @@
+package com.sgrpt.metricas;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// [Comentario]: Métricas de las operaciones de los DAO (Micrometer), publicadas en /actuator/prometheus:
+//               - sgrpt.dao.operacion: latencia por dao/operacion/resultado, con percentiles calculados en el
+//                 nodo. El de resultado=error se crea con el primer error de la operación, sin percentiles.
+//               - sgrpt.dao.operacion.histograma: histograma de latencia (unas 70 series por operación, se
+//                 agrega entre nodos) solo para las operaciones de sgrpt.metricas.histogramas. Va en otra
+//                 métrica porque Prometheus no admite histograma y resumen bajo el mismo nombre.
+//               - sgrpt.dao.filas: filas leídas o escritas por operación.
+//               - sgrpt.dao.errores y sgrpt.dao.lentas: errores y operaciones por encima del umbral.
+//               Las operaciones lentas se registran además en el log 'sgrpt.consultas-lentas', sin
+//               necesidad de activar el log completo de SQL.
+//               Es estático (como ConexionDB) para que los DAO lo usen sin inyección.
+@Component
+public class MetricasDAO {
+
+    private static final Logger LOG_LENTAS = LoggerFactory.getLogger("sgrpt.consultas-lentas");
+
+    private static volatile long umbralLentoNanos = TimeUnit.MILLISECONDS.toNanos(200);
+
+    // Operaciones (dao.operacion) con histograma de latencia
+    private static volatile Set<String> conHistograma = Set.of();
+
+    // Medidores por dao.operacion: evita buscar en el registro en cada llamada
+    private static final Map<String, Medidores> medidores = new ConcurrentHashMap<>();
+
+    public MetricasDAO(@Value("${sgrpt.metricas.umbral-lento-ms:200}") long umbralLentoMs,
+                       @Value("${sgrpt.metricas.histogramas:}") Set<String> histogramas) {
+        umbralLentoNanos = TimeUnit.MILLISECONDS.toNanos(umbralLentoMs);
+        conHistograma = Set.copyOf(histogramas);
+    }
+
+    /**
+     * Inicia la medición de una operación. Se cierra con terminar(filas) o fallo(e).
+     */
+    public static Medicion iniciar(String dao, String operacion) {
+        return new Medicion(medidores.computeIfAbsent(dao + "." + operacion, clave -> new Medidores(Metrics.globalRegistry, dao, operacion)));
+    }
+
+    // [Comentario]: Una medición en curso. terminar/fallo solo registran la primera vez.
+    public static final class Medicion {
+        private final Medidores medidores;
+        private final long inicio = System.nanoTime();
+        private boolean terminada;
+
+        private Medicion(Medidores medidores) {
+            this.medidores = medidores;
+        }
+
+        public void terminar(long filas) {
+            registrar(filas, false);
+        }
+
+        public <E extends Exception> E fallo(E error) {
+            registrar(0, true);
+            return error;
+        }
+
+        private void registrar(long filas, boolean error) {
+            if (terminada) {
+                return;
+            }
+            terminada = true;
+            long duracion = System.nanoTime() - inicio;
+            (error ? medidores.tiempoError() : medidores.tiempoExito).record(duracion, TimeUnit.NANOSECONDS);
+            if (error) {
+                medidores.errores.increment();
+            } else {
+                medidores.filas.record(filas);
+                if (medidores.histograma != null) {
+                    medidores.histograma.record(duracion, TimeUnit.NANOSECONDS);
+                }
+            }
+            if (duracion >= umbralLentoNanos) {
+                medidores.lentas.increment();
+                LOG_LENTAS.warn("{} tardó {} ms ({} filas{})", medidores.nombre, TimeUnit.NANOSECONDS.toMillis(duracion),
+                                filas, error ? ", con error" : "");
+            }
+        }
+    }
+
+    private static final class Medidores {
+        final String nombre;
+        final Timer tiempoExito;
+        final Timer histograma; // null si la operación no es de sgrpt.metricas.histogramas
+        final DistributionSummary filas;
+        final Counter errores;
+        final Counter lentas;
+        private final MeterRegistry registro;
+        private final String dao;
+        private final String operacion;
+        private volatile Timer tiempoError; // Al primer error: la mayoría de operaciones no falla nunca
+
+        Medidores(MeterRegistry registro, String dao, String operacion) {
+            this.nombre = dao + "." + operacion;
+            this.registro = registro;
+            this.dao = dao;
+            this.operacion = operacion;
+            this.tiempoExito = Timer.builder("sgrpt.dao.operacion")
+                .tags("dao", dao, "operacion", operacion, "resultado", "exito")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registro);
+            this.histograma = !conHistograma.contains(nombre) ? null : Timer.builder("sgrpt.dao.operacion.histograma")
+                .tags("dao", dao, "operacion", operacion)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registro);
+            this.filas = DistributionSummary.builder("sgrpt.dao.filas")
+                .tags("dao", dao, "operacion", operacion)
+                .register(registro);
+            this.errores = Counter.builder("sgrpt.dao.errores").tags("dao", dao, "operacion", operacion).register(registro);
+            this.lentas = Counter.builder("sgrpt.dao.lentas").tags("dao", dao, "operacion", operacion).register(registro);
+        }
+
+        Timer tiempoError() {
+            Timer tiempo = tiempoError;
+            if (tiempo == null) {
+                // register() devuelve el ya registrado si otro hilo se adelantó
+                tiempo = Timer.builder("sgrpt.dao.operacion")
+                    .tags("dao", dao, "operacion", operacion, "resultado", "error")
+                    .register(registro);
+                tiempoError = tiempo;
+            }
+            return tiempo;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.sgrpt.modelo;
+
+import java.sql.Date;
+
+// [Comentario]: Totales de reservas (cantidad, personas e ingresos) de un paquete. 'fecha' y 'estado'
+//               indican el desglose: null significa "todas las fechas" / "todos los estados".
+public class AgregadoReservas {
+    private int idPaquete;
+    private Date fecha;
+    private String estado;
+    private long reservas;
+    private long personas;
+    private double ingresos; // Suma de totalPagar
+
+    // 1. Constructor Vacío
+    public AgregadoReservas() {
+    }
+
+    // 2. Constructor Completo
+    public AgregadoReservas(int idPaquete, Date fecha, String estado, long reservas, long personas, double ingresos) {
+        this.idPaquete = idPaquete;
+        this.fecha = fecha;
+        this.estado = estado;
+        this.reservas = reservas;
+        this.personas = personas;
+        this.ingresos = ingresos;
+    }
+
+    // 3. Getters y Setters
+
+    public int getIdPaquete() { return idPaquete; }
+    public void setIdPaquete(int idPaquete) { this.idPaquete = idPaquete; }
+
+    public Date getFecha() { return fecha; }
+    public void setFecha(Date fecha) { this.fecha = fecha; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public long getReservas() { return reservas; }
+    public void setReservas(long reservas) { this.reservas = reservas; }
+
+    public long getPersonas() { return personas; }
+    public void setPersonas(long personas) { this.personas = personas; }
+
+    public double getIngresos() { return ingresos; }
+    public void setIngresos(double ingresos) { this.ingresos = ingresos; }
+}
@@ -0,0 +1,55 @@
+package com.sgrpt.modelo;
+
+import java.sql.Timestamp;
+
+// [Comentario]: Fila del registro de cambios (tabla cambio): una escritura confirmada de paquetes, clientes,
+//               reservas o cupos, en el orden de id_cambio. Solo lleva la clave de lo que cambió; quien la
+//               recibe vuelve a leer la fila actual si la necesita.
+public class Cambio {
+    private long idCambio;
+    private String entidad;   // paquete, cliente, reserva o cupo (para cupo, el id es el del paquete)
+    private int idEntidad;
+    private String operacion; // ALTA, MODIFICACION o BAJA
+    private String nodo;      // Nodo que hizo la escritura
+    private Timestamp fecha;
+
+    // 1. Constructor Vacío
+    public Cambio() {
+    }
+
+    // 2. Constructor Completo
+    public Cambio(long idCambio, String entidad, int idEntidad, String operacion, String nodo, Timestamp fecha) {
+        this.idCambio = idCambio;
+        this.entidad = entidad;
+        this.idEntidad = idEntidad;
+        this.operacion = operacion;
+        this.nodo = nodo;
+        this.fecha = fecha;
+    }
+
+    // 3. Getters y Setters
+
+    public long getIdCambio() { return idCambio; }
+    public void setIdCambio(long idCambio) { this.idCambio = idCambio; }
+
+    public String getEntidad() { return entidad; }
+    public void setEntidad(String entidad) { this.entidad = entidad; }
+
+    public int getIdEntidad() { return idEntidad; }
+    public void setIdEntidad(int idEntidad) { this.idEntidad = idEntidad; }
+
+    public String getOperacion() { return operacion; }
+    public void setOperacion(String operacion) { this.operacion = operacion; }
+
+    public String getNodo() { return nodo; }
+    public void setNodo(String nodo) { this.nodo = nodo; }
+
+    public Timestamp getFecha() { return fecha; }
+    public void setFecha(Timestamp fecha) { this.fecha = fecha; }
+
+    // 4. Método toString
+    @Override
+    public String toString() {
+        return "Cambio [ID=" + idCambio + ", " + operacion + " " + entidad + " " + idEntidad + ", Nodo=" + nodo + "]";
+    }
+}
@@ -7,6 +7,7 @@ public class Cliente {
     private String email;
     private String telefono;
     private String identificacion;
+    private long version; // Sube en cada UPDATE (control de concurrencia optimista, ETag)
 
     // 1. Constructor Vacío
     public Cliente() {
@@ -51,6 +52,9 @@ public class Cliente {
     public String getIdentificacion() { return identificacion; }
     public void setIdentificacion(String identificacion) { this.identificacion = identificacion; }
 
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
     // 5. Método toString
     @Override
     public String toString() {
@@ -0,0 +1,25 @@
+package com.sgrpt.modelo;
+
+// [Comentario]: Resultado de una búsqueda de texto: el elemento encontrado y su puntuación (mayor = más relevante).
+public class Coincidencia<T> {
+    private T elemento;
+    private double puntuacion;
+
+    // 1. Constructor Vacío
+    public Coincidencia() {
+    }
+
+    // 2. Constructor Completo
+    public Coincidencia(T elemento, double puntuacion) {
+        this.elemento = elemento;
+        this.puntuacion = puntuacion;
+    }
+
+    // 3. Getters y Setters
+
+    public T getElemento() { return elemento; }
+    public void setElemento(T elemento) { this.elemento = elemento; }
+
+    public double getPuntuacion() { return puntuacion; }
+    public void setPuntuacion(double puntuacion) { this.puntuacion = puntuacion; }
+}
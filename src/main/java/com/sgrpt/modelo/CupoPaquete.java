@@ -0,0 +1,49 @@
+package com.sgrpt.modelo;
+
+import java.sql.Date;
+
+// [Comentario]: Cupo (plazas) de un paquete para una fecha de salida. 'version' se incrementa en cada
+//               cambio y permite actualizaciones optimistas de la capacidad.
+public class CupoPaquete {
+    private int idPaquete;
+    private Date fechaSalida;
+    private int capacidad;   // Plazas totales de la salida
+    private int disponibles; // Plazas que quedan por vender
+    private long version;
+
+    // 1. Constructor Vacío
+    public CupoPaquete() {
+    }
+
+    // 2. Constructor Completo
+    public CupoPaquete(int idPaquete, Date fechaSalida, int capacidad, int disponibles, long version) {
+        this.idPaquete = idPaquete;
+        this.fechaSalida = fechaSalida;
+        this.capacidad = capacidad;
+        this.disponibles = disponibles;
+        this.version = version;
+    }
+
+    // 3. Getters y Setters
+
+    public int getIdPaquete() { return idPaquete; }
+    public void setIdPaquete(int idPaquete) { this.idPaquete = idPaquete; }
+
+    public Date getFechaSalida() { return fechaSalida; }
+    public void setFechaSalida(Date fechaSalida) { this.fechaSalida = fechaSalida; }
+
+    public int getCapacidad() { return capacidad; }
+    public void setCapacidad(int capacidad) { this.capacidad = capacidad; }
+
+    public int getDisponibles() { return disponibles; }
+    public void setDisponibles(int disponibles) { this.disponibles = disponibles; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    // 4. Método toString
+    @Override
+    public String toString() {
+        return "Cupo [PaqueteID=" + idPaquete + ", Salida=" + fechaSalida + ", Disponibles=" + disponibles + "/" + capacidad + ", v" + version + "]";
+    }
+}
@@ -0,0 +1,39 @@
+package com.sgrpt.modelo;
+
+// [Comentario]: Estado de una reserva recibida por la vía asíncrona (POST /api/v1/reservas/ingreso).
+//               Se consulta con el 'id' del ingreso hasta que pasa de PENDIENTE a CONFIRMADA o RECHAZADA.
+public class EstadoIngreso {
+
+    public enum Estado { PENDIENTE, CONFIRMADA, RECHAZADA }
+
+    private String id;
+    private Estado estado;
+    private Integer idReserva; // Asignado al confirmarse
+    private String mensaje;    // Motivo del rechazo
+
+    // 1. Constructor Vacío
+    public EstadoIngreso() {
+    }
+
+    // 2. Constructor Completo
+    public EstadoIngreso(String id, Estado estado, Integer idReserva, String mensaje) {
+        this.id = id;
+        this.estado = estado;
+        this.idReserva = idReserva;
+        this.mensaje = mensaje;
+    }
+
+    // 3. Getters y Setters
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Estado getEstado() { return estado; }
+    public void setEstado(Estado estado) { this.estado = estado; }
+
+    public Integer getIdReserva() { return idReserva; }
+    public void setIdReserva(Integer idReserva) { this.idReserva = idReserva; }
+
+    public String getMensaje() { return mensaje; }
+    public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+}
@@ -0,0 +1,35 @@
+package com.sgrpt.modelo;
+
+import java.util.List;
+
+// [Comentario]: Página de resultados con paginación por cursor (keyset). 'siguienteCursor' es el valor
+//               que se envía en la siguiente petición; es null cuando no hay más resultados.
+public class Pagina<T> {
+    private List<T> elementos;
+    private int tamano;
+    private Object siguienteCursor;
+
+    // 1. Constructor Vacío
+    public Pagina() {
+    }
+
+    // 2. Constructor Completo
+    public Pagina(List<T> elementos, int tamano, Object siguienteCursor) {
+        this.elementos = elementos;
+        this.tamano = tamano;
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    // 3. Getters y Setters
+
+    public List<T> getElementos() { return elementos; }
+    public void setElementos(List<T> elementos) { this.elementos = elementos; }
+
+    public int getTamano() { return tamano; }
+    public void setTamano(int tamano) { this.tamano = tamano; }
+
+    public Object getSiguienteCursor() { return siguienteCursor; }
+    public void setSiguienteCursor(Object siguienteCursor) { this.siguienteCursor = siguienteCursor; }
+
+    public boolean isHaySiguiente() { return siguienteCursor != null; }
+}
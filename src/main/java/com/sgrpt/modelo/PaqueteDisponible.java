@@ -0,0 +1,49 @@
+package com.sgrpt.modelo;
+
+import java.util.List;
+
+// [Comentario]: Resultado de la búsqueda de disponibilidad: un paquete y sus salidas dentro del rango
+//               pedido que todavía tienen plazas para el grupo (ordenadas por fecha).
+public class PaqueteDisponible {
+    private int idPaquete;
+    private String nombre;
+    private String destino;
+    private Integer duracionDias;
+    private Double precio;
+    private List<CupoPaquete> salidas;
+
+    // 1. Constructor Vacío
+    public PaqueteDisponible() {
+    }
+
+    // 2. Constructor Completo
+    public PaqueteDisponible(int idPaquete, String nombre, String destino, Integer duracionDias, Double precio,
+                             List<CupoPaquete> salidas) {
+        this.idPaquete = idPaquete;
+        this.nombre = nombre;
+        this.destino = destino;
+        this.duracionDias = duracionDias;
+        this.precio = precio;
+        this.salidas = salidas;
+    }
+
+    // 3. Getters y Setters
+
+    public int getIdPaquete() { return idPaquete; }
+    public void setIdPaquete(int idPaquete) { this.idPaquete = idPaquete; }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public String getDestino() { return destino; }
+    public void setDestino(String destino) { this.destino = destino; }
+
+    public Integer getDuracionDias() { return duracionDias; }
+    public void setDuracionDias(Integer duracionDias) { this.duracionDias = duracionDias; }
+
+    public Double getPrecio() { return precio; }
+    public void setPrecio(Double precio) { this.precio = precio; }
+
+    public List<CupoPaquete> getSalidas() { return salidas; }
+    public void setSalidas(List<CupoPaquete> salidas) { this.salidas = salidas; }
+}
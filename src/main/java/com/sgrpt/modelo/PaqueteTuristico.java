@@ -5,7 +5,14 @@ import jakarta.persistence.*; // Usa 'jakarta' si usas Spring Boot 3+ (versión
 
 // [Comentario]: @Entity indica que esta clase es una tabla en la base de datos.
 @Entity 
-@Table(name = "paquesturistico") // [Comentario]: Opcional, nombre de la tabla
+// [Comentario]: Los índices cubren los filtros y ordenamientos de GET /api/v1/paquetes.
+//               Los crea la migración V2__indices.sql (Hibernate solo valida el esquema).
+@Table(name = "paquesturistico", indexes = { // [Comentario]: Opcional, nombre de la tabla
+    @Index(name = "idx_paquete_destino_precio", columnList = "destino, precio"),
+    @Index(name = "idx_paquete_nombre", columnList = "nombre"),
+    @Index(name = "idx_paquete_precio", columnList = "precio"),
+    @Index(name = "idx_paquete_duracion", columnList = "duracionDias")
+})
 public class PaqueteTuristico {
     
     // [Comentario]: @Id marca la clave primaria de la tabla.
@@ -20,6 +27,11 @@ public class PaqueteTuristico {
     private Integer duracionDias;
     private Double precio;
 
+    // [Comentario]: @Version: Hibernate la sube en cada UPDATE y lo hace condicional (WHERE version = ?).
+    //               También es el ETag del paquete (If-None-Match / If-Match).
+    @Version
+    private Long version;
+
     // [Comentario]: Constructor vacío requerido por JPA.
     public PaqueteTuristico() {}
 
@@ -52,4 +64,7 @@ public class PaqueteTuristico {
     
     public Double getPrecio() { return precio; }
     public void setPrecio(Double precio) { this.precio = precio; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
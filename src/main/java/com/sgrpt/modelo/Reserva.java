@@ -10,6 +10,7 @@ public class Reserva {
     private int idPaquete; // Clave foránea al PaqueteTuristico
     private int numPersonas;
     private double totalPagar;
+    private long version; // Sube en cada UPDATE (control de concurrencia optimista, ETag)
 
     // 1. Constructor Vacío
     public Reserva() {
@@ -59,6 +60,9 @@ public class Reserva {
     public double getTotalPagar() { return totalPagar; }
     public void setTotalPagar(double totalPagar) { this.totalPagar = totalPagar; }
 
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
     // 5. Método toString
     @Override
     public String toString() {
@@ -0,0 +1,76 @@
+package com.sgrpt.modelo;
+
+import java.sql.Date;
+
+// [Comentario]: Vista plana de una reserva para pantallas y listados: la fila de Reserva más el nombre
+//               del cliente y el nombre/destino del paquete, resueltos en la misma consulta (JOIN).
+//               Si el cliente o el paquete ya no existen, esos campos llegan en null.
+public class ReservaDetalle {
+    private int idReserva;
+    private Date fechaReserva;
+    private String estado;
+    private int numPersonas;
+    private double totalPagar;
+    private int idCliente;
+    private String nombreCliente;
+    private String apellidoCliente;
+    private int idPaquete;
+    private String nombrePaquete;
+    private String destinoPaquete;
+
+    // 1. Constructor Vacío
+    public ReservaDetalle() {
+    }
+
+    // 2. Constructor Completo
+    public ReservaDetalle(int idReserva, Date fechaReserva, String estado, int numPersonas, double totalPagar,
+                          int idCliente, String nombreCliente, String apellidoCliente,
+                          int idPaquete, String nombrePaquete, String destinoPaquete) {
+        this.idReserva = idReserva;
+        this.fechaReserva = fechaReserva;
+        this.estado = estado;
+        this.numPersonas = numPersonas;
+        this.totalPagar = totalPagar;
+        this.idCliente = idCliente;
+        this.nombreCliente = nombreCliente;
+        this.apellidoCliente = apellidoCliente;
+        this.idPaquete = idPaquete;
+        this.nombrePaquete = nombrePaquete;
+        this.destinoPaquete = destinoPaquete;
+    }
+
+    // 3. Getters y Setters
+
+    public int getIdReserva() { return idReserva; }
+    public void setIdReserva(int idReserva) { this.idReserva = idReserva; }
+
+    public Date getFechaReserva() { return fechaReserva; }
+    public void setFechaReserva(Date fechaReserva) { this.fechaReserva = fechaReserva; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public int getNumPersonas() { return numPersonas; }
+    public void setNumPersonas(int numPersonas) { this.numPersonas = numPersonas; }
+
+    public double getTotalPagar() { return totalPagar; }
+    public void setTotalPagar(double totalPagar) { this.totalPagar = totalPagar; }
+
+    public int getIdCliente() { return idCliente; }
+    public void setIdCliente(int idCliente) { this.idCliente = idCliente; }
+
+    public String getNombreCliente() { return nombreCliente; }
+    public void setNombreCliente(String nombreCliente) { this.nombreCliente = nombreCliente; }
+
+    public String getApellidoCliente() { return apellidoCliente; }
+    public void setApellidoCliente(String apellidoCliente) { this.apellidoCliente = apellidoCliente; }
+
+    public int getIdPaquete() { return idPaquete; }
+    public void setIdPaquete(int idPaquete) { this.idPaquete = idPaquete; }
+
+    public String getNombrePaquete() { return nombrePaquete; }
+    public void setNombrePaquete(String nombrePaquete) { this.nombrePaquete = nombrePaquete; }
+
+    public String getDestinoPaquete() { return destinoPaquete; }
+    public void setDestinoPaquete(String destinoPaquete) { this.destinoPaquete = destinoPaquete; }
+}
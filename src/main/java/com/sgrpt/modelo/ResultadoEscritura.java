@@ -0,0 +1,66 @@
+package com.sgrpt.modelo;
+
+// [Comentario]: Resultado de una escritura condicional (PATCH / DELETE con versión esperada).
+//               - HECHA: 'elemento' es la fila tal como quedó (null en un DELETE).
+//               - CONFLICTO: la fila cambió desde que el cliente la leyó; 'versionActual' es la vigente.
+//               - NO_ENCONTRADA: no existe. ERROR: la base de datos rechazó el cambio (ver 'mensaje').
+//               - EN_USO: no se puede eliminar, otras filas la referencian (p. ej. un cliente con reservas).
+//               - NO_DISPONIBLE: falló la base de datos (conexión, pool, deadlock); la petición era válida.
+public class ResultadoEscritura<T> {
+
+    public enum Estado { HECHA, NO_ENCONTRADA, CONFLICTO, ERROR, EN_USO, NO_DISPONIBLE }
+
+    private Estado estado;
+    private T elemento;
+    private Long versionActual;
+    private String mensaje;
+
+    // 1. Constructor Vacío
+    public ResultadoEscritura() {
+    }
+
+    // 2. Constructor Completo
+    public ResultadoEscritura(Estado estado, T elemento, Long versionActual, String mensaje) {
+        this.estado = estado;
+        this.elemento = elemento;
+        this.versionActual = versionActual;
+        this.mensaje = mensaje;
+    }
+
+    // [Comentario]: Atajos para los DAO.
+    public static <T> ResultadoEscritura<T> hecha(T elemento, Long version) {
+        return new ResultadoEscritura<>(Estado.HECHA, elemento, version, null);
+    }
+
+    public static <T> ResultadoEscritura<T> sinFila(Long versionActual) {
+        return versionActual == null
+            ? new ResultadoEscritura<>(Estado.NO_ENCONTRADA, null, null, "No existe")
+            : new ResultadoEscritura<>(Estado.CONFLICTO, null, versionActual, "La versión no coincide: otra edición se guardó antes");
+    }
+
+    public static <T> ResultadoEscritura<T> error(String mensaje) {
+        return new ResultadoEscritura<>(Estado.ERROR, null, null, mensaje);
+    }
+
+    public static <T> ResultadoEscritura<T> enUso(String mensaje) {
+        return new ResultadoEscritura<>(Estado.EN_USO, null, null, mensaje);
+    }
+
+    public static <T> ResultadoEscritura<T> noDisponible(String mensaje) {
+        return new ResultadoEscritura<>(Estado.NO_DISPONIBLE, null, null, mensaje);
+    }
+
+    // 3. Getters y Setters
+
+    public Estado getEstado() { return estado; }
+    public void setEstado(Estado estado) { this.estado = estado; }
+
+    public T getElemento() { return elemento; }
+    public void setElemento(T elemento) { this.elemento = elemento; }
+
+    public Long getVersionActual() { return versionActual; }
+    public void setVersionActual(Long versionActual) { this.versionActual = versionActual; }
+
+    public String getMensaje() { return mensaje; }
+    public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+}
@@ -0,0 +1,43 @@
+package com.sgrpt.modelo;
+
+// [Comentario]: Resultado de una fila dentro de una operación por lotes (insertarLote / actualizarLote).
+public class ResultadoFila {
+    private int indice;       // Posición de la fila en la lista (o línea del archivo importado)
+    private boolean exito;
+    private Integer idGenerado; // idReserva / idCliente asignado por la base de datos (solo inserciones)
+    private String error;
+
+    // 1. Constructor Vacío
+    public ResultadoFila() {
+    }
+
+    // 2. Constructor Completo
+    public ResultadoFila(int indice, boolean exito, Integer idGenerado, String error) {
+        this.indice = indice;
+        this.exito = exito;
+        this.idGenerado = idGenerado;
+        this.error = error;
+    }
+
+    public static ResultadoFila ok(int indice, Integer idGenerado) {
+        return new ResultadoFila(indice, true, idGenerado, null);
+    }
+
+    public static ResultadoFila fallo(int indice, String error) {
+        return new ResultadoFila(indice, false, null, error);
+    }
+
+    // 3. Getters y Setters
+
+    public int getIndice() { return indice; }
+    public void setIndice(int indice) { this.indice = indice; }
+
+    public boolean isExito() { return exito; }
+    public void setExito(boolean exito) { this.exito = exito; }
+
+    public Integer getIdGenerado() { return idGenerado; }
+    public void setIdGenerado(Integer idGenerado) { this.idGenerado = idGenerado; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,28 @@
+package com.sgrpt.modelo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// [Comentario]: Resultado de insertarLote / actualizarLote: totales y el detalle de cada fila, en orden.
+public class ResultadoLote {
+    private final List<ResultadoFila> filas = new ArrayList<>();
+    private int exitosas;
+    private int fallidas;
+
+    public void agregar(ResultadoFila fila) {
+        filas.add(fila);
+        if (fila.isExito()) {
+            exitosas++;
+        } else {
+            fallidas++;
+        }
+    }
+
+    public List<ResultadoFila> getFilas() { return filas; }
+
+    public int getTotal() { return filas.size(); }
+
+    public int getExitosas() { return exitosas; }
+
+    public int getFallidas() { return fallidas; }
+}
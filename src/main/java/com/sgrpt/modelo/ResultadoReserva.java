@@ -0,0 +1,36 @@
+package com.sgrpt.modelo;
+
+// [Comentario]: Respuesta del motor de cupos al intentar admitir (o cancelar) una reserva.
+//               ERROR: la petición no es válida (datos que faltan o que la base de datos rechaza).
+//               NO_DISPONIBLE: fallo del servidor (conexión, pool agotado, deadlock); se puede reintentar.
+//               CONFLICTO: cancelación con una versión (If-Match) que ya no es la de la reserva; 'reserva' es la vigente.
+public class ResultadoReserva {
+
+    public enum Estado { ACEPTADA, SIN_CUPO, NO_ENCONTRADA, ERROR, NO_DISPONIBLE, CONFLICTO }
+
+    private Estado estado;
+    private Reserva reserva;
+    private String mensaje;
+
+    // 1. Constructor Vacío
+    public ResultadoReserva() {
+    }
+
+    // 2. Constructor Completo
+    public ResultadoReserva(Estado estado, Reserva reserva, String mensaje) {
+        this.estado = estado;
+        this.reserva = reserva;
+        this.mensaje = mensaje;
+    }
+
+    // 3. Getters y Setters
+
+    public Estado getEstado() { return estado; }
+    public void setEstado(Estado estado) { this.estado = estado; }
+
+    public Reserva getReserva() { return reserva; }
+    public void setReserva(Reserva reserva) { this.reserva = reserva; }
+
+    public String getMensaje() { return mensaje; }
+    public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+}
@@ -0,0 +1,34 @@
+package com.sgrpt.modelo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// [Comentario]: Respuesta del endpoint de importación masiva. Solo guarda el detalle de las filas
+//               fallidas (hasta un máximo) para que la respuesta no crezca con el tamaño del archivo.
+public class ResumenImportacion {
+    private static final int MAX_ERRORES = 100;
+
+    private long filasLeidas;
+    private long insertadas;
+    private long fallidas;
+    private long duracionMs;
+    private final List<ResultadoFila> errores = new ArrayList<>();
+
+    public void registrarFallo(ResultadoFila fila) {
+        fallidas++;
+        if (errores.size() < MAX_ERRORES) {
+            errores.add(fila);
+        }
+    }
+
+    public void sumarLeida() { filasLeidas++; }
+    public void sumarInsertadas(long cantidad) { insertadas += cantidad; }
+
+    public long getFilasLeidas() { return filasLeidas; }
+    public long getInsertadas() { return insertadas; }
+    public long getFallidas() { return fallidas; }
+    public List<ResultadoFila> getErrores() { return errores; }
+
+    public long getDuracionMs() { return duracionMs; }
+    public void setDuracionMs(long duracionMs) { this.duracionMs = duracionMs; }
+}
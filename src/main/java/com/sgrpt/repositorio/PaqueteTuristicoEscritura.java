@@ -0,0 +1,26 @@
+package com.sgrpt.repositorio;
+
+import com.sgrpt.modelo.PaqueteTuristico;
+import com.sgrpt.modelo.ResultadoEscritura;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+// [Comentario]: Escrituras del catálogo en un solo viaje a la base de datos, que JpaRepository no ofrece
+//               (save() y deleteById() leen la fila antes), y el guardado con registro de cambio. PaqueteTuristicoRepository las incorpora como
+//               fragmento; la implementación está en PaqueteTuristicoEscrituraImpl.
+public interface PaqueteTuristicoEscritura {
+
+    // save() con el registro del cambio (CambioDAO) en la misma transacción. Alta si no trae idPaquete.
+    @Transactional
+    PaqueteTuristico guardar(PaqueteTuristico paquete);
+
+    // Actualización de nombre, destino y precio (PUT) en un solo UPDATE, con versión esperada opcional
+    ResultadoEscritura<PaqueteTuristico> actualizar(int idPaquete, PaqueteTuristico paquete, Long versionEsperada);
+
+    // Actualización parcial (PATCH) con versión esperada opcional; devuelve el paquete tal como quedó
+    ResultadoEscritura<PaqueteTuristico> actualizarParcial(int idPaquete, Map<String, Object> cambios, Long versionEsperada);
+
+    // DELETE directo (sus cupos se borran en cascada); con versión esperada solo si coincide
+    ResultadoEscritura<Void> eliminar(int idPaquete, Long versionEsperada);
+}
@@ -0,0 +1,150 @@
+package com.sgrpt.repositorio;
+
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.dao.ActualizacionParcial;
+import com.sgrpt.dao.ActualizacionParcial.Campo;
+import com.sgrpt.dao.ActualizacionParcial.Tipo;
+import com.sgrpt.dao.CambioDAO;
+import com.sgrpt.dao.ErroresSQL;
+import com.sgrpt.dao.Transaccion;
+import com.sgrpt.metricas.MetricasDAO;
+import com.sgrpt.metricas.MetricasDAO.Medicion;
+import com.sgrpt.modelo.PaqueteTuristico;
+import com.sgrpt.modelo.ResultadoEscritura;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// [Comentario]: Implementación JDBC del fragmento PaqueteTuristicoEscritura (Spring Data la detecta por el
+//               sufijo Impl). Usa las mismas sentencias condicionales que ClienteDAO y ReservaDAO sobre la
+//               tabla que Hibernate genera para PaqueteTuristico (nombres de columna en snake_case).
+//               Cada escritura registra su cambio (CambioDAO) en la misma transacción.
+public class PaqueteTuristicoEscrituraImpl implements PaqueteTuristicoEscritura {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final ActualizacionParcial PARCIAL = new ActualizacionParcial("paquesturistico", "id_paquete", Map.of(
+        "nombre", new Campo("nombre", Tipo.TEXTO, true),
+        "descripcion", new Campo("descripcion", Tipo.TEXTO, true),
+        "destino", new Campo("destino", Tipo.TEXTO, true),
+        "duracionDias", new Campo("duracion_dias", Tipo.ENTERO, true),
+        "precio", new Campo("precio", Tipo.DECIMAL, true)));
+    private static final String[] COLUMNAS = { "id_paquete", "nombre", "descripcion", "destino", "duracion_dias", "precio", "version" };
+
+    @Override
+    public PaqueteTuristico guardar(PaqueteTuristico paquete) {
+        boolean nuevo = paquete.getIdPaquete() == null;
+        PaqueteTuristico guardado;
+        if (nuevo) {
+            entityManager.persist(paquete);
+            guardado = paquete;
+        } else {
+            guardado = entityManager.merge(paquete);
+        }
+        // El INSERT/UPDATE sale ya (id generado, versión comprobada) y el cambio va en la misma conexión JDBC
+        entityManager.flush();
+        int id = guardado.getIdPaquete();
+        entityManager.unwrap(Session.class).doWork(conn ->
+            CambioDAO.registrar(conn, CambioDAO.PAQUETE, nuevo ? CambioDAO.ALTA : CambioDAO.MODIFICACION, id));
+        return guardado;
+    }
+
+    @Override
+    public ResultadoEscritura<PaqueteTuristico> actualizar(int idPaquete, PaqueteTuristico paquete, Long versionEsperada) {
+        // Los campos que reemplaza el PUT; null borra el valor, como en el cuerpo de un PUT
+        Map<String, Object> campos = new LinkedHashMap<>();
+        campos.put("nombre", paquete.getNombre());
+        campos.put("destino", paquete.getDestino());
+        campos.put("precio", paquete.getPrecio());
+        return actualizarCampos(idPaquete, campos, versionEsperada, "actualizar");
+    }
+
+    @Override
+    public ResultadoEscritura<PaqueteTuristico> actualizarParcial(int idPaquete, Map<String, Object> cambios, Long versionEsperada) {
+        return actualizarCampos(idPaquete, cambios, versionEsperada, "actualizarParcial");
+    }
+
+    // UPDATE ... SET campos, version = version + 1 WHERE id_paquete = ? [AND version = ?] RETURNING el paquete
+    private ResultadoEscritura<PaqueteTuristico> actualizarCampos(int idPaquete, Map<String, Object> cambios,
+                                                                  Long versionEsperada, String operacion) {
+        Map<Campo, Object> valores;
+        try {
+            valores = PARCIAL.validar(cambios);
+        } catch (IllegalArgumentException e) {
+            return ResultadoEscritura.error(e.getMessage()); // Campo no modificable o valor inválido
+        }
+        Medicion medicion = MetricasDAO.iniciar("paquete", operacion);
+        ResultadoEscritura<PaqueteTuristico> resultado;
+
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            resultado = Transaccion.ejecutar(conn, c -> {
+                try (PreparedStatement ps = c.prepareStatement(PARCIAL.sqlActualizar(valores.keySet(), versionEsperada != null), COLUMNAS)) {
+                    PARCIAL.asignar(ps, valores, idPaquete, versionEsperada);
+                    if (ps.executeUpdate() == 0) {
+                        return ResultadoEscritura.<PaqueteTuristico>sinFila(PARCIAL.versionActual(c, idPaquete));
+                    }
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        rs.next();
+                        PaqueteTuristico paquete = mapear(rs);
+                        CambioDAO.registrar(c, CambioDAO.PAQUETE, CambioDAO.MODIFICACION, idPaquete);
+                        return ResultadoEscritura.hecha(paquete, paquete.getVersion());
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al actualizar paquete: " + e.getMessage());
+            return ErroresSQL.resultado(e);
+        }
+        medicion.terminar(resultado.getEstado() == ResultadoEscritura.Estado.HECHA ? 1 : 0);
+        return resultado;
+    }
+
+    @Override
+    public ResultadoEscritura<Void> eliminar(int idPaquete, Long versionEsperada) {
+        Medicion medicion = MetricasDAO.iniciar("paquete", "eliminar");
+        ResultadoEscritura<Void> resultado;
+
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            resultado = Transaccion.ejecutar(conn, c -> {
+                try (PreparedStatement ps = c.prepareStatement(PARCIAL.sqlEliminar(versionEsperada != null))) {
+                    PARCIAL.asignar(ps, Map.of(), idPaquete, versionEsperada);
+                    if (ps.executeUpdate() == 0) {
+                        return ResultadoEscritura.<Void>sinFila(PARCIAL.versionActual(c, idPaquete));
+                    }
+                }
+                CambioDAO.registrar(c, CambioDAO.PAQUETE, CambioDAO.BAJA, idPaquete);
+                return ResultadoEscritura.<Void>hecha(null, null);
+            });
+        } catch (SQLException e) {
+            medicion.fallo(e);
+            System.err.println("Error al eliminar paquete: " + e.getMessage());
+            return ActualizacionParcial.SQLSTATE_REFERENCIADA.equals(e.getSQLState())
+                ? ResultadoEscritura.enUso("El paquete tiene reservas: no se puede eliminar")
+                : ErroresSQL.resultado(e);
+        }
+        medicion.terminar(resultado.getEstado() == ResultadoEscritura.Estado.HECHA ? 1 : 0);
+        return resultado;
+    }
+
+    private static PaqueteTuristico mapear(ResultSet rs) throws SQLException {
+        PaqueteTuristico paquete = new PaqueteTuristico(
+            rs.getInt("id_paquete"),
+            rs.getString("nombre"),
+            rs.getString("descripcion"),
+            rs.getString("destino"),
+            rs.getObject("duracion_dias", Integer.class),
+            rs.getObject("precio", Double.class)
+        );
+        paquete.setVersion(rs.getLong("version"));
+        return paquete;
+    }
+}
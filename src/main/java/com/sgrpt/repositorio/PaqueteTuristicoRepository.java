@@ -1,14 +1,37 @@
 package com.sgrpt.repositorio;
 
 import com.sgrpt.modelo.PaqueteTuristico;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 // [Comentario]: @Repository marca esta interfaz como un componente de acceso a datos de Spring.
 @Repository
 // [Comentario]: Heredar de JpaRepository proporciona: save(), findAll(), findById(), delete(), etc.
 //               <TipoDeEntidad, TipoDeClavePrimaria>
-public interface PaqueteTuristicoRepository extends JpaRepository<PaqueteTuristico, Integer> {
+//               PaqueteTuristicoEscritura añade el PUT, el PATCH y el DELETE condicionales en un solo viaje.
+public interface PaqueteTuristicoRepository extends JpaRepository<PaqueteTuristico, Integer>, PaqueteTuristicoEscritura {
     
-    // [Comentario]: No se necesita código aquí para el CRUD básico. ¡Es la magia de Spring Data!
-}
\ No newline at end of file
+    // [Comentario]: Búsqueda filtrada y paginada en la base de datos. Un filtro null se ignora.
+    //               Devuelve Slice (no Page) para no lanzar un COUNT(*) adicional en cada petición:
+    //               solo se consulta una fila extra para saber si hay página siguiente.
+    @Query("SELECT p FROM PaqueteTuristico p WHERE "
+         + "(:destino IS NULL OR p.destino = :destino) "
+         + "AND (:precioMin IS NULL OR p.precio >= :precioMin) "
+         + "AND (:precioMax IS NULL OR p.precio <= :precioMax) "
+         + "AND (:duracionMin IS NULL OR p.duracionDias >= :duracionMin) "
+         + "AND (:duracionMax IS NULL OR p.duracionDias <= :duracionMax)")
+    Slice<PaqueteTuristico> buscar(@Param("destino") String destino,
+                                   @Param("precioMin") Double precioMin,
+                                   @Param("precioMax") Double precioMax,
+                                   @Param("duracionMin") Integer duracionMin,
+                                   @Param("duracionMax") Integer duracionMax,
+                                   Pageable pageable);
+
+    // [Comentario]: Recorrido por bloques en orden de id (keyset): el siguiente bloque empieza después del
+    //               último idPaquete recibido. Sirve para procesar todo el catálogo sin cargarlo entero.
+    Slice<PaqueteTuristico> findByIdPaqueteGreaterThanOrderByIdPaquete(Integer idPaquete, Pageable pageable);
+}
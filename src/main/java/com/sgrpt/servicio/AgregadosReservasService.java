@@ -0,0 +1,329 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.dao.ObservadorReservas;
+import com.sgrpt.dao.ReservaDAO;
+import com.sgrpt.modelo.AgregadoReservas;
+import com.sgrpt.modelo.Reserva;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// [Comentario]: Agregados de reservas mantenidos en memoria: por paquete, por estado y por día
+//               (fechaReserva), con cantidad de reservas, personas e ingresos.
+//               - Cada alta/cambio/baja confirmada en ReservaDAO llega como delta (ObservadorReservas),
+//                 así que los informes no recorren la tabla: leer un paquete cuesta lo mismo con 1.000
+//                 que con 10 millones de reservas.
+//               - Reconciliación periódica: se recalcula todo con un recorrido en streaming de la tabla
+//                 y se sustituye el resultado. Corrige cualquier desviación (escrituras hechas fuera de
+//                 ReservaDAO, otro nodo, SQL manual). Los deltas que llegan durante el recorrido se
+//                 guardan y se vuelven a aplicar sobre el resultado nuevo antes de publicarlo.
+//               - Altas de otros nodos (FeedCambios) llegan como delta; sus modificaciones y bajas no traen
+//                 la fila anterior, así que marcan una reconciliación que se hace como mucho una vez cada
+//                 'reconciliacion-externa-ms' (agrupa todas las que lleguen entretanto).
+//               - Los ingresos se acumulan en céntimos (long) para que sumar y restar no acumule error.
+@Service
+public class AgregadosReservasService implements ObservadorReservas {
+
+    private static final String SIN_ESTADO = "SIN_ESTADO";
+
+    // [Comentario]: Contadores de un grupo. LongAdder: muchos hilos suman sin competir por la misma celda.
+    private static final class Acumulador {
+        final LongAdder reservas = new LongAdder();
+        final LongAdder personas = new LongAdder();
+        final LongAdder centimos = new LongAdder();
+
+        void sumar(Reserva reserva, int signo) {
+            reservas.add(signo);
+            personas.add((long) signo * reserva.getNumPersonas());
+            centimos.add(signo * Math.round(reserva.getTotalPagar() * 100));
+        }
+
+        AgregadoReservas foto(int idPaquete, Date fecha, String estado) {
+            return new AgregadoReservas(idPaquete, fecha, estado, reservas.sum(), personas.sum(), centimos.sum() / 100.0);
+        }
+    }
+
+    // [Comentario]: Agregados de un paquete: total, por estado y por día (ordenado para consultar rangos).
+    private static final class PorPaquete {
+        final Acumulador total = new Acumulador();
+        final Map<String, Acumulador> porEstado = new ConcurrentHashMap<>();
+        final NavigableMap<LocalDate, Map<String, Acumulador>> porDia = new ConcurrentSkipListMap<>();
+
+        void sumar(Reserva reserva, int signo) {
+            String estado = estado(reserva);
+            total.sumar(reserva, signo);
+            porEstado.computeIfAbsent(estado, e -> new Acumulador()).sumar(reserva, signo);
+            if (reserva.getFechaReserva() != null) {
+                porDia.computeIfAbsent(reserva.getFechaReserva().toLocalDate(), d -> new ConcurrentHashMap<>())
+                      .computeIfAbsent(estado, e -> new Acumulador())
+                      .sumar(reserva, signo);
+            }
+        }
+    }
+
+    private record Delta(Reserva reserva, int signo) { }
+
+    @Autowired
+    private ReservaDAO reservaDAO;
+
+    private volatile Map<Integer, PorPaquete> paquetes = new ConcurrentHashMap<>();
+
+    // Deltas: lectura (muchos a la vez). Publicar una reconciliación: escritura (exclusivo, un instante).
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    private volatile ConcurrentLinkedQueue<Delta> deltasDuranteReconciliacion;
+
+    private final AtomicBoolean reconciliando = new AtomicBoolean();
+    private final AtomicBoolean repetirReconciliacion = new AtomicBoolean();
+    private final AtomicBoolean cambiosExternos = new AtomicBoolean();
+
+    // Estadísticas de la última reconciliación
+    private volatile long ultimaReconciliacion;
+    private volatile long duracionReconciliacionMs;
+    private volatile long filasReconciliadas;
+    private volatile int paquetesCorregidos;
+
+    @PostConstruct
+    void registrar() {
+        reservaDAO.registrarObservador(this);
+    }
+
+    // --- Deltas (ObservadorReservas) ---
+
+    @Override
+    public void insertada(Reserva reserva) {
+        aplicar(reserva, 1);
+    }
+
+    @Override
+    public void actualizada(Reserva anterior, Reserva nueva) {
+        aplicar(anterior, -1);
+        aplicar(nueva, 1);
+    }
+
+    @Override
+    public void eliminada(Reserva reserva) {
+        aplicar(reserva, -1);
+    }
+
+    @Override
+    public void cambioMasivo() {
+        CompletableFuture.runAsync(this::reconciliar);
+    }
+
+    @Override
+    public void cambioExterno(int idReserva, Reserva actual) {
+        cambiosExternos.set(true);
+    }
+
+    private void aplicar(Reserva reserva, int signo) {
+        candado.readLock().lock();
+        try {
+            paquetes.computeIfAbsent(reserva.getIdPaquete(), id -> new PorPaquete()).sumar(reserva, signo);
+            ConcurrentLinkedQueue<Delta> pendientes = deltasDuranteReconciliacion;
+            if (pendientes != null) {
+                pendientes.add(new Delta(reserva, signo));
+            }
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // --- Reconciliación ---
+
+    /**
+     * Recalcula los agregados desde la tabla Reserva y los publica. Si ya hay una reconciliación en
+     * curso, se repite al terminar esa (para cubrir cambios que el recorrido en curso no vio).
+     */
+    @Scheduled(initialDelayString = "0", fixedDelayString = "${sgrpt.agregados.reconciliacion-ms:600000}")
+    public void reconciliar() {
+        if (!reconciliando.compareAndSet(false, true)) {
+            repetirReconciliacion.set(true);
+            return;
+        }
+        try {
+            do {
+                repetirReconciliacion.set(false);
+                reconstruir();
+            } while (repetirReconciliacion.get());
+        } finally {
+            reconciliando.set(false);
+        }
+    }
+
+    /**
+     * Reconcilia si desde la última vez llegaron modificaciones o bajas de reservas hechas en otro nodo.
+     */
+    @Scheduled(fixedDelayString = "${sgrpt.agregados.reconciliacion-externa-ms:30000}")
+    public void reconciliarCambiosExternos() {
+        if (cambiosExternos.getAndSet(false)) {
+            reconciliar();
+        }
+    }
+
+    private void reconstruir() {
+        long inicio = System.nanoTime();
+        ConcurrentLinkedQueue<Delta> pendientes = new ConcurrentLinkedQueue<>();
+        deltasDuranteReconciliacion = pendientes;
+
+        Map<Integer, PorPaquete> nuevo = new ConcurrentHashMap<>();
+        long filas;
+        try {
+            filas = reservaDAO.recorrerTodos(ReservaDAO.TAMANO_FETCH_POR_DEFECTO,
+                reserva -> nuevo.computeIfAbsent(reserva.getIdPaquete(), id -> new PorPaquete()).sumar(reserva, 1));
+        } catch (RuntimeException e) {
+            // Lectura incompleta (el cursor no se abrió o se cortó): se conservan los agregados vigentes
+            deltasDuranteReconciliacion = null;
+            System.err.println("Reconciliación de agregados omitida: " + e.getMessage());
+            return;
+        }
+
+        candado.writeLock().lock();
+        try {
+            // Los deltas anotados ocurrieron después de empezar el recorrido: se rehacen sobre el resultado nuevo.
+            // (Uno confirmado justo antes de abrir el cursor puede contarse dos veces; lo corrige la siguiente pasada.)
+            for (Delta delta = pendientes.poll(); delta != null; delta = pendientes.poll()) {
+                nuevo.computeIfAbsent(delta.reserva().getIdPaquete(), id -> new PorPaquete()).sumar(delta.reserva(), delta.signo());
+            }
+            // La primera pasada (arranque) parte de vacío: no hay nada que corregir
+            paquetesCorregidos = ultimaReconciliacion == 0 ? 0 : contarDiferencias(paquetes, nuevo);
+            paquetes = nuevo;
+            deltasDuranteReconciliacion = null;
+        } finally {
+            candado.writeLock().unlock();
+        }
+
+        filasReconciliadas = filas;
+        duracionReconciliacionMs = (System.nanoTime() - inicio) / 1_000_000;
+        ultimaReconciliacion = System.currentTimeMillis();
+        if (paquetesCorregidos > 0) {
+            System.err.println("Reconciliación de agregados: " + paquetesCorregidos + " paquetes corregidos ("
+                    + filas + " reservas, " + duracionReconciliacionMs + " ms).");
+        }
+    }
+
+    // Paquetes cuyo total difiere entre los agregados vigentes y los recalculados
+    private static int contarDiferencias(Map<Integer, PorPaquete> actual, Map<Integer, PorPaquete> nuevo) {
+        int diferencias = 0;
+        for (Map.Entry<Integer, PorPaquete> entrada : nuevo.entrySet()) {
+            if (!mismosTotales(entrada.getValue(), actual.get(entrada.getKey()))) {
+                diferencias++;
+            }
+        }
+        for (Map.Entry<Integer, PorPaquete> entrada : actual.entrySet()) {
+            if (!nuevo.containsKey(entrada.getKey()) && entrada.getValue().total.reservas.sum() != 0) {
+                diferencias++;
+            }
+        }
+        return diferencias;
+    }
+
+    private static boolean mismosTotales(PorPaquete a, PorPaquete b) {
+        if (b == null) {
+            return a.total.reservas.sum() == 0;
+        }
+        return a.total.reservas.sum() == b.total.reservas.sum()
+            && a.total.personas.sum() == b.total.personas.sum()
+            && a.total.centimos.sum() == b.total.centimos.sum();
+    }
+
+    // --- Lecturas ---
+
+    /**
+     * Totales de todos los paquetes con reservas (una fila por paquete).
+     */
+    public List<AgregadoReservas> obtenerTotales() {
+        List<AgregadoReservas> totales = new ArrayList<>();
+        paquetes.forEach((id, agregados) -> {
+            if (agregados.total.reservas.sum() != 0) {
+                totales.add(agregados.total.foto(id, null, null));
+            }
+        });
+        totales.sort((a, b) -> Integer.compare(a.getIdPaquete(), b.getIdPaquete()));
+        return totales;
+    }
+
+    /**
+     * Total del paquete seguido de su desglose por estado.
+     */
+    public List<AgregadoReservas> obtenerPorPaquete(int idPaquete) {
+        PorPaquete agregados = paquetes.get(idPaquete);
+        if (agregados == null) {
+            return List.of(new AgregadoReservas(idPaquete, null, null, 0, 0, 0));
+        }
+        List<AgregadoReservas> resultado = new ArrayList<>();
+        resultado.add(agregados.total.foto(idPaquete, null, null));
+        agregados.porEstado.forEach((estado, acumulador) -> {
+            if (acumulador.reservas.sum() != 0) {
+                resultado.add(acumulador.foto(idPaquete, null, estado));
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Una fila por día del rango [desde, hasta] (extremos opcionales). Con 'estado' solo cuenta ese
+     * estado; sin él suma todos.
+     */
+    public List<AgregadoReservas> obtenerPorDia(int idPaquete, Date desde, Date hasta, String estado) {
+        PorPaquete agregados = paquetes.get(idPaquete);
+        if (agregados == null) {
+            return List.of();
+        }
+        NavigableMap<LocalDate, Map<String, Acumulador>> dias = agregados.porDia;
+        if (desde != null && hasta != null) {
+            dias = dias.subMap(desde.toLocalDate(), true, hasta.toLocalDate(), true);
+        } else if (desde != null) {
+            dias = dias.tailMap(desde.toLocalDate(), true);
+        } else if (hasta != null) {
+            dias = dias.headMap(hasta.toLocalDate(), true);
+        }
+
+        List<AgregadoReservas> resultado = new ArrayList<>();
+        for (Map.Entry<LocalDate, Map<String, Acumulador>> dia : dias.entrySet()) {
+            long reservas = 0, personas = 0, centimos = 0;
+            for (Map.Entry<String, Acumulador> grupo : dia.getValue().entrySet()) {
+                if (estado == null || Objects.equals(estado, grupo.getKey())) {
+                    reservas += grupo.getValue().reservas.sum();
+                    personas += grupo.getValue().personas.sum();
+                    centimos += grupo.getValue().centimos.sum();
+                }
+            }
+            if (reservas != 0) {
+                resultado.add(new AgregadoReservas(idPaquete, Date.valueOf(dia.getKey()), estado, reservas, personas, centimos / 100.0));
+            }
+        }
+        return resultado;
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("paquetes", paquetes.size());
+        estadisticas.put("ultimaReconciliacion", ultimaReconciliacion);
+        estadisticas.put("duracionReconciliacionMs", duracionReconciliacionMs);
+        estadisticas.put("filasReconciliadas", filasReconciliadas);
+        estadisticas.put("paquetesCorregidos", paquetesCorregidos);
+        estadisticas.put("reconciliando", reconciliando.get());
+        return estadisticas;
+    }
+
+    private static String estado(Reserva reserva) {
+        return reserva.getEstado() != null ? reserva.getEstado() : SIN_ESTADO;
+    }
+}
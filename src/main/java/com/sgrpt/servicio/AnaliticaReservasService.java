@@ -0,0 +1,204 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.dao.ObservadorReservas;
+import com.sgrpt.dao.ReservaDAO;
+import com.sgrpt.modelo.AgregadoReservas;
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.servicio.ColumnasReservas.Agrupacion;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+// [Comentario]: Copia columnar de la tabla Reserva (ColumnasReservas) para consultas de análisis en memoria.
+//               - Refresco incremental: cada 'refresco-ms' se leen solo las reservas con idReserva mayor que
+//                 la última cargada (cursor sobre la clave primaria), vengan de este nodo o de otro.
+//               - Cambios y bajas de este nodo: llegan por ObservadorReservas y se aplican en el sitio.
+//               - Reconstrucción completa cada 'reconstruccion-ms', tras un cambio masivo o si se confirma una
+//                 reserva con id menor que la última cargada (commit tardío): corrige cambios de otros nodos y
+//                 compacta las filas eliminadas. Los cambios que llegan mientras dura se vuelven a aplicar
+//                 sobre la copia nueva antes de publicarla.
+@Service
+public class AnaliticaReservasService implements ObservadorReservas {
+
+    private record Cambio(Reserva reserva, boolean eliminada) { }
+
+    @Autowired
+    private ReservaDAO reservaDAO;
+
+    @Value("${sgrpt.analitica.reconstruccion-ms:3600000}")
+    private long reconstruccionMs;
+
+    @Value("${sgrpt.exportacion.tamano-fetch:1000}")
+    private int tamanoFetch;
+
+    private volatile ColumnasReservas columnas = new ColumnasReservas(1024);
+    private volatile ConcurrentLinkedQueue<Cambio> cambiosDuranteReconstruccion;
+    private final AtomicBoolean reconstruir = new AtomicBoolean(true);
+
+    // Estadísticas
+    private volatile long ultimaReconstruccion;
+    private volatile long duracionReconstruccionMs;
+    private volatile long ultimoRefresco;
+    private volatile long filasUltimoRefresco;
+
+    @PostConstruct
+    void registrar() {
+        reservaDAO.registrarObservador(this);
+    }
+
+    // --- Cambios (ObservadorReservas) ---
+
+    @Override
+    public void insertada(Reserva reserva) {
+        // Las nuevas las trae el refresco; una con id menor que la última cargada solo la ve una reconstrucción
+        ColumnasReservas actual = columnas;
+        if (reserva.getIdReserva() <= actual.ultimoId() && !actual.contiene(reserva.getIdReserva())) {
+            reconstruir.set(true);
+        }
+    }
+
+    @Override
+    public void actualizada(Reserva anterior, Reserva nueva) {
+        aplicar(new Cambio(nueva, false));
+    }
+
+    @Override
+    public void eliminada(Reserva reserva) {
+        aplicar(new Cambio(reserva, true));
+    }
+
+    @Override
+    public void cambioMasivo() {
+        reconstruir.set(true);
+    }
+
+    @Override
+    public void cambioExterno(int idReserva, Reserva actual) {
+        // Solo hace falta la fila nueva (o el id, si se eliminó)
+        if (actual != null) {
+            aplicar(new Cambio(actual, false));
+        } else {
+            Reserva eliminada = new Reserva();
+            eliminada.setIdReserva(idReserva);
+            aplicar(new Cambio(eliminada, true));
+        }
+    }
+
+    private void aplicar(Cambio cambio) {
+        aplicar(columnas, cambio);
+        ConcurrentLinkedQueue<Cambio> pendientes = cambiosDuranteReconstruccion;
+        if (pendientes != null) {
+            pendientes.add(cambio);
+        }
+    }
+
+    private static void aplicar(ColumnasReservas destino, Cambio cambio) {
+        if (cambio.eliminada()) {
+            destino.eliminar(cambio.reserva().getIdReserva());
+        } else {
+            destino.actualizar(cambio.reserva());
+        }
+    }
+
+    // --- Refresco ---
+
+    /**
+     * Agrega las reservas nuevas o, si toca, reconstruye la copia completa.
+     */
+    @Scheduled(initialDelayString = "0", fixedDelayString = "${sgrpt.analitica.refresco-ms:5000}")
+    public synchronized void refrescar() {
+        if (reconstruir.getAndSet(false) || System.currentTimeMillis() - ultimaReconstruccion >= reconstruccionMs) {
+            reconstruirCompleta();
+            return;
+        }
+        ColumnasReservas actual = columnas;
+        long filas = cargar(actual, actual.ultimoId());
+        actual.publicar();
+        filasUltimoRefresco = Math.max(filas, 0);
+        ultimoRefresco = System.currentTimeMillis();
+    }
+
+    private void reconstruirCompleta() {
+        long inicio = System.nanoTime();
+        ConcurrentLinkedQueue<Cambio> pendientes = new ConcurrentLinkedQueue<>();
+        cambiosDuranteReconstruccion = pendientes;
+
+        ColumnasReservas actual = columnas;
+        // Capacidad inicial: lo que ya había, para no crecer varias veces durante la carga
+        ColumnasReservas nueva = new ColumnasReservas(actual.filas() + actual.filas() / 8);
+        long filas = cargar(nueva, 0);
+        // Si no se pudo abrir el cursor el DAO devuelve un Stream vacío: no se sustituye una copia con datos
+        if (filas < 0 || (filas == 0 && actual.filas() > 0)) {
+            cambiosDuranteReconstruccion = null;
+            reconstruir.set(true); // Se reintenta en el siguiente refresco
+            return;
+        }
+        // Los cambios se confirmaron después de abrir el cursor (o casi): se rehacen sobre la copia nueva
+        for (Cambio cambio = pendientes.poll(); cambio != null; cambio = pendientes.poll()) {
+            aplicar(nueva, cambio);
+        }
+        nueva.publicar();
+        columnas = nueva;
+        cambiosDuranteReconstruccion = null;
+        for (Cambio cambio = pendientes.poll(); cambio != null; cambio = pendientes.poll()) {
+            aplicar(nueva, cambio); // Llegados entre el primer vaciado y la publicación
+        }
+
+        filasUltimoRefresco = filas;
+        duracionReconstruccionMs = (System.nanoTime() - inicio) / 1_000_000;
+        ultimaReconstruccion = System.currentTimeMillis();
+        ultimoRefresco = ultimaReconstruccion;
+    }
+
+    // Carga las reservas con id mayor que 'despuesDe'; -1 si la lectura falló
+    private long cargar(ColumnasReservas destino, int despuesDe) {
+        long filas = 0;
+        try (Stream<Reserva> stream = reservaDAO.obtenerPosterioresStream(despuesDe, tamanoFetch)) {
+            for (Iterator<Reserva> it = stream.iterator(); it.hasNext(); ) {
+                if (destino.agregar(it.next())) {
+                    filas++;
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error al cargar reservas para análisis: " + e.getMessage());
+            return -1;
+        }
+        return filas;
+    }
+
+    // --- Consultas ---
+
+    /**
+     * Reservas, personas e ingresos agrupados (ver ColumnasReservas.agrupar). Filtros opcionales.
+     */
+    public List<AgregadoReservas> agrupar(Agrupacion agrupacion, Date desde, Date hasta, Integer idPaquete,
+                                          String estado, boolean paralelo) {
+        return columnas.agrupar(agrupacion, desde, hasta, idPaquete, estado, paralelo);
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        ColumnasReservas actual = columnas;
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("filas", actual.filas());
+        estadisticas.put("eliminadas", actual.eliminadas());
+        estadisticas.put("ultimoId", actual.ultimoId());
+        estadisticas.put("bytes", actual.bytes());
+        estadisticas.put("bytesPorFila", actual.filas() == 0 ? 0 : actual.bytes() / actual.filas());
+        estadisticas.put("ultimoRefresco", ultimoRefresco);
+        estadisticas.put("filasUltimoRefresco", filasUltimoRefresco);
+        estadisticas.put("ultimaReconstruccion", ultimaReconstruccion);
+        estadisticas.put("duracionReconstruccionMs", duracionReconstruccionMs);
+        return estadisticas;
+    }
+}
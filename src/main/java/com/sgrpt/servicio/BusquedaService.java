@@ -0,0 +1,202 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.conexion.Enrutamiento;
+import com.sgrpt.dao.ClienteDAO;
+import com.sgrpt.dao.ObservadorClientes;
+import com.sgrpt.modelo.Cliente;
+import com.sgrpt.modelo.Coincidencia;
+import com.sgrpt.modelo.Pagina;
+import com.sgrpt.modelo.PaqueteTuristico;
+import com.sgrpt.repositorio.PaqueteTuristicoRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+// [Comentario]: Búsqueda de texto (autocompletado) de clientes y paquetes sobre índices de n-gramas en memoria.
+//               - Clientes: nombre, apellido, email e identificación (también sin separadores).
+//               - Paquetes: nombre, destino y descripción.
+//               - Los índices se construyen al arrancar en segundo plano, leyendo las tablas en streaming
+//                 (cursor de ClienteDAO y bloques keyset del repositorio), y se mantienen con cada alta,
+//                 cambio o baja (ObservadorClientes y las escrituras de PaqueteTuristicoController).
+@Service
+public class BusquedaService implements ObservadorClientes {
+
+    // [Comentario]: Índice que puede reconstruirse sin perder los cambios que llegan mientras tanto:
+    //               se anotan aparte y se aplican sobre el índice nuevo antes de publicarlo.
+    private static final class Reconstruible<T> {
+        private final ToIntFunction<T> identificador;
+        private final Function<T, String[]> campos;
+        private volatile IndiceNgramas<T> actual;
+        private Map<Integer, Optional<T>> pendientes; // Solo durante una reconstrucción (guardado con 'this')
+        private volatile long duracionMs;
+
+        Reconstruible(ToIntFunction<T> identificador, Function<T, String[]> campos) {
+            this.identificador = identificador;
+            this.campos = campos;
+            this.actual = new IndiceNgramas<>(identificador, campos);
+        }
+
+        synchronized void guardar(T elemento) {
+            actual.guardar(elemento);
+            if (pendientes != null) {
+                pendientes.put(identificador.applyAsInt(elemento), Optional.of(elemento));
+            }
+        }
+
+        synchronized void eliminar(int id) {
+            actual.eliminar(id);
+            if (pendientes != null) {
+                pendientes.put(id, Optional.empty());
+            }
+        }
+
+        void reconstruir(Consumer<Consumer<T>> recorrido) {
+            long inicio = System.nanoTime();
+            synchronized (this) {
+                pendientes = new HashMap<>();
+            }
+            IndiceNgramas<T> nuevo = new IndiceNgramas<>(identificador, campos);
+            try {
+                recorrido.accept(nuevo::guardar);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendientes = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                pendientes.forEach((id, elemento) -> {
+                    if (elemento.isPresent()) {
+                        nuevo.guardar(elemento.get());
+                    } else {
+                        nuevo.eliminar(id);
+                    }
+                });
+                actual = nuevo;
+                pendientes = null;
+            }
+            duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        }
+    }
+
+    @Autowired
+    private ClienteDAO clienteDAO;
+
+    @Autowired
+    private PaqueteTuristicoRepository repositorio;
+
+    @Value("${sgrpt.busqueda.tamano-bloque:1000}")
+    private int tamanoBloque;
+
+    private final Reconstruible<Cliente> clientes = new Reconstruible<>(Cliente::getIdCliente,
+        cliente -> new String[] { cliente.getNombre(), cliente.getApellido(), cliente.getEmail(),
+                                  cliente.getIdentificacion(), IndiceNgramas.compactar(cliente.getIdentificacion()) });
+
+    private final Reconstruible<PaqueteTuristico> paquetes = new Reconstruible<>(PaqueteTuristico::getIdPaquete,
+        paquete -> new String[] { paquete.getNombre(), paquete.getDestino(), paquete.getDescripcion() });
+
+    private volatile boolean listo;
+
+    @PostConstruct
+    void registrar() {
+        clienteDAO.registrarObservador(this);
+    }
+
+    // [Comentario]: La construcción inicial no retrasa el arranque: mientras dura, las búsquedas usan el
+    //               índice anterior (vacío al arrancar, más las altas recientes); ver 'listo' en las estadísticas.
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirAlArrancar() {
+        Thread hilo = new Thread(this::reconstruir, "sgrpt-busqueda");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Vuelve a construir ambos índices desde la base de datos.
+     */
+    public void reconstruir() {
+        try {
+            clientes.reconstruir(destino -> clienteDAO.recorrerTodos(tamanoBloque, destino));
+            paquetes.reconstruir(this::recorrerPaquetes);
+            listo = true;
+        } catch (RuntimeException e) {
+            System.err.println("Error al construir los índices de búsqueda: " + e.getMessage());
+        }
+    }
+
+    // Catálogo completo por bloques keyset de 'tamanoBloque' paquetes. De la primaria: una réplica
+    // atrasada dejaría fuera cambios que los observadores ya aplicaron
+    private void recorrerPaquetes(Consumer<PaqueteTuristico> destino) {
+        int despuesDe = 0;
+        Slice<PaqueteTuristico> bloque;
+        do {
+            int desde = despuesDe;
+            bloque = Enrutamiento.enPrimaria(() -> repositorio.findByIdPaqueteGreaterThanOrderByIdPaquete(
+                desde, PageRequest.of(0, tamanoBloque)));
+            for (PaqueteTuristico paquete : bloque) {
+                destino.accept(paquete);
+                despuesDe = paquete.getIdPaquete();
+            }
+        } while (bloque.hasNext());
+    }
+
+    // --- Búsquedas ---
+
+    public Pagina<Coincidencia<Cliente>> buscarClientes(String consulta, boolean difusa, int desde, int limite) {
+        return clientes.actual.buscar(consulta, difusa, desde, limite);
+    }
+
+    public Pagina<Coincidencia<PaqueteTuristico>> buscarPaquetes(String consulta, boolean difusa, int desde, int limite) {
+        return paquetes.actual.buscar(consulta, difusa, desde, limite);
+    }
+
+    // --- Mantenimiento ---
+
+    @Override
+    public void guardado(Cliente cliente) {
+        // Copia: el llamador puede seguir modificando su objeto
+        Cliente copia = new Cliente(cliente.getIdCliente(), cliente.getNombre(), cliente.getApellido(),
+                                    cliente.getEmail(), cliente.getTelefono(), cliente.getIdentificacion());
+        copia.setVersion(cliente.getVersion());
+        clientes.guardar(copia);
+    }
+
+    @Override
+    public void eliminado(int idCliente) {
+        clientes.eliminar(idCliente);
+    }
+
+    public void guardarPaquete(PaqueteTuristico paquete) {
+        PaqueteTuristico copia = new PaqueteTuristico(paquete.getIdPaquete(), paquete.getNombre(), paquete.getDescripcion(),
+                                                      paquete.getDestino(), paquete.getDuracionDias(), paquete.getPrecio());
+        copia.setVersion(paquete.getVersion());
+        paquetes.guardar(copia);
+    }
+
+    public void eliminarPaquete(int idPaquete) {
+        paquetes.eliminar(idPaquete);
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("listo", listo);
+        estadisticas.put("clientes", clientes.actual.tamano());
+        estadisticas.put("paquetes", paquetes.actual.tamano());
+        estadisticas.put("construccionClientesMs", clientes.duracionMs);
+        estadisticas.put("construccionPaquetesMs", paquetes.duracionMs);
+        return estadisticas;
+    }
+}
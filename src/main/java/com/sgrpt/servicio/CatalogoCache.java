@@ -0,0 +1,172 @@
+package com.sgrpt.servicio;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.sgrpt.conexion.Enrutamiento;
+import com.sgrpt.modelo.PaqueteTuristico;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// [Comentario]: Caché de lectura (read-through) del catálogo de paquetes, delante del repositorio.
+//               - Paquetes por id y páginas de búsqueda, acotados por tamaño y TTL.
+//               - Cada entrada guarda la versión vigente al cargarla. Las escrituras (crear/actualizar/
+//                 eliminar) suben la versión del paquete y la del catálogo, así que una entrada con
+//                 versión vieja nunca se sirve (aunque su carga haya coincidido con la escritura).
+//               - La versión del catálogo es también el ETag de las páginas (304); el de cada paquete es
+//                 su columna version.
+//               - Con réplicas de lectura, las cargas durante 'ventana-lectura-propia-ms' tras una escritura
+//                 van a la primaria: una réplica atrasada dejaría en caché la versión anterior hasta el TTL.
+@Service
+public class CatalogoCache {
+
+    // [Comentario]: Valor cacheado junto con su ETag.
+    public static class Entrada<T> {
+        private final T valor;
+        private final long version;
+        private final String etag;
+
+        Entrada(T valor, long version, String etag) {
+            this.valor = valor;
+            this.version = version;
+            this.etag = etag;
+        }
+
+        public T getValor() { return valor; }
+        public String getEtag() { return etag; }
+    }
+
+    private final Cache<Integer, Entrada<Optional<PaqueteTuristico>>> paquetes;
+    private final Cache<String, Entrada<?>> consultas;
+
+    // Versiones: global del catálogo (invalida las páginas) y por paquete (invalida solo ese id).
+    // La de un paquete solo hace falta mientras pueda quedar en 'paquetes' una carga anterior a su
+    // invalidación, que caduca a los ttl-segundos: se conserva el doble y después se olvida (con ello,
+    // también los ids eliminados).
+    private final AtomicLong versionCatalogo = new AtomicLong();
+    private final Cache<Integer, Long> versionesPaquete;
+    // Prefijo de ETag por arranque: las versiones empiezan en 0 en cada proceso
+    private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+    private final long ventanaLecturaPropiaNanos;
+    private volatile long ultimaInvalidacionNanos;
+
+    public CatalogoCache(@Value("${sgrpt.cache.catalogo.maximo-paquetes:10000}") long maximoPaquetes,
+                         @Value("${sgrpt.cache.catalogo.maximo-consultas:1000}") long maximoConsultas,
+                         @Value("${sgrpt.cache.catalogo.ttl-segundos:300}") long ttlSegundos,
+                         @Value("${sgrpt.replicas.ventana-lectura-propia-ms:5000}") long ventanaLecturaPropiaMs) {
+        this.paquetes = Caffeine.newBuilder()
+            .maximumSize(maximoPaquetes)
+            .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+            .recordStats()
+            .build();
+        this.consultas = Caffeine.newBuilder()
+            .maximumSize(maximoConsultas)
+            .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+            .recordStats()
+            .build();
+        // Sin tamaño máximo: expulsar una versión aún necesaria volvería a dar por buena una carga obsoleta
+        this.versionesPaquete = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(2 * ttlSegundos))
+            .build();
+        this.ventanaLecturaPropiaNanos = ventanaLecturaPropiaMs * 1_000_000;
+        this.ultimaInvalidacionNanos = System.nanoTime() - ventanaLecturaPropiaNanos;
+    }
+
+    /**
+     * Devuelve el paquete (vacío si no existe) desde la caché o, si falta o está obsoleto, desde 'cargador'.
+     */
+    public Entrada<Optional<PaqueteTuristico>> obtenerPaquete(Integer id, Supplier<Optional<PaqueteTuristico>> cargador) {
+        long vigente = versionPaquete(id);
+        Entrada<Optional<PaqueteTuristico>> entrada = paquetes.getIfPresent(id);
+        if (entrada == null || entrada.version != vigente) {
+            // El ETag de un paquete es su columna version: el mismo valor que se valida con If-Match
+            Optional<PaqueteTuristico> paquete = cargar(cargador);
+            entrada = new Entrada<>(paquete, vigente, paquete.map(p -> "\"" + p.getVersion() + "\"").orElse(null));
+            paquetes.put(id, entrada);
+        }
+        return entrada;
+    }
+
+    /**
+     * Devuelve el resultado de una consulta del catálogo (identificada por 'clave') desde la caché o 'cargador'.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Entrada<T> obtenerConsulta(String clave, Supplier<T> cargador) {
+        long vigente = versionCatalogo.get();
+        Entrada<T> entrada = (Entrada<T>) consultas.getIfPresent(clave);
+        if (entrada == null || entrada.version != vigente) {
+            entrada = new Entrada<>(cargar(cargador), vigente, etag("c" + vigente));
+            consultas.put(clave, entrada);
+        }
+        return entrada;
+    }
+
+    /**
+     * Invalida el paquete 'id' y todas las consultas del catálogo. Llamar después de cada escritura.
+     */
+    public void invalidar(Integer id) {
+        ultimaInvalidacionNanos = System.nanoTime();
+        long version = versionCatalogo.incrementAndGet();
+        if (id != null) {
+            versionesPaquete.put(id, version);
+            paquetes.invalidate(id);
+        }
+        consultas.invalidateAll();
+    }
+
+    /**
+     * Invalida todos los paquetes y consultas (cuando se han podido perder escrituras de otros nodos).
+     */
+    public void invalidarTodo() {
+        ultimaInvalidacionNanos = System.nanoTime();
+        long version = versionCatalogo.incrementAndGet();
+        paquetes.asMap().keySet().forEach(id -> versionesPaquete.put(id, version));
+        paquetes.invalidateAll();
+        consultas.invalidateAll();
+    }
+
+    /**
+     * Estadísticas de aciertos, fallos y expulsiones de cada caché (para dimensionarlas).
+     */
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("paquetes", resumir(paquetes.stats(), paquetes.estimatedSize()));
+        estadisticas.put("consultas", resumir(consultas.stats(), consultas.estimatedSize()));
+        estadisticas.put("versionCatalogo", versionCatalogo.get());
+        estadisticas.put("versionesPaquete", versionesPaquete.estimatedSize());
+        return estadisticas;
+    }
+
+    private Map<String, Object> resumir(CacheStats stats, long tamano) {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("tamano", tamano);
+        resumen.put("aciertos", stats.hitCount());
+        resumen.put("fallos", stats.missCount());
+        resumen.put("tasaAciertos", stats.hitRate());
+        resumen.put("expulsiones", stats.evictionCount());
+        return resumen;
+    }
+
+    // Recién invalidada la caché, la carga se hace en la primaria (ver cabecera)
+    private <T> T cargar(Supplier<T> cargador) {
+        return System.nanoTime() - ultimaInvalidacionNanos < ventanaLecturaPropiaNanos
+            ? Enrutamiento.enPrimaria(cargador)
+            : cargador.get();
+    }
+
+    private long versionPaquete(Integer id) {
+        Long version = versionesPaquete.getIfPresent(id);
+        return version != null ? version : 0L;
+    }
+
+    private String etag(String version) {
+        return "\"" + epoca + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,166 @@
+package com.sgrpt.servicio;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.sgrpt.dao.ClienteDAO;
+import com.sgrpt.dao.ObservadorClientes;
+import com.sgrpt.modelo.Cliente;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// [Comentario]: Búsquedas puntuales de clientes con una caché acotada (LRU aproximado de Caffeine) de los
+//               clientes usados recientemente, para no leer la tabla en cada alta de reserva.
+//               - Caché principal: idCliente -> cliente. Las ausencias no se cachean (un fallo de la consulta
+//                 también devuelve null en el DAO y no debe quedar como "no existe").
+//               - Caché secundaria: identificación -> idCliente. Solo apunta a la principal, así que un
+//                 cambio en el cliente no deja copias viejas; si el cliente ya no tiene esa identificación,
+//                 se descarta la entrada y se vuelve a consultar.
+//               - Coherencia: las escrituras de ClienteDAO (ObservadorClientes) invalidan la entrada tras el
+//                 commit. Las cargas usan Cache.get, así que una invalidación que coincide con una carga
+//                 espera a que termine y la elimina: nunca queda en caché un valor anterior a la escritura.
+@Service
+public class ClienteService implements ObservadorClientes {
+
+    @Autowired
+    private ClienteDAO dao;
+
+    private final Cache<Integer, Cliente> porId;
+    private final Cache<String, Integer> porIdentificacion;
+
+    public ClienteService(@Value("${sgrpt.cache.clientes.maximo:10000}") long maximo,
+                          @Value("${sgrpt.cache.clientes.ttl-segundos:600}") long ttlSegundos) {
+        this.porId = Caffeine.newBuilder()
+            .maximumSize(maximo)
+            .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+            .recordStats()
+            .build();
+        this.porIdentificacion = Caffeine.newBuilder()
+            .maximumSize(maximo)
+            .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+            .recordStats()
+            .build();
+    }
+
+    @PostConstruct
+    void registrar() {
+        dao.registrarObservador(this);
+    }
+
+    /**
+     * Cliente por id (caché o clave primaria). Vacío si no existe.
+     */
+    public Optional<Cliente> obtenerPorId(int idCliente) {
+        return Optional.ofNullable(porId.get(idCliente, dao::obtenerPorId)).map(ClienteService::copiar);
+    }
+
+    /**
+     * Cliente por identificación (caché o índice único). Vacío si no existe.
+     */
+    public Optional<Cliente> obtenerPorIdentificacion(String identificacion) {
+        Integer id = porIdentificacion.getIfPresent(identificacion);
+        if (id != null) {
+            Optional<Cliente> cliente = obtenerPorId(id);
+            if (cliente.isPresent() && identificacion.equals(cliente.get().getIdentificacion())) {
+                return cliente;
+            }
+            porIdentificacion.invalidate(identificacion); // Cambió o se eliminó
+        }
+        Cliente cliente = dao.obtenerPorIdentificacion(identificacion);
+        if (cliente == null) {
+            return Optional.empty();
+        }
+        porIdentificacion.put(identificacion, cliente.getIdCliente());
+        return Optional.of(cliente);
+    }
+
+    /**
+     * Clientes con ese email (índice idx_cliente_email). No se cachea: el email no es único.
+     */
+    public List<Cliente> obtenerPorEmail(String email) {
+        return dao.obtenerPorEmail(email);
+    }
+
+    /**
+     * Alta sin duplicados: si ya existe un cliente con esa identificación lo devuelve (con 'creado' = false);
+     * si no, lo inserta. Si otra petición lo insertó a la vez, el índice único rechaza el segundo INSERT y
+     * se devuelve el que quedó. Vacío solo si la inserción falla por otro motivo.
+     */
+    public Optional<Registro> registrar(Cliente cliente) {
+        if (cliente.getIdentificacion() != null) {
+            Optional<Cliente> existente = obtenerPorIdentificacion(cliente.getIdentificacion());
+            if (existente.isPresent()) {
+                return Optional.of(new Registro(existente.get(), false));
+            }
+        }
+        if (dao.insertar(cliente)) {
+            return Optional.of(new Registro(cliente, true));
+        }
+        return cliente.getIdentificacion() == null
+            ? Optional.empty()
+            : obtenerPorIdentificacion(cliente.getIdentificacion()).map(existente -> new Registro(existente, false));
+    }
+
+    // [Comentario]: Resultado de registrar: el cliente y si se acaba de crear (201) o ya existía (200).
+    public record Registro(Cliente cliente, boolean creado) {
+    }
+
+    // --- Coherencia (ObservadorClientes) ---
+
+    @Override
+    public void guardado(Cliente cliente) {
+        porId.invalidate(cliente.getIdCliente());
+        if (cliente.getIdentificacion() != null) {
+            porIdentificacion.invalidate(cliente.getIdentificacion());
+        }
+    }
+
+    @Override
+    public void eliminado(int idCliente) {
+        porId.invalidate(idCliente);
+    }
+
+    /**
+     * Vacía ambas cachés (cuando se han podido perder escrituras de otros nodos).
+     */
+    public void invalidarTodo() {
+        porId.invalidateAll();
+        porIdentificacion.invalidateAll();
+    }
+
+    /**
+     * Estadísticas de aciertos, fallos y expulsiones de ambas cachés (para dimensionarlas).
+     */
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("porId", resumir(porId.stats(), porId.estimatedSize()));
+        estadisticas.put("porIdentificacion", resumir(porIdentificacion.stats(), porIdentificacion.estimatedSize()));
+        return estadisticas;
+    }
+
+    private Map<String, Object> resumir(CacheStats stats, long tamano) {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("tamano", tamano);
+        resumen.put("aciertos", stats.hitCount());
+        resumen.put("fallos", stats.missCount());
+        resumen.put("tasaAciertos", stats.hitRate());
+        resumen.put("expulsiones", stats.evictionCount());
+        return resumen;
+    }
+
+    // Copia: el llamador puede modificar su objeto sin alterar la caché
+    private static Cliente copiar(Cliente c) {
+        Cliente copia = new Cliente(c.getIdCliente(), c.getNombre(), c.getApellido(), c.getEmail(), c.getTelefono(),
+                                    c.getIdentificacion());
+        copia.setVersion(c.getVersion());
+        return copia;
+    }
+}
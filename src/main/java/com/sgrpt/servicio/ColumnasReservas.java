@@ -0,0 +1,363 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.modelo.AgregadoReservas;
+import com.sgrpt.modelo.Reserva;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// [Comentario]: Reservas en columnas de tipos primitivos (una fila = una posición en cada arreglo), para
+//               análisis en memoria de millones de filas:
+//               - idReserva, día (día epoch), idCliente, idPaquete y personas en int[]; el estado como código
+//                 byte de un diccionario; totalPagar en céntimos (long). Unos 29 bytes por fila, frente a un
+//                 Reserva con su Date y su String (~110 bytes, ver ComparacionColumnas).
+//               - Las filas están ordenadas por idReserva (se agregan siempre con id creciente), así que una
+//                 fila se localiza por búsqueda binaria sin índice aparte.
+//               - Un solo escritor (métodos synchronized) y lectores sin candado: cada consulta toma la Vista
+//                 publicada (arreglos + tamaño) y no ve las filas agregadas después. Los cambios y bajas se
+//                 escriben en el sitio: una consulta en curso puede ver una fila a medio cambiar.
+//               - Las consultas recorren los arreglos sin crear objetos por fila y, con 'paralelo', reparten el
+//                 recorrido en tramos con fork/join; cada tramo acumula en su propio long[] y se suman al final.
+public final class ColumnasReservas {
+
+    public enum Agrupacion { NINGUNA, PAQUETE, ESTADO, MES }
+
+    public static final String SIN_ESTADO = "SIN_ESTADO";
+
+    private static final int SIN_FECHA = Integer.MIN_VALUE;
+    private static final byte ELIMINADA = -1;
+    private static final int MAXIMO_ESTADOS = 127; // Códigos 0..126; el 0 es "sin estado"
+    private static final int FILAS_POR_TRAMO = 1 << 15;
+    private static final int BYTES_POR_FILA = 5 * Integer.BYTES + Byte.BYTES + Long.BYTES;
+
+    // [Comentario]: Lo que ve una consulta. Los arreglos pueden tener más capacidad que 'tamano'.
+    private static final class Vista {
+        final int[] ids;
+        final int[] dias;
+        final int[] clientes;
+        final int[] paquetes;
+        final int[] personas;
+        final byte[] estados;
+        final long[] centimos;
+        final int tamano;
+        final String[] nombresEstado;
+        final int maximoPaquete;
+        final int primerDia;
+        final int ultimoDia;
+
+        Vista(ColumnasReservas c) {
+            this.ids = c.ids;
+            this.dias = c.dias;
+            this.clientes = c.clientes;
+            this.paquetes = c.paquetes;
+            this.personas = c.personas;
+            this.estados = c.estados;
+            this.centimos = c.centimos;
+            this.tamano = c.tamano;
+            this.nombresEstado = Arrays.copyOf(c.nombresEstado, c.cantidadEstados);
+            this.maximoPaquete = c.maximoPaquete;
+            this.primerDia = c.primerDia;
+            this.ultimoDia = c.ultimoDia;
+        }
+    }
+
+    // [Comentario]: Filtros y agrupación ya traducidos a enteros (códigos y días) para el recorrido.
+    private record Consulta(Agrupacion agrupacion, int grupos, int primerMes, int diaDesde, int diaHasta,
+                            int idPaquete, int estado, int filasPorTramo) { }
+
+    // Estado del escritor (se publica en 'vista')
+    private int[] ids;
+    private int[] dias;
+    private int[] clientes;
+    private int[] paquetes;
+    private int[] personas;
+    private byte[] estados;
+    private long[] centimos;
+    private int tamano;
+    private int eliminadas;
+    private final String[] nombresEstado = new String[MAXIMO_ESTADOS];
+    private int cantidadEstados = 1;
+    private int maximoPaquete;
+    private int primerDia = Integer.MAX_VALUE;
+    private int ultimoDia = SIN_FECHA;
+
+    private volatile Vista vista;
+
+    public ColumnasReservas(int capacidad) {
+        ids = new int[Math.max(16, capacidad)];
+        dias = new int[ids.length];
+        clientes = new int[ids.length];
+        paquetes = new int[ids.length];
+        personas = new int[ids.length];
+        estados = new byte[ids.length];
+        centimos = new long[ids.length];
+        nombresEstado[0] = SIN_ESTADO;
+        vista = new Vista(this);
+    }
+
+    // --- Escritura ---
+
+    /**
+     * Agrega la reserva al final. Las reservas deben llegar con idReserva creciente: devuelve false (sin
+     * agregarla) si su id no es mayor que el último. No es visible hasta llamar a publicar().
+     */
+    public synchronized boolean agregar(Reserva reserva) {
+        if (tamano > 0 && reserva.getIdReserva() <= ids[tamano - 1]) {
+            return false;
+        }
+        if (tamano == ids.length) {
+            crecer();
+        }
+        ids[tamano] = reserva.getIdReserva();
+        escribir(tamano, reserva);
+        tamano++;
+        return true;
+    }
+
+    /**
+     * Reemplaza los valores de una reserva ya cargada (visible al momento). false si no está o fue eliminada.
+     */
+    public synchronized boolean actualizar(Reserva reserva) {
+        int posicion = posicion(reserva.getIdReserva());
+        if (posicion < 0 || estados[posicion] == ELIMINADA) {
+            return false;
+        }
+        escribir(posicion, reserva);
+        publicar();
+        return true;
+    }
+
+    /**
+     * Marca la reserva como eliminada (las consultas la ignoran). false si no está o ya estaba eliminada.
+     */
+    public synchronized boolean eliminar(int idReserva) {
+        int posicion = posicion(idReserva);
+        if (posicion < 0 || estados[posicion] == ELIMINADA) {
+            return false;
+        }
+        estados[posicion] = ELIMINADA;
+        eliminadas++;
+        publicar();
+        return true;
+    }
+
+    /**
+     * Hace visibles para las consultas las filas agregadas hasta ahora.
+     */
+    public synchronized void publicar() {
+        vista = new Vista(this);
+    }
+
+    public synchronized int ultimoId() {
+        return tamano == 0 ? 0 : ids[tamano - 1];
+    }
+
+    public synchronized boolean contiene(int idReserva) {
+        return posicion(idReserva) >= 0;
+    }
+
+    private void escribir(int posicion, Reserva reserva) {
+        int dia = reserva.getFechaReserva() != null ? (int) reserva.getFechaReserva().toLocalDate().toEpochDay() : SIN_FECHA;
+        dias[posicion] = dia;
+        clientes[posicion] = reserva.getIdCliente();
+        paquetes[posicion] = reserva.getIdPaquete();
+        personas[posicion] = reserva.getNumPersonas();
+        centimos[posicion] = Math.round(reserva.getTotalPagar() * 100);
+        estados[posicion] = codigo(reserva.getEstado());
+        maximoPaquete = Math.max(maximoPaquete, reserva.getIdPaquete());
+        if (dia != SIN_FECHA) {
+            primerDia = Math.min(primerDia, dia);
+            ultimoDia = Math.max(ultimoDia, dia);
+        }
+    }
+
+    // Código del estado en el diccionario (lo agrega si es nuevo). Más allá del máximo se agrupan en el último.
+    private byte codigo(String estado) {
+        if (estado == null) {
+            return 0;
+        }
+        for (int i = 1; i < cantidadEstados; i++) {
+            if (nombresEstado[i].equals(estado)) {
+                return (byte) i;
+            }
+        }
+        if (cantidadEstados == MAXIMO_ESTADOS) {
+            return (byte) (MAXIMO_ESTADOS - 1);
+        }
+        nombresEstado[cantidadEstados] = estado;
+        return (byte) cantidadEstados++;
+    }
+
+    private int posicion(int idReserva) {
+        return Arrays.binarySearch(ids, 0, tamano, idReserva);
+    }
+
+    // Nuevos arreglos (x1.5): la Vista publicada conserva los anteriores hasta la siguiente publicación
+    private void crecer() {
+        int capacidad = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacidad);
+        dias = Arrays.copyOf(dias, capacidad);
+        clientes = Arrays.copyOf(clientes, capacidad);
+        paquetes = Arrays.copyOf(paquetes, capacidad);
+        personas = Arrays.copyOf(personas, capacidad);
+        estados = Arrays.copyOf(estados, capacidad);
+        centimos = Arrays.copyOf(centimos, capacidad);
+    }
+
+    // --- Consultas ---
+
+    /**
+     * Cantidad de reservas, personas e ingresos agrupados por paquete, estado, mes (fecha = primer día
+     * del mes) o en un solo total (NINGUNA). Filtros opcionales (null = sin filtro): rango de fechas
+     * [desde, hasta], paquete y estado. Solo devuelve grupos con reservas.
+     */
+    public List<AgregadoReservas> agrupar(Agrupacion agrupacion, Date desde, Date hasta, Integer idPaquete,
+                                          String estado, boolean paralelo) {
+        Vista v = vista;
+        int codigoEstado = -1;
+        if (estado != null) {
+            codigoEstado = Arrays.asList(v.nombresEstado).indexOf(estado);
+            if (codigoEstado < 0) {
+                return List.of(); // Nadie tiene ese estado
+            }
+        }
+        int diaDesde = desde != null ? (int) desde.toLocalDate().toEpochDay() : SIN_FECHA;
+        int diaHasta = hasta != null ? (int) hasta.toLocalDate().toEpochDay() : Integer.MAX_VALUE;
+
+        int grupos;
+        int primerMes = 0;
+        switch (agrupacion) {
+            case PAQUETE -> grupos = v.maximoPaquete + 1;
+            case ESTADO -> grupos = v.nombresEstado.length;
+            case MES -> {
+                if (v.ultimoDia == SIN_FECHA) {
+                    return List.of();
+                }
+                primerMes = mes(Math.max(diaDesde, v.primerDia));
+                grupos = Math.max(0, mes(Math.min(diaHasta, v.ultimoDia)) - primerMes + 1);
+            }
+            default -> grupos = 1;
+        }
+        // Tramos de al menos FILAS_POR_TRAMO filas y no más de ~4 por hilo: cada tramo reserva un long[] por grupo
+        int filasPorTramo = Math.max(FILAS_POR_TRAMO, v.tamano / (ForkJoinPool.getCommonPoolParallelism() * 4));
+        Consulta consulta = new Consulta(agrupacion, grupos, primerMes, diaDesde, diaHasta,
+                                         idPaquete != null ? idPaquete : -1, codigoEstado, filasPorTramo);
+
+        long[] totales = paralelo && v.tamano > filasPorTramo
+            ? ForkJoinPool.commonPool().invoke(new Recorrido(v, consulta, 0, v.tamano))
+            : sumar(v, consulta, 0, v.tamano);
+
+        List<AgregadoReservas> resultado = new ArrayList<>();
+        for (int grupo = 0; grupo < grupos; grupo++) {
+            long reservas = totales[grupo * 3];
+            if (reservas == 0) {
+                continue;
+            }
+            int paquete = agrupacion == Agrupacion.PAQUETE ? grupo : Math.max(consulta.idPaquete(), 0);
+            Date fecha = agrupacion == Agrupacion.MES ? Date.valueOf(LocalDate.of((primerMes + grupo) / 12, (primerMes + grupo) % 12 + 1, 1)) : null;
+            String nombre = agrupacion == Agrupacion.ESTADO ? v.nombresEstado[grupo] : estado;
+            resultado.add(new AgregadoReservas(paquete, fecha, nombre, reservas, totales[grupo * 3 + 1],
+                                               totales[grupo * 3 + 2] / 100.0));
+        }
+        return resultado;
+    }
+
+    // [Comentario]: Divide el recorrido en mitades hasta 'filasPorTramo' filas; cada mitad se suma por separado.
+    //               ForkJoinTask es Serializable, pero esta tarea solo vive dentro del pool: nunca se serializa.
+    @SuppressWarnings("serial")
+    private static final class Recorrido extends RecursiveTask<long[]> {
+        private final Vista vista;
+        private final Consulta consulta;
+        private final int desde;
+        private final int hasta;
+
+        Recorrido(Vista vista, Consulta consulta, int desde, int hasta) {
+            this.vista = vista;
+            this.consulta = consulta;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (hasta - desde <= consulta.filasPorTramo()) {
+                return sumar(vista, consulta, desde, hasta);
+            }
+            int medio = (desde + hasta) >>> 1;
+            Recorrido izquierda = new Recorrido(vista, consulta, desde, medio);
+            izquierda.fork();
+            long[] derecha = new Recorrido(vista, consulta, medio, hasta).compute();
+            long[] total = izquierda.join();
+            for (int i = 0; i < total.length; i++) {
+                total[i] += derecha[i];
+            }
+            return total;
+        }
+    }
+
+    // Recorrido de las filas [desde, hasta): por grupo, [reservas, personas, céntimos]
+    private static long[] sumar(Vista v, Consulta c, int desde, int hasta) {
+        long[] totales = new long[c.grupos() * 3];
+        int[] dias = v.dias;
+        int[] paquetes = v.paquetes;
+        int[] personas = v.personas;
+        byte[] estados = v.estados;
+        long[] centimos = v.centimos;
+        for (int i = desde; i < hasta; i++) {
+            byte estado = estados[i];
+            int dia = dias[i];
+            int paquete = paquetes[i];
+            if (estado == ELIMINADA || (c.estado() >= 0 && estado != c.estado())
+                    || dia < c.diaDesde() || dia > c.diaHasta()
+                    || (c.idPaquete() >= 0 && paquete != c.idPaquete())) {
+                continue;
+            }
+            int grupo = switch (c.agrupacion()) {
+                case PAQUETE -> paquete;
+                case ESTADO -> estado;
+                case MES -> dia == SIN_FECHA ? -1 : mes(dia) - c.primerMes();
+                default -> 0;
+            };
+            if (grupo < 0 || grupo >= c.grupos()) {
+                continue;
+            }
+            totales[grupo * 3]++;
+            totales[grupo * 3 + 1] += personas[i];
+            totales[grupo * 3 + 2] += centimos[i];
+        }
+        return totales;
+    }
+
+    // Año * 12 + (mes - 1) de un día epoch, solo con aritmética entera (algoritmo "civil from days")
+    static int mes(int diaEpoch) {
+        int z = diaEpoch + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int diaDeEra = z - era * 146097;
+        int anioDeEra = (diaDeEra - diaDeEra / 1460 + diaDeEra / 36524 - diaDeEra / 146096) / 365;
+        int diaDelAnio = diaDeEra - (365 * anioDeEra + anioDeEra / 4 - anioDeEra / 100);
+        int mesMarzo = (5 * diaDelAnio + 2) / 153;
+        int mes = mesMarzo < 10 ? mesMarzo + 3 : mesMarzo - 9;
+        int anio = anioDeEra + era * 400 + (mes <= 2 ? 1 : 0);
+        return anio * 12 + mes - 1;
+    }
+
+    // --- Estadísticas ---
+
+    public int filas() {
+        return vista.tamano;
+    }
+
+    public synchronized int eliminadas() {
+        return eliminadas;
+    }
+
+    // Memoria de las columnas (capacidad reservada, no solo las filas ocupadas)
+    public synchronized long bytes() {
+        return (long) ids.length * BYTES_POR_FILA;
+    }
+}
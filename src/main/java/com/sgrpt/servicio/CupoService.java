@@ -0,0 +1,244 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.dao.CambioDAO;
+import com.sgrpt.dao.CupoDAO;
+import com.sgrpt.dao.ErroresSQL;
+import com.sgrpt.dao.ReservaDAO;
+import com.sgrpt.modelo.CupoPaquete;
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.modelo.ResultadoReserva;
+import com.sgrpt.modelo.ResultadoReserva.Estado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// [Comentario]: Motor de admisión de reservas contra el cupo de cada salida (paquete + fecha).
+//               - La garantía de no sobreventa la da la base de datos: descuento condicional atómico
+//                 (UPDATE ... WHERE disponibles >= ?) y el INSERT de la reserva en la misma transacción.
+//               - Los candados por franjas (uno por hash de paquete+fecha, nunca global) ordenan dentro
+//                 del nodo las peticiones sobre una misma salida caliente, para que esperen aquí en vez
+//                 de ocupar conexiones del pool bloqueadas en el candado de fila de PostgreSQL.
+//               - Cada transacción registra también sus cambios (CambioDAO) para los demás nodos: la reserva
+//                 (ReservaDAO) y el cupo del paquete.
+//               - El control de plazas se activa por salida: solo las salidas con fila en cupo_paquete
+//                 (CupoController) limitan las reservas. Una salida sin cupo definido admite la reserva sin
+//                 límite, como antes de existir el motor, para no bloquear los paquetes que aún no lo tienen;
+//                 al definirlo después, CupoDAO.insertar descuenta lo que ya estaba reservado.
+@Service
+public class CupoService {
+
+    private static final int FRANJAS = 64;
+
+    @Autowired
+    private CupoDAO cupoDAO;
+
+    @Autowired
+    private ReservaDAO reservaDAO;
+
+    private final ReentrantLock[] franjas = new ReentrantLock[FRANJAS];
+
+    // Contadores para medir el ritmo de admisión
+    private final AtomicLong aceptadas = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+    private final long inicio = System.nanoTime();
+
+    public CupoService() {
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Admite la reserva si quedan plazas para su paquete en su fecha (fechaReserva = fecha de salida):
+     * descuenta numPersonas e inserta la reserva de forma atómica. Si la salida está llena no se inserta
+     * nada (SIN_CUPO); si la salida no tiene cupo definido, se inserta sin descontar.
+     */
+    public ResultadoReserva reservar(Reserva reserva) {
+        if (reserva.getNumPersonas() <= 0 || reserva.getFechaReserva() == null) {
+            return new ResultadoReserva(Estado.ERROR, reserva, "numPersonas y fechaReserva son obligatorios");
+        }
+        ReentrantLock candado = franja(reserva.getIdPaquete(), reserva.getFechaReserva());
+        candado.lock();
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            conn.setAutoCommit(false);
+            try {
+                CupoPaquete cupo = cupoDAO.descontar(conn, reserva.getIdPaquete(), reserva.getFechaReserva(), reserva.getNumPersonas());
+                if (cupo == null && cupoDAO.existe(conn, reserva.getIdPaquete(), reserva.getFechaReserva())) {
+                    conn.rollback();
+                    rechazadas.incrementAndGet();
+                    return new ResultadoReserva(Estado.SIN_CUPO, reserva, "No quedan plazas suficientes para esa salida");
+                }
+                reservaDAO.insertar(conn, reserva);
+                if (cupo != null) {
+                    CambioDAO.registrar(conn, CambioDAO.CUPO, CambioDAO.MODIFICACION, reserva.getIdPaquete());
+                }
+                conn.commit();
+                aceptadas.incrementAndGet();
+                if (cupo != null) {
+                    cupoDAO.notificarCambiados(List.of(cupo));
+                }
+                reservaDAO.notificarInsertadas(List.of(reserva));
+                return new ResultadoReserva(Estado.ACEPTADA, reserva, null);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al reservar: " + e.getMessage());
+            return fallo(reserva, e);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Admite un lote de reservas en UNA sola transacción (group commit): un único commit para todo el lote
+     * en lugar de uno por reserva. Cada reserva se acepta o se rechaza por cupo de forma individual
+     * (las de salidas sin cupo definido se aceptan sin descontar, como en reservar).
+     * Los cupos se descuentan ordenados por (paquete, fecha) para que dos lotes concurrentes tomen los
+     * candados de fila en el mismo orden y no se bloqueen mutuamente. Si el lote falla por un error de
+     * datos, se reintenta reserva por reserva para aislar la fila problemática.
+     * Devuelve un resultado por reserva, en el mismo orden que la lista recibida.
+     */
+    public List<ResultadoReserva> reservarLote(List<Reserva> reservas) {
+        ResultadoReserva[] resultados = new ResultadoReserva[reservas.size()];
+        List<Integer> orden = new ArrayList<>(reservas.size());
+        for (int i = 0; i < reservas.size(); i++) {
+            Reserva reserva = reservas.get(i);
+            if (reserva.getNumPersonas() <= 0 || reserva.getFechaReserva() == null) {
+                resultados[i] = new ResultadoReserva(Estado.ERROR, reserva, "numPersonas y fechaReserva son obligatorios");
+            } else {
+                orden.add(i);
+            }
+        }
+        orden.sort(Comparator.comparingInt((Integer i) -> reservas.get(i).getIdPaquete())
+                             .thenComparing(i -> reservas.get(i).getFechaReserva()));
+
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Reserva> admitidas = new ArrayList<>();
+                List<Integer> indicesAdmitidas = new ArrayList<>();
+                List<CupoPaquete> cupos = new ArrayList<>();
+                for (int i : orden) {
+                    Reserva reserva = reservas.get(i);
+                    CupoPaquete cupo = cupoDAO.descontar(conn, reserva.getIdPaquete(), reserva.getFechaReserva(), reserva.getNumPersonas());
+                    if (cupo == null && cupoDAO.existe(conn, reserva.getIdPaquete(), reserva.getFechaReserva())) {
+                        resultados[i] = new ResultadoReserva(Estado.SIN_CUPO, reserva, "No quedan plazas suficientes para esa salida");
+                        continue;
+                    }
+                    if (cupo != null) {
+                        cupos.add(cupo);
+                    }
+                    admitidas.add(reserva);
+                    indicesAdmitidas.add(i);
+                }
+                reservaDAO.insertarLote(conn, admitidas);
+                // Un cambio de cupo por paquete, no por reserva: quien lo recibe relee todas sus salidas
+                // (ninguno si todas las admitidas eran de salidas sin cupo)
+                CambioDAO.registrar(conn, CambioDAO.CUPO, CambioDAO.MODIFICACION,
+                                    cupos.stream().mapToInt(CupoPaquete::getIdPaquete).distinct().toArray());
+                conn.commit();
+                cupoDAO.notificarCambiados(cupos);
+                reservaDAO.notificarInsertadas(admitidas);
+
+                for (int i : indicesAdmitidas) {
+                    resultados[i] = new ResultadoReserva(Estado.ACEPTADA, reservas.get(i), null);
+                }
+                aceptadas.addAndGet(indicesAdmitidas.size());
+                rechazadas.addAndGet(orden.size() - indicesAdmitidas.size());
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al reservar lote de " + orden.size() + ": " + e.getMessage());
+            // Una fila rechazada se aísla reserva por reserva; un fallo del servidor no se multiplica
+            boolean reintentar = orden.size() > 1 && ErroresSQL.esRechazoDeDatos(e);
+            for (int i : orden) {
+                resultados[i] = reintentar ? reservar(reservas.get(i)) : fallo(reservas.get(i), e);
+            }
+        }
+        return Arrays.asList(resultados);
+    }
+
+    /**
+     * Cancela (elimina) la reserva y devuelve sus plazas al cupo en la misma transacción.
+     */
+    public ResultadoReserva cancelar(int idReserva) {
+        return cancelar(idReserva, null);
+    }
+
+    /**
+     * Como cancelar(int), pero con 'versionEsperada' (If-Match) solo si la reserva conserva esa versión;
+     * si no, CONFLICTO con la reserva vigente y el cupo intacto.
+     */
+    public ResultadoReserva cancelar(int idReserva, Long versionEsperada) {
+        try (Connection conn = ConexionDB.obtenerConexion()) {
+            conn.setAutoCommit(false);
+            try {
+                Reserva reserva = reservaDAO.eliminar(conn, idReserva, versionEsperada);
+                if (reserva == null) {
+                    conn.rollback();
+                    return new ResultadoReserva(Estado.NO_ENCONTRADA, null, "La reserva no existe");
+                }
+                if (versionEsperada != null && reserva.getVersion() != versionEsperada) {
+                    conn.rollback();
+                    return new ResultadoReserva(Estado.CONFLICTO, reserva, "La versión no coincide: otra edición se guardó antes");
+                }
+                CupoPaquete cupo = cupoDAO.liberar(conn, reserva.getIdPaquete(), reserva.getFechaReserva(), reserva.getNumPersonas());
+                if (cupo != null) {
+                    CambioDAO.registrar(conn, CambioDAO.CUPO, CambioDAO.MODIFICACION, cupo.getIdPaquete());
+                }
+                conn.commit();
+                if (cupo != null) {
+                    cupoDAO.notificarCambiados(List.of(cupo));
+                }
+                reservaDAO.notificarEliminada(reserva);
+                return new ResultadoReserva(Estado.ACEPTADA, reserva, null);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al cancelar reserva: " + e.getMessage());
+            return fallo(null, e);
+        }
+    }
+
+    public long getAceptadas() { return aceptadas.get(); }
+
+    public long getRechazadas() { return rechazadas.get(); }
+
+    // Reservas aceptadas por segundo desde el arranque
+    public double getAceptadasPorSegundo() {
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        return segundos == 0 ? 0 : aceptadas.get() / segundos;
+    }
+
+    // ERROR si la base de datos rechazó los datos; NO_DISPONIBLE si falló ella (conexión, pool, deadlock)
+    private static ResultadoReserva fallo(Reserva reserva, SQLException e) {
+        return new ResultadoReserva(ErroresSQL.esRechazoDeDatos(e) ? Estado.ERROR : Estado.NO_DISPONIBLE, reserva, e.getMessage());
+    }
+
+    private ReentrantLock franja(int idPaquete, Date fecha) {
+        int hash = 31 * idPaquete + fecha.hashCode();
+        return franjas[(hash ^ (hash >>> 16)) & (FRANJAS - 1)];
+    }
+}
@@ -0,0 +1,405 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.conexion.Enrutamiento;
+import com.sgrpt.dao.CupoDAO;
+import com.sgrpt.dao.ObservadorCupos;
+import com.sgrpt.modelo.CupoPaquete;
+import com.sgrpt.modelo.Pagina;
+import com.sgrpt.modelo.PaqueteDisponible;
+import com.sgrpt.modelo.PaqueteTuristico;
+import com.sgrpt.repositorio.PaqueteTuristicoRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// [Comentario]: Índice de disponibilidad en memoria: plazas libres de cada paquete por día de salida.
+//               - Cada paquete tiene un calendario en arreglos primitivos indexados por día (int[] de plazas
+//                 libres, -1 = ese día no sale), así que "¿hay sitio para 4 personas entre estas fechas?" es
+//                 recorrer un tramo de un arreglo, sin leer Reserva ni cupo_paquete.
+//               - Se mantiene con cada cambio confirmado de cupo_paquete (ObservadorCupos: salidas nuevas,
+//                 cambios de capacidad, reservas y cancelaciones) y con las escrituras de paquetes de
+//                 PaqueteTuristicoController (destino, precio...). Cada cupo trae su versión: un cambio
+//                 repetido o más viejo que el ya aplicado se ignora.
+//               - Reconciliación periódica desde cupo_paquete (salidas de hoy en adelante) y el catálogo:
+//                 corrige cambios de otros nodos o hechos fuera de CupoDAO y descarta los días ya pasados.
+//                 Los cambios que llegan durante el recorrido se vuelven a aplicar sobre el índice nuevo.
+@Service
+public class DisponibilidadService implements ObservadorCupos {
+
+    private static final int SIN_SALIDA = -1;
+    // Días de más al ampliar un calendario, para no copiar los arreglos con cada salida nueva
+    private static final int MARGEN_DIAS = 32;
+
+    // Datos del paquete que usa la búsqueda (destino normalizado en 'clave')
+    private record Paquete(int id, String nombre, String destino, String clave, Integer duracionDias, Double precio) { }
+
+    // [Comentario]: Plazas de 'dias' días consecutivos desde 'primerDia' (día epoch). Los valores se cambian en
+    //               el sitio con el candado del calendario; al ampliar el rango se publica un Tramo nuevo.
+    //               Las lecturas no toman candado: pueden ver un valor de hace instantes, nunca uno a medias.
+    private static final class Tramo {
+        final int primerDia;
+        final int[] disponibles;
+        final int[] capacidad;
+        final long[] versiones;
+
+        Tramo(int primerDia, int dias) {
+            this.primerDia = primerDia;
+            this.disponibles = new int[dias];
+            this.capacidad = new int[dias];
+            this.versiones = new long[dias];
+            Arrays.fill(disponibles, SIN_SALIDA);
+            Arrays.fill(versiones, -1);
+        }
+
+        boolean contiene(int dia) {
+            return dia >= primerDia && dia < primerDia + disponibles.length;
+        }
+    }
+
+    private static final class Calendario {
+        volatile Paquete paquete; // null si llegó un cupo antes que los datos del paquete: no se muestra
+        volatile Tramo tramo;
+
+        synchronized void aplicar(int dia, CupoPaquete cupo) {
+            Tramo actual = tramo;
+            if (actual == null || !actual.contiene(dia)) {
+                actual = ampliar(actual, dia);
+                tramo = actual;
+            }
+            int i = dia - actual.primerDia;
+            if (cupo.getVersion() < actual.versiones[i]) {
+                return; // Más viejo que el ya aplicado
+            }
+            actual.capacidad[i] = cupo.getCapacidad();
+            actual.versiones[i] = cupo.getVersion();
+            actual.disponibles[i] = cupo.getDisponibles();
+        }
+
+        private static Tramo ampliar(Tramo actual, int dia) {
+            if (actual == null) {
+                return new Tramo(dia, MARGEN_DIAS);
+            }
+            int primero = Math.min(actual.primerDia, dia);
+            int ultimo = Math.max(actual.primerDia + actual.disponibles.length - 1, dia + MARGEN_DIAS - 1);
+            Tramo nuevo = new Tramo(primero, ultimo - primero + 1);
+            int desplazamiento = actual.primerDia - primero;
+            System.arraycopy(actual.disponibles, 0, nuevo.disponibles, desplazamiento, actual.disponibles.length);
+            System.arraycopy(actual.capacidad, 0, nuevo.capacidad, desplazamiento, actual.capacidad.length);
+            System.arraycopy(actual.versiones, 0, nuevo.versiones, desplazamiento, actual.versiones.length);
+            return nuevo;
+        }
+    }
+
+    // [Comentario]: Calendarios por paquete y, aparte, agrupados por destino (el filtro más selectivo).
+    private static final class Indice {
+        final Map<Integer, Calendario> calendarios = new ConcurrentHashMap<>();
+        final Map<String, Set<Calendario>> porDestino = new ConcurrentHashMap<>();
+
+        void aplicar(CupoPaquete cupo) {
+            calendarios.computeIfAbsent(cupo.getIdPaquete(), id -> new Calendario())
+                       .aplicar(dia(cupo.getFechaSalida()), cupo);
+        }
+
+        void guardarPaquete(Paquete paquete) {
+            Calendario calendario = calendarios.computeIfAbsent(paquete.id(), id -> new Calendario());
+            synchronized (calendario) {
+                Paquete anterior = calendario.paquete;
+                if (anterior != null && !anterior.clave().equals(paquete.clave())) {
+                    quitarDeDestino(calendario, anterior);
+                }
+                calendario.paquete = paquete;
+                porDestino.compute(paquete.clave(), (clave, mismoDestino) -> {
+                    Set<Calendario> conjunto = mismoDestino != null ? mismoDestino : ConcurrentHashMap.newKeySet();
+                    conjunto.add(calendario);
+                    return conjunto;
+                });
+            }
+        }
+
+        void eliminarPaquete(int idPaquete) {
+            Calendario calendario = calendarios.remove(idPaquete);
+            if (calendario != null && calendario.paquete != null) {
+                quitarDeDestino(calendario, calendario.paquete);
+            }
+        }
+
+        private void quitarDeDestino(Calendario calendario, Paquete paquete) {
+            // Un destino sin paquetes se elimina (compute: atómico frente a un alta en el mismo destino)
+            porDestino.computeIfPresent(paquete.clave(), (clave, mismoDestino) -> {
+                mismoDestino.remove(calendario);
+                return mismoDestino.isEmpty() ? null : mismoDestino;
+            });
+        }
+    }
+
+    @Autowired
+    private CupoDAO cupoDAO;
+
+    @Autowired
+    private PaqueteTuristicoRepository repositorio;
+
+    @Value("${sgrpt.busqueda.tamano-bloque:1000}")
+    private int tamanoBloque;
+
+    private volatile Indice indice = new Indice();
+
+    // Cambios: lectura (muchos a la vez). Publicar una reconciliación: escritura (exclusivo, un instante).
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    private volatile ConcurrentLinkedQueue<Consumer<Indice>> cambiosDuranteReconciliacion;
+    private final AtomicBoolean reconciliando = new AtomicBoolean();
+
+    // Estadísticas
+    private volatile long ultimaReconciliacion;
+    private volatile long duracionReconciliacionMs;
+    private volatile long salidasReconciliadas;
+    private final LongAdder busquedas = new LongAdder();
+    private final LongAdder nanosBusqueda = new LongAdder();
+
+    @PostConstruct
+    void registrar() {
+        cupoDAO.registrarObservador(this);
+    }
+
+    // --- Mantenimiento ---
+
+    @Override
+    public void cambiado(CupoPaquete cupo) {
+        if (cupo.getFechaSalida() != null && dia(cupo.getFechaSalida()) >= hoy()) {
+            aplicar(indice -> indice.aplicar(cupo));
+        }
+    }
+
+    public void guardarPaquete(PaqueteTuristico paquete) {
+        Paquete datos = datos(paquete);
+        aplicar(indice -> indice.guardarPaquete(datos));
+    }
+
+    public void eliminarPaquete(int idPaquete) {
+        aplicar(indice -> indice.eliminarPaquete(idPaquete));
+    }
+
+    private void aplicar(Consumer<Indice> cambio) {
+        candado.readLock().lock();
+        try {
+            cambio.accept(indice);
+            ConcurrentLinkedQueue<Consumer<Indice>> pendientes = cambiosDuranteReconciliacion;
+            if (pendientes != null) {
+                pendientes.add(cambio);
+            }
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruye el índice desde el catálogo y cupo_paquete y lo publica. Si ya hay una reconciliación
+     * en curso no hace nada (la siguiente pasada programada recoge lo que falte).
+     */
+    @Scheduled(initialDelayString = "0", fixedDelayString = "${sgrpt.disponibilidad.reconciliacion-ms:300000}")
+    public void reconciliar() {
+        if (!reconciliando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            reconstruir();
+        } finally {
+            reconciliando.set(false);
+        }
+    }
+
+    private void reconstruir() {
+        long inicio = System.nanoTime();
+        ConcurrentLinkedQueue<Consumer<Indice>> pendientes = new ConcurrentLinkedQueue<>();
+        cambiosDuranteReconciliacion = pendientes;
+
+        Indice nuevo = new Indice();
+        long salidas;
+        try {
+            recorrerPaquetes(paquete -> nuevo.guardarPaquete(datos(paquete)));
+            salidas = cupoDAO.recorrerDesde(Date.valueOf(LocalDate.ofEpochDay(hoy())), nuevo::aplicar);
+        } catch (RuntimeException e) {
+            cambiosDuranteReconciliacion = null;
+            System.err.println("Error al reconstruir el índice de disponibilidad: " + e.getMessage());
+            return;
+        }
+        if (salidas < 0) {
+            cambiosDuranteReconciliacion = null; // La lectura falló: se conserva el índice vigente
+            return;
+        }
+
+        candado.writeLock().lock();
+        try {
+            // Cambios ocurridos durante el recorrido: las versiones evitan que uno ya leído retroceda el valor
+            for (Consumer<Indice> cambio = pendientes.poll(); cambio != null; cambio = pendientes.poll()) {
+                cambio.accept(nuevo);
+            }
+            indice = nuevo;
+            cambiosDuranteReconciliacion = null;
+        } finally {
+            candado.writeLock().unlock();
+        }
+
+        salidasReconciliadas = salidas;
+        duracionReconciliacionMs = (System.nanoTime() - inicio) / 1_000_000;
+        ultimaReconciliacion = System.currentTimeMillis();
+    }
+
+    // Catálogo completo por bloques keyset de 'tamanoBloque' paquetes. De la primaria: una réplica
+    // atrasada dejaría fuera cambios que los observadores ya aplicaron
+    private void recorrerPaquetes(Consumer<PaqueteTuristico> destino) {
+        int despuesDe = 0;
+        Slice<PaqueteTuristico> bloque;
+        do {
+            int desde = despuesDe;
+            bloque = Enrutamiento.enPrimaria(() -> repositorio.findByIdPaqueteGreaterThanOrderByIdPaquete(
+                desde, PageRequest.of(0, tamanoBloque)));
+            for (PaqueteTuristico paquete : bloque) {
+                destino.accept(paquete);
+                despuesDe = paquete.getIdPaquete();
+            }
+        } while (bloque.hasNext());
+    }
+
+    // --- Búsqueda ---
+
+    /**
+     * Paquetes con al menos una salida en [fechaDesde, fechaHasta] con 'personas' plazas libres o más,
+     * filtrados por destino (sin distinguir mayúsculas) y rango de precio (filtros opcionales). Ordenados
+     * por precio y luego por id; paginación por desplazamiento (el cursor siguiente es 'desde + limite').
+     */
+    public Pagina<PaqueteDisponible> buscar(LocalDate fechaDesde, LocalDate fechaHasta, int personas, String destino,
+                                            Double precioMin, Double precioMax, int desde, int limite) {
+        long inicio = System.nanoTime();
+        int primero = (int) Math.max(fechaDesde.toEpochDay(), hoy());
+        int ultimo = (int) fechaHasta.toEpochDay();
+
+        Indice actual = indice;
+        Collection<Calendario> candidatos = destino == null
+            ? actual.calendarios.values()
+            : actual.porDestino.getOrDefault(clave(destino), Set.of());
+
+        List<Calendario> encontrados = new ArrayList<>();
+        for (Calendario calendario : candidatos) {
+            Paquete paquete = calendario.paquete;
+            Tramo tramo = calendario.tramo;
+            if (paquete != null && tramo != null && enRango(paquete.precio(), precioMin, precioMax)
+                    && primeraSalida(tramo, primero, ultimo, personas) >= 0) {
+                encontrados.add(calendario);
+            }
+        }
+        encontrados.sort(Comparator.comparing((Calendario c) -> c.paquete.precio(), Comparator.nullsLast(Comparator.naturalOrder()))
+                                   .thenComparingInt(c -> c.paquete.id()));
+
+        List<PaqueteDisponible> pagina = new ArrayList<>();
+        for (int i = desde; i < Math.min(encontrados.size(), desde + limite); i++) {
+            pagina.add(describir(encontrados.get(i), primero, ultimo, personas));
+        }
+        Integer siguiente = encontrados.size() > desde + limite ? desde + limite : null;
+
+        busquedas.increment();
+        nanosBusqueda.add(System.nanoTime() - inicio);
+        return new Pagina<>(pagina, limite, siguiente);
+    }
+
+    // Primer día de [primero, ultimo] con plazas suficientes, o -1
+    private static int primeraSalida(Tramo tramo, int primero, int ultimo, int personas) {
+        int desde = Math.max(primero, tramo.primerDia) - tramo.primerDia;
+        int hasta = Math.min(ultimo, tramo.primerDia + tramo.disponibles.length - 1) - tramo.primerDia;
+        int[] disponibles = tramo.disponibles;
+        for (int i = desde; i <= hasta; i++) {
+            if (disponibles[i] >= personas) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static PaqueteDisponible describir(Calendario calendario, int primero, int ultimo, int personas) {
+        Paquete paquete = calendario.paquete;
+        Tramo tramo = calendario.tramo;
+        List<CupoPaquete> salidas = new ArrayList<>();
+        int hasta = Math.min(ultimo, tramo.primerDia + tramo.disponibles.length - 1) - tramo.primerDia;
+        for (int i = Math.max(primero, tramo.primerDia) - tramo.primerDia; i <= hasta; i++) {
+            int libres = tramo.disponibles[i];
+            if (libres >= personas) {
+                salidas.add(new CupoPaquete(paquete.id(), Date.valueOf(LocalDate.ofEpochDay(tramo.primerDia + i)),
+                                            tramo.capacidad[i], libres, tramo.versiones[i]));
+            }
+        }
+        return new PaqueteDisponible(paquete.id(), paquete.nombre(), paquete.destino(), paquete.duracionDias(),
+                                     paquete.precio(), salidas);
+    }
+
+    private static boolean enRango(Double precio, Double minimo, Double maximo) {
+        if (minimo == null && maximo == null) {
+            return true;
+        }
+        return precio != null && (minimo == null || precio >= minimo) && (maximo == null || precio <= maximo);
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        Indice actual = indice;
+        long salidas = 0;
+        for (Calendario calendario : actual.calendarios.values()) {
+            Tramo tramo = calendario.tramo;
+            if (tramo != null) {
+                for (int libres : tramo.disponibles) {
+                    if (libres != SIN_SALIDA) {
+                        salidas++;
+                    }
+                }
+            }
+        }
+        long total = busquedas.sum();
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("paquetes", actual.calendarios.size());
+        estadisticas.put("destinos", actual.porDestino.size());
+        estadisticas.put("salidas", salidas);
+        estadisticas.put("busquedas", total);
+        estadisticas.put("microsegundosPorBusqueda", total == 0 ? 0 : nanosBusqueda.sum() / total / 1000.0);
+        estadisticas.put("ultimaReconciliacion", ultimaReconciliacion);
+        estadisticas.put("duracionReconciliacionMs", duracionReconciliacionMs);
+        estadisticas.put("salidasReconciliadas", salidasReconciliadas);
+        estadisticas.put("reconciliando", reconciliando.get());
+        return estadisticas;
+    }
+
+    private static Paquete datos(PaqueteTuristico paquete) {
+        return new Paquete(paquete.getIdPaquete(), paquete.getNombre(), paquete.getDestino(), clave(paquete.getDestino()),
+                           paquete.getDuracionDias(), paquete.getPrecio());
+    }
+
+    private static String clave(String destino) {
+        return destino == null ? "" : destino.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int dia(Date fecha) {
+        return (int) fecha.toLocalDate().toEpochDay();
+    }
+
+    private static int hoy() {
+        return (int) LocalDate.now().toEpochDay();
+    }
+}
@@ -0,0 +1,241 @@
+package com.sgrpt.servicio;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sgrpt.dao.ClienteDAO;
+import com.sgrpt.dao.ReservaDAO;
+import com.sgrpt.servicio.ImportacionService.Formato;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// [Comentario]: Exportación masiva en streaming (CSV o NDJSON, opcionalmente gzip).
+//               - Las filas se leen con el cursor del servidor de los DAO y se escriben directamente en la
+//                 respuesta, una a una: la memoria usada no depende de cuántas filas se exporten.
+//               - Cada 'filasPorFlush' filas se vacía el buffer (y el bloque gzip) hacia el cliente, para
+//                 que la descarga avance de forma continua en lugar de llegar al final.
+//               - Cada exportación ocupa una conexión del pool mientras dura, por eso se limitan las
+//                 exportaciones simultáneas (el controlador responde 503 si no hay turno).
+@Service
+public class ExportacionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger("sgrpt.exportacion");
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    @Autowired
+    private ReservaDAO reservaDAO;
+
+    @Autowired
+    private ClienteDAO clienteDAO;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Semaphore turnos;
+    private final int maximoTurnos;
+    private final int filasPorFlush;
+    private final int tamanoFetch;
+
+    // Estadísticas (GET /api/v1/sistema/exportaciones)
+    private final AtomicLong exportaciones = new AtomicLong();
+    private final AtomicLong filasTotales = new AtomicLong();
+    private volatile Map<String, Object> ultima = Map.of();
+
+    public ExportacionService(@Value("${sgrpt.exportacion.maximo-simultaneas:2}") int maximoSimultaneas,
+                              @Value("${sgrpt.exportacion.filas-por-flush:1000}") int filasPorFlush,
+                              @Value("${sgrpt.exportacion.tamano-fetch:1000}") int tamanoFetch) {
+        this.turnos = new Semaphore(maximoSimultaneas);
+        this.maximoTurnos = maximoSimultaneas;
+        this.filasPorFlush = filasPorFlush;
+        this.tamanoFetch = tamanoFetch;
+    }
+
+    /**
+     * Reserva un turno de exportación. null si ya hay el máximo en curso. exportarReservas/exportarClientes
+     * lo liberan al terminar; si la exportación no llega a empezar, quien lo obtuvo debe liberarlo.
+     */
+    public Turno obtenerTurno() {
+        return turnos.tryAcquire() ? new Turno(turnos) : null;
+    }
+
+    /**
+     * Escribe las reservas filtradas (cada filtro es opcional). Devuelve las filas exportadas.
+     * CSV: idReserva,fechaReserva,estado,idCliente,idPaquete,numPersonas,totalPagar
+     */
+    public long exportarReservas(Turno turno, OutputStream salida, Formato formato, boolean gzip,
+                                 Date desde, Date hasta, String estado) throws IOException {
+        return exportar("reservas", turno, salida, formato, gzip,
+                        () -> reservaDAO.obtenerFiltradasStream(desde, hasta, estado, tamanoFetch),
+                        "idReserva,fechaReserva,estado,idCliente,idPaquete,numPersonas,totalPagar",
+                        r -> new Object[] { r.getIdReserva(), r.getFechaReserva(), r.getEstado(), r.getIdCliente(),
+                                            r.getIdPaquete(), r.getNumPersonas(), r.getTotalPagar() });
+    }
+
+    /**
+     * Escribe todos los clientes. Devuelve las filas exportadas.
+     * CSV: idCliente,nombre,apellido,email,telefono,identificacion
+     */
+    public long exportarClientes(Turno turno, OutputStream salida, Formato formato, boolean gzip) throws IOException {
+        return exportar("clientes", turno, salida, formato, gzip,
+                        () -> clienteDAO.obtenerTodosStream(tamanoFetch),
+                        "idCliente,nombre,apellido,email,telefono,identificacion",
+                        c -> new Object[] { c.getIdCliente(), c.getNombre(), c.getApellido(), c.getEmail(),
+                                            c.getTelefono(), c.getIdentificacion() });
+    }
+
+    // El cursor se abre dentro del try: si no se puede abrir, el turno se libera igual y la exportación
+    // queda registrada como incompleta
+    private <T> long exportar(String tipo, Turno turno, OutputStream salida, Formato formato, boolean gzip,
+                              Supplier<Stream<T>> filas, String cabecera, Function<T, Object[]> columnas) throws IOException {
+        long inicio = System.nanoTime();
+        long escritas = 0;
+        boolean completa = false;
+        Counter contador = Counter.builder("sgrpt.exportacion.filas").tag("tipo", tipo).register(Metrics.globalRegistry);
+
+        // try-with-resources: si el cliente corta la descarga se cierra el cursor y vuelve la conexión
+        try (Stream<T> stream = filas.get()) {
+            // syncFlush: flush() también vacía el compresor, no solo el buffer
+            GZIPOutputStream comprimido = gzip ? new GZIPOutputStream(salida, TAMANO_BUFFER, true) : null;
+            Writer escritor = new BufferedWriter(
+                new OutputStreamWriter(comprimido != null ? comprimido : salida, StandardCharsets.UTF_8), TAMANO_BUFFER);
+            JsonGenerator json = null;
+
+            if (formato == Formato.CSV) {
+                escritor.write(cabecera);
+                escritor.write('\n');
+            } else {
+                json = objectMapper.getFactory().createGenerator(escritor);
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                json.setPrettyPrinter(new MinimalPrettyPrinter("\n")); // Un objeto por línea
+            }
+
+            for (Iterator<T> it = stream.iterator(); it.hasNext(); ) {
+                T fila = it.next();
+                if (json != null) {
+                    json.writeObject(fila);
+                } else {
+                    escribirCsv(escritor, columnas.apply(fila));
+                }
+                escritas++;
+                if (escritas % filasPorFlush == 0) {
+                    if (json != null) json.flush();
+                    escritor.flush();
+                    contador.increment(filasPorFlush);
+                }
+            }
+            if (json != null) {
+                json.flush();
+                if (escritas > 0) escritor.write('\n');
+            }
+            escritor.flush();
+            if (comprimido != null) {
+                comprimido.finish();
+            }
+            completa = true;
+        } finally {
+            turno.liberar();
+            contador.increment(escritas % filasPorFlush);
+            registrar(tipo, escritas, System.nanoTime() - inicio, completa);
+        }
+        return escritas;
+    }
+
+    // Una línea CSV; los campos con separador, comillas o saltos de línea van entre comillas
+    private static void escribirCsv(Writer escritor, Object[] campos) throws IOException {
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                escritor.write(',');
+            }
+            Object campo = campos[i];
+            if (campo == null) {
+                continue;
+            }
+            String valor = campo.toString();
+            if (valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0 || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0) {
+                escritor.write('"');
+                escritor.write(valor.replace("\"", "\"\""));
+                escritor.write('"');
+            } else {
+                escritor.write(valor);
+            }
+        }
+        escritor.write('\n');
+    }
+
+    private void registrar(String tipo, long filas, long duracionNanos, boolean completa) {
+        long duracionMs = duracionNanos / 1_000_000;
+        long filasPorSegundo = duracionNanos > 0 ? filas * 1_000_000_000L / duracionNanos : 0;
+        exportaciones.incrementAndGet();
+        filasTotales.addAndGet(filas);
+
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("tipo", tipo);
+        resumen.put("filas", filas);
+        resumen.put("duracionMs", duracionMs);
+        resumen.put("filasPorSegundo", filasPorSegundo);
+        resumen.put("completa", completa);
+        ultima = resumen;
+
+        if (completa) {
+            LOG.info("Exportación de {}: {} filas en {} ms ({} filas/s)", tipo, filas, duracionMs, filasPorSegundo);
+        } else {
+            LOG.warn("Exportación de {} interrumpida tras {} filas ({} ms)", tipo, filas, duracionMs);
+        }
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("enCurso", turnosEnUso());
+        estadisticas.put("exportaciones", exportaciones.get());
+        estadisticas.put("filasTotales", filasTotales.get());
+        estadisticas.put("ultima", ultima);
+        return estadisticas;
+    }
+
+    private int turnosEnUso() {
+        return maximoTurnos - turnos.availablePermits();
+    }
+
+    /**
+     * Turno de exportación obtenido con obtenerTurno(). liberar() puede llamarse más de una vez (al terminar
+     * la exportación y al terminar la petición): solo la primera devuelve el permiso.
+     */
+    public static final class Turno {
+
+        private final Semaphore turnos;
+        private final AtomicBoolean liberado = new AtomicBoolean();
+
+        private Turno(Semaphore turnos) {
+            this.turnos = turnos;
+        }
+
+        public void liberar() {
+            if (liberado.compareAndSet(false, true)) {
+                turnos.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,502 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.conexion.Enrutamiento;
+import com.sgrpt.dao.CambioDAO;
+import com.sgrpt.dao.ClienteDAO;
+import com.sgrpt.dao.CupoDAO;
+import com.sgrpt.dao.ReservaDAO;
+import com.sgrpt.modelo.Cambio;
+import com.sgrpt.modelo.Cliente;
+import com.sgrpt.modelo.PaqueteTuristico;
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.repositorio.PaqueteTuristicoRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// [Comentario]: Feed de cambios entre nodos. Cada escritura confirmada deja una fila en la tabla cambio
+//               (CambioDAO.registrar, en la misma transacción); este servicio las lee en orden de id_cambio
+//               y las reparte a las cachés e índices en memoria de este nodo, como si la escritura se hubiera
+//               hecho aquí: catálogo, búsqueda, disponibilidad, clientes, agregados y copia analítica.
+//               - Un hilo propio con una conexión dedicada (fuera del pool): en PostgreSQL hace LISTEN y
+//                 despierta con cada NOTIFY; en otras bases (H2) sondea cada 'sondeo-ms'.
+//               - Orden y huecos: los id_cambio se asignan al insertar pero se ven al confirmar, así que un id
+//                 menor puede aparecer después de uno mayor. Cada cambio se aplica en cuanto se ve; 'ultimoId'
+//                 solo avanza hasta el primer hueco, y los huecos se vuelven a consultar hasta que se llenan
+//                 o pasan 'espera-huecos-ms' (id de una transacción que hizo rollback). Un hueco saltado no se
+//                 olvida: se sigue consultando durante la retención por si era una transacción larga que
+//                 confirma tarde, y si aparece se aplica entonces.
+//               - Al reconectar se retoma desde 'ultimoId'. Si la desconexión duró más de la mitad de la
+//                 retención, las filas pueden estar purgadas: se invalida y se reconstruye todo.
+//               - Los cambios de este mismo nodo se saltan (ya los notificó el DAO al confirmar).
+@Service
+public class FeedCambios {
+
+    // Huecos que se vuelven a consultar en cada pasada (los demás, en la siguiente)
+    private static final int MAXIMO_HUECOS = 50;
+
+    @Autowired
+    private CambioDAO cambioDAO;
+
+    @Autowired
+    private ClienteDAO clienteDAO;
+
+    @Autowired
+    private ReservaDAO reservaDAO;
+
+    @Autowired
+    private CupoDAO cupoDAO;
+
+    @Autowired
+    private PaqueteTuristicoRepository repositorio;
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Autowired
+    private ClienteService clientes;
+
+    @Autowired
+    private BusquedaService busqueda;
+
+    @Autowired
+    private DisponibilidadService disponibilidad;
+
+    private final boolean activo;
+    private final String nodo;
+    private final String url;
+    private final String usuario;
+    private final String clave;
+    private final boolean postgres;
+    private final long sondeoMs;
+    private final int lote;
+    private final long esperaHuecosNanos;
+    private final long retencionMinutos;
+    private final long reconexionMs;
+
+    private volatile boolean detenido;
+    private Thread hilo;
+
+    // Estado del hilo del feed (solo lo toca ese hilo)
+    private long ultimoId;                                   // Todo lo <= ultimoId está aplicado o descartado
+    private final TreeSet<Long> vistosPosteriores = new TreeSet<>(); // Aplicados por encima de ultimoId
+    private long huecoDesdeNanos;
+    private long ultimaLecturaNanos;
+    private final TreeMap<Long, Long> descartados = new TreeMap<>(); // Huecos saltados -> cuándo (nanoTime)
+    private long siguienteDescartado;                                // Por dónde sigue la revisión de descartados
+
+    // Estadísticas
+    private volatile String modo = "detenido";
+    private volatile long ultimoIdPublicado;
+    private volatile int pendientesPublicado;
+    private volatile int descartadosPublicado;
+    private volatile long ultimoRetrasoMs = -1;
+    private final Counter leidos;
+    private final Counter propios;
+    private final Counter aplicados;
+    private final Counter huecosDescartados;
+    private final Counter huecosRecuperados;
+    private final Counter reconexiones;
+    private final Counter resincronizaciones;
+    private final Timer retraso;
+
+    @Autowired
+    public FeedCambios(@Qualifier("dataSourcePrimaria") HikariDataSource primaria,
+                       @Value("${sgrpt.cambios.activo:true}") boolean activo,
+                       @Value("${sgrpt.cambios.nodo:}") String nodo,
+                       @Value("${sgrpt.cambios.sondeo-ms:1000}") long sondeoMs,
+                       @Value("${sgrpt.cambios.lote:500}") int lote,
+                       @Value("${sgrpt.cambios.espera-huecos-ms:10000}") long esperaHuecosMs,
+                       @Value("${sgrpt.cambios.retencion-minutos:60}") long retencionMinutos,
+                       @Value("${sgrpt.cambios.reconexion-ms:2000}") long reconexionMs) {
+        this.activo = activo;
+        this.nodo = nodo.isBlank() ? UUID.randomUUID().toString() : nodo;
+        this.url = primaria.getJdbcUrl();
+        this.usuario = primaria.getUsername();
+        this.clave = primaria.getPassword();
+        this.postgres = url != null && url.startsWith("jdbc:postgresql:");
+        this.sondeoMs = sondeoMs;
+        this.lote = lote;
+        this.esperaHuecosNanos = TimeUnit.MILLISECONDS.toNanos(esperaHuecosMs);
+        this.retencionMinutos = retencionMinutos;
+        this.reconexionMs = reconexionMs;
+
+        // Sin base de datos: solo se decide si los DAO registran (y si lanzan NOTIFY)
+        CambioDAO.configurar(activo, this.nodo, postgres);
+
+        this.leidos = Counter.builder("sgrpt.cambios.leidos").register(Metrics.globalRegistry);
+        this.propios = Counter.builder("sgrpt.cambios.propios").register(Metrics.globalRegistry);
+        this.aplicados = Counter.builder("sgrpt.cambios.aplicados").register(Metrics.globalRegistry);
+        this.huecosDescartados = Counter.builder("sgrpt.cambios.huecos.descartados").register(Metrics.globalRegistry);
+        this.huecosRecuperados = Counter.builder("sgrpt.cambios.huecos.recuperados")
+            .description("Cambios que confirmaron después de darse su hueco por perdido")
+            .register(Metrics.globalRegistry);
+        this.reconexiones = Counter.builder("sgrpt.cambios.reconexiones").register(Metrics.globalRegistry);
+        this.resincronizaciones = Counter.builder("sgrpt.cambios.resincronizaciones").register(Metrics.globalRegistry);
+        this.retraso = Timer.builder("sgrpt.cambios.retraso")
+            .description("Desde el inicio de la transacción en otro nodo hasta aplicar el cambio aquí")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(Metrics.globalRegistry);
+    }
+
+    // El gauge guarda una referencia a este servicio: se registra ya construido, no desde el constructor
+    @PostConstruct
+    public void registrarMetricas() {
+        Gauge.builder("sgrpt.cambios.pendientes", this, f -> f.pendientesPublicado)
+             .description("Cambios aplicados por encima del primer hueco sin llenar")
+             .register(Metrics.globalRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!activo) {
+            return;
+        }
+        hilo = new Thread(this::escuchar, "sgrpt-cambios");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    @PreDestroy
+    public void detener() {
+        detenido = true;
+        if (hilo != null) {
+            hilo.interrupt();
+        }
+    }
+
+    /**
+     * Purga los cambios más antiguos que la retención (los nodos conectados ya los han leído).
+     */
+    @Scheduled(initialDelayString = "${sgrpt.cambios.purga-ms:600000}", fixedDelayString = "${sgrpt.cambios.purga-ms:600000}")
+    public void purgar() {
+        if (activo) {
+            cambioDAO.purgar(new Timestamp(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retencionMinutos)));
+        }
+    }
+
+    /**
+     * Estado del feed: modo, posición, contadores y último retraso de propagación.
+     */
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("activo", activo);
+        estadisticas.put("nodo", nodo);
+        estadisticas.put("modo", modo);
+        estadisticas.put("ultimoId", ultimoIdPublicado);
+        estadisticas.put("pendientes", pendientesPublicado);
+        estadisticas.put("leidos", (long) leidos.count());
+        estadisticas.put("propios", (long) propios.count());
+        estadisticas.put("aplicados", (long) aplicados.count());
+        estadisticas.put("huecosDescartados", (long) huecosDescartados.count());
+        estadisticas.put("huecosRecuperados", (long) huecosRecuperados.count());
+        estadisticas.put("huecosVigilados", descartadosPublicado);
+        estadisticas.put("reconexiones", (long) reconexiones.count());
+        estadisticas.put("resincronizaciones", (long) resincronizaciones.count());
+        estadisticas.put("ultimoRetrasoMs", ultimoRetrasoMs);
+        estadisticas.put("retrasoMedioMs", retraso.mean(TimeUnit.MILLISECONDS));
+        estadisticas.put("retrasoMaximoMs", retraso.max(TimeUnit.MILLISECONDS));
+        return estadisticas;
+    }
+
+    // --- Hilo del feed ---
+
+    private void escuchar() {
+        boolean primera = true;
+        while (!detenido) {
+            try (Connection conn = DriverManager.getConnection(url, usuario, clave)) {
+                PGConnection pg = null;
+                if (postgres) {
+                    try (Statement st = conn.createStatement()) {
+                        st.execute("LISTEN " + CambioDAO.CANAL);
+                    }
+                    pg = conn.unwrap(PGConnection.class);
+                }
+                // LISTEN antes de fijar la posición: no se pierde ningún aviso entre medias
+                if (primera) {
+                    ultimoId = cambioDAO.obtenerUltimoId(conn);
+                    primera = false;
+                } else {
+                    reconexiones.increment();
+                    long desconectadoNanos = System.nanoTime() - ultimaLecturaNanos;
+                    if (desconectadoNanos > TimeUnit.MINUTES.toNanos(retencionMinutos) / 2) {
+                        resincronizar(conn);
+                    }
+                }
+                modo = pg != null ? "notificaciones" : "sondeo";
+
+                while (!detenido) {
+                    procesar(conn);
+                    if (pg != null) {
+                        pg.getNotifications((int) sondeoMs); // Hasta un NOTIFY o 'sondeo-ms' (huecos pendientes)
+                    } else {
+                        Thread.sleep(sondeoMs);
+                    }
+                }
+            } catch (SQLException e) {
+                modo = "reconectando";
+                System.err.println("Feed de cambios: conexión perdida (" + e.getMessage() + "), reintento en " + reconexionMs + " ms");
+                dormir(reconexionMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        modo = "detenido";
+    }
+
+    /**
+     * Lee los cambios nuevos (y los que llenan huecos), aplica los de otros nodos y avanza la posición.
+     */
+    private void procesar(Connection conn) throws SQLException {
+        List<Cambio> cambios = new ArrayList<>();
+
+        // 1. Huecos: ids por encima de ultimoId que aún no se han visto (transacciones sin confirmar)
+        for (long[] hueco : huecos()) {
+            for (Cambio cambio : cambioDAO.obtenerPosteriores(conn, hueco[0] - 1, (int) (hueco[1] - hueco[0] + 1))) {
+                if (cambio.getIdCambio() <= hueco[1] && vistosPosteriores.add(cambio.getIdCambio())) {
+                    cambios.add(cambio);
+                }
+            }
+        }
+
+        // 2. Huecos ya saltados: una transacción larga puede confirmar después de 'espera-huecos-ms'
+        for (long[] rango : descartadosARevisar()) {
+            for (Cambio cambio : cambioDAO.obtenerPosteriores(conn, rango[0] - 1, (int) (rango[1] - rango[0] + 1))) {
+                if (cambio.getIdCambio() <= rango[1] && descartados.remove(cambio.getIdCambio()) != null) {
+                    huecosRecuperados.increment();
+                    cambios.add(cambio);
+                }
+            }
+        }
+
+        // 3. Nuevos, en bloques de 'lote'
+        long desde = vistosPosteriores.isEmpty() ? ultimoId : Math.max(ultimoId, vistosPosteriores.last());
+        List<Cambio> bloque;
+        do {
+            bloque = cambioDAO.obtenerPosteriores(conn, desde, lote);
+            for (Cambio cambio : bloque) {
+                vistosPosteriores.add(cambio.getIdCambio());
+                cambios.add(cambio);
+                desde = cambio.getIdCambio();
+            }
+        } while (bloque.size() == lote);
+
+        aplicar(cambios);
+        avanzar();
+        ultimaLecturaNanos = System.nanoTime();
+    }
+
+    /**
+     * Rangos [desde, hasta] de ids aún no vistos entre ultimoId y el mayor visto.
+     */
+    private List<long[]> huecos() {
+        List<long[]> huecos = new ArrayList<>();
+        long esperado = ultimoId + 1;
+        for (long id : vistosPosteriores) {
+            if (id > esperado) {
+                huecos.add(new long[] { esperado, id - 1 });
+                if (huecos.size() == MAXIMO_HUECOS) {
+                    break;
+                }
+            }
+            esperado = id + 1;
+        }
+        return huecos;
+    }
+
+    /**
+     * Rangos [desde, hasta] de huecos saltados que se revisan en esta pasada (como mucho MAXIMO_HUECOS; si hay
+     * más, la siguiente pasada sigue por donde se quedó esta). Olvida los que superan la retención: sus filas,
+     * si llegaron a existir, ya se habrían purgado.
+     */
+    private List<long[]> descartadosARevisar() {
+        long caducados = System.nanoTime() - TimeUnit.MINUTES.toNanos(retencionMinutos);
+        while (!descartados.isEmpty() && descartados.firstEntry().getValue() - caducados < 0) {
+            descartados.pollFirstEntry();
+        }
+        List<long[]> rangos = new ArrayList<>();
+        agregarRangos(descartados.tailMap(siguienteDescartado, true).keySet(), rangos);
+        agregarRangos(descartados.headMap(siguienteDescartado, false).keySet(), rangos);
+        siguienteDescartado = rangos.size() == MAXIMO_HUECOS ? rangos.get(MAXIMO_HUECOS - 1)[1] + 1 : 0;
+        return rangos;
+    }
+
+    // Agrupa ids crecientes en rangos consecutivos, sin pasar de MAXIMO_HUECOS rangos
+    private static void agregarRangos(Iterable<Long> ids, List<long[]> rangos) {
+        long[] actual = null;
+        for (long id : ids) {
+            if (actual != null && id == actual[1] + 1) {
+                actual[1] = id;
+                continue;
+            }
+            if (rangos.size() == MAXIMO_HUECOS) {
+                return;
+            }
+            actual = new long[] { id, id };
+            rangos.add(actual);
+        }
+    }
+
+    /**
+     * Avanza ultimoId por los ids consecutivos ya vistos; un hueco que dura más de 'espera-huecos-ms' se da
+     * por perdido (rollback) y se salta, y sus ids pasan a 'descartados'.
+     */
+    private void avanzar() {
+        while (true) {
+            long anterior = ultimoId;
+            while (!vistosPosteriores.isEmpty() && vistosPosteriores.first() == ultimoId + 1) {
+                ultimoId = vistosPosteriores.pollFirst();
+            }
+            if (ultimoId != anterior) {
+                huecoDesdeNanos = 0;
+            }
+            if (vistosPosteriores.isEmpty()) {
+                break;
+            }
+            long ahora = System.nanoTime();
+            if (huecoDesdeNanos == 0) {
+                huecoDesdeNanos = ahora;
+                break;
+            }
+            if (ahora - huecoDesdeNanos < esperaHuecosNanos) {
+                break;
+            }
+            huecosDescartados.increment(vistosPosteriores.first() - 1 - ultimoId);
+            for (long id = ultimoId + 1; id < vistosPosteriores.first(); id++) {
+                descartados.put(id, ahora);
+            }
+            ultimoId = vistosPosteriores.first() - 1;
+        }
+        ultimoIdPublicado = ultimoId;
+        pendientesPublicado = vistosPosteriores.size();
+        descartadosPublicado = descartados.size();
+    }
+
+    /**
+     * Aplica los cambios de otros nodos. De varios cambios de la misma fila basta el último: se vuelve a
+     * leer la fila actual.
+     */
+    private void aplicar(List<Cambio> cambios) {
+        Map<String, Cambio> ultimos = new LinkedHashMap<>();
+        for (Cambio cambio : cambios) {
+            leidos.increment();
+            if (nodo.equals(cambio.getNodo())) {
+                propios.increment();
+                continue;
+            }
+            String clave = cambio.getEntidad() + ":" + cambio.getIdEntidad();
+            ultimos.remove(clave);
+            ultimos.put(clave, cambio);
+        }
+        for (Cambio cambio : ultimos.values()) {
+            try {
+                aplicar(cambio);
+                aplicados.increment();
+                if (cambio.getFecha() != null) {
+                    ultimoRetrasoMs = Math.max(0, System.currentTimeMillis() - cambio.getFecha().getTime());
+                    retraso.record(Duration.ofMillis(ultimoRetrasoMs));
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Feed de cambios: error al aplicar " + cambio + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void aplicar(Cambio cambio) {
+        int id = cambio.getIdEntidad();
+        boolean baja = CambioDAO.BAJA.equals(cambio.getOperacion());
+
+        switch (cambio.getEntidad()) {
+            case CambioDAO.PAQUETE -> {
+                Optional<PaqueteTuristico> paquete = baja ? Optional.empty()
+                    : Enrutamiento.enPrimaria(() -> repositorio.findById(id));
+                catalogoCache.invalidar(id);
+                if (paquete.isPresent()) {
+                    busqueda.guardarPaquete(paquete.get());
+                    disponibilidad.guardarPaquete(paquete.get());
+                } else {
+                    busqueda.eliminarPaquete(id);
+                    disponibilidad.eliminarPaquete(id);
+                }
+            }
+            case CambioDAO.CLIENTE -> {
+                Cliente cliente = baja ? null : Enrutamiento.enPrimaria(() -> clienteDAO.obtenerPorId(id));
+                if (cliente != null) {
+                    clienteDAO.notificarGuardado(cliente);
+                } else {
+                    clienteDAO.notificarEliminado(id);
+                }
+            }
+            case CambioDAO.RESERVA -> {
+                Reserva reserva = baja ? null : Enrutamiento.enPrimaria(() -> reservaDAO.obtenerPorId(id));
+                if (!CambioDAO.ALTA.equals(cambio.getOperacion())) {
+                    reservaDAO.notificarExterna(id, reserva);
+                } else if (reserva != null) {
+                    reservaDAO.notificarInsertadas(List.of(reserva));
+                }
+            }
+            case CambioDAO.CUPO -> cupoDAO.notificarCambiados(Enrutamiento.enPrimaria(() -> cupoDAO.obtenerPorPaquete(id)));
+            default -> {
+                // Entidad desconocida (nodo con una versión más nueva): la recogen las reconciliaciones
+            }
+        }
+    }
+
+    /**
+     * Tras una desconexión más larga que la retención: se invalida y reconstruye todo lo que está en memoria
+     * y se continúa desde el último cambio actual.
+     */
+    private void resincronizar(Connection conn) throws SQLException {
+        System.err.println("Feed de cambios: desconexión más larga que la retención, se resincroniza todo.");
+        resincronizaciones.increment();
+        ultimoId = cambioDAO.obtenerUltimoId(conn);
+        vistosPosteriores.clear();
+        descartados.clear();
+        siguienteDescartado = 0;
+        huecoDesdeNanos = 0;
+
+        catalogoCache.invalidarTodo();
+        clientes.invalidarTodo();
+        busqueda.reconstruir();
+        disponibilidad.reconciliar();
+        reservaDAO.notificarCambioMasivo();
+    }
+
+    private void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            detenido = true;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.sgrpt.servicio;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sgrpt.dao.ClienteDAO;
+import com.sgrpt.modelo.Cliente;
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.modelo.ResultadoFila;
+import com.sgrpt.modelo.ResultadoLote;
+import com.sgrpt.modelo.ResultadoReserva;
+import com.sgrpt.modelo.ResumenImportacion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// [Comentario]: Importación masiva en streaming. El archivo se lee línea a línea y se envía a la
+//               base de datos en bloques (insertarLote), así que nunca está completo en memoria.
+//               Las reservas ocupan plazas: cada bloque pasa por el motor de cupos (CupoService.reservarLote),
+//               igual que POST /reservas. Una fila sin cupo en su salida se rechaza, no se inserta sin descontar.
+@Service
+public class ImportacionService {
+
+    public enum Formato { CSV, NDJSON }
+
+    @Autowired
+    private CupoService cupos;
+
+    @Autowired
+    private ClienteDAO clienteDAO;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // [Comentario]: Filas por bloque (un executeBatch y una transacción por bloque).
+    @Value("${sgrpt.lote.tamano:500}")
+    private int tamanoBloque;
+
+    /**
+     * Importa reservas. CSV: fechaReserva,estado,idCliente,idPaquete,numPersonas,totalPagar
+     */
+    public ResumenImportacion importarReservas(InputStream entrada, Formato formato) throws IOException {
+        Function<String, Reserva> parser = formato == Formato.NDJSON
+            ? linea -> leerJson(linea, Reserva.class)
+            : linea -> {
+                String[] c = dividirCsv(linea, 6);
+                return new Reserva(Date.valueOf(c[0]), c[1], Integer.parseInt(c[2]), Integer.parseInt(c[3]),
+                                   Integer.parseInt(c[4]), Double.parseDouble(c[5]));
+            };
+        return importar(entrada, formato, "fechaReserva", parser, this::reservarLote);
+    }
+
+    // [Comentario]: Un bloque de reservas en una transacción del motor de cupos (descuento + INSERT), con el
+    //               resultado de cada fila en el formato de insertarLote. 'tamanoBloque' ya lo aplica importar().
+    private ResultadoLote reservarLote(List<Reserva> reservas, int tamanoBloque) {
+        ResultadoLote resultado = new ResultadoLote();
+        List<ResultadoReserva> admisiones = cupos.reservarLote(reservas);
+        for (int i = 0; i < admisiones.size(); i++) {
+            ResultadoReserva admision = admisiones.get(i);
+            resultado.agregar(admision.getEstado() == ResultadoReserva.Estado.ACEPTADA
+                ? ResultadoFila.ok(i, admision.getReserva().getIdReserva())
+                : ResultadoFila.fallo(i, admision.getEstado() + ": " + admision.getMensaje()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Importa clientes. CSV: nombre,apellido,email,telefono,identificacion
+     */
+    public ResumenImportacion importarClientes(InputStream entrada, Formato formato) throws IOException {
+        Function<String, Cliente> parser = formato == Formato.NDJSON
+            ? linea -> leerJson(linea, Cliente.class)
+            : linea -> {
+                String[] c = dividirCsv(linea, 5);
+                return new Cliente(c[0], c[1], c[2], c[3], c[4]);
+            };
+        return importar(entrada, formato, "nombre", parser, clienteDAO::insertarLote);
+    }
+
+    @FunctionalInterface
+    private interface InsertorLote<T> {
+        ResultadoLote insertarLote(List<T> elementos, int tamanoBloque);
+    }
+
+    private <T> ResumenImportacion importar(InputStream entrada, Formato formato, String primeraColumna,
+                                            Function<String, T> parser, InsertorLote<T> insertor) throws IOException {
+        long inicio = System.currentTimeMillis();
+        ResumenImportacion resumen = new ResumenImportacion();
+        List<T> bloque = new ArrayList<>(tamanoBloque);
+        List<Integer> lineasBloque = new ArrayList<>(tamanoBloque);
+
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        String linea;
+        int numeroLinea = 0;
+        while ((linea = lector.readLine()) != null) {
+            numeroLinea++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            // La cabecera CSV es opcional
+            if (numeroLinea == 1 && formato == Formato.CSV && linea.startsWith(primeraColumna)) {
+                continue;
+            }
+            resumen.sumarLeida();
+            try {
+                bloque.add(parser.apply(linea));
+                lineasBloque.add(numeroLinea);
+            } catch (RuntimeException e) {
+                resumen.registrarFallo(ResultadoFila.fallo(numeroLinea, "Línea inválida: " + e.getMessage()));
+            }
+            if (bloque.size() >= tamanoBloque) {
+                enviarBloque(bloque, lineasBloque, insertor, resumen);
+            }
+        }
+        enviarBloque(bloque, lineasBloque, insertor, resumen);
+
+        resumen.setDuracionMs(System.currentTimeMillis() - inicio);
+        return resumen;
+    }
+
+    private <T> void enviarBloque(List<T> bloque, List<Integer> lineasBloque, InsertorLote<T> insertor,
+                                  ResumenImportacion resumen) {
+        if (bloque.isEmpty()) {
+            return;
+        }
+        ResultadoLote resultado = insertor.insertarLote(bloque, tamanoBloque);
+        resumen.sumarInsertadas(resultado.getExitosas());
+        for (ResultadoFila fila : resultado.getFilas()) {
+            if (!fila.isExito()) {
+                // El índice del lote se traduce al número de línea del archivo
+                fila.setIndice(lineasBloque.get(fila.getIndice()));
+                resumen.registrarFallo(fila);
+            }
+        }
+        bloque.clear();
+        lineasBloque.clear();
+    }
+
+    private <T> T leerJson(String linea, Class<T> tipo) {
+        try {
+            return objectMapper.readValue(linea, tipo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Divide una línea CSV respetando campos entre comillas ("a,b" y comillas dobles escapadas "").
+     */
+    static String[] dividirCsv(String linea, int columnas) {
+        String[] campos = new String[columnas];
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        int indice = 0;
+
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                if (indice >= columnas - 1) {
+                    throw new IllegalArgumentException("se esperaban " + columnas + " columnas");
+                }
+                campos[indice++] = actual.toString().trim();
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos[indice++] = actual.toString().trim();
+        if (indice != columnas) {
+            throw new IllegalArgumentException("se esperaban " + columnas + " columnas");
+        }
+        return campos;
+    }
+}
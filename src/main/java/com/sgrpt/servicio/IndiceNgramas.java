@@ -0,0 +1,397 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.modelo.Coincidencia;
+import com.sgrpt.modelo.Pagina;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+// [Comentario]: Índice invertido de n-gramas en memoria para búsquedas de texto (autocompletado).
+//               - El texto se normaliza (minúsculas, sin tildes) y se parte en palabras. De cada palabra se
+//                 indexan: sus prefijos hasta LARGO_PREFIJO letras (^j, ^ju, ^jua, ^juan), la palabra completa
+//                 (=juan) y sus trigramas interiores (jua, uan). Las palabras con dígitos no indexan la palabra
+//                 completa y sus prefijos son más cortos: son casi todas distintas y cada clave única cuesta
+//                 memoria sin mejorar la selectividad.
+//               - Cada clave apunta a una lista de enteros (posiciones de documento), no a objetos. Las
+//                 posiciones se asignan en orden creciente, así que las listas están siempre ordenadas.
+//               - Búsqueda por prefijo: intersección de las listas de prefijo de cada palabra buscada (se
+//                 recorre la más corta y se buscan sus posiciones en las demás), sin contar n-gramas.
+//               - Búsqueda difusa (tolera erratas): cuenta los trigramas en común de cada documento y acepta
+//                 los que comparten al menos UMBRAL_DIFUSO de los de la consulta.
+//               - Relevancia: palabras idénticas (no solo prefijo) primero; a igual relevancia, orden de
+//                 indexación (al construir desde la tabla coincide con el orden de id).
+//               - Altas, cambios y bajas son incrementales. Una baja deja la posición vacía (no se borra
+//                 de las listas); cuando las vacías superan a las vivas se compacta el índice.
+public final class IndiceNgramas<T> {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    private static final char INICIO = '^';
+    private static final char COMPLETA = '=';
+
+    // Caracteres de prefijo indexados (menos en palabras con dígitos, casi siempre únicas: documentos,
+    // números de email...); los prefijos más largos se verifican sobre el texto
+    private static final int LARGO_PREFIJO = 6;
+    private static final int LARGO_PREFIJO_NUMERICO = 4;
+    // Proporción mínima de trigramas en común para una coincidencia difusa
+    private static final double UMBRAL_DIFUSO = 0.5;
+    // Bajas acumuladas a partir de las cuales se considera compactar
+    private static final int MINIMO_PARA_COMPACTAR = 10_000;
+
+    // [Comentario]: Lista ordenada de posiciones (array que crece al doble, sin objetos Integer).
+    private static final class Lista {
+        int[] posiciones = new int[4];
+        int tamano;
+
+        void agregar(int posicion) {
+            if (tamano == posiciones.length) {
+                posiciones = Arrays.copyOf(posiciones, tamano * 2);
+            }
+            posiciones[tamano++] = posicion;
+        }
+
+        boolean contiene(int posicion) {
+            return Arrays.binarySearch(posiciones, 0, tamano, posicion) >= 0;
+        }
+    }
+
+    private static final Lista VACIA = new Lista();
+
+    private final ToIntFunction<T> identificador;
+    private final Function<T, String[]> campos;
+
+    private final Map<String, Lista> listas = new HashMap<>();
+    private final Map<Integer, Integer> posicionPorId = new HashMap<>();
+    private Object[] elementos = new Object[1024];
+    private String[] textos = new String[1024]; // Texto normalizado de cada documento (para verificar prefijos largos)
+    private int siguientePosicion;
+    private int eliminados;
+
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+
+    /**
+     * @param identificador clave única del elemento (idCliente, idPaquete...)
+     * @param campos        textos del elemento que se indexan
+     */
+    public IndiceNgramas(ToIntFunction<T> identificador, Function<T, String[]> campos) {
+        this.identificador = identificador;
+        this.campos = campos;
+    }
+
+    /**
+     * Indexa el elemento; si ya había uno con el mismo identificador, lo sustituye.
+     */
+    public void guardar(T elemento) {
+        String texto = normalizar(String.join(" ", noNulos(campos.apply(elemento))));
+        candado.writeLock().lock();
+        try {
+            Integer anterior = posicionPorId.get(identificador.applyAsInt(elemento));
+            if (anterior != null) {
+                vaciar(anterior);
+            }
+            agregarDocumento(elemento, texto);
+            compactarSiConviene();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita el elemento con ese identificador (si estaba).
+     */
+    public void eliminar(int id) {
+        candado.writeLock().lock();
+        try {
+            Integer posicion = posicionPorId.remove(id);
+            if (posicion != null) {
+                vaciar(posicion);
+                compactarSiConviene();
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    public int tamano() {
+        candado.readLock().lock();
+        try {
+            return posicionPorId.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los elementos que coinciden con 'consulta', ordenados por relevancia. Paginación por
+     * desplazamiento: el cursor de la página siguiente es 'desde + limite'.
+     */
+    public Pagina<Coincidencia<T>> buscar(String consulta, boolean difusa, int desde, int limite) {
+        List<String> palabras = palabras(normalizar(consulta));
+        if (palabras.isEmpty()) {
+            return new Pagina<>(List.of(), limite, null);
+        }
+        // Los 'desde + limite + 1' mejores: el elemento extra indica si hay página siguiente
+        int necesarios = desde + limite + 1;
+        List<Coincidencia<T>> mejores;
+        candado.readLock().lock();
+        try {
+            // Con palabras de una o dos letras no hay trigramas: la búsqueda difusa equivale a la de prefijo
+            boolean conTrigramas = palabras.stream().anyMatch(palabra -> palabra.length() > 2);
+            mejores = difusa && conTrigramas ? buscarDifusa(palabras, necesarios) : buscarPrefijo(palabras, necesarios);
+        } finally {
+            candado.readLock().unlock();
+        }
+        List<Coincidencia<T>> pagina = mejores.subList(Math.min(desde, mejores.size()), Math.min(mejores.size(), desde + limite));
+        Integer siguiente = mejores.size() > desde + limite ? desde + limite : null;
+        return new Pagina<>(new ArrayList<>(pagina), limite, siguiente);
+    }
+
+    // [Comentario]: Documentos en los que cada palabra buscada es prefijo de alguna de sus palabras.
+    //               Se agrupan por número de palabras idénticas (nivel) y de cada nivel solo se guardan
+    //               los primeros 'necesarios', así que no hace falta ordenar todas las coincidencias.
+    @SuppressWarnings("unchecked")
+    private List<Coincidencia<T>> buscarPrefijo(List<String> palabras, int necesarios) {
+        Lista[] prefijos = new Lista[palabras.size()];
+        Lista[] completas = new Lista[palabras.size()];
+        boolean verificar = false;
+        for (int i = 0; i < palabras.size(); i++) {
+            String palabra = palabras.get(i);
+            int largo = largoPrefijo(palabra);
+            prefijos[i] = listas.getOrDefault(INICIO + palabra.substring(0, Math.min(palabra.length(), largo)), VACIA);
+            completas[i] = listas.getOrDefault(COMPLETA + palabra, VACIA);
+            verificar |= palabra.length() > largo;
+        }
+        List<String> trasEspacio = palabras.stream().map(palabra -> " " + palabra).toList();
+        Lista[] ordenadas = prefijos.clone();
+        Arrays.sort(ordenadas, Comparator.comparingInt((Lista lista) -> lista.tamano));
+
+        List<List<Integer>> niveles = new ArrayList<>();
+        for (int i = 0; i <= palabras.size(); i++) {
+            niveles.add(new ArrayList<>());
+        }
+        Lista menor = ordenadas[0];
+        candidatos:
+        for (int i = 0; i < menor.tamano; i++) {
+            int posicion = menor.posiciones[i];
+            if (elementos[posicion] == null) {
+                continue;
+            }
+            for (int j = 1; j < ordenadas.length; j++) {
+                if (!ordenadas[j].contiene(posicion)) {
+                    continue candidatos;
+                }
+            }
+            if (verificar && !sonPrefijos(palabras, trasEspacio, textos[posicion])) {
+                continue;
+            }
+            int exactas = 0;
+            for (Lista completa : completas) {
+                if (completa.contiene(posicion)) {
+                    exactas++;
+                }
+            }
+            List<Integer> nivel = niveles.get(exactas);
+            if (nivel.size() < necesarios) {
+                nivel.add(posicion);
+            }
+        }
+
+        List<Coincidencia<T>> resultado = new ArrayList<>();
+        for (int exactas = palabras.size(); exactas >= 0 && resultado.size() < necesarios; exactas--) {
+            for (int posicion : niveles.get(exactas)) {
+                if (resultado.size() == necesarios) {
+                    break;
+                }
+                resultado.add(new Coincidencia<>((T) elementos[posicion], 1 + exactas * 0.1));
+            }
+        }
+        return resultado;
+    }
+
+    // [Comentario]: Puntuación = proporción de trigramas de la consulta presentes (0..1) + 0.1 por palabra idéntica.
+    @SuppressWarnings("unchecked")
+    private List<Coincidencia<T>> buscarDifusa(List<String> palabras, int necesarios) {
+        Set<String> gramas = new LinkedHashSet<>();
+        List<Lista> completas = new ArrayList<>();
+        for (String palabra : palabras) {
+            gramas.addAll(gramasDifusos(palabra));
+            completas.add(listas.getOrDefault(COMPLETA + palabra, VACIA));
+        }
+        int minimo = Math.max(1, (int) Math.ceil(gramas.size() * UMBRAL_DIFUSO));
+
+        // Cuenta, por documento, cuántos trigramas de la consulta contiene
+        int[] cuentas = new int[siguientePosicion];
+        Lista tocados = new Lista();
+        for (String grama : gramas) {
+            Lista lista = listas.getOrDefault(grama, VACIA);
+            for (int i = 0; i < lista.tamano; i++) {
+                int posicion = lista.posiciones[i];
+                if (cuentas[posicion]++ == 0) {
+                    tocados.agregar(posicion);
+                }
+            }
+        }
+
+        // Montículo con los 'necesarios' mejores: en la cabeza el peor (menor puntuación, posición más alta)
+        Comparator<double[]> orden = Comparator.comparingDouble((double[] c) -> c[0]).thenComparingDouble(c -> -c[1]);
+        PriorityQueue<double[]> mejores = new PriorityQueue<>(orden);
+        for (int i = 0; i < tocados.tamano; i++) {
+            int posicion = tocados.posiciones[i];
+            if (cuentas[posicion] < minimo || elementos[posicion] == null) {
+                continue;
+            }
+            double puntuacion = (double) cuentas[posicion] / gramas.size();
+            for (Lista completa : completas) {
+                if (completa.contiene(posicion)) {
+                    puntuacion += 0.1;
+                }
+            }
+            if (mejores.size() < necesarios) {
+                mejores.add(new double[] { puntuacion, posicion });
+            } else if (orden.compare(new double[] { puntuacion, posicion }, mejores.peek()) > 0) {
+                mejores.poll();
+                mejores.add(new double[] { puntuacion, posicion });
+            }
+        }
+
+        List<double[]> ordenados = new ArrayList<>(mejores);
+        ordenados.sort(orden.reversed());
+        List<Coincidencia<T>> resultado = new ArrayList<>(ordenados.size());
+        for (double[] candidato : ordenados) {
+            resultado.add(new Coincidencia<>((T) elementos[(int) candidato[1]], candidato[0]));
+        }
+        return resultado;
+    }
+
+    // Cada palabra buscada es prefijo de alguna palabra del texto (al principio o tras un espacio)
+    private static boolean sonPrefijos(List<String> palabras, List<String> trasEspacio, String texto) {
+        for (int i = 0; i < palabras.size(); i++) {
+            if (!texto.startsWith(palabras.get(i)) && !texto.contains(trasEspacio.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --- Mantenimiento (con el candado de escritura) ---
+
+    private void agregarDocumento(T elemento, String texto) {
+        if (siguientePosicion == elementos.length) {
+            elementos = Arrays.copyOf(elementos, elementos.length * 2);
+            textos = Arrays.copyOf(textos, textos.length * 2);
+        }
+        int posicion = siguientePosicion++;
+        elementos[posicion] = elemento;
+        textos[posicion] = texto;
+        posicionPorId.put(identificador.applyAsInt(elemento), posicion);
+
+        Set<String> claves = new HashSet<>();
+        for (String palabra : palabras(texto)) {
+            for (int largo = 1; largo <= Math.min(palabra.length(), largoPrefijo(palabra)); largo++) {
+                claves.add(INICIO + palabra.substring(0, largo));
+            }
+            if (!tieneDigitos(palabra)) {
+                claves.add(COMPLETA + palabra);
+            }
+            claves.addAll(gramasDifusos(palabra));
+        }
+        for (String clave : claves) {
+            listas.computeIfAbsent(clave, c -> new Lista()).agregar(posicion);
+        }
+    }
+
+    private void vaciar(int posicion) {
+        elementos[posicion] = null;
+        textos[posicion] = null;
+        eliminados++;
+    }
+
+    // Reconstruye las listas solo con los documentos vivos cuando las posiciones vacías dominan
+    @SuppressWarnings("unchecked")
+    private void compactarSiConviene() {
+        if (eliminados < MINIMO_PARA_COMPACTAR || eliminados < siguientePosicion / 2) {
+            return;
+        }
+        Object[] vivos = Arrays.copyOf(elementos, siguientePosicion);
+        String[] textosVivos = Arrays.copyOf(textos, siguientePosicion);
+        listas.clear();
+        posicionPorId.clear();
+        elementos = new Object[Math.max(1024, siguientePosicion - eliminados)];
+        textos = new String[elementos.length];
+        siguientePosicion = 0;
+        eliminados = 0;
+        for (int i = 0; i < vivos.length; i++) {
+            if (vivos[i] != null) {
+                agregarDocumento((T) vivos[i], textosVivos[i]);
+            }
+        }
+    }
+
+    // --- Texto ---
+
+    /**
+     * Minúsculas, sin tildes ni diacríticos y con un solo espacio entre palabras.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(sinMarcas.toLowerCase()).replaceAll(" ").trim();
+    }
+
+    /**
+     * Solo letras y dígitos, sin separadores ("1-234-567" -> "1234567"), para indexar identificaciones.
+     */
+    public static String compactar(String texto) {
+        return normalizar(texto).replace(" ", "");
+    }
+
+    private static int largoPrefijo(String palabra) {
+        return tieneDigitos(palabra) ? LARGO_PREFIJO_NUMERICO : LARGO_PREFIJO;
+    }
+
+    private static boolean tieneDigitos(String palabra) {
+        for (int i = 0; i < palabra.length(); i++) {
+            if (Character.isDigit(palabra.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> palabras(String normalizado) {
+        return normalizado.isEmpty() ? List.of() : Arrays.asList(normalizado.split(" "));
+    }
+
+    // Trigramas de ^palabra: "juan" -> ^ju, jua, uan (^ju es también la clave de prefijo). Una palabra
+    // de una letra solo tiene ^j.
+    private static List<String> gramasDifusos(String palabra) {
+        String marcada = INICIO + palabra;
+        if (marcada.length() < 3) {
+            return List.of(marcada);
+        }
+        List<String> gramas = new ArrayList<>(marcada.length() - 2);
+        for (int i = 0; i + 3 <= marcada.length(); i++) {
+            gramas.add(marcada.substring(i, i + 3));
+        }
+        return gramas;
+    }
+
+    private static String[] noNulos(String[] valores) {
+        return Arrays.stream(valores).map(valor -> valor == null ? "" : valor).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,223 @@
+package com.sgrpt.servicio;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sgrpt.modelo.EstadoIngreso;
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.modelo.ResultadoReserva;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// [Comentario]: Ingreso asíncrono de reservas (write-behind con group commit).
+//               - La petición solo valida y encola (cola acotada): responde 202 con un id de seguimiento
+//                 sin esperar a la base de datos. Si la cola está llena se rechaza (contrapresión, 503).
+//               - Unos pocos hilos escritores vacían la cola en lotes y los admiten con
+//                 CupoService.reservarLote: una transacción y un commit por lote, no por reserva.
+//               - La garantía de no sobreventa sigue siendo la del motor de cupos; una reserva encolada
+//                 puede terminar RECHAZADA si al escribirse ya no queda cupo.
+//               - Al apagar se deja de aceptar y se escribe todo lo pendiente antes de cerrar el pool
+//                 (@DependsOn: Spring destruye este servicio antes que ConexionDB y su DataSource). El cierre
+//                 toma el candado de escritura: ninguna reserva entra en la cola después de que los escritores
+//                 puedan darla por vacía.
+//               - Los estados PENDIENTE no caducan ni se desalojan (su número lo acota la cola); solo los
+//                 finales (CONFIRMADA, RECHAZADA) van a la caché acotada por tamaño y retención.
+@Service
+@DependsOn("conexionDB")
+public class IngresoReservasService {
+
+    // [Comentario]: Elemento de la cola: la reserva y su id de seguimiento.
+    private record Pendiente(String id, Reserva reserva) { }
+
+    private final CupoService cupos;
+    private final BlockingQueue<Pendiente> cola;
+    private final int tamanoLote;
+    private final int numEscritores;
+    private final List<Thread> escritores = new ArrayList<>();
+    private final Map<String, EstadoIngreso> pendientes = new ConcurrentHashMap<>(); // Encolados o escribiéndose
+    private final Cache<String, EstadoIngreso> estados;                             // Finales
+
+    // Lectura: encolar (concurrente); escritura: detener (deja de aceptar)
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+    private volatile boolean aceptando = true;
+
+    private final Counter recibidas;
+    private final Counter rechazadasCola;
+    private final DistributionSummary tamanoLotes;
+
+    @Autowired
+    public IngresoReservasService(CupoService cupos,
+                                  @Value("${sgrpt.ingreso.capacidad-cola:10000}") int capacidadCola,
+                                  @Value("${sgrpt.ingreso.tamano-lote:200}") int tamanoLote,
+                                  @Value("${sgrpt.ingreso.escritores:2}") int numEscritores,
+                                  @Value("${sgrpt.ingreso.retencion-estados-minutos:30}") long retencionMinutos) {
+        this.cupos = cupos;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.tamanoLote = tamanoLote;
+        this.numEscritores = numEscritores;
+        // Estados finales acotados: se olvidan pasado el tiempo de retención
+        this.estados = Caffeine.newBuilder()
+            .maximumSize(Math.max(100_000L, 2L * capacidadCola))
+            .expireAfterWrite(Duration.ofMinutes(retencionMinutos))
+            .build();
+
+        Gauge.builder("sgrpt.ingreso.cola", cola, BlockingQueue::size)
+             .description("Reservas encoladas pendientes de escribir")
+             .register(Metrics.globalRegistry);
+        this.recibidas = Counter.builder("sgrpt.ingreso.recibidas").register(Metrics.globalRegistry);
+        this.rechazadasCola = Counter.builder("sgrpt.ingreso.cola.llena").register(Metrics.globalRegistry);
+        this.tamanoLotes = DistributionSummary.builder("sgrpt.ingreso.lote").register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Arranca los hilos escritores, una vez construido el servicio (simétrico de detener()).
+     */
+    @PostConstruct
+    public void iniciar() {
+        for (int i = 0; i < numEscritores; i++) {
+            Thread escritor = new Thread(this::escribir, "sgrpt-ingreso-" + i);
+            escritor.setDaemon(true);
+            escritor.start();
+            escritores.add(escritor);
+        }
+    }
+
+    /**
+     * Encola la reserva. Devuelve su estado PENDIENTE con el id de seguimiento,
+     * o null si la cola está llena (o el servicio se está apagando).
+     */
+    public EstadoIngreso encolar(Reserva reserva) {
+        candado.readLock().lock();
+        try {
+            if (!aceptando) {
+                return null;
+            }
+            String id = UUID.randomUUID().toString();
+            EstadoIngreso estado = new EstadoIngreso(id, EstadoIngreso.Estado.PENDIENTE, null, null);
+            pendientes.put(id, estado);
+            if (!cola.offer(new Pendiente(id, reserva))) {
+                pendientes.remove(id);
+                rechazadasCola.increment();
+                return null;
+            }
+            recibidas.increment();
+            return estado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estado actual del ingreso, o null si no existe (o ya caducó).
+     */
+    public EstadoIngreso obtenerEstado(String id) {
+        EstadoIngreso pendiente = pendientes.get(id);
+        return pendiente != null ? pendiente : estados.getIfPresent(id);
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("enCola", cola.size());
+        estadisticas.put("pendientes", pendientes.size());
+        estadisticas.put("capacidadLibre", cola.remainingCapacity());
+        estadisticas.put("recibidas", (long) recibidas.count());
+        estadisticas.put("rechazadasColaLlena", (long) rechazadasCola.count());
+        estadisticas.put("lotes", tamanoLotes.count());
+        estadisticas.put("tamanoLotePromedio", tamanoLotes.mean());
+        return estadisticas;
+    }
+
+    // [Comentario]: Bucle de cada escritor: espera la primera reserva y se lleva de paso todas las que ya
+    //               estén en cola (hasta tamanoLote). Con poca carga los lotes son pequeños (baja latencia);
+    //               con mucha carga se llenan solos y el coste del commit se reparte.
+    private void escribir() {
+        List<Pendiente> lote = new ArrayList<>(tamanoLote);
+        while (aceptando || !cola.isEmpty()) {
+            try {
+                Pendiente primera = cola.poll(200, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+                cola.drainTo(lote, tamanoLote - 1);
+                procesar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("Error en el escritor de reservas: " + e.getMessage());
+                for (Pendiente pendiente : lote) {
+                    actualizar(pendiente.id(), EstadoIngreso.Estado.RECHAZADA, null, e.getMessage());
+                }
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void procesar(List<Pendiente> lote) {
+        List<Reserva> reservas = new ArrayList<>(lote.size());
+        for (Pendiente pendiente : lote) {
+            reservas.add(pendiente.reserva());
+        }
+        List<ResultadoReserva> resultados = cupos.reservarLote(reservas);
+        tamanoLotes.record(lote.size());
+
+        for (int i = 0; i < lote.size(); i++) {
+            ResultadoReserva resultado = resultados.get(i);
+            if (resultado.getEstado() == ResultadoReserva.Estado.ACEPTADA) {
+                actualizar(lote.get(i).id(), EstadoIngreso.Estado.CONFIRMADA, resultado.getReserva().getIdReserva(), null);
+            } else {
+                actualizar(lote.get(i).id(), EstadoIngreso.Estado.RECHAZADA, null, resultado.getMensaje());
+            }
+        }
+    }
+
+    // Pasa el ingreso a un estado final: primero a la caché y luego fuera de 'pendientes', para que una
+    // consulta simultánea lo encuentre siempre en uno de los dos
+    private void actualizar(String id, EstadoIngreso.Estado estado, Integer idReserva, String mensaje) {
+        estados.put(id, new EstadoIngreso(id, estado, idReserva, mensaje));
+        pendientes.remove(id);
+    }
+
+    /**
+     * Apagado ordenado: deja de aceptar y espera a que los escritores vacíen la cola.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        // Espera a los encolar() en curso: lo que ya ofrecieron está en la cola antes de que los escritores
+        // vean aceptando = false
+        candado.writeLock().lock();
+        try {
+            aceptando = false;
+        } finally {
+            candado.writeLock().unlock();
+        }
+        for (Thread escritor : escritores) {
+            escritor.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        if (!cola.isEmpty()) {
+            System.err.println("Apagado con " + cola.size() + " reservas sin escribir.");
+        }
+    }
+}
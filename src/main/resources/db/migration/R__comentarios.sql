@@ -0,0 +1,11 @@
+-- Descripción de las tablas en el propio esquema (migración repetible: se vuelve a aplicar si cambia).
+COMMENT ON TABLE paquesturistico IS 'Catálogo de paquetes turísticos (JPA: PaqueteTuristico)';
+COMMENT ON TABLE cliente IS 'Clientes (ClienteDAO). identificacion es única';
+COMMENT ON TABLE reserva IS 'Reservas (ReservaDAO). Las plazas se descuentan de cupo_paquete';
+COMMENT ON TABLE cupo_paquete IS 'Plazas por paquete y fecha de salida (CupoDAO)';
+COMMENT ON COLUMN cliente.version IS 'Control optimista: sube en cada UPDATE; es el ETag de la fila';
+COMMENT ON COLUMN reserva.version IS 'Control optimista: sube en cada UPDATE; es el ETag de la fila';
+COMMENT ON COLUMN paquesturistico.version IS 'Control optimista (@Version de Hibernate); es el ETag del paquete';
+COMMENT ON COLUMN cupo_paquete.disponibles IS 'Plazas libres: nunca negativas ni mayores que capacidad';
+COMMENT ON TABLE cambio IS 'Registro de cambios (outbox) para la invalidación entre nodos (CambioDAO, FeedCambios)';
+COMMENT ON COLUMN cambio.nodo IS 'Nodo que hizo la escritura: ese nodo ya aplicó el cambio y lo ignora al leerlo';
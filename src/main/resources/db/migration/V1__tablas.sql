@@ -0,0 +1,54 @@
+-- Tablas del módulo. En una base creada antes de las migraciones (Hibernate ddl-auto + schema.sql) ya
+-- existen: Flyway la toma como línea base (versión 0) y esta migración solo añade lo que falte.
+
+-- Catálogo (entidad PaqueteTuristico, JPA)
+CREATE TABLE IF NOT EXISTS paquesturistico (
+    id_paquete    INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre        VARCHAR(255),
+    descripcion   VARCHAR(255),
+    destino       VARCHAR(255),
+    duracion_dias INTEGER,
+    precio        DOUBLE PRECISION,
+    version       BIGINT NOT NULL DEFAULT 0
+);
+
+-- Clientes y reservas (ClienteDAO / ReservaDAO)
+CREATE TABLE IF NOT EXISTS cliente (
+    idcliente      SERIAL PRIMARY KEY,
+    nombre         VARCHAR(100),
+    apellido       VARCHAR(100),
+    email          VARCHAR(150),
+    telefono       VARCHAR(30),
+    identificacion VARCHAR(30),
+    version        BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS reserva (
+    idreserva    SERIAL PRIMARY KEY,
+    fechareserva DATE,
+    estado       VARCHAR(20),
+    idcliente    INTEGER,
+    idpaquete    INTEGER,
+    numpersonas  INTEGER,
+    totalpagar   DOUBLE PRECISION,
+    version      BIGINT NOT NULL DEFAULT 0
+);
+
+-- Versión de cada fila (control de concurrencia optimista: UPDATE ... WHERE version = ?, ETag / If-Match).
+-- Bases anteriores a la columna: se añade; en paquesturistico la creaba Hibernate sin valor por defecto.
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE reserva ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE paquesturistico ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE paquesturistico SET version = 0 WHERE version IS NULL;
+ALTER TABLE paquesturistico ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE paquesturistico ALTER COLUMN version SET NOT NULL;
+
+-- Cupo de plazas por paquete y fecha de salida (CupoDAO)
+CREATE TABLE IF NOT EXISTS cupo_paquete (
+    id_paquete   INTEGER NOT NULL REFERENCES paquesturistico (id_paquete) ON DELETE CASCADE,
+    fecha_salida DATE    NOT NULL,
+    capacidad    INTEGER NOT NULL CHECK (capacidad >= 0),
+    disponibles  INTEGER NOT NULL CHECK (disponibles >= 0 AND disponibles <= capacidad),
+    version      BIGINT  NOT NULL DEFAULT 0,
+    PRIMARY KEY (id_paquete, fecha_salida)
+);
@@ -0,0 +1,18 @@
+-- Índices de los caminos de acceso. Los de reserva incluyen idreserva para servir el ORDER BY y la
+-- paginación keyset (idreserva > ?) sin ordenar.
+
+-- Cliente: alta sin duplicados y búsqueda por identificación (única), búsqueda por email
+CREATE UNIQUE INDEX IF NOT EXISTS idx_cliente_identificacion ON cliente (identificacion);
+CREATE INDEX IF NOT EXISTS idx_cliente_email ON cliente (email);
+
+-- Reserva: por cliente (GET /clientes/{id}/reservas, detalle por cliente), por paquete
+-- (GET /reservas?idPaquete=) y por rango de fechas (exportaciones)
+CREATE INDEX IF NOT EXISTS idx_reserva_cliente ON reserva (idcliente, idreserva);
+CREATE INDEX IF NOT EXISTS idx_reserva_paquete ON reserva (idpaquete, idreserva);
+CREATE INDEX IF NOT EXISTS idx_reserva_fecha ON reserva (fechareserva);
+
+-- Catálogo: filtros y orden de GET /api/v1/paquetes (antes los creaba Hibernate desde @Table(indexes))
+CREATE INDEX IF NOT EXISTS idx_paquete_destino_precio ON paquesturistico (destino, precio);
+CREATE INDEX IF NOT EXISTS idx_paquete_nombre ON paquesturistico (nombre);
+CREATE INDEX IF NOT EXISTS idx_paquete_precio ON paquesturistico (precio);
+CREATE INDEX IF NOT EXISTS idx_paquete_duracion ON paquesturistico (duracion_dias);
@@ -0,0 +1,9 @@
+-- Integridad de las reservas: cliente y paquete deben existir. Borrar un cliente o un paquete con
+-- reservas se rechaza (los DAO lo devuelven como EN_USO, 409).
+-- Si la base tiene reservas huérfanas esta migración falla y no se aplica. Para localizarlas:
+--   SELECT r.* FROM reserva r LEFT JOIN cliente c ON c.idcliente = r.idcliente WHERE c.idcliente IS NULL;
+--   SELECT r.* FROM reserva r LEFT JOIN paquesturistico p ON p.id_paquete = r.idpaquete WHERE p.id_paquete IS NULL;
+ALTER TABLE reserva ADD CONSTRAINT fk_reserva_cliente
+    FOREIGN KEY (idcliente) REFERENCES cliente (idcliente);
+ALTER TABLE reserva ADD CONSTRAINT fk_reserva_paquete
+    FOREIGN KEY (idpaquete) REFERENCES paquesturistico (id_paquete);
@@ -0,0 +1,16 @@
+-- Registro de cambios (outbox) para invalidar cachés e índices en memoria de los demás nodos. Cada escritura
+-- de paquetes, clientes, reservas y cupos añade aquí una fila EN SU MISMA TRANSACCIÓN (CambioDAO.registrar):
+-- si la escritura se revierte, el cambio también. FeedCambios lee las filas nuevas en orden de id_cambio
+-- (avisado por LISTEN/NOTIFY en PostgreSQL o por sondeo) y las que llegan tras una desconexión se reproducen
+-- desde la última aplicada. Las filas más antiguas que la retención se purgan periódicamente.
+CREATE TABLE IF NOT EXISTS cambio (
+    id_cambio  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    entidad    VARCHAR(20) NOT NULL,
+    id_entidad INTEGER NOT NULL,
+    operacion  VARCHAR(20) NOT NULL,
+    nodo       VARCHAR(64) NOT NULL,
+    fecha      TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Purga por antigüedad (DELETE ... WHERE fecha < ?)
+CREATE INDEX IF NOT EXISTS idx_cambio_fecha ON cambio (fecha);
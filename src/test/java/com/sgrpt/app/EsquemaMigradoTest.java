@@ -0,0 +1,61 @@
+package com.sgrpt.app;
+
+import com.sgrpt.dao.VerificacionEsquema;
+import com.sgrpt.repositorio.PaqueteTuristicoRepository;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * El esquema lo crean solo las migraciones: sobre una base de datos vacía (H2 en modo PostgreSQL, una nueva por
+ * contexto) Flyway aplica todas las de db/migration y la aplicación arranca con Hibernate en modo 'validate'.
+ * Si una entidad o una consulta de los DAO no coincide con lo migrado, el contexto no arranca y la prueba falla.
+ */
+@SpringBootTest(classes = App.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+                properties = "spring.jpa.hibernate.ddl-auto=validate")
+@ActiveProfiles("prueba")
+class EsquemaMigradoTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private Environment entorno;
+
+    @Autowired
+    private PaqueteTuristicoRepository paquetes;
+
+    @Test
+    void todasLasMigracionesSeAplicanSobreUnaBaseVacia() {
+        MigrationInfo[] aplicadas = flyway.info().applied();
+
+        assertEquals(0, flyway.info().pending().length, "Migraciones sin aplicar");
+        assertTrue(Arrays.stream(aplicadas).allMatch(m -> m.getState() == MigrationState.SUCCESS),
+                   "Migraciones fallidas: " + Arrays.toString(aplicadas));
+        // Base vacía: se migra desde la V1, sin baseline
+        assertTrue(Arrays.stream(aplicadas).noneMatch(m -> m.getType().isBaseline()));
+        assertEquals(MigrationVersion.fromVersion("1"), aplicadas[0].getVersion());
+        assertEquals(Arrays.stream(flyway.info().all()).filter(m -> m.getVersion() != null).count(),
+                     Arrays.stream(aplicadas).filter(m -> m.getVersion() != null).count());
+    }
+
+    @Test
+    void arrancaValidandoElEsquemaMigrado() {
+        assertEquals("validate", entorno.getProperty("spring.jpa.hibernate.ddl-auto"));
+        // Entidades JPA (Hibernate ya validó al arrancar) y SQL fijo de los DAO contra las tablas migradas
+        assertEquals(0, paquetes.count());
+        assertDoesNotThrow(VerificacionEsquema::verificar);
+    }
+}
@@ -0,0 +1,254 @@
+package com.sgrpt.conexion;
+
+import com.sgrpt.app.App;
+import com.sgrpt.dao.ClienteDAO;
+import com.sgrpt.modelo.Cliente;
+import com.sgrpt.repositorio.PaqueteTuristicoRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Primaria y réplica como dos bases de datos distintas (H2 en memoria, las dos migradas), con un cliente que solo
+ * existe en la réplica: así se ve de cuál leyó cada consulta. Las lecturas van a la réplica sana; las escrituras,
+ * la lectura de lo propio (LecturaPropiaFilter, Enrutamiento) y las lecturas sin réplica sana van a la primaria.
+ * El retraso de replicación de la réplica lo da una tabla que la prueba controla.
+ */
+@SpringBootTest(classes = App.class, webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+                properties = {"sgrpt.replicas.consulta-retraso=SELECT ms FROM retraso_replica",
+                              "sgrpt.replicas.retraso-maximo-ms=1000",
+                              // Solo el chequeo inicial: los demás los lanza la prueba
+                              "sgrpt.replicas.chequeo-ms=3600000"})
+@AutoConfigureMockMvc
+@ActiveProfiles("prueba")
+class ReplicasLecturaTest {
+
+    // La de LecturaPropiaFilter
+    private static final String COOKIE_PRIMARIA = "sgrpt-primaria";
+
+    private static final String REPLICA = "jdbc:h2:mem:replica-" + UUID.randomUUID()
+        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry propiedades) throws SQLException {
+        Flyway.configure().dataSource(REPLICA, "sa", "").locations("classpath:db/migration").load().migrate();
+        ejecutarEnReplica("INSERT INTO cliente (nombre, apellido, email, telefono, identificacion) "
+                          + "VALUES ('Solo', 'Réplica', 'replica@correo.com', '300', 'EN-REPLICA')",
+                          "INSERT INTO paquesturistico (nombre, destino, duracion_dias, precio) VALUES ('Réplica', 'Quito', 3, 100)",
+                          "CREATE TABLE retraso_replica (ms BIGINT)",
+                          "INSERT INTO retraso_replica VALUES (0)");
+        propiedades.add("sgrpt.replicas.urls", () -> REPLICA);
+    }
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ReplicasLectura replicas;
+
+    @Autowired
+    @Qualifier("dataSourcePrimaria")
+    private DataSource primaria;
+
+    @Autowired
+    private ClienteDAO clienteDAO;
+
+    @Autowired
+    private PaqueteTuristicoRepository paquetes;
+
+    @BeforeEach
+    void replicaSana() throws SQLException {
+        ejecutarEnReplica("UPDATE retraso_replica SET ms = 0");
+        replicas.chequear();
+        assertEquals(Boolean.TRUE, estadoReplica().get("sana"));
+    }
+
+    @AfterEach
+    void limpiarMarca() {
+        Enrutamiento.limpiar();
+    }
+
+    @Test
+    void leeDeLaReplicaYEscribeEnLaPrimaria() throws SQLException {
+        assertTrue(identificaciones(clienteDAO).contains("EN-REPLICA"));
+        // JPA: las lecturas de Spring Data son readOnly y el proxy las manda a la réplica
+        assertEquals(1, paquetes.count());
+
+        Cliente nuevo = new Cliente("Eva", "Ruiz", "eva@correo.com", "301", "EN-PRIMARIA");
+        assertTrue(clienteDAO.insertar(nuevo));
+        assertEquals(1, contar(primaria, "EN-PRIMARIA"));
+        assertEquals(0, contar(primaria, "EN-REPLICA"));
+        try (Connection replica = DriverManager.getConnection(REPLICA, "sa", "")) {
+            assertEquals(0, contar(replica, "EN-PRIMARIA"));
+        }
+        // La réplica (que no replica en esta prueba) no tiene lo recién escrito
+        assertFalse(identificaciones(clienteDAO).contains("EN-PRIMARIA"));
+    }
+
+    @Test
+    void enPrimariaLeeDeLaPrimaria() {
+        long propias = (Long) replicas.obtenerEstado().get("lecturasPropiasEnPrimaria");
+
+        List<String> leidas = Enrutamiento.enPrimaria(() -> identificaciones(clienteDAO));
+        long paquetesEnPrimaria = Enrutamiento.enPrimaria(paquetes::count);
+
+        assertFalse(leidas.contains("EN-REPLICA"));
+        assertEquals(0, paquetesEnPrimaria);
+        assertFalse(Enrutamiento.primariaRequerida(), "enPrimaria debe restaurar la marca del hilo");
+        assertTrue((Long) replicas.obtenerEstado().get("lecturasPropiasEnPrimaria") >= propias + 2);
+        assertTrue(identificaciones(clienteDAO).contains("EN-REPLICA"));
+    }
+
+    @Test
+    void quienEscribeLeeDeLaPrimariaDuranteLaVentana() throws Exception {
+        mvc.perform(get("/api/v1/clientes"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.elementos[*].identificacion", hasItem("EN-REPLICA")));
+
+        MvcResult alta = mvc.perform(post("/api/v1/clientes").contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"nombre\":\"Leo\",\"apellido\":\"Mora\",\"email\":\"leo@correo.com\","
+                                         + "\"telefono\":\"302\",\"identificacion\":\"PROPIA\"}"))
+                            .andExpect(status().isCreated())
+                            .andExpect(cookie().exists(COOKIE_PRIMARIA))
+                            .andReturn();
+        Cookie ventana = alta.getResponse().getCookie(COOKIE_PRIMARIA);
+        assertNotNull(ventana);
+        assertFalse(Enrutamiento.primariaRequerida(), "El filtro debe limpiar la marca al terminar la petición");
+
+        // Con la cookie vigente lee de la primaria (ve su alta); sin ella, de la réplica (todavía no la tiene)
+        mvc.perform(get("/api/v1/clientes").cookie(ventana))
+           .andExpect(jsonPath("$.elementos[*].identificacion", hasItem("PROPIA")))
+           .andExpect(jsonPath("$.elementos[*].identificacion", not(hasItem("EN-REPLICA"))));
+        mvc.perform(get("/api/v1/clientes"))
+           .andExpect(jsonPath("$.elementos[*].identificacion", hasItem("EN-REPLICA")))
+           .andExpect(jsonPath("$.elementos[*].identificacion", not(hasItem("PROPIA"))));
+        // Cookie caducada: vuelve a la réplica
+        mvc.perform(get("/api/v1/clientes").cookie(new Cookie(COOKIE_PRIMARIA, "1")))
+           .andExpect(jsonPath("$.elementos[*].identificacion", hasItem("EN-REPLICA")));
+    }
+
+    @Test
+    void conLaReplicaAtrasadaLeeDeLaPrimaria() throws SQLException {
+        long sinReplica = (Long) replicas.obtenerEstado().get("lecturasSinReplicaEnPrimaria");
+        ejecutarEnReplica("UPDATE retraso_replica SET ms = 60000");
+        replicas.chequear();
+
+        assertEquals(Boolean.FALSE, estadoReplica().get("sana"));
+        assertEquals(60000L, estadoReplica().get("retrasoMs"));
+        assertFalse(identificaciones(clienteDAO).contains("EN-REPLICA"));
+        assertEquals(0, paquetes.count());
+        assertTrue((Long) replicas.obtenerEstado().get("lecturasSinReplicaEnPrimaria") >= sinReplica + 2);
+
+        // Se pone al día: vuelve a recibir lecturas en el siguiente chequeo
+        ejecutarEnReplica("UPDATE retraso_replica SET ms = 0");
+        replicas.chequear();
+        assertTrue(identificaciones(clienteDAO).contains("EN-REPLICA"));
+    }
+
+    @Test
+    void conLaReplicaSinResponderAlChequeoLeeDeLaPrimaria() throws SQLException {
+        long fallos = (Long) estadoReplica().get("fallos");
+        ejecutarEnReplica("ALTER TABLE retraso_replica RENAME TO retraso_replica_oculta");
+        try {
+            replicas.chequear();
+
+            assertEquals(Boolean.FALSE, estadoReplica().get("sana"));
+            assertEquals(fallos + 1, estadoReplica().get("fallos"));
+            assertNotNull(estadoReplica().get("ultimoError"));
+            assertFalse(identificaciones(clienteDAO).contains("EN-REPLICA"));
+        } finally {
+            ejecutarEnReplica("ALTER TABLE retraso_replica_oculta RENAME TO retraso_replica");
+        }
+    }
+
+    @Test
+    void unaReplicaQueFallaAlPedirConexionSeExcluyeAlMomento() throws SQLException {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(REPLICA);
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(2);
+        ReplicasLectura propias = new ReplicasLectura(primaria, List.of(REPLICA), List.of(pool), "", 1000);
+        propias.chequear();
+        try (Connection conn = propias.getConnection()) {
+            assertEquals(1, contar(conn, "EN-REPLICA"));
+        }
+
+        // Se cae entre dos chequeos: la lectura no falla, la sirve la primaria y la réplica queda excluida
+        pool.close();
+        try (Connection conn = propias.getConnection()) {
+            assertEquals(0, contar(conn, "EN-REPLICA"));
+        }
+        assertNull(propias.obtenerReplica());
+        Map<?, ?> estado = (Map<?, ?>) ((List<?>) propias.obtenerEstado().get("replicas")).get(0);
+        assertEquals(Boolean.FALSE, estado.get("sana"));
+        assertEquals(1L, estado.get("fallos"));
+        assertEquals(2L, propias.obtenerEstado().get("lecturasSinReplicaEnPrimaria"));
+    }
+
+    private Map<?, ?> estadoReplica() {
+        return (Map<?, ?>) ((List<?>) replicas.obtenerEstado().get("replicas")).get(0);
+    }
+
+    private static List<String> identificaciones(ClienteDAO dao) {
+        return dao.obtenerPagina(0, 100).getElementos().stream().map(Cliente::getIdentificacion).toList();
+    }
+
+    private static int contar(DataSource dataSource, String identificacion) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            return contar(conn, identificacion);
+        }
+    }
+
+    private static int contar(Connection conn, String identificacion) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM cliente WHERE identificacion = '" + identificacion + "'")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void ejecutarEnReplica(String... sentencias) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(REPLICA, "sa", "");
+             Statement st = conn.createStatement()) {
+            for (String sql : sentencias) {
+                st.execute(sql);
+            }
+        }
+    }
+}
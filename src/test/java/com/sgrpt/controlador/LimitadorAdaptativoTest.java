@@ -0,0 +1,131 @@
+package com.sgrpt.controlador;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Control de admisión sin servidor: con la cola del grupo llena se responde 429, si la espera en cola se
+ * agota 503 (ambos con Retry-After), y un grupo no prioritario cede su límite mientras hay escrituras de
+ * reservas esperando y lo recupera cuando se admiten.
+ */
+class LimitadorAdaptativoTest {
+
+    @Test
+    void conLaColaLlenaSeResponde429() throws Exception {
+        ControlAdmisionFilter filtro = filtro(10_000);
+        CountDownLatch soltar = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> enCurso = enviar(filtro, soltar);
+        esperarHasta(() -> enCurso(filtro) == 1);
+        CompletableFuture<MockHttpServletResponse> encolada = enviar(filtro, soltar);
+        esperarHasta(() -> enCola(filtro) == 1);
+
+        MockHttpServletResponse rechazada = filtrar(filtro, new CountDownLatch(0));
+        assertEquals(429, rechazada.getStatus());
+        assertNotNull(rechazada.getHeader(HttpHeaders.RETRY_AFTER));
+
+        soltar.countDown();
+        assertEquals(200, enCurso.get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(200, encolada.get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(1L, estado(filtro).get("rechazadasColaLlena"));
+    }
+
+    @Test
+    void conLaEsperaAgotadaSeResponde503() throws Exception {
+        ControlAdmisionFilter filtro = filtro(100);
+        CountDownLatch soltar = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> enCurso = enviar(filtro, soltar);
+        esperarHasta(() -> enCurso(filtro) == 1);
+
+        MockHttpServletResponse rechazada = filtrar(filtro, new CountDownLatch(0));
+        assertEquals(503, rechazada.getStatus());
+        assertNotNull(rechazada.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(0, enCola(filtro), "La petición rechazada debe salir de la cola");
+
+        soltar.countDown();
+        assertEquals(200, enCurso.get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(200, filtrar(filtro, new CountDownLatch(0)).getStatus());
+        assertEquals(1L, estado(filtro).get("rechazadasEsperaAgotada"));
+    }
+
+    @Test
+    void unGrupoNoPrioritarioCedeSuLimiteMientrasHayReservasEsperando() throws Exception {
+        LimitadorAdaptativo escritura = new LimitadorAdaptativo("prueba-escritura", 1, 1, 1, 1_000, 10, 10_000, null, 1);
+        LimitadorAdaptativo lectura = new LimitadorAdaptativo("prueba-lectura", 2, 1, 2, 1_000, 10, 100,
+                                                              escritura::hayEsperando, 0.5);
+        assertEquals(LimitadorAdaptativo.Resultado.ADMITIDA, escritura.adquirir());
+        assertEquals(LimitadorAdaptativo.Resultado.ADMITIDA, lectura.adquirir());
+
+        CompletableFuture<LimitadorAdaptativo.Resultado> reserva = CompletableFuture.supplyAsync(escritura::adquirir);
+        esperarHasta(escritura::hayEsperando);
+        assertEquals(1, lectura.obtenerEstado().get("limiteEfectivo"));
+        assertEquals(LimitadorAdaptativo.Resultado.ESPERA_AGOTADA, lectura.adquirir());
+
+        escritura.liberar(0);
+        assertEquals(LimitadorAdaptativo.Resultado.ADMITIDA, reserva.get(10, TimeUnit.SECONDS));
+        assertFalse(escritura.hayEsperando());
+        assertEquals(2, lectura.obtenerEstado().get("limiteEfectivo"));
+        assertEquals(LimitadorAdaptativo.Resultado.ADMITIDA, lectura.adquirir());
+    }
+
+    // Límite fijo de 1 petición y cola de 1 en cada grupo
+    private static ControlAdmisionFilter filtro(long esperaMaximaMs) {
+        return new ControlAdmisionFilter(true, 1, 1, 1, esperaMaximaMs, 0.5,
+                                         60_000, 1, 60_000, 1, 60_000, 1, 60_000, 1);
+    }
+
+    private static CompletableFuture<MockHttpServletResponse> enviar(ControlAdmisionFilter filtro, CountDownLatch soltar) {
+        return CompletableFuture.supplyAsync(() -> filtrar(filtro, soltar));
+    }
+
+    // Una escritura de reservas cuyo procesamiento dura hasta que se suelta 'soltar'
+    private static MockHttpServletResponse filtrar(ControlAdmisionFilter filtro, CountDownLatch soltar) {
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        try {
+            filtro.doFilter(new MockHttpServletRequest("POST", "/api/v1/reservas"), respuesta, (request, response) -> {
+                try {
+                    assertTrue(soltar.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return respuesta;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> estado(ControlAdmisionFilter filtro) {
+        return ((List<Map<String, Object>>) filtro.obtenerEstadisticas().get("grupos")).get(0);
+    }
+
+    private static int enCurso(ControlAdmisionFilter filtro) {
+        return (int) estado(filtro).get("enCurso");
+    }
+
+    private static int enCola(ControlAdmisionFilter filtro) {
+        return (int) estado(filtro).get("enCola");
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + 10_000_000_000L;
+        while (!condicion.getAsBoolean()) {
+            assertTrue(System.nanoTime() < limite, "Tiempo de espera agotado");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.sgrpt.dao;
+
+import com.sgrpt.app.App;
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.modelo.Pagina;
+import com.sgrpt.modelo.ReservaDetalle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * La vista de detalle (GET /api/v1/reservas/detalle) trae cliente y paquete con la reserva en la misma consulta:
+ * cada página ejecuta el mismo número de sentencias SQL (una) sea cual sea su tamaño, sin una búsqueda por fila.
+ * Las sentencias se cuentan con un proxy JDBC sobre el pool de ConexionDB, solo las del hilo de la prueba (las
+ * tareas periódicas de la aplicación usan el mismo pool).
+ */
+@SpringBootTest(classes = App.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("prueba")
+class DetalleReservasSentenciasTest {
+
+    private static final int RESERVAS = 300;
+    private static final int CLIENTES = 7;
+    private static final int PAQUETES = 5;
+
+    @Autowired
+    private ReservaDAO reservaDAO;
+
+    @Autowired
+    @Qualifier("dataSourcePrimaria")
+    private DataSource primaria;
+
+    // El contexto (y su base de datos) se comparte entre los métodos: se carga una sola vez
+    private static boolean cargada;
+
+    private ContadorSentencias contador;
+
+    @BeforeEach
+    void cargarYContar() throws SQLException {
+        if (!cargada) {
+            cargar();
+            cargada = true;
+        }
+        contador = new ContadorSentencias(Thread.currentThread());
+        ConexionDB.configurar(contador.envolver(primaria));
+    }
+
+    private void cargar() throws SQLException {
+        try (Connection conn = primaria.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO paquesturistico (nombre, destino, duracion_dias, precio) VALUES (?, ?, 4, 500)")) {
+                for (int i = 1; i <= PAQUETES; i++) {
+                    ps.setString(1, "Paquete" + i);
+                    ps.setString(2, "Destino" + i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO cliente (nombre, apellido, email, telefono, identificacion) VALUES (?, ?, ?, '300', ?)")) {
+                for (int i = 1; i <= CLIENTES; i++) {
+                    ps.setString(1, "Nombre" + i);
+                    ps.setString(2, "Apellido" + i);
+                    ps.setString(3, "cliente" + i + "@correo.com");
+                    ps.setString(4, "DET-" + i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO reserva (fechareserva, estado, idcliente, idpaquete, numpersonas, totalpagar) VALUES (?, 'PENDIENTE', ?, ?, 2, 1000)")) {
+                for (int i = 0; i < RESERVAS; i++) {
+                    ps.setDate(1, Date.valueOf("2030-03-01"));
+                    ps.setInt(2, 1 + i % CLIENTES);
+                    ps.setInt(3, 1 + i % PAQUETES);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    @AfterEach
+    void restaurarPool() {
+        ConexionDB.configurar(primaria);
+    }
+
+    @Test
+    void unaSentenciaPorPaginaSeaCualSeaSuTamano() {
+        for (int limite : new int[] { 1, 10, 50, 200 }) {
+            contador.reiniciar();
+            Pagina<ReservaDetalle> pagina = reservaDAO.obtenerDetalles(null, 0, limite);
+            assertEquals(limite, pagina.getElementos().size());
+            assertEquals(1, contador.ejecutadas(), "Sentencias para una página de " + limite);
+
+            contador.reiniciar();
+            Pagina<ReservaDetalle> delCliente = reservaDAO.obtenerDetalles(3, 0, limite);
+            assertEquals(Math.min(limite, reservasDelCliente(3)), delCliente.getElementos().size());
+            assertEquals(1, contador.ejecutadas(), "Sentencias para una página de " + limite + " de un cliente");
+
+            for (ReservaDetalle detalle : pagina.getElementos()) {
+                assertEquals("Nombre" + detalle.getIdCliente(), detalle.getNombreCliente());
+                assertEquals("Destino" + detalle.getIdPaquete(), detalle.getDestinoPaquete());
+            }
+        }
+    }
+
+    @Test
+    void recorrerTodoEsUnaSentenciaPorPagina() {
+        int limite = 40;
+        int paginas = 0;
+        int leidas = 0;
+        Object cursor = 0;
+        contador.reiniciar();
+        while (cursor != null) {
+            Pagina<ReservaDetalle> pagina = reservaDAO.obtenerDetalles(null, (Integer) cursor, limite);
+            paginas++;
+            leidas += pagina.getElementos().size();
+            cursor = pagina.getSiguienteCursor();
+        }
+        assertEquals(RESERVAS, leidas);
+        assertEquals((RESERVAS + limite - 1) / limite, paginas);
+        assertEquals(paginas, contador.ejecutadas());
+    }
+
+    private static int reservasDelCliente(int idCliente) {
+        int reservas = 0;
+        for (int i = 0; i < RESERVAS; i++) {
+            if (1 + i % CLIENTES == idCliente) {
+                reservas++;
+            }
+        }
+        return reservas;
+    }
+
+    // Cuenta las ejecuciones (execute*) de las sentencias creadas por las conexiones de un hilo
+    static final class ContadorSentencias {
+
+        private final Thread hilo;
+        private final AtomicInteger ejecutadas = new AtomicInteger();
+
+        ContadorSentencias(Thread hilo) {
+            this.hilo = hilo;
+        }
+
+        int ejecutadas() {
+            return ejecutadas.get();
+        }
+
+        void reiniciar() {
+            ejecutadas.set(0);
+        }
+
+        DataSource envolver(DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, resultado -> resultado instanceof Connection conexion
+                ? proxy(Connection.class, conexion, this::envolverSentencia) : resultado);
+        }
+
+        private Object envolverSentencia(Object resultado) {
+            if (resultado instanceof PreparedStatement sentencia) {
+                return proxy(PreparedStatement.class, sentencia, r -> r);
+            }
+            return resultado instanceof Statement sentencia ? proxy(Statement.class, sentencia, r -> r) : resultado;
+        }
+
+        private <T> T proxy(Class<T> tipo, T destino, UnaryOperator<Object> envolverResultado) {
+            assertNotNull(destino);
+            return tipo.cast(Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo }, (p, metodo, args) -> {
+                if (metodo.getName().startsWith("execute") && Thread.currentThread() == hilo
+                    && Statement.class.isAssignableFrom(metodo.getDeclaringClass())) {
+                    ejecutadas.incrementAndGet();
+                }
+                try {
+                    return envolverResultado.apply(metodo.invoke(destino, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }));
+        }
+    }
+}
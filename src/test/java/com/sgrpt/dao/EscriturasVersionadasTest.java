@@ -0,0 +1,127 @@
+package com.sgrpt.dao;
+
+import com.sgrpt.app.App;
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.modelo.Cliente;
+import com.sgrpt.modelo.PaqueteTuristico;
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.modelo.ResultadoEscritura;
+import com.sgrpt.repositorio.PaqueteTuristicoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Las escrituras de fila completa (actualizar, actualizarLote) solo se aplican sobre la versión que se leyó:
+ * una copia anterior a otra escritura no la pisa; el PUT de paquetes, sobre la versión de If-Match. Y los fallos de la base de datos no se confunden con
+ * datos inválidos (503 frente a 400).
+ */
+@SpringBootTest(classes = App.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("prueba")
+class EscriturasVersionadasTest {
+
+    @Autowired
+    private ClienteDAO clienteDAO;
+
+    @Autowired
+    private ReservaDAO reservaDAO;
+
+    @Autowired
+    private PaqueteTuristicoRepository paquetes;
+
+    @Test
+    void actualizarClienteConVersionAnteriorNoPisaOtraEscritura() {
+        Cliente cliente = new Cliente("Ana", "Pérez", "ana@correo.com", "300", "V-1");
+        assertTrue(clienteDAO.insertar(cliente));
+        Cliente copiaAntigua = clienteDAO.obtenerPorId(cliente.getIdCliente());
+
+        assertEquals(ResultadoEscritura.Estado.HECHA,
+                     clienteDAO.actualizarParcial(cliente.getIdCliente(), Map.of("telefono", "301"), null).getEstado());
+        copiaAntigua.setNombre("Pisado");
+
+        assertFalse(clienteDAO.actualizar(copiaAntigua));
+        assertEquals("Ana", clienteDAO.obtenerPorId(cliente.getIdCliente()).getNombre());
+
+        Cliente actual = clienteDAO.obtenerPorId(cliente.getIdCliente());
+        actual.setNombre("Ana María");
+        assertTrue(clienteDAO.actualizar(actual));
+        assertEquals(2, actual.getVersion());
+        assertEquals(0, clienteDAO.actualizarLote(List.of(copiaAntigua)).getExitosas());
+    }
+
+    @Test
+    void actualizarReservaConVersionAnteriorNoPisaOtraEscritura() throws SQLException {
+        Cliente cliente = new Cliente("Luis", "Gómez", "luis@correo.com", "310", "V-2");
+        assertTrue(clienteDAO.insertar(cliente));
+        Reserva reserva = new Reserva(Date.valueOf("2030-01-15"), "PENDIENTE", cliente.getIdCliente(), crearPaquete(), 2, 300.0);
+        assertTrue(reservaDAO.insertar(reserva));
+        Reserva copiaAntigua = reservaDAO.obtenerPorId(reserva.getIdReserva());
+
+        assertEquals(ResultadoEscritura.Estado.HECHA,
+                     reservaDAO.actualizarParcial(reserva.getIdReserva(), Map.of("estado", "CONFIRMADA"), null).getEstado());
+        copiaAntigua.setTotalPagar(1.0);
+
+        assertFalse(reservaDAO.actualizar(copiaAntigua));
+        assertEquals(0, reservaDAO.actualizarLote(List.of(copiaAntigua)).getExitosas());
+        Reserva guardada = reservaDAO.obtenerPorId(reserva.getIdReserva());
+        assertEquals("CONFIRMADA", guardada.getEstado());
+        assertEquals(300.0, guardada.getTotalPagar());
+
+        guardada.setTotalPagar(350.0);
+        assertTrue(reservaDAO.actualizar(guardada));
+        assertEquals(2, guardada.getVersion());
+    }
+
+    @Test
+    void elPutDePaqueteEsUnUpdateVersionado() throws SQLException {
+        int id = crearPaquete();
+        PaqueteTuristico cambios = new PaqueteTuristico(null, "Versiones 2", null, "Cusco", null, 180.0);
+
+        ResultadoEscritura<PaqueteTuristico> hecha = paquetes.actualizar(id, cambios, 0L);
+        assertEquals(ResultadoEscritura.Estado.HECHA, hecha.getEstado());
+        assertEquals(1L, hecha.getElemento().getVersion());
+        assertEquals("Cusco", hecha.getElemento().getDestino());
+        assertEquals(3, hecha.getElemento().getDuracionDias()); // Fuera del PUT: se conserva
+
+        ResultadoEscritura<PaqueteTuristico> conflicto = paquetes.actualizar(id, cambios, 0L);
+        assertEquals(ResultadoEscritura.Estado.CONFLICTO, conflicto.getEstado());
+        assertEquals(1L, conflicto.getVersionActual());
+        assertEquals(ResultadoEscritura.Estado.NO_ENCONTRADA, paquetes.actualizar(-1, cambios, null).getEstado());
+    }
+
+    @Test
+    void unFalloDeLaBaseDeDatosNoEsUnErrorDelCliente() {
+        SQLException restriccion = new SQLException("duplicada", "23505");
+        SQLException conexion = new SQLTransientConnectionException("pool agotado", "08001");
+
+        assertEquals(ResultadoEscritura.Estado.ERROR, ErroresSQL.resultado(restriccion).getEstado());
+        assertEquals(ResultadoEscritura.Estado.NO_DISPONIBLE, ErroresSQL.resultado(conexion).getEstado());
+        assertEquals(ResultadoEscritura.Estado.NO_DISPONIBLE, ErroresSQL.resultado(new SQLException("sin estado")).getEstado());
+    }
+
+    private static int crearPaquete() throws SQLException {
+        try (Connection conn = ConexionDB.obtenerConexion();
+             Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO paquesturistico (nombre, destino, duracion_dias, precio) VALUES ('Versiones', 'Lima', 3, 150)",
+                             Statement.RETURN_GENERATED_KEYS);
+            try (ResultSet claves = st.getGeneratedKeys()) {
+                claves.next();
+                return claves.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.sgrpt.metricas;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cardinalidad de sgrpt.dao.operacion: histograma solo para las operaciones configuradas y temporizador de
+ * error solo para las que han fallado alguna vez.
+ */
+class MetricasDAOTest {
+
+    private final PrometheusMeterRegistry registro = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+    @BeforeEach
+    void registrar() {
+        Metrics.addRegistry(registro);
+        new MetricasDAO(200, Set.of("prueba.caliente"));
+    }
+
+    @AfterEach
+    void quitar() {
+        Metrics.removeRegistry(registro);
+    }
+
+    @Test
+    void histogramaSoloEnLasOperacionesCalientes() {
+        MetricasDAO.iniciar("prueba", "caliente").terminar(1);
+        MetricasDAO.iniciar("prueba", "fria").terminar(1);
+
+        assertTrue(series("sgrpt_dao_operacion_histograma_seconds_bucket{", "caliente") > 50);
+        assertEquals(0, series("sgrpt_dao_operacion_histograma_seconds", "fria"));
+        // Las dos publican percentiles: 3 series cada una
+        assertEquals(3, cuantiles("caliente"));
+        assertEquals(3, cuantiles("fria"));
+    }
+
+    @Test
+    void elTemporizadorDeErrorSeCreaConElPrimerError() {
+        MetricasDAO.iniciar("prueba", "falla").terminar(1);
+        assertNull(buscar("falla", "error"));
+
+        SQLException error = new SQLException("caída");
+        assertEquals(error, MetricasDAO.iniciar("prueba", "falla").fallo(error));
+        MetricasDAO.iniciar("prueba", "falla").fallo(error);
+
+        Timer tiempoError = buscar("falla", "error");
+        assertNotNull(tiempoError);
+        assertEquals(2, tiempoError.count());
+        assertEquals(0, series("sgrpt_dao_operacion_histograma_seconds", "falla"));
+        assertEquals(0, cuantiles("falla\",resultado=\"error"));
+        assertEquals(3, cuantiles("falla\",resultado=\"exito"));
+        assertEquals(2.0, registro.get("sgrpt.dao.errores").tag("operacion", "falla").counter().count());
+    }
+
+    // Series de una operación en el formato de /actuator/prometheus (que falla si se mezclan tipos en una métrica)
+    private long series(String prefijo, String operacion) {
+        return registro.scrape().lines()
+            .filter(linea -> linea.startsWith(prefijo) && linea.contains("operacion=\"" + operacion))
+            .count();
+    }
+
+    private long cuantiles(String operacion) {
+        return registro.scrape().lines()
+            .filter(linea -> linea.startsWith("sgrpt_dao_operacion_seconds{") && linea.contains("quantile=")
+                             && linea.contains("operacion=\"" + operacion))
+            .count();
+    }
+
+    private Timer buscar(String operacion, String resultado) {
+        return registro.find("sgrpt.dao.operacion").tags("dao", "prueba", "operacion", operacion, "resultado", resultado).timer();
+    }
+}
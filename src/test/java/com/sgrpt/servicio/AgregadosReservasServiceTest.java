@@ -0,0 +1,197 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.app.App;
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.dao.ReservaDAO;
+import com.sgrpt.modelo.AgregadoReservas;
+import com.sgrpt.modelo.Reserva;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Agregados por paquete: cada alta, cambio y baja confirmada se aplica como delta, un delta que llega
+ * durante el recorrido de la reconciliación no se pierde, y tras reconciliaciones concurrentes con las
+ * escrituras (o escrituras fuera de ReservaDAO) una pasada deja los totales iguales a los de la tabla.
+ */
+@SpringBootTest(classes = App.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("prueba")
+class AgregadosReservasServiceTest {
+
+    private static final Date DIA_1 = Date.valueOf("2030-03-01");
+    private static final Date DIA_2 = Date.valueOf("2030-03-02");
+
+    @Autowired
+    private AgregadosReservasService agregados;
+
+    @Autowired
+    private ReservaDAO reservaDAO;
+
+    private int idPaquete;
+    private int idCliente;
+
+    @BeforeEach
+    void crearPaquete() throws SQLException {
+        idPaquete = insertar("INSERT INTO paquesturistico (nombre, destino, duracion_dias, precio) VALUES ('Agregados', 'Quito', 4, 500)");
+        idCliente = insertar("INSERT INTO cliente (nombre, apellido, email, telefono, identificacion) "
+                             + "VALUES ('Eva', 'Ruiz', 'eva@correo.com', '320', 'AG-" + idPaquete + "')");
+    }
+
+    @Test
+    void altasCambiosYBajasSeAplicanComoDeltas() {
+        Reserva primera = new Reserva(DIA_1, "PENDIENTE", idCliente, idPaquete, 2, 200.10);
+        Reserva segunda = new Reserva(DIA_2, "PENDIENTE", idCliente, idPaquete, 3, 300.20);
+        assertTrue(reservaDAO.insertar(primera));
+        assertTrue(reservaDAO.insertar(segunda));
+
+        AgregadoReservas total = agregados.obtenerPorPaquete(idPaquete).get(0);
+        assertEquals(2, total.getReservas());
+        assertEquals(5, total.getPersonas());
+        assertEquals(500.30, total.getIngresos(), 1e-9);
+
+        reservaDAO.actualizarParcial(primera.getIdReserva(), Map.of("estado", "CONFIRMADA"), null);
+        List<AgregadoReservas> confirmadas = agregados.obtenerPorDia(idPaquete, DIA_1, DIA_2, "CONFIRMADA");
+        assertEquals(1, confirmadas.size());
+        assertEquals(DIA_1, confirmadas.get(0).getFecha());
+        assertEquals(2, confirmadas.get(0).getPersonas());
+        assertEquals(1, agregados.obtenerPorDia(idPaquete, DIA_2, null, "PENDIENTE").size());
+
+        assertTrue(reservaDAO.eliminar(segunda.getIdReserva()));
+        total = agregados.obtenerPorPaquete(idPaquete).get(0);
+        assertEquals(1, total.getReservas());
+        assertEquals(2, total.getPersonas());
+        assertEquals(200.10, total.getIngresos(), 1e-9);
+        assertEquals(List.of(), agregados.obtenerPorDia(idPaquete, DIA_2, DIA_2, null));
+    }
+
+    @Test
+    void laReconciliacionConEscriturasConcurrentesCuadraConLaTabla() throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        List<Future<?>> escritores = new ArrayList<>();
+        for (int h = 0; h < 8; h++) {
+            escritores.add(hilos.submit(this::reservarYCancelar));
+        }
+        // Reconciliaciones mientras se escribe (un delta puede contarse dos veces: lo corrige la pasada siguiente)
+        while (escritores.stream().anyMatch(escritor -> !escritor.isDone())) {
+            agregados.reconciliar();
+        }
+        for (Future<?> escritor : escritores) {
+            escritor.get();
+        }
+        hilos.shutdown();
+
+        reconciliarYEsperar();
+        assertCuadraConLaTabla();
+
+        // Sin reconciliación de por medio, los deltas siguen cuadrando
+        assertTrue(reservaDAO.insertar(new Reserva(DIA_2, "PENDIENTE", idCliente, idPaquete, 4, 410.0)));
+        assertCuadraConLaTabla();
+
+        // Una escritura fuera de ReservaDAO no llega como delta: la corrige la reconciliación
+        try (Connection conn = ConexionDB.obtenerConexion();
+             Statement st = conn.createStatement()) {
+            st.executeUpdate("UPDATE reserva SET numpersonas = numpersonas + 1 WHERE idpaquete = " + idPaquete);
+        }
+        reconciliarYEsperar();
+        assertEquals(1, agregados.obtenerEstadisticas().get("paquetesCorregidos"));
+        assertCuadraConLaTabla();
+    }
+
+    @Test
+    void unDeltaQueLlegaDuranteElRecorridoNoSePierde() {
+        AgregadosReservasService aislado = new AgregadosReservasService();
+        Reserva leida = new Reserva(DIA_1, "PENDIENTE", 1, 7, 2, 100.0);
+        Reserva concurrente = new Reserva(DIA_1, "PENDIENTE", 1, 7, 3, 150.0);
+        ReflectionTestUtils.setField(aislado, "reservaDAO", new ReservaDAO() {
+            @Override
+            public long recorrerTodos(int tamanoFetch, Consumer<Reserva> consumidor) {
+                consumidor.accept(leida);
+                aislado.insertada(concurrente); // Confirmada con el cursor ya abierto: el recorrido no la ve
+                return 1;
+            }
+        });
+
+        aislado.reconciliar();
+
+        AgregadoReservas total = aislado.obtenerPorPaquete(7).get(0);
+        assertEquals(2, total.getReservas());
+        assertEquals(5, total.getPersonas());
+        assertEquals(250.0, total.getIngresos(), 1e-9);
+    }
+
+    private Void reservarYCancelar() {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        Deque<Reserva> propias = new ArrayDeque<>();
+        for (int i = 0; i < 100; i++) {
+            if (azar.nextInt(4) == 0 && !propias.isEmpty()) {
+                assertTrue(reservaDAO.eliminar(propias.poll().getIdReserva()));
+            } else {
+                int personas = 1 + azar.nextInt(4);
+                Reserva reserva = new Reserva(azar.nextBoolean() ? DIA_1 : DIA_2, "PENDIENTE", idCliente, idPaquete,
+                                              personas, 99.99 * personas);
+                assertTrue(reservaDAO.insertar(reserva));
+                propias.add(reserva);
+            }
+        }
+        return null;
+    }
+
+    private void assertCuadraConLaTabla() throws SQLException {
+        AgregadoReservas total = agregados.obtenerPorPaquete(idPaquete).get(0);
+        try (Connection conn = ConexionDB.obtenerConexion();
+             PreparedStatement ps = conn.prepareStatement(
+                 "SELECT COUNT(*), COALESCE(SUM(numpersonas), 0), COALESCE(SUM(totalpagar), 0) FROM reserva WHERE idpaquete = ?")) {
+            ps.setInt(1, idPaquete);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                assertEquals(rs.getLong(1), total.getReservas());
+                assertEquals(rs.getLong(2), total.getPersonas());
+                assertEquals(rs.getDouble(3), total.getIngresos(), 1e-6);
+            }
+        }
+    }
+
+    // reconciliar() no espera si ya hay una en curso (la del arranque): la marca para repetir
+    private void reconciliarYEsperar() throws InterruptedException {
+        agregados.reconciliar();
+        long limite = System.nanoTime() + 10_000_000_000L;
+        while (Boolean.TRUE.equals(agregados.obtenerEstadisticas().get("reconciliando"))) {
+            assertTrue(System.nanoTime() < limite, "Tiempo de espera agotado");
+            Thread.sleep(20);
+        }
+    }
+
+    private static int insertar(String sql) throws SQLException {
+        try (Connection conn = ConexionDB.obtenerConexion();
+             Statement st = conn.createStatement()) {
+            st.executeUpdate(sql, Statement.RETURN_GENERATED_KEYS);
+            try (ResultSet claves = st.getGeneratedKeys()) {
+                claves.next();
+                return claves.getInt(1);
+            }
+        }
+    }
+}
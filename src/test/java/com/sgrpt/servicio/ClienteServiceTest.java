@@ -0,0 +1,114 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.app.App;
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.dao.ClienteDAO;
+import com.sgrpt.modelo.Cliente;
+import com.sgrpt.modelo.ResultadoEscritura;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Caché de clientes: sirve de memoria lo ya leído, las escrituras de ClienteDAO la invalidan, y el alta
+ * sin duplicados devuelve un único cliente aunque muchas peticiones lo registren a la vez.
+ */
+@SpringBootTest(classes = App.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("prueba")
+class ClienteServiceTest {
+
+    @Autowired
+    private ClienteService clientes;
+
+    @Autowired
+    private ClienteDAO clienteDAO;
+
+    @Test
+    void lasEscriturasDelDaoInvalidanLaCache() throws SQLException {
+        Cliente cliente = new Cliente("Rosa", "Vega", "rosa@correo.com", "330", "CS-1");
+        assertTrue(clienteDAO.insertar(cliente));
+        int id = cliente.getIdCliente();
+        assertEquals("330", clientes.obtenerPorId(id).orElseThrow().getTelefono());
+        assertEquals(id, clientes.obtenerPorIdentificacion("CS-1").orElseThrow().getIdCliente());
+
+        // Un cambio que no pasa por ClienteDAO no se ve: el cliente sale de la caché
+        ejecutar("UPDATE cliente SET telefono = '339' WHERE idcliente = " + id);
+        assertEquals("330", clientes.obtenerPorId(id).orElseThrow().getTelefono());
+
+        assertEquals(ResultadoEscritura.Estado.HECHA,
+                     clienteDAO.actualizarParcial(id, Map.of("telefono", "331", "identificacion", "CS-2"), null).getEstado());
+        assertEquals("331", clientes.obtenerPorId(id).orElseThrow().getTelefono());
+        assertEquals(Optional.empty(), clientes.obtenerPorIdentificacion("CS-1"));
+        assertEquals(id, clientes.obtenerPorIdentificacion("CS-2").orElseThrow().getIdCliente());
+
+        assertTrue(clienteDAO.eliminar(id));
+        assertEquals(Optional.empty(), clientes.obtenerPorId(id));
+        assertEquals(Optional.empty(), clientes.obtenerPorIdentificacion("CS-2"));
+    }
+
+    @Test
+    void registrosConcurrentesDeLaMismaIdentificacionCreanUnSoloCliente() throws Exception {
+        int hilos = 8;
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        List<Future<ClienteService.Registro>> registros = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            registros.add(ejecutor.submit(() -> {
+                salida.await();
+                return clientes.registrar(new Cliente("Iván", "Soto", "ivan@correo.com", "340", "CS-DUP")).orElseThrow();
+            }));
+        }
+        salida.countDown();
+
+        int creados = 0;
+        Integer id = null;
+        for (Future<ClienteService.Registro> registro : registros) {
+            ClienteService.Registro resultado = registro.get();
+            creados += resultado.creado() ? 1 : 0;
+            if (id == null) {
+                id = resultado.cliente().getIdCliente();
+            }
+            assertEquals(id, resultado.cliente().getIdCliente(), "Cada petición debe recibir el mismo cliente");
+        }
+        ejecutor.shutdown();
+
+        assertEquals(1, creados);
+        assertEquals(1, contar("CS-DUP"));
+    }
+
+    private static void ejecutar(String sql) throws SQLException {
+        try (Connection conn = ConexionDB.obtenerConexion();
+             Statement st = conn.createStatement()) {
+            st.executeUpdate(sql);
+        }
+    }
+
+    private static int contar(String identificacion) throws SQLException {
+        try (Connection conn = ConexionDB.obtenerConexion();
+             PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM cliente WHERE identificacion = ?")) {
+            ps.setString(1, identificacion);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
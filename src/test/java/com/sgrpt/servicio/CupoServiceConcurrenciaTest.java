@@ -0,0 +1,200 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.app.App;
+import com.sgrpt.conexion.ConexionDB;
+import com.sgrpt.dao.CupoDAO;
+import com.sgrpt.modelo.CupoPaquete;
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.modelo.ResultadoReserva;
+import com.sgrpt.modelo.ResultadoReserva.Estado;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de estrés del motor de cupos: muchos hilos reservan (una a una y en lote) y cancelan sobre una misma
+ * salida con menos plazas de las que piden. Al terminar, las plazas ocupadas por las reservas de la tabla no
+ * superan la capacidad y 'disponibles' es exactamente capacidad - ocupadas (ni sobreventa ni plazas perdidas).
+ * Una salida sin cupo definido admite reservas sin límite hasta que se le define.
+ */
+@SpringBootTest(classes = App.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("prueba")
+class CupoServiceConcurrenciaTest {
+
+    private static final Date SALIDA = Date.valueOf("2030-06-01");
+    private static final int CAPACIDAD = 1500;
+    private static final int HILOS = 16;
+    private static final int OPERACIONES_POR_HILO = 150;
+
+    @Autowired
+    private CupoService cupos;
+
+    @Autowired
+    private CupoDAO cupoDAO;
+
+    @Autowired
+    private ImportacionService importacion;
+
+    private int idPaquete;
+    private int idCliente;
+
+    @BeforeEach
+    void crearSalida() throws SQLException {
+        idPaquete = insertar("INSERT INTO paquesturistico (nombre, destino, duracion_dias, precio) VALUES ('Estrés', 'Cusco', 5, 900)");
+        idCliente = insertar("INSERT INTO cliente (nombre, apellido, email, telefono, identificacion) "
+                             + "VALUES ('Ana', 'Pérez', 'ana@correo.com', '300', 'ID-" + idPaquete + "')");
+        assertTrue(cupoDAO.insertar(new CupoPaquete(idPaquete, SALIDA, CAPACIDAD, CAPACIDAD, 0)));
+    }
+
+    @Test
+    void reservasConcurrentesNoSobrevendenNiPierdenPlazas() throws Exception {
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        List<Future<Long>> ocupadasPorHilo = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            ocupadasPorHilo.add(hilos.submit(() -> {
+                salida.await();
+                return reservarYCancelar();
+            }));
+        }
+        salida.countDown();
+        long ocupadasSegunResultados = 0;
+        for (Future<Long> ocupadas : ocupadasPorHilo) {
+            ocupadasSegunResultados += ocupadas.get();
+        }
+        hilos.shutdown();
+
+        long ocupadas = personasReservadas();
+        int disponibles = cupoDAO.obtener(idPaquete, SALIDA).getDisponibles();
+
+        assertTrue(ocupadas <= CAPACIDAD, "Sobreventa: " + ocupadas + " personas para " + CAPACIDAD + " plazas");
+        assertEquals(CAPACIDAD - ocupadas, disponibles, "disponibles no cuadra con las reservas guardadas");
+        assertEquals(ocupadasSegunResultados, ocupadas, "Los resultados devueltos no cuadran con la tabla reserva");
+        // Se pidieron más plazas de las que había: la salida tiene que haberse llenado en algún momento
+        assertNotEquals(CAPACIDAD, disponibles);
+    }
+
+    @Test
+    void laImportacionDescuentaCupo() throws Exception {
+        assertEquals(Estado.ACEPTADA, cupos.reservar(reserva(CAPACIDAD - 2)).getEstado());
+        StringBuilder csv = new StringBuilder("fechaReserva,estado,idCliente,idPaquete,numPersonas,totalPagar\n");
+        for (int i = 0; i < 3; i++) {
+            csv.append(SALIDA).append(",PENDIENTE,").append(idCliente).append(',').append(idPaquete).append(",1,100\n");
+        }
+
+        var resumen = importacion.importarReservas(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                                                   ImportacionService.Formato.CSV);
+
+        assertEquals(2, resumen.getInsertadas());
+        assertEquals(1, resumen.getFallidas());
+        assertEquals(CAPACIDAD, personasReservadas());
+        assertEquals(0, cupoDAO.obtener(idPaquete, SALIDA).getDisponibles());
+    }
+
+    @Test
+    void unaSalidaSinCupoAdmiteSinLimiteHastaQueSeDefine() {
+        Date otraSalida = Date.valueOf("2030-07-01");
+        Reserva previa = new Reserva(otraSalida, "PENDIENTE", idCliente, idPaquete, 4, 3600.0);
+        assertEquals(Estado.ACEPTADA, cupos.reservar(previa).getEstado());
+        List<ResultadoReserva> lote = cupos.reservarLote(List.of(
+            new Reserva(otraSalida, "PENDIENTE", idCliente, idPaquete, 3, 2700.0), reserva(CAPACIDAD + 1)));
+        assertEquals(Estado.ACEPTADA, lote.get(0).getEstado());
+        assertEquals(Estado.SIN_CUPO, lote.get(1).getEstado(), "La salida con cupo sigue limitada");
+
+        // Las 7 plazas ya reservadas no caben en 5; en 10 nacen vendidas
+        assertFalse(cupoDAO.insertar(new CupoPaquete(idPaquete, otraSalida, 5, 5, 0)));
+        assertTrue(cupoDAO.insertar(new CupoPaquete(idPaquete, otraSalida, 10, 10, 0)));
+        assertEquals(3, cupoDAO.obtener(idPaquete, otraSalida).getDisponibles());
+        Reserva llena = new Reserva(otraSalida, "PENDIENTE", idCliente, idPaquete, 4, 3600.0);
+        assertEquals(Estado.SIN_CUPO, cupos.reservar(llena).getEstado());
+
+        assertEquals(Estado.ACEPTADA, cupos.cancelar(previa.getIdReserva()).getEstado());
+        assertEquals(7, cupoDAO.obtener(idPaquete, otraSalida).getDisponibles());
+    }
+
+    // Operaciones de un hilo; devuelve las plazas que ocupan sus reservas vivas al terminar
+    private long reservarYCancelar() {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        Deque<Reserva> propias = new ArrayDeque<>();
+        long ocupadas = 0;
+        for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+            int tipo = azar.nextInt(10);
+            if (tipo == 0 && !propias.isEmpty()) {
+                Reserva cancelada = propias.poll();
+                ResultadoReserva resultado = cupos.cancelar(cancelada.getIdReserva());
+                assertEquals(Estado.ACEPTADA, resultado.getEstado(), resultado.getMensaje());
+                ocupadas -= cancelada.getNumPersonas();
+            } else if (tipo <= 2) {
+                List<Reserva> lote = List.of(reserva(1 + azar.nextInt(3)), reserva(1 + azar.nextInt(3)), reserva(1 + azar.nextInt(3)));
+                for (ResultadoReserva resultado : cupos.reservarLote(lote)) {
+                    ocupadas += registrar(resultado, propias);
+                }
+            } else {
+                ocupadas += registrar(cupos.reservar(reserva(1 + azar.nextInt(3))), propias);
+            }
+        }
+        return ocupadas;
+    }
+
+    private static long registrar(ResultadoReserva resultado, Deque<Reserva> propias) {
+        if (resultado.getEstado() == Estado.ACEPTADA) {
+            propias.add(resultado.getReserva());
+            return resultado.getReserva().getNumPersonas();
+        }
+        assertEquals(Estado.SIN_CUPO, resultado.getEstado(), resultado.getMensaje());
+        return 0;
+    }
+
+    private Reserva reserva(int personas) {
+        return new Reserva(SALIDA, "PENDIENTE", idCliente, idPaquete, personas, 900.0 * personas);
+    }
+
+    private long personasReservadas() throws SQLException {
+        try (Connection conn = ConexionDB.obtenerConexion();
+             PreparedStatement ps = conn.prepareStatement(
+                 "SELECT COALESCE(SUM(numpersonas), 0) FROM reserva WHERE idpaquete = ? AND fechareserva = ?")) {
+            ps.setInt(1, idPaquete);
+            ps.setDate(2, SALIDA);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static int insertar(String sql) throws SQLException {
+        try (Connection conn = ConexionDB.obtenerConexion();
+             Statement st = conn.createStatement()) {
+            st.executeUpdate(sql, Statement.RETURN_GENERATED_KEYS);
+            try (ResultSet claves = st.getGeneratedKeys()) {
+                claves.next();
+                return claves.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.modelo.CupoPaquete;
+import com.sgrpt.modelo.PaqueteDisponible;
+import com.sgrpt.modelo.PaqueteTuristico;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Calendario de disponibilidad sin base de datos (solo observadores): un cupo con versión más vieja que
+ * la aplicada no retrocede el valor, y el calendario crece por los dos extremos sin perder lo que tenía.
+ */
+class DisponibilidadServiceTest {
+
+    private static final int PAQUETE = 1;
+    private static final LocalDate HOY = LocalDate.now();
+
+    private DisponibilidadService disponibilidad;
+
+    @BeforeEach
+    void crearPaquete() {
+        disponibilidad = new DisponibilidadService();
+        disponibilidad.guardarPaquete(new PaqueteTuristico(PAQUETE, "Salar", null, "Uyuni", 3, 700.0));
+    }
+
+    @Test
+    void unCupoConVersionViejaSeIgnora() {
+        disponibilidad.cambiado(cupo(10, 40, 5, 2));
+        disponibilidad.cambiado(cupo(10, 40, 20, 1)); // Llega tarde: anterior al ya aplicado
+
+        assertEquals(List.of(), buscar(10, 10, 6));
+        List<PaqueteDisponible> encontrados = buscar(10, 10, 5);
+        assertEquals(1, encontrados.size());
+        assertEquals(5, encontrados.get(0).getSalidas().get(0).getDisponibles());
+        assertEquals(2, encontrados.get(0).getSalidas().get(0).getVersion());
+
+        disponibilidad.cambiado(cupo(10, 40, 30, 3));
+        assertEquals(30, buscar(10, 10, 1).get(0).getSalidas().get(0).getDisponibles());
+    }
+
+    @Test
+    void elCalendarioCreceHaciaAtrasYHaciaDelante() {
+        disponibilidad.cambiado(cupo(100, 10, 10, 0));
+        disponibilidad.cambiado(cupo(5, 20, 20, 0));   // Antes del primer día del tramo
+        disponibilidad.cambiado(cupo(400, 30, 30, 0)); // Después del último
+
+        List<CupoPaquete> salidas = buscar(0, 500, 1).get(0).getSalidas();
+        assertEquals(List.of(fecha(5), fecha(100), fecha(400)), salidas.stream().map(CupoPaquete::getFechaSalida).toList());
+        assertEquals(List.of(20, 10, 30), salidas.stream().map(CupoPaquete::getDisponibles).toList());
+        // Los días intermedios que trajo la ampliación no son salidas
+        assertEquals(List.of(), buscar(6, 99, 1));
+        assertEquals(List.of(), buscar(101, 399, 1));
+    }
+
+    private List<PaqueteDisponible> buscar(int desdeDia, int hastaDia, int personas) {
+        return disponibilidad.buscar(HOY.plusDays(desdeDia), HOY.plusDays(hastaDia), personas, null, null, null, 0, 10)
+                             .getElementos();
+    }
+
+    private static CupoPaquete cupo(int dia, int capacidad, int disponibles, long version) {
+        return new CupoPaquete(PAQUETE, fecha(dia), capacidad, disponibles, version);
+    }
+
+    private static Date fecha(int dia) {
+        return Date.valueOf(HOY.plusDays(dia));
+    }
+}
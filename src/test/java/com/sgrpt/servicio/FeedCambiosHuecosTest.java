@@ -0,0 +1,79 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.app.App;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Un cambio cuya transacción confirma después de 'espera-huecos-ms' (su hueco ya se dio por perdido) se aplica
+ * igualmente: el feed sigue consultando los huecos saltados durante la retención.
+ */
+@SpringBootTest(classes = App.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+                properties = "sgrpt.cambios.espera-huecos-ms=300")
+@ActiveProfiles("prueba")
+class FeedCambiosHuecosTest {
+
+    private static final String CAMBIO = "INSERT INTO cambio (entidad, id_entidad, operacion, nodo) "
+                                       + "VALUES ('cliente', 1, 'MODIFICACION', 'otro-nodo')";
+
+    @Autowired
+    private FeedCambios feed;
+
+    @Autowired
+    @Qualifier("dataSourcePrimaria")
+    private DataSource primaria;
+
+    @Test
+    void unaTransaccionLargaQueConfirmaTrasSaltarSuHuecoSeAplica() throws Exception {
+        esperar(() -> "sondeo".equals(feed.obtenerEstadisticas().get("modo")));
+        long descartados = contador("huecosDescartados");
+        long aplicados = contador("aplicados");
+
+        try (Connection larga = primaria.getConnection()) {
+            larga.setAutoCommit(false);
+            try (Statement st = larga.createStatement()) {
+                st.executeUpdate(CAMBIO); // Toma su id_cambio, pero no se ve hasta el commit
+            }
+            try (Connection corta = primaria.getConnection();
+                 Statement st = corta.createStatement()) {
+                st.executeUpdate(CAMBIO);
+            }
+
+            // El hueco se da por perdido y ultimoId lo salta
+            esperar(() -> contador("huecosDescartados") > descartados);
+            esperar(() -> contador("aplicados") > aplicados);
+            assertEquals(0L, contador("huecosRecuperados"));
+            assertTrue((Integer) feed.obtenerEstadisticas().get("huecosVigilados") > 0);
+
+            larga.commit();
+        }
+
+        esperar(() -> contador("huecosRecuperados") == 1);
+        // El contador de recuperados sube al leer el cambio; el de aplicados, al terminar de aplicar la pasada
+        esperar(() -> contador("aplicados") == aplicados + 2);
+        assertEquals(0, feed.obtenerEstadisticas().get("huecosVigilados"));
+    }
+
+    private long contador(String nombre) {
+        return (Long) feed.obtenerEstadisticas().get(nombre);
+    }
+
+    private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + 10_000_000_000L;
+        while (!condicion.getAsBoolean()) {
+            assertTrue(System.nanoTime() < limite, "Tiempo de espera agotado");
+            Thread.sleep(50);
+        }
+    }
+}
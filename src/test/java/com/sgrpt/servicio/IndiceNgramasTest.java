@@ -0,0 +1,90 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.modelo.Coincidencia;
+import com.sgrpt.modelo.Pagina;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Índice de n-gramas sin base de datos: búsqueda por prefijo (sin tildes, varias palabras, prefijos más
+ * largos que los indexados), difusa con erratas, orden por relevancia, paginación y cambios incrementales.
+ */
+class IndiceNgramasTest {
+
+    private record Documento(int id, String texto) { }
+
+    private IndiceNgramas<Documento> indice;
+
+    @BeforeEach
+    void indexar() {
+        indice = new IndiceNgramas<>(Documento::id, documento -> new String[] { documento.texto() });
+        indice.guardar(new Documento(1, "José Álvarez"));
+        indice.guardar(new Documento(2, "Josefina Pérez"));
+        indice.guardar(new Documento(3, "Juan José Martínez Rodríguez"));
+        indice.guardar(new Documento(4, "Ana Ramírez"));
+    }
+
+    @Test
+    void prefijoSinTildesYConVariasPalabras() {
+        assertEquals(List.of(1, 2, 3), ids("JOS", false));
+        assertEquals(List.of(1), ids("alvarez", false));
+        assertEquals(List.of(3), ids("jos mart", false));
+        assertEquals(List.of(), ids("jos ana", false));
+        // Más largo que los prefijos indexados: se verifica sobre el texto
+        assertEquals(List.of(3), ids("rodrigue", false));
+        assertEquals(List.of(), ids("rodrigo", false));
+    }
+
+    @Test
+    void lasPalabrasIdenticasVanPrimero() {
+        // "jose" es idéntica en 1 y 3 y solo prefijo en 2; a igual relevancia, orden de indexación
+        assertEquals(List.of(1, 3, 2), ids("jose", false));
+        List<Coincidencia<Documento>> coincidencias = indice.buscar("jose", false, 0, 10).getElementos();
+        assertTrue(coincidencias.get(1).getPuntuacion() > coincidencias.get(2).getPuntuacion());
+    }
+
+    @Test
+    void laBusquedaDifusaToleraErratas() {
+        assertEquals(List.of(), ids("alvares", false));
+        assertEquals(List.of(1), ids("alvares", true));
+        // Comparte más trigramas con Josefina que con José
+        assertEquals(List.of(2, 1, 3), ids("josefna", true));
+        // Sin trigramas (palabras de una o dos letras) equivale a la de prefijo
+        assertEquals(ids("jo", false), ids("jo", true));
+    }
+
+    @Test
+    void paginacionPorDesplazamiento() {
+        Pagina<Coincidencia<Documento>> primera = indice.buscar("jos", false, 0, 2);
+        assertEquals(2, primera.getElementos().size());
+        assertEquals(2, primera.getSiguienteCursor());
+
+        Pagina<Coincidencia<Documento>> segunda = indice.buscar("jos", false, 2, 2);
+        assertEquals(3, segunda.getElementos().get(0).getElemento().id());
+        assertNull(segunda.getSiguienteCursor());
+    }
+
+    @Test
+    void altasCambiosYBajasIncrementales() {
+        indice.guardar(new Documento(4, "Ana Jiménez"));
+        assertEquals(List.of(), ids("ramirez", false));
+        assertEquals(List.of(4), ids("jimenez", false));
+
+        indice.eliminar(1);
+        assertEquals(List.of(), ids("alvarez", false));
+        assertEquals(List.of(3, 2), ids("jose", false));
+        assertEquals(3, indice.tamano());
+    }
+
+    private List<Integer> ids(String consulta, boolean difusa) {
+        return indice.buscar(consulta, difusa, 0, 10).getElementos().stream()
+                     .map(coincidencia -> coincidencia.getElemento().id())
+                     .toList();
+    }
+}
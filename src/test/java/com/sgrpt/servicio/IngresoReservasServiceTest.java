@@ -0,0 +1,118 @@
+package com.sgrpt.servicio;
+
+import com.sgrpt.modelo.EstadoIngreso;
+import com.sgrpt.modelo.Reserva;
+import com.sgrpt.modelo.ResultadoReserva;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ingreso asíncrono sin base de datos: el motor de cupos es un doble que acepta todo (o retiene las reservas
+ * marcadas). Ninguna reserva aceptada por encolar() se queda PENDIENTE para siempre, ni por un apagado
+ * simultáneo ni porque la caché de estados se llene de estados finales.
+ */
+class IngresoReservasServiceTest {
+
+    // numPersonas de las reservas que el doble retiene hasta que se le suelta
+    private static final int RETENIDA = 99;
+
+    // Motor de cupos de prueba: acepta todas las reservas con ids correlativos
+    private static final class CuposDePrueba extends CupoService {
+
+        private final AtomicInteger ids = new AtomicInteger();
+        private final CountDownLatch soltar = new CountDownLatch(1);
+
+        @Override
+        public List<ResultadoReserva> reservarLote(List<Reserva> reservas) {
+            List<ResultadoReserva> resultados = new ArrayList<>(reservas.size());
+            for (Reserva reserva : reservas) {
+                if (reserva.getNumPersonas() == RETENIDA) {
+                    try {
+                        soltar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                reserva.setIdReserva(ids.incrementAndGet());
+                resultados.add(new ResultadoReserva(ResultadoReserva.Estado.ACEPTADA, reserva, null));
+            }
+            return resultados;
+        }
+    }
+
+    @Test
+    void loEncoladoDuranteElApagadoSeEscribe() throws Exception {
+        for (int ronda = 0; ronda < 20; ronda++) {
+            IngresoReservasService ingreso = new IngresoReservasService(new CuposDePrueba(), 100_000, 50, 2, 30);
+            ingreso.iniciar();
+            Queue<String> aceptadas = new ConcurrentLinkedQueue<>();
+            AtomicBoolean seguir = new AtomicBoolean(true);
+            ExecutorService clientes = Executors.newFixedThreadPool(4);
+            for (int h = 0; h < 4; h++) {
+                clientes.execute(() -> {
+                    while (seguir.get()) {
+                        EstadoIngreso estado = ingreso.encolar(reserva(1));
+                        if (estado != null) {
+                            aceptadas.add(estado.getId());
+                        }
+                    }
+                });
+            }
+            Thread.sleep(20);
+            ingreso.detener();
+            seguir.set(false);
+            clientes.shutdown();
+            assertTrue(clientes.awaitTermination(10, TimeUnit.SECONDS));
+
+            for (String id : aceptadas) {
+                assertEquals(EstadoIngreso.Estado.CONFIRMADA, ingreso.obtenerEstado(id).getEstado(),
+                             "Reserva aceptada que no llegó a escribirse: " + id);
+            }
+            assertEquals(0, ingreso.obtenerEstadisticas().get("pendientes"));
+        }
+    }
+
+    @Test
+    void unPendienteNoSeDesalojaAunqueLaCacheSeLlene() throws Exception {
+        CuposDePrueba cupos = new CuposDePrueba();
+        IngresoReservasService ingreso = new IngresoReservasService(cupos, 1_000, 200, 2, 30);
+        ingreso.iniciar();
+        EstadoIngreso retenida = ingreso.encolar(reserva(RETENIDA));
+        assertNotNull(retenida);
+
+        // El otro escritor confirma más reservas de las que caben en la caché de estados
+        int confirmadas = 0;
+        while (confirmadas < 150_000) {
+            if (ingreso.encolar(reserva(1)) != null) {
+                confirmadas++;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        Thread.sleep(200);
+        assertEquals(EstadoIngreso.Estado.PENDIENTE, ingreso.obtenerEstado(retenida.getId()).getEstado());
+
+        cupos.soltar.countDown();
+        ingreso.detener();
+        assertEquals(EstadoIngreso.Estado.CONFIRMADA, ingreso.obtenerEstado(retenida.getId()).getEstado());
+    }
+
+    private static Reserva reserva(int personas) {
+        return new Reserva(Date.valueOf("2030-05-01"), "PENDIENTE", 1, 1, personas, 100.0 * personas);
+    }
+}